@@ -1,11 +1,31 @@
 package com.dat.notebook;
 
+import com.dat.notebook.config.MigrationRunner;
+import com.dat.notebook.repository.NoteRepository;
+import com.dat.notebook.service.AIService;
+import com.dat.notebook.service.AutosaveService;
+import com.dat.notebook.service.SummaryService;
+import com.dat.notebook.service.TagSuggestionService;
+import com.dat.notebook.service.TextAnalysisService;
+import com.dat.notebook.service.TitleSuggestionService;
+import com.dat.notebook.service.ai.KeywordExtractor;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.BackgroundJobs;
+import com.dat.notebook.util.ContentCompressionJob;
+import com.dat.notebook.util.DBConnection;
+import com.dat.notebook.util.MetricsRegistry;
+import com.dat.notebook.util.NoteVersionDAO;
+import com.dat.notebook.util.StartupOrchestrator;
+import com.dat.notebook.util.VersionRetentionJob;
+import com.dat.notebook.util.WriteBehindCounter;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * ========================================
  * SMART NOTEBOOK - SỔ TAY THÔNG MINH
@@ -32,33 +52,115 @@ import javafx.stage.Stage;
  * - Util: Các hàm tiện ích
  */
 public class App extends Application {
+
+    private static final AppLogger LOG = AppLogger.getLogger(App.class);
+
+    /**
+     * Class của màn hình chính - nạp trước (không khởi tạo) trong lúc người
+     * dùng đăng nhập. MainViewV2 chứa HTMLEditor/WebView nên chỉ dựng được
+     * trên FX thread, nhưng phần nạp class thì làm nền được.
+     */
+    private static final String[] MAIN_VIEW_CLASSES = {
+        "com.dat.notebook.controller.MainControllerV2",
+        "javafx.scene.web.HTMLEditor",
+        "javafx.scene.web.WebView",
+        "javafx.scene.web.WebEngine",
+        "javafx.scene.control.ListView",
+        "javafx.scene.control.SplitPane",
+        "javafx.scene.control.ScrollPane"
+    };
     
     @Override
     public void start(Stage primaryStage) throws Exception {
+        StartupOrchestrator startup = StartupOrchestrator.getInstance();
+        
         // Load màn hình đăng nhập
-        Parent root = FXMLLoader.load(getClass().getResource("/views/LoginView.fxml"));
+        Parent root = startup.timed("login-view",
+                () -> FXMLLoader.<Parent>load(getClass().getResource("/views/LoginView.fxml")));
         
         primaryStage.setTitle("SmartNotebook - Đăng nhập");
         primaryStage.setScene(new Scene(root, 900, 600));
         primaryStage.setResizable(false);
         primaryStage.centerOnScreen();
         primaryStage.show();
+        startup.markInteractive("login");
         
-        System.out.println("===========================================");
-        System.out.println("   SMART NOTEBOOK - SỔ TAY THÔNG MINH");
-        System.out.println("   Version 1.0 - Java Desktop Application");
-        System.out.println("===========================================");
+        LOG.info("SMART NOTEBOOK - SỔ TAY THÔNG MINH - Version 1.0");
     }
     
     @Override
     public void stop() throws Exception {
         // Cleanup khi đóng ứng dụng
-        System.out.println("Đang đóng ứng dụng SmartNotebook...");
+        LOG.info("Đang đóng ứng dụng SmartNotebook...");
+        WriteBehindCounter.flushAll();
+        AutosaveService.getInstance().shutdown();
         super.stop();
     }
 
     public static void main(String[] args) {
-        System.out.println("Khởi động SmartNotebook...");
+        LOG.info("Khởi động SmartNotebook...");
+        
+        // Các bước khởi tạo độc lập chạy song song với khởi động JavaFX
+        startStartupTasks();
+        
+        // Chuyển dần version history kiểu cũ sang VersionBlobs (keyframe + delta)
+        BackgroundJobs.scheduleWithFixedDelay("version-delta-conversion",
+                () -> new NoteVersionDAO().convertLegacyVersions(20), 2, 10, TimeUnit.MINUTES);
+        
+        // Đối soát NoteStatistics với Notes để sửa sai lệch của trigger
+        BackgroundJobs.scheduleWithFixedDelay("reconcile-statistics",
+                NoteRepository::reconcileStatistics, 15, 15, TimeUnit.MINUTES);
+        
+        // Dọn các blob nội dung version không còn được tham chiếu
+        BackgroundJobs.scheduleWithFixedDelay("version-blob-gc",
+                () -> new NoteVersionDAO().collectGarbage(), 30, 60, TimeUnit.MINUTES);
+        
+        // Áp chính sách giữ version (theo giờ/ngày/tuần + giới hạn mỗi note)
+        VersionRetentionJob.start(45);
+        
+        // Nén dần HTML lớn có từ trước khi bật ContentCodec
+        ContentCompressionJob.start(120);
+        
+        // Xuất snapshot metrics định kỳ (metrics.report.intervalSeconds, mặc định tắt)
+        MetricsRegistry.getInstance().startReporter();
+        
         launch(args);
     }
+
+    /**
+     * Đăng ký và chạy các bước khởi tạo (song song, theo phụ thuộc).
+     * Timeline từng bước được log khi màn hình đầu tiên đã hiển thị.
+     */
+    private static void startStartupTasks() {
+        StartupOrchestrator.getInstance()
+            // Driver JDBC + SSLContext (sau cấu hình TLS), chưa mở kết nối
+            .task("db-warmup", DBConnection::warmUp)
+            // Schema migrations, rồi đưa snapshot autosave còn sót trong journal vào DB.
+            // Mọi lần đọc Notes lúc khởi động (MainControllerV2.prefetchNotes, lần
+            // loadAllNotes đầu tiên) chờ autosave-recovery xong
+            .task("schema-migration", MigrationRunner::migrate, "db-warmup")
+            .task("autosave-recovery", () -> AutosaveService.getInstance().recoverOnStartup(), "schema-migration")
+            // Stopwords và prompt offline cho các tính năng Smart
+            .task("stopwords", TextAnalysisService::getInstance)
+            .task("ai-prompts", AIService::getInstance)
+            .task("text-services", () -> {
+                SummaryService.getInstance();
+                TitleSuggestionService.getInstance();
+                TagSuggestionService.getInstance();
+                KeywordExtractor.getInstance();
+            }, "stopwords")
+            .task("main-view-classes", App::preloadMainViewClasses)
+            .start();
+    }
+
+    private static void preloadMainViewClasses() {
+        ClassLoader loader = App.class.getClassLoader();
+        for (String className : MAIN_VIEW_CLASSES) {
+            try {
+                Class.forName(className, false, loader);
+            } catch (ClassNotFoundException e) {
+                LOG.debug(() -> "Bỏ qua nạp trước " + className + ": không tìm thấy");
+            }
+        }
+    }
 }
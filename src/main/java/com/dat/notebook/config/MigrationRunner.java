@@ -0,0 +1,358 @@
+package com.dat.notebook.config;
+
+import com.dat.notebook.util.AppLogger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MigrationRunner - Áp dụng các migration SQL có đánh số lúc khởi động.
+ *
+ * Quy ước:
+ * - Script nằm trong classpath: /db/migration/V###__mo_ta.sql
+ * - Thứ tự được khai báo trong /db/migration/migrations.index
+ * - Script được tách batch theo dòng "GO" (như sqlcmd/SSMS)
+ * - Mỗi migration chạy trong 1 transaction; thêm dòng
+ *   "-- migration: no-transaction" vào script nếu có lệnh không được phép
+ *   trong transaction (full-text catalog, ALTER DATABASE...)
+ *
+ * An toàn:
+ * - Bảng schema_version lưu version, mô tả, checksum SHA-256, thời gian chạy
+ * - sp_getapplock (Exclusive, Session) chặn 2 instance chạy migration cùng lúc
+ * - Script đã áp dụng mà bị sửa (checksum khác) => dừng, không chạy tiếp
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class MigrationRunner {
+
+    private static final AppLogger LOG = AppLogger.getLogger(MigrationRunner.class);
+
+    // ==================== CONSTANTS ====================
+
+    private static final String MIGRATION_DIR = "/db/migration/";
+    private static final String INDEX_RESOURCE = MIGRATION_DIR + "migrations.index";
+    private static final String LOCK_RESOURCE = "SmartNotebook.SchemaMigration";
+    private static final int LOCK_TIMEOUT_MS = 30000;
+    private static final String NO_TRANSACTION_DIRECTIVE = "-- migration: no-transaction";
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final Pattern GO_LINE = Pattern.compile("^\\s*GO\\s*$", Pattern.CASE_INSENSITIVE);
+
+    // ==================== SQL ====================
+
+    private static final String SQL_CREATE_VERSION_TABLE =
+        "IF OBJECT_ID('schema_version', 'U') IS NULL " +
+        "CREATE TABLE schema_version (" +
+        "  version INT NOT NULL PRIMARY KEY, " +
+        "  description NVARCHAR(200) NOT NULL, " +
+        "  script NVARCHAR(260) NOT NULL, " +
+        "  checksum CHAR(64) NOT NULL, " +
+        "  installed_on DATETIME NOT NULL DEFAULT GETDATE(), " +
+        "  execution_ms INT NOT NULL)";
+
+    private static final String SQL_FIND_APPLIED =
+        "SELECT version, checksum FROM schema_version";
+
+    private static final String SQL_INSERT_VERSION =
+        "INSERT INTO schema_version (version, description, script, checksum, execution_ms) " +
+        "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SQL_GET_LOCK =
+        "DECLARE @result INT; " +
+        "EXEC @result = sp_getapplock @Resource = ?, @LockMode = 'Exclusive', " +
+        "@LockOwner = 'Session', @LockTimeout = ?; " +
+        "SELECT @result";
+
+    private static final String SQL_RELEASE_LOCK =
+        "EXEC sp_releaseapplock @Resource = ?, @LockOwner = 'Session'";
+
+    // ==================== MODEL ====================
+
+    /**
+     * Một migration đọc từ classpath
+     */
+    static class Migration {
+        final int version;
+        final String description;
+        final String script;
+        final String sql;
+        final String checksum;
+
+        Migration(int version, String description, String script, String sql, String checksum) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.sql = sql;
+            this.checksum = checksum;
+        }
+
+        boolean isTransactional() {
+            return !sql.contains(NO_TRANSACTION_DIRECTIVE);
+        }
+    }
+
+    // ==================== PUBLIC API ====================
+
+    /**
+     * Áp dụng các migration còn thiếu
+     *
+     * @return true nếu schema đã ở version mới nhất
+     */
+    public static boolean migrate() {
+        List<Migration> migrations;
+        try {
+            migrations = loadMigrations();
+        } catch (IOException e) {
+            LOG.error("MigrationRunner: Không đọc được migration scripts - " + e.getMessage());
+            return false;
+        }
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            if (!acquireLock(conn)) {
+                LOG.warn("MigrationRunner: Một tiến trình khác đang chạy migration");
+                return false;
+            }
+            try {
+                return applyPending(conn, migrations);
+            } finally {
+                releaseLock(conn);
+            }
+        } catch (SQLException e) {
+            LOG.error("MigrationRunner: Bỏ qua migration (không kết nối được DB) - " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ==================== CORE ====================
+
+    private static boolean applyPending(Connection conn, List<Migration> migrations) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(SQL_CREATE_VERSION_TABLE);
+        }
+
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(SQL_FIND_APPLIED)) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum").trim());
+            }
+        }
+
+        int count = 0;
+        for (Migration m : migrations) {
+            String checksum = applied.get(m.version);
+            if (checksum != null) {
+                if (!checksum.equalsIgnoreCase(m.checksum)) {
+                    LOG.warn("MigrationRunner: Checksum không khớp cho V" + m.version +
+                        " (" + m.script + ") - script đã bị sửa sau khi áp dụng. Dừng migration.");
+                    return false;
+                }
+                continue;
+            }
+
+            if (!apply(conn, m)) {
+                return false;
+            }
+            count++;
+        }
+
+        if (count > 0) {
+            LOG.info("MigrationRunner: Đã áp dụng " + count + " migration");
+        }
+        return true;
+    }
+
+    private static boolean apply(Connection conn, Migration m) {
+        long start = System.currentTimeMillis();
+        boolean transactional = m.isTransactional();
+        boolean oldAutoCommit = true;
+
+        try {
+            oldAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(!transactional);
+
+            try (Statement st = conn.createStatement()) {
+                for (String batch : splitBatches(m.sql)) {
+                    st.execute(batch);
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_VERSION)) {
+                ps.setInt(1, m.version);
+                ps.setString(2, m.description);
+                ps.setString(3, m.script);
+                ps.setString(4, m.checksum);
+                ps.setInt(5, (int) (System.currentTimeMillis() - start));
+                ps.executeUpdate();
+            }
+
+            if (transactional) {
+                conn.commit();
+            }
+            LOG.info("MigrationRunner: ✓ V" + m.version + " " + m.description +
+                " (" + (System.currentTimeMillis() - start) + " ms)");
+            return true;
+        } catch (SQLException e) {
+            LOG.error("MigrationRunner: ❌ V" + m.version + " thất bại - " + e.getMessage());
+            if (transactional) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    LOG.error("MigrationRunner: Rollback lỗi - " + ex.getMessage());
+                }
+            }
+            return false;
+        } finally {
+            try {
+                conn.setAutoCommit(oldAutoCommit);
+            } catch (SQLException ignored) {
+                // Connection sẽ được đóng ngay sau đó
+            }
+        }
+    }
+
+    // ==================== LOCK ====================
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_GET_LOCK)) {
+            ps.setString(1, LOCK_RESOURCE);
+            ps.setInt(2, LOCK_TIMEOUT_MS);
+            try (ResultSet rs = ps.executeQuery()) {
+                // >= 0: lấy được lock; < 0: timeout / deadlock / lỗi
+                return rs.next() && rs.getInt(1) >= 0;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_RELEASE_LOCK)) {
+            ps.setString(1, LOCK_RESOURCE);
+            ps.execute();
+        } catch (SQLException e) {
+            LOG.error("MigrationRunner: Không release được lock - " + e.getMessage());
+        }
+    }
+
+    // ==================== LOADING ====================
+
+    /**
+     * Đọc danh sách migration theo thứ tự trong migrations.index
+     */
+    static List<Migration> loadMigrations() throws IOException {
+        List<Migration> result = new ArrayList<>();
+        int lastVersion = 0;
+
+        for (String script : readLines(INDEX_RESOURCE)) {
+            Matcher matcher = FILE_NAME.matcher(script);
+            if (!matcher.matches()) {
+                throw new IOException("Tên migration không hợp lệ: " + script);
+            }
+
+            int version = Integer.parseInt(matcher.group(1));
+            if (version <= lastVersion) {
+                throw new IOException("Migration không tăng dần: " + script);
+            }
+            lastVersion = version;
+
+            String description = matcher.group(2).replace('_', ' ');
+            String sql = String.join("\n", readLines(MIGRATION_DIR + script, false));
+            result.add(new Migration(version, description, script, sql, sha256(sql)));
+        }
+        return result;
+    }
+
+    /**
+     * Tách script thành các batch theo dòng "GO"
+     */
+    static List<String> splitBatches(String sql) {
+        List<String> batches = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        for (String line : sql.split("\n")) {
+            if (GO_LINE.matcher(line).matches()) {
+                addBatch(batches, current);
+                current.setLength(0);
+            } else {
+                current.append(line).append('\n');
+            }
+        }
+        addBatch(batches, current);
+        return batches;
+    }
+
+    private static void addBatch(List<String> batches, StringBuilder batch) {
+        String text = batch.toString().trim();
+        // Bỏ batch chỉ chứa comment
+        boolean hasCode = false;
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("--")) {
+                hasCode = true;
+                break;
+            }
+        }
+        if (hasCode) {
+            batches.add(text);
+        }
+    }
+
+    private static List<String> readLines(String resource) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : readLines(resource, true)) {
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> readLines(String resource, boolean trim) throws IOException {
+        try (InputStream is = MigrationRunner.class.getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new IOException("Không tìm thấy " + resource);
+            }
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(trim ? line.trim() : line);
+                }
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * Checksum SHA-256 (hex) của nội dung script đã chuẩn hóa xuống dòng
+     */
+    private static String sha256(String content) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+}
@@ -257,7 +257,7 @@ public class AIAssistantDialogController {
                 Thread.sleep(1000);
                 Platform.runLater(() -> alert.close());
             } catch (InterruptedException e) {
-                e.printStackTrace();
+                Thread.currentThread().interrupt();
             }
         }).start();
     }
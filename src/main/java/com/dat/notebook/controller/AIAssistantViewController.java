@@ -229,9 +229,10 @@ public class AIAssistantViewController {
                 String content = currentNote.getContent();
                 
                 // Run all analyses
-                String summary = aiService.summarizeNote(content);
-                String title = aiService.suggestTitle(content);
-                List<String> tags = aiService.suggestTags(content);
+                AIService.AIResult result = aiService.analyzeNote(content);
+                String summary = result.getSummary();
+                String title = result.getSuggestedTitle();
+                List<String> tags = result.getSuggestedTags();
                 
                 resultSummary = summary;
                 resultTitle = title;
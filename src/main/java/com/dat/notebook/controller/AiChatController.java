@@ -4,6 +4,7 @@ import com.dat.notebook.model.Note;
 import com.dat.notebook.service.SummaryService;
 import com.dat.notebook.service.TagSuggestionService;
 import com.dat.notebook.service.TitleSuggestionService;
+import com.dat.notebook.util.AppLogger;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
@@ -27,6 +28,8 @@ import java.util.concurrent.CompletableFuture;
  */
 public class AiChatController {
 
+    private static final AppLogger LOG = AppLogger.getLogger(AiChatController.class);
+
     @FXML
     private ScrollPane chatScrollPane;
     @FXML
@@ -52,17 +55,16 @@ public class AiChatController {
     @FXML
     public void initialize() {
         try {
-            System.out.println("AiChatController: Initializing...");
+            LOG.debug("AiChatController: Initializing...");
 
             // Initialize NLP services with error handling
             try {
                 summaryService = SummaryService.getInstance();
                 titleService = TitleSuggestionService.getInstance();
                 tagService = TagSuggestionService.getInstance();
-                System.out.println("NLP Services initialized");
+                LOG.debug("NLP Services initialized");
             } catch (Exception e) {
-                System.err.println("Error initializing NLP services: " + e.getMessage());
-                e.printStackTrace();
+                LOG.error("Error initializing NLP services: " + e.getMessage(), e);
                 addAiMessage("⚠️ Lỗi khởi động AI: " + e.getMessage());
             }
 
@@ -75,8 +77,7 @@ public class AiChatController {
                     "Hãy chọn một ghi chú và nhấn các nút bên dưới!");
 
         } catch (Exception e) {
-            System.err.println("AiChatController initialization failed: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("AiChatController initialization failed: " + e.getMessage(), e);
         }
     }
 
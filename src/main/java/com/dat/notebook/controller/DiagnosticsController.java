@@ -0,0 +1,93 @@
+package com.dat.notebook.controller;
+
+import com.dat.notebook.util.MetricsRegistry;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.fxml.FXML;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.util.Duration;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Controller cho màn hình chẩn đoán (ẩn, Ctrl+Shift+D)
+ *
+ * Chức năng:
+ * - Hiển thị snapshot {@link MetricsRegistry} dạng bảng text
+ * - Tự làm mới mỗi 2 giây khi cửa sổ đang mở
+ * - Sao chép snapshot JSON vào clipboard (đính kèm khi báo lỗi hiệu năng)
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class DiagnosticsController {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // ==================== FXML COMPONENTS ====================
+
+    @FXML private TextArea txtSnapshot;
+    @FXML private CheckBox chkAutoRefresh;
+    @FXML private Label lblStatus;
+
+    // ==================== STATE ====================
+
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final Timeline autoRefresh = new Timeline(new KeyFrame(Duration.seconds(2), e -> refresh()));
+
+    // ==================== INITIALIZATION ====================
+
+    @FXML
+    public void initialize() {
+        autoRefresh.setCycleCount(Timeline.INDEFINITE);
+        refresh();
+        autoRefresh.play();
+    }
+
+    /**
+     * Dừng tự làm mới - gọi khi đóng cửa sổ
+     */
+    public void cleanup() {
+        autoRefresh.stop();
+    }
+
+    // ==================== EVENT HANDLERS ====================
+
+    @FXML
+    private void handleRefresh() {
+        refresh();
+    }
+
+    @FXML
+    private void handleToggleAutoRefresh() {
+        if (chkAutoRefresh.isSelected()) {
+            autoRefresh.play();
+        } else {
+            autoRefresh.stop();
+        }
+    }
+
+    @FXML
+    private void handleCopyJson() {
+        ClipboardContent content = new ClipboardContent();
+        content.putString(metrics.snapshotJson());
+        Clipboard.getSystemClipboard().setContent(content);
+        lblStatus.setText("Đã sao chép JSON lúc " + LocalTime.now().format(TIME_FORMAT));
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void refresh() {
+        // Giữ vị trí cuộn khi làm mới
+        double scrollTop = txtSnapshot.getScrollTop();
+        txtSnapshot.setText(metrics.snapshotText());
+        txtSnapshot.setScrollTop(scrollTop);
+        lblStatus.setText("Cập nhật lúc " + LocalTime.now().format(TIME_FORMAT));
+    }
+}
@@ -3,6 +3,8 @@ package com.dat.notebook.controller;
 import com.dat.notebook.model.User;
 import com.dat.notebook.service.AuthService;
 import com.dat.notebook.config.DatabaseConfig;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.StartupOrchestrator;
 import com.dat.notebook.util.TransitionUtil;
 
 import javafx.fxml.FXML;
@@ -30,6 +32,8 @@ import java.util.prefs.Preferences;
  */
 public class LoginController {
 
+    private static final AppLogger LOG = AppLogger.getLogger(LoginController.class);
+
     // ==================== FXML COMPONENTS - LOGIN ====================
 
     @FXML
@@ -116,7 +120,7 @@ public class LoginController {
                 }
                 // Focus on password field since username is prefilled
                 Platform.runLater(() -> passwordField.requestFocus());
-                System.out.println("✓ Loaded remembered username: " + rememberedUsername);
+                LOG.debug("✓ Loaded remembered username: " + rememberedUsername);
             }
         }
     }
@@ -128,11 +132,11 @@ public class LoginController {
         if (rememberMeCheckbox != null && rememberMeCheckbox.isSelected()) {
             prefs.put(PREF_USERNAME, username);
             prefs.putBoolean(PREF_REMEMBER, true);
-            System.out.println("✓ Saved login preference for: " + username);
+            LOG.debug("✓ Saved login preference for: " + username);
         } else {
             prefs.remove(PREF_USERNAME);
             prefs.putBoolean(PREF_REMEMBER, false);
-            System.out.println("✓ Cleared login preferences");
+            LOG.debug("✓ Cleared login preferences");
         }
     }
 
@@ -164,7 +168,10 @@ public class LoginController {
 
         if (user != null) {
             // Login success
-            System.out.println("Đăng nhập thành công: " + user.getDisplayName());
+            LOG.info("Đăng nhập thành công: " + user.getDisplayName());
+
+            // Tải danh sách ghi chú song song với việc dựng màn hình chính
+            MainControllerV2.prefetchNotes(user.getId());
 
             // Save remember-me preference BEFORE navigating
             saveRememberPreference(username);
@@ -192,7 +199,7 @@ public class LoginController {
     @FXML
     private void handleDemoMode() {
         User demoUser = authService.loginAsDemo();
-        System.out.println("Đăng nhập chế độ Demo: " + demoUser.getDisplayName());
+        LOG.info("Đăng nhập chế độ Demo: " + demoUser.getDisplayName());
         navigateToMainScreen();
     }
 
@@ -424,12 +431,17 @@ public class LoginController {
         try {
             // Sử dụng MainViewV2 với HTMLEditor (Rich Text Editor)
             // Nếu muốn dùng bản cũ, đổi thành "/views/MainView.fxml"
+            StartupOrchestrator startup = StartupOrchestrator.getInstance();
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/MainViewV2.fxml"));
-            Parent root = loader.load();
+            Parent root = startup.timed("main-view", loader::<Parent>load);
+            MainControllerV2 mainController = loader.getController();
 
             Stage mainStage = new Stage();
             mainStage.setTitle("SmartNotebook - Sổ tay thông minh v2.0");
 
+            // Shutdown hook: lưu thay đổi đang chờ và flush counters khi đóng cửa sổ
+            mainStage.setOnHidden(e -> mainController.cleanup());
+
             // Kích thước vừa phải, nhưng mặc định maximize để tận dụng không gian
             Scene scene = new Scene(root, 1000, 650);
             mainStage.setScene(scene);
@@ -440,13 +452,14 @@ public class LoginController {
 
             // Show window
             mainStage.show();
+            startup.markInteractive("main");
 
             // Close login window
             Stage loginStage = (Stage) usernameField.getScene().getWindow();
             loginStage.close();
 
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.error("Không thể mở màn hình chính", e);
             showError("Không thể mở màn hình chính: " + e.getMessage());
         }
     }
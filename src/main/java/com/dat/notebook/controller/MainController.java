@@ -4,6 +4,7 @@ import com.dat.notebook.model.Note;
 import com.dat.notebook.model.User;
 import com.dat.notebook.service.AuthService;
 import com.dat.notebook.service.NoteService;
+import com.dat.notebook.util.AppLogger;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -37,6 +38,8 @@ import java.util.stream.Collectors;
 
 public class MainController {
 
+    private static final AppLogger LOG = AppLogger.getLogger(MainController.class);
+
     // ===== LEFT SIDEBAR CONTROLS =====
     @FXML
     private TextField txtSearch;
@@ -133,7 +136,7 @@ public class MainController {
 
         // Only load UI if elements exist
         if (vboxNotesList != null || notesContainer != null) {
-            System.out.println("initialize: vboxNotesList=" + vboxNotesList + ", notesContainer=" + notesContainer);
+            LOG.debug(() -> "initialize: vboxNotesList=" + vboxNotesList + ", notesContainer=" + notesContainer);
             loadNotesIntoList();
 
             // Select first note by default if available AND editor exists
@@ -141,7 +144,7 @@ public class MainController {
                 selectNote(allNotes.get(0));
             }
         } else {
-            System.err.println("initialize: Both vboxNotesList and notesContainer are NULL!");
+            LOG.warn("initialize: Both vboxNotesList and notesContainer are NULL!");
         }
     }
 
@@ -208,31 +211,30 @@ public class MainController {
      */
     private void loadAllNotes() {
         if (currentUser == null) {
-            System.err.println("loadAllNotes: currentUser is NULL!");
+            LOG.warn("loadAllNotes: currentUser is NULL!");
             return;
         }
 
-        System.out.println("loadAllNotes: Loading notes for user ID = " + currentUser.getId() + " ("
+        LOG.debug(() -> "loadAllNotes: Loading notes for user ID = " + currentUser.getId() + " ("
                 + currentUser.getUsername() + ")");
 
         try {
             List<Note> notes = noteService.getNotesByUser(currentUser.getId());
-            System.out.println("loadAllNotes: Found " + notes.size() + " notes from database");
+            LOG.debug("loadAllNotes: Found " + notes.size() + " notes from database");
 
             // ===== DEMO ONLY: Create sample notes =====
             // TODO: Remove this in production - users should create their own notes
             if (notes.isEmpty()) {
-                System.out.println("loadAllNotes: No notes found, creating sample notes...");
+                LOG.debug(() -> "loadAllNotes: No notes found, creating sample notes...");
                 createSampleNotes();
                 notes = noteService.getNotesByUser(currentUser.getId());
-                System.out.println("loadAllNotes: After creating samples, found " + notes.size() + " notes");
+                LOG.debug("loadAllNotes: After creating samples, found " + notes.size() + " notes");
             }
 
             allNotes.setAll(notes);
-            System.out.println("loadAllNotes: allNotes now has " + allNotes.size() + " items");
+            LOG.debug(() -> "loadAllNotes: allNotes now has " + allNotes.size() + " items");
         } catch (Exception e) {
-            System.err.println("Lỗi khi tải ghi chú: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Lỗi khi tải ghi chú: " + e.getMessage(), e);
             allNotes.clear();
         }
     }
@@ -308,8 +310,8 @@ public class MainController {
      * - Sắp xếp theo: newest/oldest
      */
     private void filterAndDisplayNotes() {
-        System.out.println("filterAndDisplayNotes: START with " + allNotes.size() + " total notes");
-        System.out.println("filterAndDisplayNotes: currentFilter=" + currentFilter + ", showFavoritesOnly="
+        LOG.debug(() -> "filterAndDisplayNotes: START with " + allNotes.size() + " total notes");
+        LOG.debug(() -> "filterAndDisplayNotes: currentFilter=" + currentFilter + ", showFavoritesOnly="
                 + showFavoritesOnly + ", currentSort=" + currentSort);
 
         List<Note> filteredNotes = allNotes.stream()
@@ -320,7 +322,7 @@ public class MainController {
                 .sorted(getSortComparator()) // Apply sorting
                 .collect(Collectors.toList());
 
-        System.out.println("filterAndDisplayNotes: After filtering, " + filteredNotes.size() + " notes remain");
+        LOG.debug(() -> "filterAndDisplayNotes: After filtering, " + filteredNotes.size() + " notes remain");
         displayNotesInList(filteredNotes);
         updateNotesCount();
     }
@@ -392,43 +394,42 @@ public class MainController {
     }
 
     private void displayNotesInList(List<Note> notes) {
-        System.out.println("displayNotesInList: CALLED with " + notes.size() + " notes");
+        LOG.debug(() -> "displayNotesInList: CALLED with " + notes.size() + " notes");
 
         // Sử dụng FlowPane notesContainer (từ MainView.fxml) hoặc VBox vboxNotesList
         javafx.scene.layout.Pane targetContainer = null;
 
         if (notesContainer != null) {
-            System.out.println("displayNotesInList: Using FlowPane notesContainer");
+            LOG.debug(() -> "displayNotesInList: Using FlowPane notesContainer");
             targetContainer = notesContainer;
         } else if (vboxNotesList != null) {
-            System.out.println("displayNotesInList: Using VBox vboxNotesList");
+            LOG.debug(() -> "displayNotesInList: Using VBox vboxNotesList");
             targetContainer = vboxNotesList;
         } else {
-            System.err.println("displayNotesInList: No container found!");
+            LOG.warn("displayNotesInList: No container found!");
             return;
         }
 
         targetContainer.getChildren().clear();
 
         if (notes.isEmpty()) {
-            System.out.println("displayNotesInList: Notes empty, showing empty state");
+            LOG.debug(() -> "displayNotesInList: Notes empty, showing empty state");
             VBox emptyState = createEmptyState();
             targetContainer.getChildren().add(emptyState);
             return;
         }
 
-        System.out.println("displayNotesInList: Displaying " + notes.size() + " notes");
+        LOG.debug(() -> "displayNotesInList: Displaying " + notes.size() + " notes");
 
         for (Note note : notes) {
-            System.out.println(
-                    "displayNotesInList: Creating card for note ID=" + note.getId() + ", title=" + note.getTitle());
+            LOG.debug(() -> "displayNotesInList: Creating card for note ID=" + note.getId() + ", title=" + note.getTitle());
             VBox noteCard = createNoteCard(note);
             targetContainer.getChildren().add(noteCard);
         }
 
         // Update note count label
         updateNotesCount();
-        System.out.println("displayNotesInList: COMPLETE");
+        LOG.debug(() -> "displayNotesInList: COMPLETE");
     }
 
     private VBox createEmptyState() {
@@ -452,7 +453,7 @@ public class MainController {
 
     private VBox createNoteCard(Note note) {
         try {
-            System.out.println("createNoteCard: Creating card for note ID=" + note.getId());
+            LOG.debug(() -> "createNoteCard: Creating card for note ID=" + note.getId());
 
             VBox card = new VBox(8);
             card.setPadding(new Insets(14));
@@ -550,12 +551,11 @@ public class MainController {
                 card.getStyleClass().add("note-card-active");
             }
 
-            System.out.println("createNoteCard: Card created successfully for note ID=" + note.getId());
+            LOG.debug(() -> "createNoteCard: Card created successfully for note ID=" + note.getId());
             return card;
 
         } catch (Exception e) {
-            System.err.println("createNoteCard: ERROR creating card for note ID=" + note.getId());
-            e.printStackTrace();
+            LOG.error("createNoteCard: ERROR creating card for note ID=" + note.getId(), e);
 
             // Return simple error card
             VBox errorCard = new VBox();
@@ -692,7 +692,7 @@ public class MainController {
                 boolean success = noteService.updateNote(selectedNote);
 
                 if (success) {
-                    System.out.println("Auto-saved note: " + selectedNote.getTitle());
+                    LOG.info("Auto-saved note: " + selectedNote.getTitle());
                     // Optionally update UI timestamp without full refresh
                     if (lblNoteDate != null && selectedNote.getUpdatedAt() != null) {
                         lblNoteDate.setText(DATE_FORMAT.format(selectedNote.getUpdatedAt()));
@@ -701,11 +701,10 @@ public class MainController {
                         lblNoteTime.setText(TIME_FORMAT.format(selectedNote.getUpdatedAt()).toUpperCase());
                     }
                 } else {
-                    System.err.println("Failed to auto-save note: " + selectedNote.getTitle());
+                    LOG.warn("Failed to auto-save note: " + selectedNote.getTitle());
                 }
             } catch (Exception e) {
-                System.err.println("Lỗi khi lưu ghi chú: " + e.getMessage());
-                e.printStackTrace();
+                LOG.error("Lỗi khi lưu ghi chú: " + e.getMessage(), e);
             }
         }
     }
@@ -741,15 +740,14 @@ public class MainController {
 
                 // Optional: show brief notification
                 String message = newFavoriteState ? "Đã thêm vào yêu thích" : "Đã xóa khỏi yêu thích";
-                System.out.println(message + ": " + note.getTitle());
+                LOG.info(message + ": " + note.getTitle());
             } else {
                 // Revert on failure
                 note.setFavorite(!newFavoriteState);
                 showErrorNotification("Không thể cập nhật trạng thái yêu thích.");
             }
         } catch (Exception e) {
-            System.err.println("Lỗi khi cập nhật favorite: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Lỗi khi cập nhật favorite: " + e.getMessage(), e);
         }
     }
 
@@ -801,8 +799,7 @@ public class MainController {
             // Điều này giữ nguyên maximize state
             stage.getScene().setRoot(root);
         } catch (IOException e) {
-            System.err.println("Error loading TrashView: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error loading TrashView: " + e.getMessage(), e);
             showAlert("Lỗi", "Không thể mở thùng rác: " + e.getMessage());
         }
     }
@@ -1533,7 +1530,7 @@ public class MainController {
      */
     private void showCreatePanel() {
         if (editorPanel == null) {
-            System.err.println("CREATE MODE: editorPanel is null!");
+            LOG.warn("CREATE MODE: editorPanel is null!");
             return;
         }
 
@@ -1,10 +1,22 @@
 package com.dat.notebook.controller;
 
 import com.dat.notebook.model.Note;
+import com.dat.notebook.model.NoteDelta;
+import com.dat.notebook.model.NoteEvent;
 import com.dat.notebook.model.User;
 import com.dat.notebook.service.AuthService;
+import com.dat.notebook.service.AutosaveService;
 import com.dat.notebook.service.NoteServiceV2;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.BackgroundJobs;
+import com.dat.notebook.util.ConnectionCircuitBreaker;
+import com.dat.notebook.util.DBConnection;
+import com.dat.notebook.util.DomainEventBus;
+import com.dat.notebook.util.FlightEvents;
+import com.dat.notebook.util.MetricsRegistry;
 import com.dat.notebook.util.RichTextStyleManager;
+import com.dat.notebook.util.StartupOrchestrator;
+import com.dat.notebook.util.WriteBehindCounter;
 
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -38,13 +50,20 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -66,6 +85,9 @@ import java.util.stream.Collectors;
  */
 public class MainControllerV2 {
 
+    private static final AppLogger LOG = AppLogger.getLogger(MainControllerV2.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
     // ==================== FXML COMPONENTS ====================
 
     // Sidebar
@@ -89,6 +111,11 @@ public class MainControllerV2 {
     private Button btnFilterCompleted;
     @FXML
     private Label lblUsername;
+    @FXML
+    private Label lblConnectionStatus;
+
+    private Consumer<ConnectionCircuitBreaker.State> connectionListener;
+    private DomainEventBus.Subscription noteEventSubscription;
 
     // Center Panel - Notes List
     @FXML
@@ -130,17 +157,30 @@ public class MainControllerV2 {
 
     private final NoteServiceV2 noteService = new NoteServiceV2();
     private final AuthService authService = AuthService.getInstance();
+    private final AutosaveService autosaveService = AutosaveService.getInstance();
 
     // ==================== STATE ====================
 
     private User currentUser;
     private ObservableList<Note> allNotes = FXCollections.observableArrayList();
+    /** Token ROWVERSION của lần tải danh sách trước (0 = chưa tải) */
+    private long notesToken = 0;
     private Note selectedNote = null;
     private AIAssistantViewController currentAIController = null;
     private boolean isCreateMode = false;
     private String currentFilter = "ALL";
     private boolean showFavoritesOnly = false;
     private String currentSort = "NEWEST";
+
+    /** Lần tải danh sách đầu tiên, bắt đầu ở LoginController trước khi dựng màn hình */
+    private static CompletableFuture<NoteDelta> prefetchedNotes;
+    private static int prefetchedUserId;
+    /** Bước khởi động (App) phải xong trước lần đọc Notes đầu tiên: migration + khôi phục autosave */
+    private static final String STARTUP_NOTES_READY = "autosave-recovery";
+    /** Đang có lần tải danh sách chạy nền (loadAllNotes) */
+    private boolean notesLoading = false;
+    /** Có yêu cầu tải lại trong lúc đang tải - chạy thêm một lần khi xong */
+    private boolean notesReloadRequested = false;
     private String selectedColor = "#ffffff";
 
     // ==================== EDITOR TOOLBAR ====================
@@ -152,6 +192,8 @@ public class MainControllerV2 {
     private static final long AUTO_SAVE_DELAY_MS = 1500; // 1.5 giây
     private boolean hasUnsavedChanges = false;
     private String lastSavedContent = "";
+    /** UpdatedAt (trên DB) của ghi chú khi nội dung được nạp vào editor - mốc xung đột cho autosave */
+    private LocalDateTime editorBaseUpdatedAt;
 
     // ==================== FORMATTERS ====================
 
@@ -167,7 +209,7 @@ public class MainControllerV2 {
 
     @FXML
     public void initialize() {
-        System.out.println("MainControllerV2: Initializing...");
+        LOG.info("MainControllerV2: Initializing...");
 
         // Get current user
         currentUser = authService.getCurrentUser();
@@ -182,6 +224,7 @@ public class MainControllerV2 {
         }
 
         // Setup components
+        setupConnectionStatus();
         setupSortComboBox();
         setupColorPicker();
         setupSearchListener();
@@ -192,6 +235,7 @@ public class MainControllerV2 {
         // Load notes
         loadAllNotes();
         displayNotesList();
+        setupNoteEvents();
 
         // Set default active button
         setActiveNavButton(btnAllNotes);
@@ -211,18 +255,68 @@ public class MainControllerV2 {
                     webView.getEngine().getLoadWorker().stateProperty().addListener((obs, old, state) -> {
                         if (state == javafx.concurrent.Worker.State.SUCCEEDED) {
                             // RichTextStyleManager.initializeRichTextProtection(webView);
-                            System.out.println("✅ WebView initialized for HTML Editor");
+                            LOG.info("✅ WebView initialized for HTML Editor");
                         }
                     });
                 }
             }
         });
 
-        System.out.println("MainControllerV2: Initialization complete");
+        LOG.info("MainControllerV2: Initialization complete");
     }
 
     // ==================== SETUP METHODS ====================
 
+    /**
+     * Hiển thị trạng thái kết nối DB theo circuit breaker
+     */
+    private void setupConnectionStatus() {
+        ConnectionCircuitBreaker breaker = DBConnection.getCircuitBreaker();
+        connectionListener = this::showConnectionStatus;
+        breaker.addListener(connectionListener);
+        showConnectionStatus(breaker.getState());
+    }
+
+    /**
+     * Nhận thay đổi ghi chú từ mọi view (qua DomainEventBus) thay vì tải lại
+     * danh sách sau mỗi thao tác
+     */
+    private void setupNoteEvents() {
+        noteEventSubscription = DomainEventBus.getInstance()
+                .subscribe("MainControllerV2", Platform::runLater, this::applyNoteEvents);
+    }
+
+    /**
+     * Gỡ các listener toàn cục khi rời màn hình này
+     */
+    private void detachListeners() {
+        DBConnection.getCircuitBreaker().removeListener(connectionListener);
+        DomainEventBus.getInstance().unsubscribe(noteEventSubscription);
+        noteEventSubscription = null;
+    }
+
+    private void showConnectionStatus(ConnectionCircuitBreaker.State state) {
+        Platform.runLater(() -> {
+            if (lblConnectionStatus == null) {
+                return;
+            }
+            switch (state) {
+                case CLOSED:
+                    lblConnectionStatus.setText("● Đã kết nối");
+                    lblConnectionStatus.setStyle("-fx-text-fill: #10b981;");
+                    break;
+                case HALF_OPEN:
+                    lblConnectionStatus.setText("● Đang kết nối lại...");
+                    lblConnectionStatus.setStyle("-fx-text-fill: #f59e0b;");
+                    break;
+                default:
+                    lblConnectionStatus.setText("● Offline");
+                    lblConnectionStatus.setStyle("-fx-text-fill: #ef4444;");
+                    break;
+            }
+        });
+    }
+
     /**
      * Setup sort combo box
      */
@@ -350,7 +444,7 @@ public class MainControllerV2 {
      * Check if content changed and trigger auto-save
      */
     private void checkForChangesAndSave() {
-        if (selectedNote == null || htmlEditor == null || isCreateMode)
+        if (selectedNote == null || htmlEditor == null || isCreateMode || !selectedNote.isHtmlLoaded())
             return;
 
         String currentContent = htmlEditor.getHtmlText();
@@ -378,11 +472,18 @@ public class MainControllerV2 {
      * Perform actual auto-save
      */
     private void performAutoSave() {
-        if (selectedNote == null || !hasUnsavedChanges)
+        if (selectedNote == null || !hasUnsavedChanges || !selectedNote.isHtmlLoaded())
             return;
 
         updateSaveStatus("Đang lưu...", "#3b82f6");
+        METRICS.timed("ui.autosave", this::saveSelectedNote);
+    }
 
+    /**
+     * Autosave (debounce): ghi nội dung editor vào selectedNote, journal cục bộ
+     * trước, lưu thẳng qua service nếu journal không dùng được
+     */
+    private void saveSelectedNote() {
         try {
             // Get content from HTMLEditor
             String htmlContent = htmlEditor.getHtmlText();
@@ -393,26 +494,73 @@ public class MainControllerV2 {
             selectedNote.setHtmlContent(htmlContent);
             selectedNote.setUpdatedAt(LocalDateTime.now());
 
-            // Save via service
+            // Ghi vào journal cục bộ trước (fsync), DB được cập nhật trên thread nền
+            if (autosaveService.record(selectedNote.getId(), selectedNote.getUserId(), title, htmlContent,
+                    editorBaseUpdatedAt)) {
+                lastSavedContent = htmlContent;
+                hasUnsavedChanges = false;
+                updateSaveStatus("✔ Đã lưu", "#10b981");
+
+                // selectedNote nằm trong allNotes - chỉ vẽ lại preview, không tải lại từ DB
+                displayNotesList();
+                return;
+            }
+
+            // Journal không dùng được - lưu thẳng qua service
             boolean success = noteService.updateNote(selectedNote);
 
             if (success) {
+                markSelectedNoteSaved();
                 lastSavedContent = htmlContent;
                 hasUnsavedChanges = false;
                 updateSaveStatus("✔ Đã lưu", "#10b981");
+                // Danh sách được cập nhật qua NoteSaved trên DomainEventBus
+            } else {
+                updateSaveStatus("⚠ Lỗi lưu", "#ef4444");
+            }
+        } catch (Exception e) {
+            LOG.error("Auto-save error: " + e.getMessage());
+            updateSaveStatus("⚠ Lỗi: " + e.getMessage(), "#ef4444");
+        }
+    }
 
-                // Refresh notes list để update preview
-                loadAllNotes();
-                displayNotesList();
+    /**
+     * Save tường minh: ghi thẳng vào DB qua service (không qua journal) rồi
+     * đánh dấu snapshot autosave đang chờ của ghi chú là đã áp dụng
+     */
+    private void saveSelectedNoteNow() {
+        if (autoSaveTask != null) {
+            autoSaveTask.cancel(false);
+        }
+        try {
+            String htmlContent = htmlEditor.getHtmlText();
+            selectedNote.setTitle(txtNoteTitle.getText());
+            selectedNote.setHtmlContent(htmlContent);
+
+            updateSaveStatus("Đang lưu...", "#3b82f6");
+            if (noteService.updateNote(selectedNote)) {
+                markSelectedNoteSaved();
+                lastSavedContent = htmlContent;
+                hasUnsavedChanges = false;
+                updateSaveStatus("✔ Đã lưu", "#10b981");
             } else {
                 updateSaveStatus("⚠ Lỗi lưu", "#ef4444");
             }
         } catch (Exception e) {
-            System.err.println("Auto-save error: " + e.getMessage());
+            LOG.error("Save error: " + e.getMessage());
             updateSaveStatus("⚠ Lỗi: " + e.getMessage(), "#ef4444");
         }
     }
 
+    /**
+     * selectedNote vừa được ghi thẳng vào DB: snapshot autosave cũ hơn không
+     * còn cần áp dụng, autosave tiếp theo lấy UpdatedAt mới làm mốc
+     */
+    private void markSelectedNoteSaved() {
+        autosaveService.markSaved(selectedNote.getId());
+        editorBaseUpdatedAt = selectedNote.getUpdatedAt();
+    }
+
     /**
      * Update save status label
      */
@@ -459,6 +607,11 @@ public class MainControllerV2 {
                             RichTextStyleManager.toggleUnderline((WebView) htmlEditor.lookup(".web-view"));
                         });
 
+                // Ctrl+Shift+D = Màn hình chẩn đoán (ẩn)
+                scene.getAccelerators().put(
+                        new KeyCodeCombination(KeyCode.D, KeyCombination.CONTROL_DOWN, KeyCombination.SHIFT_DOWN),
+                        this::handleShowDiagnostics);
+
             }
         });
     }
@@ -535,7 +688,7 @@ public class MainControllerV2 {
                 // Toggle bold with our improved method
                 RichTextStyleManager.toggleBold(webView);
                 
-                System.out.println("🟠 Bold button clicked - custom handler");
+                LOG.debug("🟠 Bold button clicked - custom handler");
             });
             
             boldBtn.setFocusTraversable(false);
@@ -559,7 +712,7 @@ public class MainControllerV2 {
                 // Toggle italic with our improved method
                 RichTextStyleManager.toggleItalic(webView);
                 
-                System.out.println("🔴 Italic button clicked - custom handler");
+                LOG.debug("🔴 Italic button clicked - custom handler");
             });
             
             italicBtn.setFocusTraversable(false);
@@ -583,7 +736,7 @@ public class MainControllerV2 {
                 // Toggle underline with our improved method
                 RichTextStyleManager.toggleUnderline(webView);
                 
-                System.out.println("🟢 Underline button clicked - custom handler");
+                LOG.debug("🟢 Underline button clicked - custom handler");
             });
             
             underlineBtn.setFocusTraversable(false);
@@ -638,7 +791,7 @@ public class MainControllerV2 {
                                         "    if (window.javaBridge) window.javaBridge.updateState(b, i, u);" +
                                         "});");
                     } catch (Exception e) {
-                        System.err.println("Error setting up JS Bridge: " + e.getMessage());
+                        LOG.error("Error setting up JS Bridge: " + e.getMessage());
                     }
                 }
             });
@@ -648,19 +801,216 @@ public class MainControllerV2 {
     // ==================== LOAD & DISPLAY ====================
 
     /**
-     * Load all notes from service
+     * Bắt đầu tải danh sách ghi chú ở nền (gọi ngay sau khi đăng nhập) để
+     * truy vấn DB chạy song song với việc dựng MainViewV2 trên FX thread;
+     * lần loadAllNotes() đầu tiên dùng lại kết quả này. Chỉ đọc Notes sau
+     * khi migration và khôi phục autosave (bước "autosave-recovery") xong.
+     *
+     * @param userId ID người dùng vừa đăng nhập
+     */
+    public static synchronized void prefetchNotes(int userId) {
+        if (userId <= 0) {
+            return;
+        }
+        prefetchedUserId = userId;
+        prefetchedNotes = StartupOrchestrator.getInstance()
+                .supply("notes-prefetch", () -> new NoteServiceV2().getNoteChanges(userId, 0),
+                        STARTUP_NOTES_READY);
+    }
+
+    /**
+     * Lấy (một lần) kết quả prefetch nếu đúng user, null nếu không có
+     */
+    private static synchronized CompletableFuture<NoteDelta> takePrefetchedNotes(int userId) {
+        CompletableFuture<NoteDelta> prefetched = prefetchedUserId == userId ? prefetchedNotes : null;
+        prefetchedNotes = null;
+        prefetchedUserId = 0;
+        return prefetched;
+    }
+
+    /**
+     * Delta từ lần tải trước, đọc ở nền; lần đầu dùng kết quả prefetch nếu có,
+     * không có thì chờ bước khởi động "autosave-recovery" rồi mới đọc Notes
+     */
+    private CompletableFuture<NoteDelta> fetchNoteChanges(int userId, long token) {
+        CompletableFuture<NoteDelta> prefetched = token == 0 ? takePrefetchedNotes(userId) : null;
+        if (prefetched == null) {
+            return readNoteChanges(userId, token);
+        }
+        return prefetched.handle((delta, error) -> {
+            if (error != null) {
+                LOG.warn("Prefetch ghi chú lỗi, tải lại: " + error.getCause());
+            }
+            return error == null ? delta : null;
+        }).thenCompose(delta -> delta != null
+                ? CompletableFuture.completedFuture(delta)
+                : readNoteChanges(userId, token));
+    }
+
+    private CompletableFuture<NoteDelta> readNoteChanges(int userId, long token) {
+        CompletableFuture<Void> ready = token == 0
+                ? StartupOrchestrator.getInstance().await(STARTUP_NOTES_READY)
+                : CompletableFuture.completedFuture(null);
+        return ready.handle((ignored, error) -> null)
+                .thenCompose(ignored -> BackgroundJobs.supply("notes-load", () -> {
+                    NoteDelta delta = noteService.getNoteChanges(userId, token);
+                    if (delta != null) {
+                        return delta;
+                    }
+                    // Không lấy được delta: tải toàn bộ, token 0 => lần sau cũng tải toàn bộ
+                    return new NoteDelta(0, true, noteService.getNotesByUser(userId), new ArrayList<>());
+                }));
+    }
+
+    /**
+     * Load notes from service - chỉ tải phần thay đổi từ lần trước (delta theo
+     * ROWVERSION) rồi gộp vào allNotes; tải toàn bộ ở lần đầu hoặc khi không
+     * lấy được delta. Truy vấn chạy ở nền, kết quả gộp trên FX thread rồi vẽ
+     * lại danh sách; trong lúc chờ danh sách hiện trạng thái "đang tải".
      */
     private void loadAllNotes() {
         if (currentUser == null)
             return;
+        if (notesLoading) {
+            // Lần tải đang chạy có thể đã đọc trước thay đổi mới - tải tiếp sau khi xong
+            notesReloadRequested = true;
+            return;
+        }
 
-        try {
-            List<Note> notes = noteService.getNotesByUser(currentUser.getId());
-            allNotes.setAll(notes);
-            System.out.println("Loaded " + notes.size() + " notes for user " + currentUser.getUsername());
-        } catch (Exception e) {
-            System.err.println("Error loading notes: " + e.getMessage());
+        notesLoading = true;
+        int userId = currentUser.getId();
+        fetchNoteChanges(userId, notesToken).whenComplete((delta, error) -> Platform.runLater(() -> {
+            notesLoading = false;
+            if (currentUser == null || currentUser.getId() != userId) {
+                return;
+            }
+            applyLoadedNotes(delta, error);
+            dropMissingSelection();
+            displayNotesList();
+            if (notesReloadRequested) {
+                notesReloadRequested = false;
+                loadAllNotes();
+            }
+        }));
+    }
+
+    /**
+     * Gộp kết quả tải danh sách vào allNotes (FX thread)
+     */
+    private void applyLoadedNotes(NoteDelta delta, Throwable error) {
+        if (error != null || delta == null) {
+            LOG.error("Error loading notes: " + (error != null ? error.getMessage() : "no result"));
             allNotes.clear();
+            notesToken = 0;
+            return;
+        }
+
+        autosaveService.overlayPending(delta.getChangedNotes());
+        if (delta.isFullReload()) {
+            allNotes.setAll(delta.getChangedNotes());
+            LOG.debug("Loaded " + allNotes.size() + " notes for user " + currentUser.getUsername());
+        } else if (!delta.isEmpty()) {
+            mergeNoteChanges(delta);
+            LOG.debug("Merged " + delta.getChangedNotes().size() + " changed, "
+                    + delta.getRemovedNoteIds().size() + " removed notes");
+        }
+        notesToken = delta.getToken();
+    }
+
+    /**
+     * Gộp delta vào allNotes: thay / thêm ghi chú thay đổi, gỡ ghi chú đã vào
+     * thùng rác hoặc bị xóa hẳn. Ghi chú đang mở còn thay đổi chưa lưu được giữ nguyên.
+     */
+    private void mergeNoteChanges(NoteDelta delta) {
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < allNotes.size(); i++) {
+            positions.put(allNotes.get(i).getId(), i);
+        }
+
+        Set<Integer> removed = new HashSet<>(delta.getRemovedNoteIds());
+        for (Note changed : delta.getChangedNotes()) {
+            Integer position = positions.get(changed.getId());
+            if (changed.isArchived()) {
+                removed.add(changed.getId());
+            } else if (position == null) {
+                positions.put(changed.getId(), allNotes.size());
+                allNotes.add(changed);
+            } else {
+                Note current = allNotes.get(position);
+                if (current == selectedNote && hasUnsavedChanges) {
+                    continue;
+                }
+                allNotes.set(position, changed);
+                if (current == selectedNote) {
+                    selectedNote = changed;
+                    if (currentAIController != null) {
+                        currentAIController.setNote(changed);
+                    }
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            allNotes.removeIf(note -> removed.contains(note.getId()));
+        }
+    }
+
+    /**
+     * Áp dụng lô sự kiện (đã gộp) từ DomainEventBus: ghi chú đã lưu được
+     * upsert, ghi chú vào thùng rác / bị xóa được gỡ; chỉ khi sự kiện không
+     * mang đủ dữ liệu mới tải delta từ DB. Vẽ lại danh sách một lần cho cả lô.
+     */
+    private void applyNoteEvents(List<NoteEvent> events) {
+        if (currentUser == null)
+            return;
+
+        List<Note> changed = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        boolean reload = false;
+        for (NoteEvent event : events) {
+            if (event.getUserId() > 0 && event.getUserId() != currentUser.getId()) {
+                continue;
+            }
+            if (event instanceof NoteEvent.NoteSaved) {
+                Note note = ((NoteEvent.NoteSaved) event).getNote();
+                if (note != null) {
+                    changed.add(note);
+                } else {
+                    reload = true;
+                }
+            } else if (event instanceof NoteEvent.NoteArchived || event instanceof NoteEvent.NoteDeleted) {
+                removed.add(event.getNoteId());
+            } else if (event instanceof NoteEvent.NoteRestored) {
+                reload = true;
+            } else if (event instanceof NoteEvent.ResyncRequired) {
+                notesToken = 0;
+                reload = true;
+            }
+            // TagsChanged: danh sách không hiển thị tag
+        }
+
+        if (!changed.isEmpty() || !removed.isEmpty()) {
+            mergeNoteChanges(new NoteDelta(notesToken, false, changed, removed));
+        }
+        if (notesLoading && (!changed.isEmpty() || !removed.isEmpty())) {
+            // Kết quả tải đang chạy có thể cũ hơn các thay đổi vừa gộp
+            notesReloadRequested = true;
+        }
+        if (reload) {
+            loadAllNotes();
+        }
+        dropMissingSelection();
+        if (!changed.isEmpty() || !removed.isEmpty()) {
+            displayNotesList();
+        }
+    }
+
+    /**
+     * Ghi chú đang mở không còn trong danh sách (vào thùng rác / bị xóa) => đóng editor
+     */
+    private void dropMissingSelection() {
+        if (selectedNote != null && !isCreateMode && !allNotes.contains(selectedNote)) {
+            selectedNote = null;
+            showEmptyEditorState();
         }
     }
 
@@ -671,28 +1021,42 @@ public class MainControllerV2 {
         if (vboxNotesList == null)
             return;
 
-        // Apply filters
-        List<Note> filteredNotes = allNotes.stream()
-                .filter(this::matchesSearchFilter)
-                .filter(this::matchesStatusFilter)
-                .filter(this::matchesFavoriteFilter)
-                .sorted(getSortComparator())
-                .collect(Collectors.toList());
+        // Thời gian dựng lại scene graph của danh sách (layout/paint nằm ở pulse kế tiếp)
+        METRICS.timed("ui.renderNoteList", () -> {
+            FlightEvents.UiRebuildEvent rebuildEvent = FlightEvents.UiRebuildEvent.start("noteList");
+            FlightEvents.SearchEvent searchEvent = FlightEvents.SearchEvent.start("noteList");
+
+            // Apply filters
+            List<Note> filteredNotes = allNotes.stream()
+                    .filter(this::matchesSearchFilter)
+                    .filter(this::matchesStatusFilter)
+                    .filter(this::matchesFavoriteFilter)
+                    .sorted(getSortComparator())
+                    .collect(Collectors.toList());
+
+            String query = txtSearch != null ? txtSearch.getText() : null;
+            if (query != null && !query.trim().isEmpty()) {
+                searchEvent.finish(query.trim(), filteredNotes.size());
+            }
 
-        // Clear and rebuild list
-        vboxNotesList.getChildren().clear();
+            // Clear and rebuild list
+            vboxNotesList.getChildren().clear();
 
-        if (filteredNotes.isEmpty()) {
-            showEmptyListState();
-        } else {
-            for (Note note : filteredNotes) {
-                VBox noteCard = createNoteCard(note);
-                vboxNotesList.getChildren().add(noteCard);
+            if (filteredNotes.isEmpty() && notesLoading && allNotes.isEmpty()) {
+                showLoadingListState();
+            } else if (filteredNotes.isEmpty()) {
+                showEmptyListState();
+            } else {
+                for (Note note : filteredNotes) {
+                    VBox noteCard = createNoteCard(note);
+                    vboxNotesList.getChildren().add(noteCard);
+                }
             }
-        }
 
-        // Update count
-        updateNotesCount(filteredNotes.size());
+            // Update count
+            updateNotesCount(filteredNotes.size());
+            rebuildEvent.finish(filteredNotes.size());
+        });
     }
 
     /**
@@ -858,6 +1222,24 @@ public class MainControllerV2 {
         vboxNotesList.getChildren().add(emptyState);
     }
 
+    /**
+     * Danh sách đang tải lần đầu (chưa có ghi chú nào để hiển thị)
+     */
+    private void showLoadingListState() {
+        VBox loadingState = new VBox(15);
+        loadingState.setAlignment(Pos.CENTER);
+        loadingState.setPadding(new Insets(40, 20, 40, 20));
+
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setMaxSize(36, 36);
+
+        Label text = new Label("Đang tải ghi chú...");
+        text.setStyle("-fx-font-size: 14px; -fx-text-fill: #6b7280;");
+
+        loadingState.getChildren().addAll(progress, text);
+        vboxNotesList.getChildren().add(loadingState);
+    }
+
     /**
      * Show empty editor state
      */
@@ -963,8 +1345,12 @@ public class MainControllerV2 {
         if (btnDelete != null)
             btnDelete.setDisable(false);
 
-        // Display note content
-        displayNoteInEditor(note);
+        // Display note content - danh sách không chứa HTML, tải khi mở editor
+        if (note.isHtmlLoaded()) {
+            displayNoteInEditor(note);
+        } else {
+            loadHtmlAndDisplay(note);
+        }
 
         // Update AI view if it's currently visible
         if (currentAIController != null) {
@@ -975,6 +1361,32 @@ public class MainControllerV2 {
         displayNotesList();
     }
 
+    /**
+     * Tải HtmlContent ở nền rồi mới hiển thị; editor bị khóa trong lúc chờ
+     * (auto-save bỏ qua note chưa có HTML nên nội dung tạm không bị lưu đè)
+     */
+    private void loadHtmlAndDisplay(Note note) {
+        if (htmlEditor != null) {
+            htmlEditor.setDisable(true);
+        }
+        updateSaveStatus("Đang tải nội dung...", "#64748b");
+        CompletableFuture.supplyAsync(() -> noteService.loadHtmlContent(note))
+                .whenComplete((loaded, error) -> Platform.runLater(() -> {
+                    if (selectedNote != note) {
+                        return;
+                    }
+                    if (error != null || !Boolean.TRUE.equals(loaded)) {
+                        LOG.warn("Không tải được nội dung ghi chú " + note.getId() + ": " + error);
+                        updateSaveStatus("✗ Không tải được nội dung", "#ef4444");
+                        return;
+                    }
+                    if (htmlEditor != null) {
+                        htmlEditor.setDisable(false);
+                    }
+                    displayNoteInEditor(note);
+                }));
+    }
+
     /**
      * Display note in editor
      */
@@ -1033,6 +1445,7 @@ public class MainControllerV2 {
 
         updateSaveStatus("", "");
         hasUnsavedChanges = false;
+        editorBaseUpdatedAt = note.getUpdatedAt();
     }
 
     // ==================== EVENT HANDLERS - SIDEBAR ====================
@@ -1051,8 +1464,8 @@ public class MainControllerV2 {
 
     @FXML
     private void handleShowFavorites() {
-        System.out.println("=== handleShowFavorites called ===");
-        System.out.println("btnFavorites is null? " + (btnFavorites == null));
+        LOG.debug("=== handleShowFavorites called ===");
+        LOG.debug("btnFavorites is null? " + (btnFavorites == null));
         currentFilter = "ALL";
         showFavoritesOnly = true;
         lblContentTitle.setText("Yêu thích");
@@ -1074,6 +1487,7 @@ public class MainControllerV2 {
             // Thay thế root của scene hiện tại thay vì tạo scene mới
             // Điều này giữ nguyên maximize state
             stage.getScene().setRoot(root);
+            detachListeners();
         } catch (IOException e) {
             showAlert(Alert.AlertType.ERROR, "Lỗi", "Không thể mở thùng rác: " + e.getMessage());
         }
@@ -1116,8 +1530,8 @@ public class MainControllerV2 {
     private static final String ACTIVE_BTN_STYLE = "-fx-background-color: #FFA000; -fx-text-fill: white; -fx-font-weight: bold; -fx-border-color: #F57C00; -fx-border-width: 0 0 0 4; -fx-background-radius: 0 12 12 0;";
 
     private void setActiveNavButton(Button activeBtn) {
-        System.out.println("=== setActiveNavButton called ===");
-        System.out.println("Active button: " + (activeBtn != null ? activeBtn.getText() : "null"));
+        LOG.debug("=== setActiveNavButton called ===");
+        LOG.debug("Active button: " + (activeBtn != null ? activeBtn.getText() : "null"));
 
         Button[] allButtons = new Button[] { btnAllNotes, btnFavorites, btnAIAssistant, btnTrash };
 
@@ -1142,7 +1556,7 @@ public class MainControllerV2 {
             if (!activeBtn.getStyleClass().contains("sidebar-btn-active")) {
                 activeBtn.getStyleClass().add("sidebar-btn-active");
             }
-            System.out.println("Applied active style to: " + activeBtn.getText());
+            LOG.debug("Applied active style to: " + activeBtn.getText());
         }
     }
 
@@ -1255,15 +1669,14 @@ public class MainControllerV2 {
                         "Ghi chú \"" + title + "\" đã được tạo!");
 
                 isCreateMode = false;
-                loadAllNotes();
-                displayNotesList();
+                // NoteSaved trên DomainEventBus thêm ghi chú vào danh sách
                 selectNote(created);
             } else {
                 showAlert(Alert.AlertType.ERROR, "Lỗi", "Không thể tạo ghi chú!");
             }
-        } else if (selectedNote != null) {
-            // Update existing note
-            performAutoSave();
+        } else if (selectedNote != null && selectedNote.isHtmlLoaded()) {
+            // Update existing note - Save không đi qua journal như autosave
+            saveSelectedNoteNow();
         }
     }
 
@@ -1289,8 +1702,6 @@ public class MainControllerV2 {
                         "Ghi chú đã được chuyển vào thùng rác!");
 
                 selectedNote = null;
-                loadAllNotes();
-                displayNotesList();
                 showEmptyEditorState();
             } else {
                 showAlert(Alert.AlertType.ERROR, "Lỗi", "Không thể xóa ghi chú!");
@@ -1312,6 +1723,7 @@ public class MainControllerV2 {
         boolean success = noteService.updateNote(selectedNote);
 
         if (success) {
+            markSelectedNoteSaved();
             boolean isFav = newState;
             btnFavorite.setText(isFav ? "⭐" : "☆");
             if (isFav) {
@@ -1321,8 +1733,6 @@ public class MainControllerV2 {
             } else {
                 btnFavorite.getStyleClass().remove("favorite-active");
             }
-            loadAllNotes();
-            displayNotesList();
         } else {
             selectedNote.setFavorite(!newState); // Revert
             showAlert(Alert.AlertType.ERROR, "Lỗi", "Không thể cập nhật!");
@@ -1349,9 +1759,8 @@ public class MainControllerV2 {
             boolean success = noteService.updateNote(selectedNote);
 
             if (success) {
+                markSelectedNoteSaved();
                 lblStatus.setText(status);
-                loadAllNotes();
-                displayNotesList();
             }
         });
     }
@@ -1454,7 +1863,7 @@ public class MainControllerV2 {
             updateSidebarButtonStates(btnAIAssistant);
 
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.error("Không thể mở AI Assistant", e);
             showErrorAlert("Lỗi khi mở AI Assistant: " + e.getMessage());
         }
     }
@@ -1493,6 +1902,26 @@ public class MainControllerV2 {
         }
     }
 
+    /**
+     * Màn hình chẩn đoán hiệu năng (Ctrl+Shift+D) - không modal để vừa
+     * thao tác vừa theo dõi số liệu
+     */
+    private void handleShowDiagnostics() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/DiagnosticsView.fxml"));
+            Parent root = loader.load();
+            DiagnosticsController controller = loader.getController();
+
+            Stage stage = new Stage();
+            stage.setTitle("Chẩn đoán - SmartNotebook");
+            stage.setScene(new Scene(root));
+            stage.setOnHidden(e -> controller.cleanup());
+            stage.show();
+        } catch (IOException e) {
+            LOG.error("Không thể mở màn hình chẩn đoán", e);
+        }
+    }
+
     @FXML
     private void handleLogout() {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
@@ -1507,6 +1936,7 @@ public class MainControllerV2 {
             }
 
             // Logout
+            detachListeners();
             authService.logout();
 
             // Return to login
@@ -1571,6 +2001,11 @@ public class MainControllerV2 {
                 Thread.currentThread().interrupt();
             }
         }
+
+        detachListeners();
+
+        // Ghi các counter write-behind (ViewCount...) còn đang chờ
+        WriteBehindCounter.flushAll();
     }
 
     /**
@@ -2,6 +2,7 @@ package com.dat.notebook.controller;
 
 import com.dat.notebook.model.Note;
 import com.dat.notebook.service.AuthService;
+import com.dat.notebook.util.AppLogger;
 import com.dat.notebook.util.ValidationUtil;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -15,6 +16,8 @@ import java.time.LocalDateTime;
  */
 public class NewNoteDialogController {
 
+    private static final AppLogger LOG = AppLogger.getLogger(NewNoteDialogController.class);
+
     // FXML fields matching the new FXML
     @FXML private TextField titleField;
     @FXML private ComboBox<String> categoryCombo;
@@ -226,9 +229,9 @@ public class NewNoteDialogController {
         // Set UserID from authenticated user
         if (AuthService.getInstance().getCurrentUser() != null) {
             createdNote.setUserId(AuthService.getInstance().getCurrentUser().getId());
-            System.out.println("NewNoteDialog: Set UserID=" + createdNote.getUserId() + " for new note");
+            LOG.debug("NewNoteDialog: Set UserID=" + createdNote.getUserId() + " for new note");
         } else {
-            System.err.println("NewNoteDialog: ERROR - No authenticated user!");
+            LOG.error("NewNoteDialog: ERROR - No authenticated user!");
         }
         
         createdNote.setCreatedAt(LocalDateTime.now());
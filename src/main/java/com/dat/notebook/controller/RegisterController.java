@@ -3,6 +3,7 @@ package com.dat.notebook.controller;
 import com.dat.notebook.model.User;
 import com.dat.notebook.service.UserService;
 import com.dat.notebook.config.DatabaseConfig;
+import com.dat.notebook.util.AppLogger;
 
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -28,6 +29,9 @@ import java.io.IOException;
  * @version 1.0
  */
 public class RegisterController {
+
+    private static final AppLogger LOG = AppLogger.getLogger(RegisterController.class);
+
     
     // ==================== FXML COMPONENTS ====================
     
@@ -230,7 +234,7 @@ public class RegisterController {
             
         } catch (Exception e) {
             // Xử lý exception không mong đợi
-            e.printStackTrace();
+            LOG.error("Lỗi hệ thống khi đăng ký", e);
             showError("❌ Lỗi hệ thống: " + e.getMessage());
             showErrorDialog("Lỗi hệ thống", 
                 "Đã xảy ra lỗi không mong đợi.\n\n" +
@@ -251,7 +255,7 @@ public class RegisterController {
         hideMessage();
         usernameField.requestFocus();
         
-        System.out.println("Form đăng ký đã được làm mới");
+        LOG.debug("Form đăng ký đã được làm mới");
     }
     
     /**
@@ -272,10 +276,10 @@ public class RegisterController {
             stage.setScene(new Scene(root, 900, 600));
             stage.setTitle("SmartNotebook - Đăng nhập");
             
-            System.out.println("Chuyển về màn hình đăng nhập");
+            LOG.debug("Chuyển về màn hình đăng nhập");
             
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.error("Không thể mở màn hình đăng nhập", e);
             showError("Không thể mở màn hình đăng nhập: " + e.getMessage());
         }
     }
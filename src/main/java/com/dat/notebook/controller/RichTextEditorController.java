@@ -4,6 +4,8 @@ import com.dat.notebook.model.Note;
 import com.dat.notebook.model.NoteVersion;
 import com.dat.notebook.service.AuthService;
 import com.dat.notebook.service.NoteService;
+import com.dat.notebook.service.VersionHistoryService;
+import com.dat.notebook.util.AppLogger;
 import com.dat.notebook.util.NoteVersionDAO;
 
 import javafx.application.Platform;
@@ -50,6 +52,9 @@ import java.util.concurrent.TimeUnit;
  * @version 1.0
  */
 public class RichTextEditorController {
+
+    private static final AppLogger LOG = AppLogger.getLogger(RichTextEditorController.class);
+
     
     // ==================== FXML CONTROLS ====================
     
@@ -99,7 +104,7 @@ public class RichTextEditorController {
         setupKeyboardShortcuts();
         updateTabCount();
         
-        System.out.println("RichTextEditorController initialized");
+        LOG.debug("RichTextEditorController initialized");
     }
     
     /**
@@ -402,7 +407,7 @@ public class RichTextEditorController {
             }
             
         } catch (Exception e) {
-            System.err.println("Auto-save error: " + e.getMessage());
+            LOG.error("Auto-save error: " + e.getMessage());
             updateAutoSaveStatus("✗ Lỗi tự động lưu", false);
             return false;
         }
@@ -473,8 +478,7 @@ public class RichTextEditorController {
             }
             
         } catch (Exception e) {
-            System.err.println("Save error: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Save error: " + e.getMessage(), e);
             showAlert("Lỗi: " + e.getMessage(), Alert.AlertType.ERROR);
             return false;
         }
@@ -495,10 +499,10 @@ public class RichTextEditorController {
             version.setChangeDescription(description);
             
             versionDAO.createVersion(version);
-            System.out.println("Created version " + version.getVersionNumber() + " for note " + note.getId());
+            LOG.info("Created version " + version.getVersionNumber() + " for note " + note.getId());
             
         } catch (Exception e) {
-            System.err.println("Error creating version: " + e.getMessage());
+            LOG.error("Error creating version: " + e.getMessage());
         }
     }
     
@@ -542,9 +546,46 @@ public class RichTextEditorController {
         ListView<NoteVersion> versionList = new ListView<>();
         versionList.setPrefHeight(300);
         
-        // Load versions
-        List<NoteVersion> versions = versionDAO.getVersionsByNoteId(note.getId());
-        versionList.getItems().addAll(versions);
+        // Load versions: trang tóm tắt đầu tiên, nội dung tải khi chọn
+        VersionHistoryService historyService = VersionHistoryService.getInstance();
+        VersionHistoryService.Page[] lastPage = {
+            historyService.loadPage(note.getId(), null, VersionHistoryService.DEFAULT_PAGE_SIZE)
+        };
+        versionList.getItems().addAll(lastPage[0].versions);
+        
+        Button btnLoadMore = new Button("Tải thêm phiên bản cũ hơn");
+        btnLoadMore.setVisible(lastPage[0].hasMore);
+        btnLoadMore.setManaged(lastPage[0].hasMore);
+        btnLoadMore.setOnAction(e -> {
+            lastPage[0] = historyService.loadPage(note.getId(), lastPage[0], VersionHistoryService.DEFAULT_PAGE_SIZE);
+            versionList.getItems().addAll(lastPage[0].versions);
+            btnLoadMore.setVisible(lastPage[0].hasMore);
+            btnLoadMore.setManaged(lastPage[0].hasMore);
+        });
+        
+        // Xem trước nội dung version đang chọn
+        WebView preview = new WebView();
+        preview.setPrefHeight(220);
+        versionList.getSelectionModel().selectedIndexProperty().addListener((obs, oldIndex, newIndex) -> {
+            int index = newIndex.intValue();
+            if (index < 0) {
+                return;
+            }
+            NoteVersion selected = versionList.getItems().get(index);
+            String cached = historyService.getCachedBody(selected.getVersionId());
+            if (cached != null) {
+                preview.getEngine().loadContent(cached);
+            } else {
+                preview.getEngine().loadContent("<p style='color:#94a3b8'>Đang tải...</p>");
+                historyService.loadBodyAsync(selected.getVersionId()).thenAccept(html -> Platform.runLater(() -> {
+                    // Bỏ qua nếu người dùng đã chọn version khác trong lúc tải
+                    if (versionList.getSelectionModel().getSelectedItem() == selected) {
+                        preview.getEngine().loadContent(html != null ? html : "<p>Không tải được nội dung</p>");
+                    }
+                }));
+            }
+            historyService.prefetchAdjacent(versionList.getItems(), index);
+        });
         
         // Custom cell factory
         versionList.setCellFactory(lv -> new ListCell<>() {
@@ -588,9 +629,9 @@ public class RichTextEditorController {
         
         buttons.getChildren().addAll(btnRestore, btnClose);
         
-        root.getChildren().addAll(title, versionList, buttons);
+        root.getChildren().addAll(title, versionList, btnLoadMore, preview, buttons);
         
-        javafx.scene.Scene scene = new javafx.scene.Scene(root, 500, 400);
+        javafx.scene.Scene scene = new javafx.scene.Scene(root, 560, 640);
         dialog.setScene(scene);
         dialog.show();
     }
@@ -666,7 +707,7 @@ public class RichTextEditorController {
                 updateStatus("Đã chèn ảnh: " + file.getName());
                 
             } catch (IOException e) {
-                System.err.println("Error inserting image: " + e.getMessage());
+                LOG.error("Error inserting image: " + e.getMessage());
                 showAlert("Lỗi khi chèn ảnh: " + e.getMessage(), Alert.AlertType.ERROR);
             }
         }
@@ -1,5 +1,7 @@
 package com.dat.notebook.controller;
 
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.StartupOrchestrator;
 import com.dat.notebook.util.TransitionUtil;
 import javafx.animation.*;
 import javafx.application.Platform;
@@ -20,13 +22,16 @@ import java.io.IOException;
  * 
  * Hiển thị màn hình khởi động với:
  * - Animation breathing cho logo
- * - Progress bar mượt mà
+ * - Progress bar theo tiến độ khởi tạo thật (StartupOrchestrator)
  * - Fade in/out transitions
  * 
  * @author SmartNotebook Team
  * @version 2.0
  */
 public class SplashController {
+
+    private static final AppLogger LOG = AppLogger.getLogger(SplashController.class);
+
     
     // ==================== FXML COMPONENTS ====================
     
@@ -45,6 +50,13 @@ public class SplashController {
         "🚀 Almost there..."
     };
     
+    private static final int POLL_MS = 100;
+    
+    // ==================== STATE ====================
+    
+    private double shownProgress = 0;
+    private int shownStep = -1;
+    
     // ==================== INITIALIZATION ====================
     
     @FXML
@@ -78,39 +90,37 @@ public class SplashController {
     }
     
     /**
-     * Bắt đầu animation loading với progress bar
+     * Progress bar theo tiến độ thật của StartupOrchestrator (không chờ cố định):
+     * cập nhật mỗi POLL_MS, chuyển sang Login ngay khi mọi bước khởi tạo xong
      */
     private void startLoadingAnimation() {
-        Timeline timeline = new Timeline();
-        int stepDuration = 600; // ms cho mỗi bước
+        StartupOrchestrator startup = StartupOrchestrator.getInstance();
+        Timeline poll = new Timeline(new KeyFrame(Duration.millis(POLL_MS), e -> showProgress(startup.progress())));
+        poll.setCycleCount(Animation.INDEFINITE);
+        poll.play();
         
-        for (int i = 0; i < LOADING_MESSAGES.length; i++) {
-            final int step = i;
-            final double progress = (double) (i + 1) / LOADING_MESSAGES.length;
-            
-            KeyFrame keyFrame = new KeyFrame(
-                Duration.millis(stepDuration * (i + 1)),
-                event -> {
-                    // Animate progress bar
-                    animateProgress(progress);
-                    
-                    // Update loading text với fade
-                    updateLoadingText(LOADING_MESSAGES[step]);
-                    
-                    // Khi hoàn thành, chuyển sang Login
-                    if (step == LOADING_MESSAGES.length - 1) {
-                        Timeline delay = new Timeline(new KeyFrame(
-                            Duration.millis(400),
-                            e -> navigateToLogin()
-                        ));
-                        delay.play();
-                    }
-                }
-            );
-            timeline.getKeyFrames().add(keyFrame);
+        startup.whenReady().whenComplete((ignored, error) -> Platform.runLater(() -> {
+            poll.stop();
+            showProgress(1.0);
+            navigateToLogin();
+        }));
+    }
+    
+    /**
+     * Cập nhật progress bar và thông điệp tương ứng với tiến độ
+     */
+    private void showProgress(double progress) {
+        if (progress <= shownProgress) {
+            return;
         }
+        shownProgress = progress;
+        animateProgress(progress);
         
-        timeline.play();
+        int step = Math.min(LOADING_MESSAGES.length - 1, (int) (progress * (LOADING_MESSAGES.length - 1)));
+        if (step != shownStep) {
+            shownStep = step;
+            updateLoadingText(LOADING_MESSAGES[step]);
+        }
     }
     
     /**
@@ -162,14 +172,14 @@ public class SplashController {
                     loginStage.setScene(new Scene(root));
                     loginStage.setResizable(false);
                     loginStage.show();
+                    StartupOrchestrator.getInstance().markInteractive("login");
                     
                     // Close splash
                     Stage splashStage = (Stage) mainContainer.getScene().getWindow();
                     splashStage.close();
                     
                 } catch (IOException e) {
-                    e.printStackTrace();
-                    System.err.println("Lỗi khi chuyển sang Login: " + e.getMessage());
+                    LOG.error("Không thể mở màn hình đăng nhập: " + e.getMessage(), e);
                 }
             });
         });
@@ -1,9 +1,14 @@
 package com.dat.notebook.controller;
 
 import com.dat.notebook.model.Note;
+import com.dat.notebook.model.NoteEvent;
 import com.dat.notebook.model.User;
 import com.dat.notebook.service.AuthService;
 import com.dat.notebook.service.NoteService;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.DomainEventBus;
+import com.dat.notebook.util.FlightEvents;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
@@ -18,11 +23,16 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class TrashController {
 
+    private static final AppLogger LOG = AppLogger.getLogger(TrashController.class);
+
     // FXML Components
     @FXML
     private Button btnBack;
@@ -50,12 +60,13 @@ public class TrashController {
     private final User currentUser = AuthService.getInstance().getCurrentUser();
     private List<Note> archivedNotes;
     private Note selectedNote;
+    private DomainEventBus.Subscription noteEventSubscription;
 
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
     @FXML
     private void initialize() {
-        System.out.println("TrashController: Initializing...");
+        LOG.info("TrashController: Initializing...");
 
         if (currentUser == null) {
             showAlert("Lỗi", "Không tìm thấy người dùng đã đăng nhập!");
@@ -63,25 +74,55 @@ public class TrashController {
         }
 
         loadArchivedNotes();
+        noteEventSubscription = DomainEventBus.getInstance()
+                .subscribe("TrashController", Platform::runLater, this::applyNoteEvents);
     }
 
     /**
      * Load all archived notes for current user
      */
     private void loadArchivedNotes() {
-        System.out.println("TrashController: Loading archived notes for user ID=" + currentUser.getId());
+        LOG.debug("TrashController: Loading archived notes for user ID=" + currentUser.getId());
 
-        archivedNotes = noteService.getArchivedNotes(currentUser.getId());
-        System.out.println("TrashController: Found " + archivedNotes.size() + " archived notes");
+        archivedNotes = new ArrayList<>(noteService.getArchivedNotes(currentUser.getId()));
+        LOG.debug("TrashController: Found " + archivedNotes.size() + " archived notes");
 
         displayArchivedNotes();
         updateArchivedCount();
     }
 
+    /**
+     * Áp dụng lô sự kiện từ DomainEventBus: ghi chú được khôi phục / xóa vĩnh
+     * viễn / lưu lại được gỡ khỏi danh sách; chỉ tải lại khi có ghi chú mới vào
+     * thùng rác
+     */
+    private void applyNoteEvents(List<NoteEvent> events) {
+        Set<Integer> removed = new HashSet<>();
+        boolean reload = false;
+        for (NoteEvent event : events) {
+            if (event.getUserId() > 0 && event.getUserId() != currentUser.getId()) {
+                continue;
+            }
+            if (event instanceof NoteEvent.NoteArchived || event instanceof NoteEvent.ResyncRequired) {
+                reload = true;
+            } else if (!(event instanceof NoteEvent.TagsChanged)) {
+                removed.add(event.getNoteId());
+            }
+        }
+
+        if (reload) {
+            loadArchivedNotes();
+        } else if (archivedNotes.removeIf(note -> removed.contains(note.getId()))) {
+            displayArchivedNotes();
+            updateArchivedCount();
+        }
+    }
+
     /**
      * Display archived notes in sidebar
      */
     private void displayArchivedNotes() {
+        FlightEvents.UiRebuildEvent rebuildEvent = FlightEvents.UiRebuildEvent.start("trashList");
         vboxArchivedNotes.getChildren().clear();
 
         if (archivedNotes.isEmpty()) {
@@ -97,6 +138,7 @@ public class TrashController {
 
             emptyState.getChildren().addAll(emptyIcon, emptyText);
             vboxArchivedNotes.getChildren().add(emptyState);
+            rebuildEvent.finish(0);
             return;
         }
 
@@ -104,6 +146,7 @@ public class TrashController {
             VBox noteCard = createArchivedNoteCard(note);
             vboxArchivedNotes.getChildren().add(noteCard);
         }
+        rebuildEvent.finish(archivedNotes.size());
     }
 
     /**
@@ -194,9 +237,9 @@ public class TrashController {
             // Thay thế root của scene hiện tại thay vì tạo scene mới
             // Điều này giữ nguyên maximize state
             stage.getScene().setRoot(root);
+            DomainEventBus.getInstance().unsubscribe(noteEventSubscription);
         } catch (IOException e) {
-            System.err.println("Error loading MainViewV2: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error loading MainViewV2: " + e.getMessage(), e);
         }
     }
 
@@ -217,7 +260,7 @@ public class TrashController {
             boolean success = noteService.restoreNote(selectedNote.getId());
             if (success) {
                 showInfoAlert("Thành công", "Ghi chú đã được khôi phục!");
-                loadArchivedNotes(); // Refresh
+                // Danh sách được cập nhật qua DomainEventBus
 
                 // Clear selection
                 selectedNote = null;
@@ -255,7 +298,7 @@ public class TrashController {
             boolean success = noteService.deleteNotePermanently(selectedNote.getId());
             if (success) {
                 showInfoAlert("Đã xóa", "Ghi chú đã được xóa vĩnh viễn.");
-                loadArchivedNotes(); // Refresh
+                // Danh sách được cập nhật qua DomainEventBus
 
                 // Clear selection
                 selectedNote = null;
@@ -299,7 +342,7 @@ public class TrashController {
 
             if (successCount > 0) {
                 showInfoAlert("Hoàn tất", "Đã xóa vĩnh viễn " + successCount + " ghi chú.");
-                loadArchivedNotes(); // Refresh
+                // Danh sách được cập nhật qua DomainEventBus
 
                 // Clear selection
                 selectedNote = null;
@@ -0,0 +1,212 @@
+package com.dat.notebook.dao;
+
+import com.dat.notebook.model.Note;
+import com.dat.notebook.model.NoteDelta;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.NoteBackend;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * NoteDAO trên kho cục bộ ({@link NoteBackend}: local / memory / sync)
+ *
+ * Cùng hợp đồng với {@link NoteDAO}: mọi thao tác lọc theo userId, delete là
+ * chuyển vào thùng rác. Kho trả về bản sao nên sửa rồi ghi lại không ảnh
+ * hưởng caller. Không có ROWVERSION: findChangesSince luôn trả về toàn bộ
+ * (đọc từ memory nên vẫn rẻ).
+ *
+ * Lưu ý: tag / phiên bản / danh mục vẫn nằm trên SQL Server - ở chế độ sync,
+ * ghi chú tạo offline (id âm tạm thời) chỉ gắn được tag / lưu phiên bản sau
+ * khi đã đồng bộ.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class LocalNoteDAO extends NoteDAO {
+
+    private static final AppLogger LOG = AppLogger.getLogger(LocalNoteDAO.class);
+
+    private final NoteBackend backend;
+
+    public LocalNoteDAO(NoteBackend backend) {
+        this.backend = backend;
+    }
+
+    // ==================== CREATE ====================
+
+    @Override
+    public boolean insert(Note note) {
+        if (note == null || note.getUserId() <= 0) {
+            LOG.warn("LocalNoteDAO.insert: Invalid note or missing userId");
+            return false;
+        }
+        if (note.getStatus() == null) {
+            note.setStatus(Note.STATUS_REGULAR);
+        }
+        if (note.getColor() == null) {
+            note.setColor(Note.DEFAULT_COLOR);
+        }
+        note.setArchived(false);
+        return backend.insertNote(note);
+    }
+
+    // ==================== READ ====================
+
+    @Override
+    public Optional<Note> findById(int noteId, int userId) {
+        Note note = backend.getNoteById(noteId);
+        return note != null && note.getUserId() == userId ? Optional.of(note) : Optional.empty();
+    }
+
+    @Override
+    public List<Note> findAllByUser(int userId) {
+        return filter(backend.getAllNotes(), userId, note -> !note.isArchived());
+    }
+
+    @Override
+    public NoteDelta findChangesSince(int userId, long token) {
+        return new NoteDelta(0, true, findAllByUser(userId), List.of());
+    }
+
+    @Override
+    public List<Note> findByStatus(int userId, String status) {
+        return filter(backend.getAllNotes(), userId,
+            note -> !note.isArchived() && status != null && status.equals(note.getStatus()));
+    }
+
+    @Override
+    public List<Note> findFavorites(int userId) {
+        return filter(backend.getAllNotes(), userId, note -> !note.isArchived() && note.isFavorite());
+    }
+
+    @Override
+    public List<Note> findArchived(int userId) {
+        return filter(backend.getAllNotes(), userId, Note::isArchived);
+    }
+
+    @Override
+    public List<Note> search(int userId, String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return findAllByUser(userId);
+        }
+        String lowerKeyword = keyword.toLowerCase();
+        return filter(backend.getAllNotes(), userId, note -> !note.isArchived()
+            && (contains(note.getTitle(), lowerKeyword)
+                || contains(note.getContent(), lowerKeyword)
+                || contains(note.getSummary(), lowerKeyword)));
+    }
+
+    // ==================== UPDATE ====================
+
+    @Override
+    public boolean update(Note note, int userId) {
+        if (note == null || note.getId() == 0 || userId <= 0 || !findById(note.getId(), userId).isPresent()) {
+            return false;
+        }
+        Note stored = note.copy();
+        stored.setUserId(userId);
+        if (!backend.updateNote(stored)) {
+            return false;
+        }
+        note.setUpdatedAt(stored.getUpdatedAt());
+        return true;
+    }
+
+    @Override
+    public boolean updateContent(int noteId, int userId, String title, String content,
+                                 String htmlContent, String summary) {
+        return modify(noteId, userId, note -> {
+            note.setTitle(title);
+            note.setContent(content);
+            note.setHtmlContent(htmlContent);
+            note.setSummary(summary);
+        });
+    }
+
+    @Override
+    public AutosaveResult applyAutosave(int noteId, int userId, String title, String content,
+                                        String htmlContent, String summary,
+                                        LocalDateTime baseUpdatedAt, LocalDateTime ownUpdatedAt) {
+        Optional<Note> found = findById(noteId, userId);
+        if (!found.isPresent()) {
+            return AutosaveResult.applied(null); // Ghi chú không còn - không có gì để áp dụng
+        }
+        Note note = found.get();
+        LocalDateTime current = note.getUpdatedAt();
+        if (baseUpdatedAt != null && !baseUpdatedAt.equals(current) && !Objects.equals(ownUpdatedAt, current)) {
+            return AutosaveResult.CONFLICT;
+        }
+        note.setTitle(title);
+        note.setContent(content);
+        note.setHtmlContent(htmlContent);
+        note.setSummary(summary);
+        return backend.updateNote(note) ? AutosaveResult.applied(note.getUpdatedAt()) : AutosaveResult.FAILED;
+    }
+
+    @Override
+    public boolean toggleFavorite(int noteId, int userId) {
+        return modify(noteId, userId, note -> note.setFavorite(!note.isFavorite()));
+    }
+
+    @Override
+    public boolean updateStatus(int noteId, int userId, String status) {
+        return modify(noteId, userId, note -> note.setStatus(status));
+    }
+
+    // ==================== DELETE ====================
+
+    @Override
+    public boolean delete(int noteId, int userId) {
+        return modify(noteId, userId, note -> note.setArchived(true));
+    }
+
+    @Override
+    public boolean restore(int noteId, int userId) {
+        return modify(noteId, userId, note -> note.setArchived(false));
+    }
+
+    @Override
+    public boolean deletePermanently(int noteId, int userId) {
+        return findById(noteId, userId).isPresent() && backend.deleteNote(noteId);
+    }
+
+    // ==================== UTILITY ====================
+
+    @Override
+    public int countByUser(int userId) {
+        return findAllByUser(userId).size();
+    }
+
+    /**
+     * Đọc bản sao ghi chú của user, sửa rồi ghi lại
+     */
+    private boolean modify(int noteId, int userId, Consumer<Note> change) {
+        Optional<Note> found = findById(noteId, userId);
+        if (!found.isPresent()) {
+            return false;
+        }
+        Note note = found.get();
+        change.accept(note);
+        return backend.updateNote(note);
+    }
+
+    private static List<Note> filter(List<Note> notes, int userId, Predicate<Note> condition) {
+        List<Note> result = new ArrayList<>();
+        for (Note note : notes) {
+            if (note.getUserId() == userId && condition.test(note)) {
+                result.add(note);
+            }
+        }
+        return result;
+    }
+
+    private static boolean contains(String text, String lowerKeyword) {
+        return text != null && text.toLowerCase().contains(lowerKeyword);
+    }
+}
@@ -2,12 +2,21 @@ package com.dat.notebook.dao;
 
 import com.dat.notebook.config.DatabaseConfig;
 import com.dat.notebook.model.Note;
+import com.dat.notebook.model.NoteDelta;
+import com.dat.notebook.repository.FullTextSearch;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.BackgroundJobs;
+import com.dat.notebook.util.ContentCodec;
+import com.dat.notebook.util.MetricsRegistry;
+import com.dat.notebook.util.NoteBackend;
+import com.dat.notebook.util.NoteStore;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Data Access Object cho Note - CHUẨN MVC
@@ -20,24 +29,79 @@ import java.util.Optional;
  * @version 2.0
  */
 public class NoteDAO {
+
+    private static final AppLogger LOG = AppLogger.getLogger(NoteDAO.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    /**
+     * Kết quả áp dụng một snapshot autosave (xem applyAutosave)
+     */
+    public static final class AutosaveResult {
+
+        public enum Status {
+            APPLIED,   // Đã ghi (hoặc ghi chú không còn tồn tại)
+            CONFLICT,  // Ghi chú đã bị sửa từ nơi khác - không ghi đè
+            FAILED     // Lỗi DB - thử lại sau
+        }
+
+        public static final AutosaveResult CONFLICT = new AutosaveResult(Status.CONFLICT, null);
+        public static final AutosaveResult FAILED = new AutosaveResult(Status.FAILED, null);
+
+        public final Status status;
+        /** UpdatedAt mới của ghi chú sau khi ghi (null nếu không ghi) */
+        public final LocalDateTime savedAt;
+
+        private AutosaveResult(Status status, LocalDateTime savedAt) {
+            this.status = status;
+            this.savedAt = savedAt;
+        }
+
+        public static AutosaveResult applied(LocalDateTime savedAt) {
+            return new AutosaveResult(Status.APPLIED, savedAt);
+        }
+    }
+
     
     // ==================== SQL QUERIES ====================
     // Tất cả query đều có UserID filter
     
+    // INSERT / UPDATE trả về UpdatedAt do server gán (OUTPUT INTO vì Notes có
+    // trigger): UpdatedAt của note là mốc để autosave phát hiện xung đột
     private static final String SQL_INSERT = 
-        "INSERT INTO Notes (UserID, CategoryID, Title, Content, HtmlContent, Summary, Status, " +
+        "SET NOCOUNT ON; DECLARE @saved TABLE (NoteID INT, CreatedAt DATETIME, UpdatedAt DATETIME); " +
+        "INSERT INTO Notes (UserID, CategoryID, Title, Content, HtmlContent, HtmlContentCompressed, Summary, Status, " +
         "IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt) " +
-        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, 0, GETDATE(), GETDATE())";
+        "OUTPUT inserted.NoteID, inserted.CreatedAt, inserted.UpdatedAt INTO @saved " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, 0, GETDATE(), GETDATE()); " +
+        "SELECT NoteID, CreatedAt, UpdatedAt FROM @saved";
     
     private static final String SQL_UPDATE = 
-        "UPDATE Notes SET CategoryID = ?, Title = ?, Content = ?, HtmlContent = ?, Summary = ?, " +
+        "SET NOCOUNT ON; DECLARE @saved TABLE (UpdatedAt DATETIME); " +
+        "UPDATE Notes SET CategoryID = ?, Title = ?, Content = ?, HtmlContent = ?, HtmlContentCompressed = ?, Summary = ?, " +
         "Status = ?, IsFavorite = ?, IsArchived = ?, Color = ?, UpdatedAt = GETDATE() " +
-        "WHERE NoteID = ? AND UserID = ?";
+        "OUTPUT inserted.UpdatedAt INTO @saved " +
+        "WHERE NoteID = ? AND UserID = ?; " +
+        "SELECT UpdatedAt FROM @saved";
     
     private static final String SQL_UPDATE_CONTENT = 
-        "UPDATE Notes SET Title = ?, Content = ?, HtmlContent = ?, Summary = ?, UpdatedAt = GETDATE() " +
+        "UPDATE Notes SET Title = ?, Content = ?, HtmlContent = ?, HtmlContentCompressed = ?, Summary = ?, UpdatedAt = GETDATE() " +
         "WHERE NoteID = ? AND UserID = ?";
     
+    /**
+     * Áp dụng snapshot autosave chỉ khi ghi chú chưa bị sửa từ nơi khác:
+     * UpdatedAt phải bằng mốc lúc editor mở ghi chú hoặc bằng lần autosave
+     * trước của chính client (NULL = không rõ mốc, áp dụng luôn).
+     * NoteExists phân biệt xung đột với ghi chú đã bị xóa.
+     */
+    private static final String SQL_APPLY_AUTOSAVE = 
+        "SET NOCOUNT ON; DECLARE @saved TABLE (UpdatedAt DATETIME); " +
+        "UPDATE Notes SET Title = ?, Content = ?, HtmlContent = ?, HtmlContentCompressed = ?, Summary = ?, UpdatedAt = GETDATE() " +
+        "OUTPUT inserted.UpdatedAt INTO @saved " +
+        "WHERE NoteID = ? AND UserID = ? " +
+        "AND (? IS NULL OR UpdatedAt = CAST(? AS DATETIME) OR UpdatedAt = CAST(? AS DATETIME)); " +
+        "SELECT (SELECT UpdatedAt FROM @saved) AS SavedAt, " +
+        "CASE WHEN EXISTS (SELECT 1 FROM Notes WHERE NoteID = ? AND UserID = ?) THEN 1 ELSE 0 END AS NoteExists";
+    
     private static final String SQL_DELETE = 
         "UPDATE Notes SET IsArchived = 1, UpdatedAt = GETDATE() WHERE NoteID = ? AND UserID = ?";
     
@@ -48,42 +112,55 @@ public class NoteDAO {
         "UPDATE Notes SET IsArchived = 0, UpdatedAt = GETDATE() WHERE NoteID = ? AND UserID = ?";
     
     private static final String SQL_FIND_BY_ID = 
-        "SELECT NoteID, UserID, CategoryID, Title, Content, HtmlContent, Summary, Status, " +
+        "SELECT NoteID, UserID, CategoryID, Title, Content, HtmlContent, HtmlContentCompressed, Summary, Status, " +
         "IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt " +
         "FROM Notes WHERE NoteID = ? AND UserID = ?";
     
+    // Danh sách / tìm kiếm / delta không đọc HtmlContent(Compressed): preview
+    // dùng Content / Summary, HTML chỉ tải khi mở note trong editor
+    private static final String SQL_FIND_HTML = 
+        "SELECT HtmlContent, HtmlContentCompressed FROM Notes WHERE NoteID = ? AND UserID = ?";
+    
     private static final String SQL_FIND_ALL_BY_USER = 
-        "SELECT NoteID, UserID, CategoryID, Title, Content, HtmlContent, Summary, Status, " +
+        "SELECT NoteID, UserID, CategoryID, Title, Content, Summary, Status, " +
         "IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt " +
         "FROM Notes WHERE UserID = ? AND IsArchived = 0 " +
         "ORDER BY UpdatedAt DESC";
     
     private static final String SQL_FIND_BY_STATUS = 
-        "SELECT NoteID, UserID, CategoryID, Title, Content, HtmlContent, Summary, Status, " +
+        "SELECT NoteID, UserID, CategoryID, Title, Content, Summary, Status, " +
         "IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt " +
         "FROM Notes WHERE UserID = ? AND Status = ? AND IsArchived = 0 " +
         "ORDER BY UpdatedAt DESC";
     
     private static final String SQL_FIND_FAVORITES = 
-        "SELECT NoteID, UserID, CategoryID, Title, Content, HtmlContent, Summary, Status, " +
+        "SELECT NoteID, UserID, CategoryID, Title, Content, Summary, Status, " +
         "IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt " +
         "FROM Notes WHERE UserID = ? AND IsFavorite = 1 AND IsArchived = 0 " +
         "ORDER BY UpdatedAt DESC";
     
     private static final String SQL_FIND_ARCHIVED = 
-        "SELECT NoteID, UserID, CategoryID, Title, Content, HtmlContent, Summary, Status, " +
+        "SELECT NoteID, UserID, CategoryID, Title, Content, Summary, Status, " +
         "IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt " +
         "FROM Notes WHERE UserID = ? AND IsArchived = 1 " +
         "ORDER BY UpdatedAt DESC";
     
     private static final String SQL_SEARCH = 
-        "SELECT NoteID, UserID, CategoryID, Title, Content, HtmlContent, Summary, Status, " +
+        "SELECT NoteID, UserID, CategoryID, Title, Content, Summary, Status, " +
         "IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt " +
         "FROM Notes " +
         "WHERE UserID = ? AND IsArchived = 0 " +
         "AND (Title LIKE ? OR Content LIKE ? OR Summary LIKE ?) " +
         "ORDER BY UpdatedAt DESC";
     
+    private static final String SQL_SEARCH_FULLTEXT = 
+        "SELECT n.NoteID, n.UserID, n.CategoryID, n.Title, n.Content, n.Summary, n.Status, " +
+        "n.IsFavorite, n.IsArchived, n.Color, n.ViewCount, n.CreatedAt, n.UpdatedAt " +
+        "FROM CONTAINSTABLE(Notes, (Title, Content, Summary), ?) ft " +
+        "INNER JOIN Notes n ON n.NoteID = ft.[KEY] " +
+        "WHERE n.UserID = ? AND n.IsArchived = 0 " +
+        "ORDER BY ft.RANK DESC, n.UpdatedAt DESC";
+    
     private static final String SQL_TOGGLE_FAVORITE = 
         "UPDATE Notes SET IsFavorite = CASE WHEN IsFavorite = 1 THEN 0 ELSE 1 END, " +
         "UpdatedAt = GETDATE() WHERE NoteID = ? AND UserID = ?";
@@ -94,6 +171,45 @@ public class NoteDAO {
     private static final String SQL_COUNT_BY_USER = 
         "SELECT COUNT(*) FROM Notes WHERE UserID = ? AND IsArchived = 0";
     
+    // Đọc O(1) từ bảng NoteStatistics (trigger trg_Notes_Statistics duy trì)
+    private static final String SQL_COUNT_MATERIALIZED = 
+        "SELECT TotalNotes FROM NoteStatistics WHERE UserID = ?";
+    
+    // Delta theo ROWVERSION (V012): chỉ đọc dòng trong (token, MIN_ACTIVE_ROWVERSION())
+    private static final String SQL_DELTA_BOUNDS = 
+        "SELECT CAST(MIN_ACTIVE_ROWVERSION() AS BIGINT) AS UpperBound, " +
+        "(SELECT PurgedUpTo FROM NoteTombstoneHorizon WHERE Id = 1) AS PurgedUpTo";
+    
+    private static final String SQL_FIND_CHANGED_SINCE = 
+        "SELECT NoteID, UserID, CategoryID, Title, Content, Summary, Status, " +
+        "IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt " +
+        "FROM Notes WHERE UserID = ? " +
+        "AND RowVer > CAST(CAST(? AS BIGINT) AS BINARY(8)) AND RowVer < CAST(CAST(? AS BIGINT) AS BINARY(8))";
+    
+    private static final String SQL_FIND_REMOVED_SINCE = 
+        "SELECT NoteID FROM NoteTombstones WHERE UserID = ? " +
+        "AND RowVer > CAST(CAST(? AS BIGINT) AS BINARY(8)) AND RowVer < CAST(CAST(? AS BIGINT) AS BINARY(8))";
+    
+    private static final String SQL_PURGE_TOMBSTONES = 
+        "{CALL sp_PurgeNoteTombstones(?)}";
+    
+    /** Giữ tombstone 30 ngày - client có token cũ hơn sẽ tải lại toàn bộ */
+    private static final int TOMBSTONE_RETENTION_DAYS = 30;
+    
+    static {
+        BackgroundJobs.scheduleWithFixedDelay("purge-note-tombstones", NoteDAO::purgeTombstones,
+            1, 24, TimeUnit.HOURS);
+    }
+
+    /**
+     * NoteDAO theo cấu hình storage.backend: truy vấn thẳng SQL Server (mặc
+     * định) hoặc {@link LocalNoteDAO} trên kho cục bộ / đồng bộ
+     */
+    public static NoteDAO create() {
+        NoteBackend backend = NoteStore.getBackend();
+        return backend != null ? new LocalNoteDAO(backend) : new NoteDAO();
+    }
+    
     // ==================== CREATE ====================
     
     /**
@@ -103,51 +219,49 @@ public class NoteDAO {
      * @return true nếu thành công, note.id sẽ được set
      */
     public boolean insert(Note note) {
-        if (note == null || note.getUserId() <= 0) {
-            System.err.println("NoteDAO.insert: Invalid note or missing userId");
-            return false;
-        }
+        return METRICS.timedDb("noteDAO.insert", () -> {
+            if (note == null || note.getUserId() <= 0) {
+                LOG.warn("NoteDAO.insert: Invalid note or missing userId");
+                return false;
+            }
         
-        // Trim title and summary to prevent truncation
-        String title = note.getTitle();
-        if (title != null && title.length() > 1000) {
-            title = title.substring(0, 997) + "...";
-        }
-        String summary = note.getSummary();
-        if (summary != null && summary.length() > 2000) {
-            summary = summary.substring(0, 1997) + "...";
-        }
+            // Trim title and summary to prevent truncation
+            String title = note.getTitle();
+            if (title != null && title.length() > 1000) {
+                title = title.substring(0, 997) + "...";
+            }
+            String summary = note.getSummary();
+            if (summary != null && summary.length() > 2000) {
+                summary = summary.substring(0, 1997) + "...";
+            }
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
-            
-            ps.setInt(1, note.getUserId());
-            ps.setObject(2, note.getCategoryId(), Types.INTEGER);
-            ps.setString(3, title);
-            ps.setString(4, note.getContent());
-            ps.setString(5, note.getHtmlContent());
-            ps.setString(6, summary);
-            ps.setString(7, note.getStatus() != null ? note.getStatus() : Note.STATUS_REGULAR);
-            ps.setBoolean(8, note.isFavorite());
-            ps.setString(9, note.getColor() != null ? note.getColor() : Note.DEFAULT_COLOR);
-            
-            int affected = ps.executeUpdate();
-            if (affected > 0) {
-                try (ResultSet rs = ps.getGeneratedKeys()) {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_INSERT)) {
+            
+                ps.setInt(1, note.getUserId());
+                ps.setObject(2, note.getCategoryId(), Types.INTEGER);
+                ps.setString(3, title);
+                ps.setString(4, note.getContent());
+                ContentCodec.bind(ps, 5, 6, note.getHtmlContent());
+                ps.setString(7, summary);
+                ps.setString(8, note.getStatus() != null ? note.getStatus() : Note.STATUS_REGULAR);
+                ps.setBoolean(9, note.isFavorite());
+                ps.setString(10, note.getColor() != null ? note.getColor() : Note.DEFAULT_COLOR);
+            
+                try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
-                        note.setId(rs.getInt(1));
-                        note.setCreatedAt(LocalDateTime.now());
-                        note.setUpdatedAt(LocalDateTime.now());
-                        System.out.println("NoteDAO: Created note ID=" + note.getId() + " for user=" + note.getUserId());
+                        note.setId(rs.getInt("NoteID"));
+                        note.setCreatedAt(rs.getTimestamp("CreatedAt").toLocalDateTime());
+                        note.setUpdatedAt(rs.getTimestamp("UpdatedAt").toLocalDateTime());
+                        LOG.debug("NoteDAO: Created note ID=" + note.getId() + " for user=" + note.getUserId());
                         return true;
                     }
                 }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.insert ERROR: " + e.getMessage(), e);
             }
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.insert ERROR: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return false;
+            return false;
+        });
     }
     
     // ==================== READ ====================
@@ -160,21 +274,57 @@ public class NoteDAO {
      * @return Optional<Note>
      */
     public Optional<Note> findById(int noteId, int userId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
+        return METRICS.timedDb("noteDAO.findById", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
             
-            ps.setInt(1, noteId);
-            ps.setInt(2, userId);
+                ps.setInt(1, noteId);
+                ps.setInt(2, userId);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToNote(rs));
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToNote(rs, true));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.findById ERROR: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.findById ERROR: " + e.getMessage());
+            return Optional.empty();
+        });
+    }
+    
+    /**
+     * Tải HtmlContent cho note lấy từ danh sách / delta (chưa có HTML).
+     * Note đã có HTML thì bỏ qua.
+     * 
+     * @param note Note cần tải HTML
+     * @param userId ID người dùng
+     * @return true nếu note đã có HTML (hoặc note không còn tồn tại), false nếu lỗi DB
+     */
+    public boolean loadHtmlContent(Note note, int userId) {
+        if (note.isHtmlLoaded()) {
+            return true;
         }
-        return Optional.empty();
+        return METRICS.timedDb("noteDAO.loadHtmlContent", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_HTML)) {
+            
+                ps.setInt(1, note.getId());
+                ps.setInt(2, userId);
+            
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        readHtmlContent(rs, note);
+                    } else {
+                        note.setHtmlLoaded(true);
+                    }
+                }
+                return true;
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.loadHtmlContent ERROR: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -184,24 +334,95 @@ public class NoteDAO {
      * @return List<Note>
      */
     public List<Note> findAllByUser(int userId) {
-        List<Note> notes = new ArrayList<>();
+        return METRICS.timedDb("noteDAO.findAllByUser", () -> {
+            List<Note> notes = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL_BY_USER)) {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL_BY_USER)) {
             
-            ps.setInt(1, userId);
+                ps.setInt(1, userId);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs, false));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.findAllByUser ERROR: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.findAllByUser ERROR: " + e.getMessage());
-        }
         
-        System.out.println("NoteDAO: Found " + notes.size() + " notes for user=" + userId);
-        return notes;
+            LOG.debug("NoteDAO: Found " + notes.size() + " notes for user=" + userId);
+            return notes;
+        });
+    }
+    
+    /**
+     * Tải danh sách ghi chú tăng dần theo token ROWVERSION
+     * 
+     * token <= 0 (lần đầu) hoặc cũ hơn tombstone đã dọn: trả về toàn bộ như
+     * {@link #findAllByUser(int)} với fullReload = true. Ngược lại chỉ đọc ghi
+     * chú thay đổi / bị xóa hẳn sau token - chi phí theo số lần sửa, không theo
+     * số ghi chú.
+     * 
+     * @param userId ID người dùng
+     * @param token Token của lần tải trước (0 = chưa có)
+     * @return NoteDelta, hoặc null nếu lỗi (vd: chưa chạy migration V012)
+     */
+    public NoteDelta findChangesSince(int userId, long token) {
+        return METRICS.timedDb("noteDAO.findChangesSince", () -> {
+            try (Connection conn = DatabaseConfig.getConnection()) {
+                long upperBound;
+                long purgedUpTo;
+                try (PreparedStatement ps = conn.prepareStatement(SQL_DELTA_BOUNDS);
+                     ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    upperBound = rs.getLong("UpperBound");
+                    purgedUpTo = rs.getLong("PurgedUpTo");
+                }
+                // Mọi dòng có rowversion < upperBound đã commit
+                long nextToken = upperBound - 1;
+            
+                List<Note> changed = new ArrayList<>();
+                if (token <= 0 || token < purgedUpTo) {
+                    try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL_BY_USER)) {
+                        ps.setInt(1, userId);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                changed.add(mapResultSetToNote(rs, false));
+                            }
+                        }
+                    }
+                    return new NoteDelta(nextToken, true, changed, List.of());
+                }
+            
+                try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_CHANGED_SINCE)) {
+                    ps.setInt(1, userId);
+                    ps.setLong(2, token);
+                    ps.setLong(3, upperBound);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            changed.add(mapResultSetToNote(rs, false));
+                        }
+                    }
+                }
+            
+                List<Integer> removed = new ArrayList<>();
+                try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_REMOVED_SINCE)) {
+                    ps.setInt(1, userId);
+                    ps.setLong(2, token);
+                    ps.setLong(3, upperBound);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            removed.add(rs.getInt("NoteID"));
+                        }
+                    }
+                }
+                return new NoteDelta(nextToken, false, changed, removed);
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.findChangesSince ERROR: " + e.getMessage());
+                return null;
+            }
+        });
     }
     
     /**
@@ -212,23 +433,25 @@ public class NoteDAO {
      * @return List<Note>
      */
     public List<Note> findByStatus(int userId, String status) {
-        List<Note> notes = new ArrayList<>();
+        return METRICS.timedDb("noteDAO.findByStatus", () -> {
+            List<Note> notes = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_STATUS)) {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_STATUS)) {
             
-            ps.setInt(1, userId);
-            ps.setString(2, status);
+                ps.setInt(1, userId);
+                ps.setString(2, status);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs, false));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.findByStatus ERROR: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.findByStatus ERROR: " + e.getMessage());
-        }
-        return notes;
+            return notes;
+        });
     }
     
     /**
@@ -238,22 +461,24 @@ public class NoteDAO {
      * @return List<Note>
      */
     public List<Note> findFavorites(int userId) {
-        List<Note> notes = new ArrayList<>();
+        return METRICS.timedDb("noteDAO.findFavorites", () -> {
+            List<Note> notes = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_FAVORITES)) {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_FAVORITES)) {
             
-            ps.setInt(1, userId);
+                ps.setInt(1, userId);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs, false));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.findFavorites ERROR: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.findFavorites ERROR: " + e.getMessage());
-        }
-        return notes;
+            return notes;
+        });
     }
     
     /**
@@ -263,22 +488,24 @@ public class NoteDAO {
      * @return List<Note>
      */
     public List<Note> findArchived(int userId) {
-        List<Note> notes = new ArrayList<>();
+        return METRICS.timedDb("noteDAO.findArchived", () -> {
+            List<Note> notes = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_ARCHIVED)) {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_ARCHIVED)) {
             
-            ps.setInt(1, userId);
+                ps.setInt(1, userId);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs, false));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.findArchived ERROR: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.findArchived ERROR: " + e.getMessage());
-        }
-        return notes;
+            return notes;
+        });
     }
     
     /**
@@ -289,26 +516,63 @@ public class NoteDAO {
      * @return List<Note>
      */
     public List<Note> search(int userId, String keyword) {
+        return METRICS.timedDb("noteDAO.search", () -> {
+            String query = FullTextSearch.toContainsQuery(keyword);
+            if (query != null && FullTextSearch.isAvailable()) {
+                List<Note> ranked = searchFullText(userId, query);
+                if (ranked != null) {
+                    return ranked;
+                }
+            }
+        
+            List<Note> notes = new ArrayList<>();
+        
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_SEARCH)) {
+            
+                String searchPattern = "%" + keyword + "%";
+                ps.setInt(1, userId);
+                ps.setString(2, searchPattern);
+                ps.setString(3, searchPattern);
+                ps.setString(4, searchPattern);
+            
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs, false));
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.search ERROR: " + e.getMessage());
+            }
+            return notes;
+        });
+    }
+    
+    /**
+     * Tìm kiếm bằng full-text index (CONTAINSTABLE, xếp hạng theo RANK)
+     * 
+     * @return List<Note>, hoặc null nếu query lỗi (caller fallback về LIKE)
+     */
+    private List<Note> searchFullText(int userId, String containsQuery) {
         List<Note> notes = new ArrayList<>();
         
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_SEARCH)) {
+             PreparedStatement ps = conn.prepareStatement(SQL_SEARCH_FULLTEXT)) {
             
-            String searchPattern = "%" + keyword + "%";
-            ps.setInt(1, userId);
-            ps.setString(2, searchPattern);
-            ps.setString(3, searchPattern);
-            ps.setString(4, searchPattern);
+            ps.setString(1, containsQuery);
+            ps.setInt(2, userId);
             
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                    notes.add(mapResultSetToNote(rs, false));
                 }
             }
+            return notes;
         } catch (SQLException e) {
-            System.err.println("NoteDAO.search ERROR: " + e.getMessage());
+            LOG.error("NoteDAO.searchFullText ERROR (fallback LIKE): " + e.getMessage());
+            FullTextSearch.markUnavailable();
+            return null;
         }
-        return notes;
     }
     
     // ==================== UPDATE ====================
@@ -321,45 +585,48 @@ public class NoteDAO {
      * @return true nếu thành công
      */
     public boolean update(Note note, int userId) {
-        if (note == null || note.getId() <= 0 || userId <= 0) {
-            return false;
-        }
+        return METRICS.timedDb("noteDAO.update", () -> {
+            if (note == null || note.getId() <= 0 || userId <= 0) {
+                return false;
+            }
         
-        // Trim title and summary to prevent truncation
-        String title = note.getTitle();
-        if (title != null && title.length() > 1000) {
-            title = title.substring(0, 997) + "...";
-        }
-        String summary = note.getSummary();
-        if (summary != null && summary.length() > 2000) {
-            summary = summary.substring(0, 1997) + "...";
-        }
+            // Trim title and summary to prevent truncation
+            String title = note.getTitle();
+            if (title != null && title.length() > 1000) {
+                title = title.substring(0, 997) + "...";
+            }
+            String summary = note.getSummary();
+            if (summary != null && summary.length() > 2000) {
+                summary = summary.substring(0, 1997) + "...";
+            }
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
-            
-            ps.setObject(1, note.getCategoryId(), Types.INTEGER);
-            ps.setString(2, title);
-            ps.setString(3, note.getContent());
-            ps.setString(4, note.getHtmlContent());
-            ps.setString(5, summary);
-            ps.setString(6, note.getStatus());
-            ps.setBoolean(7, note.isFavorite());
-            ps.setBoolean(8, note.isArchived());
-            ps.setString(9, note.getColor());
-            ps.setInt(10, note.getId());
-            ps.setInt(11, userId);
-            
-            int affected = ps.executeUpdate();
-            if (affected > 0) {
-                note.setUpdatedAt(LocalDateTime.now());
-                System.out.println("NoteDAO: Updated note ID=" + note.getId());
-                return true;
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
+            
+                ps.setObject(1, note.getCategoryId(), Types.INTEGER);
+                ps.setString(2, title);
+                ps.setString(3, note.getContent());
+                ContentCodec.bind(ps, 4, 5, note.getHtmlContent());
+                ps.setString(6, summary);
+                ps.setString(7, note.getStatus());
+                ps.setBoolean(8, note.isFavorite());
+                ps.setBoolean(9, note.isArchived());
+                ps.setString(10, note.getColor());
+                ps.setInt(11, note.getId());
+                ps.setInt(12, userId);
+            
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        note.setUpdatedAt(rs.getTimestamp("UpdatedAt").toLocalDateTime());
+                        LOG.debug("NoteDAO: Updated note ID=" + note.getId());
+                        return true;
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.update ERROR: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.update ERROR: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -375,29 +642,74 @@ public class NoteDAO {
      */
     public boolean updateContent(int noteId, int userId, String title, String content, 
                                   String htmlContent, String summary) {
-        // Trim to prevent truncation
-        if (title != null && title.length() > 1000) {
-            title = title.substring(0, 997) + "...";
-        }
-        if (summary != null && summary.length() > 2000) {
-            summary = summary.substring(0, 1997) + "...";
-        }
-        
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_CONTENT)) {
+        return METRICS.timedDb("noteDAO.updateContent", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_CONTENT)) {
             
-            ps.setString(1, title);
-            ps.setString(2, content);
-            ps.setString(3, htmlContent);
-            ps.setString(4, summary);
-            ps.setInt(5, noteId);
-            ps.setInt(6, userId);
+                ps.setString(1, truncate(title, 1000));
+                ps.setString(2, content);
+                ContentCodec.bind(ps, 3, 4, htmlContent);
+                ps.setString(5, truncate(summary, 2000));
+                ps.setInt(6, noteId);
+                ps.setInt(7, userId);
             
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.updateContent ERROR: " + e.getMessage());
-        }
-        return false;
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.updateContent ERROR: " + e.getMessage());
+            }
+            return false;
+        });
+    }
+    
+    /**
+     * Áp dụng một snapshot autosave từ journal cục bộ: cập nhật nội dung note
+     * nếu note chưa bị sửa từ nơi khác kể từ mốc của snapshot.
+     * Không ghi AutoSaveSnapshots - bản khôi phục khi crash đã nằm trong
+     * journal, ghi thêm một bản HTML đầy đủ mỗi lần autosave chỉ nhân đôi lượng ghi.
+     * 
+     * @param noteId ID ghi chú
+     * @param userId ID người dùng
+     * @param title Tiêu đề
+     * @param content Nội dung plain text
+     * @param htmlContent Nội dung HTML
+     * @param summary Tóm tắt
+     * @param baseUpdatedAt UpdatedAt của note khi editor mở nó (null = không rõ, áp dụng luôn)
+     * @param ownUpdatedAt UpdatedAt do lần autosave trước của client này ghi (có thể null)
+     * @return APPLIED (kể cả khi note không còn tồn tại), CONFLICT hoặc FAILED (lỗi DB)
+     */
+    public AutosaveResult applyAutosave(int noteId, int userId, String title, String content,
+                                        String htmlContent, String summary,
+                                        LocalDateTime baseUpdatedAt, LocalDateTime ownUpdatedAt) {
+        return METRICS.timedDb("noteDAO.applyAutosave", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_APPLY_AUTOSAVE)) {
+                ps.setString(1, truncate(title, 1000));
+                ps.setString(2, content);
+                ContentCodec.bind(ps, 3, 4, htmlContent);
+                ps.setString(5, truncate(summary, 2000));
+                ps.setInt(6, noteId);
+                ps.setInt(7, userId);
+                Timestamp base = baseUpdatedAt != null ? Timestamp.valueOf(baseUpdatedAt) : null;
+                Timestamp own = ownUpdatedAt != null ? Timestamp.valueOf(ownUpdatedAt) : base;
+                ps.setTimestamp(8, base);
+                ps.setTimestamp(9, base);
+                ps.setTimestamp(10, own);
+                ps.setInt(11, noteId);
+                ps.setInt(12, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        Timestamp savedAt = rs.getTimestamp("SavedAt");
+                        if (savedAt != null) {
+                            return AutosaveResult.applied(savedAt.toLocalDateTime());
+                        }
+                        return rs.getBoolean("NoteExists") ? AutosaveResult.CONFLICT : AutosaveResult.applied(null);
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.applyAutosave ERROR: " + e.getMessage());
+            }
+            return AutosaveResult.FAILED;
+        });
     }
     
     /**
@@ -408,17 +720,19 @@ public class NoteDAO {
      * @return true nếu thành công
      */
     public boolean toggleFavorite(int noteId, int userId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_TOGGLE_FAVORITE)) {
+        return METRICS.timedDb("noteDAO.toggleFavorite", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_TOGGLE_FAVORITE)) {
             
-            ps.setInt(1, noteId);
-            ps.setInt(2, userId);
+                ps.setInt(1, noteId);
+                ps.setInt(2, userId);
             
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.toggleFavorite ERROR: " + e.getMessage());
-        }
-        return false;
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.toggleFavorite ERROR: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -430,18 +744,20 @@ public class NoteDAO {
      * @return true nếu thành công
      */
     public boolean updateStatus(int noteId, int userId, String status) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_STATUS)) {
+        return METRICS.timedDb("noteDAO.updateStatus", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_STATUS)) {
             
-            ps.setString(1, status);
-            ps.setInt(2, noteId);
-            ps.setInt(3, userId);
+                ps.setString(1, status);
+                ps.setInt(2, noteId);
+                ps.setInt(3, userId);
             
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.updateStatus ERROR: " + e.getMessage());
-        }
-        return false;
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.updateStatus ERROR: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     // ==================== DELETE ====================
@@ -454,21 +770,23 @@ public class NoteDAO {
      * @return true nếu thành công
      */
     public boolean delete(int noteId, int userId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
+        return METRICS.timedDb("noteDAO.delete", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
             
-            ps.setInt(1, noteId);
-            ps.setInt(2, userId);
+                ps.setInt(1, noteId);
+                ps.setInt(2, userId);
             
-            int affected = ps.executeUpdate();
-            if (affected > 0) {
-                System.out.println("NoteDAO: Soft deleted note ID=" + noteId);
-                return true;
+                int affected = ps.executeUpdate();
+                if (affected > 0) {
+                    LOG.debug("NoteDAO: Soft deleted note ID=" + noteId);
+                    return true;
+                }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.delete ERROR: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.delete ERROR: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -479,21 +797,23 @@ public class NoteDAO {
      * @return true nếu thành công
      */
     public boolean restore(int noteId, int userId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_RESTORE)) {
+        return METRICS.timedDb("noteDAO.restore", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_RESTORE)) {
             
-            ps.setInt(1, noteId);
-            ps.setInt(2, userId);
+                ps.setInt(1, noteId);
+                ps.setInt(2, userId);
             
-            int affected = ps.executeUpdate();
-            if (affected > 0) {
-                System.out.println("NoteDAO: Restored note ID=" + noteId);
-                return true;
+                int affected = ps.executeUpdate();
+                if (affected > 0) {
+                    LOG.debug("NoteDAO: Restored note ID=" + noteId);
+                    return true;
+                }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.restore ERROR: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.restore ERROR: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -504,52 +824,104 @@ public class NoteDAO {
      * @return true nếu thành công
      */
     public boolean deletePermanently(int noteId, int userId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_DELETE_PERMANENT)) {
+        return METRICS.timedDb("noteDAO.deletePermanently", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_DELETE_PERMANENT)) {
             
-            ps.setInt(1, noteId);
-            ps.setInt(2, userId);
+                ps.setInt(1, noteId);
+                ps.setInt(2, userId);
             
-            int affected = ps.executeUpdate();
-            if (affected > 0) {
-                System.out.println("NoteDAO: Permanently deleted note ID=" + noteId);
-                return true;
+                int affected = ps.executeUpdate();
+                if (affected > 0) {
+                    LOG.debug("NoteDAO: Permanently deleted note ID=" + noteId);
+                    return true;
+                }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.deletePermanently ERROR: " + e.getMessage());
+            }
+            return false;
+        });
+    }
+    
+    /**
+     * Dọn tombstone cũ (chạy nền mỗi ngày)
+     * 
+     * @return Số tombstone đã xóa
+     */
+    public static int purgeTombstones() {
+        try (Connection conn = DatabaseConfig.getConnection();
+             CallableStatement cs = conn.prepareCall(SQL_PURGE_TOMBSTONES)) {
+            
+            cs.setInt(1, TOMBSTONE_RETENTION_DAYS);
+            try (ResultSet rs = cs.executeQuery()) {
+                if (rs.next()) {
+                    int purged = rs.getInt("PurgedRows");
+                    if (purged > 0) {
+                        LOG.info("NoteDAO: Purged " + purged + " note tombstones");
+                    }
+                    return purged;
+                }
             }
         } catch (SQLException e) {
-            System.err.println("NoteDAO.deletePermanently ERROR: " + e.getMessage());
+            LOG.error("NoteDAO.purgeTombstones ERROR: " + e.getMessage());
         }
-        return false;
+        return 0;
     }
     
     // ==================== UTILITY ====================
     
     /**
      * Đếm số ghi chú của user
+     * Đọc từ NoteStatistics (O(1)), fallback COUNT(*)
      * 
      * @param userId ID người dùng
      * @return Số lượng ghi chú
      */
     public int countByUser(int userId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_COUNT_BY_USER)) {
+        return METRICS.timedDb("noteDAO.countByUser", () -> {
+            try (Connection conn = DatabaseConfig.getConnection()) {
             
-            ps.setInt(1, userId);
+                // Ưu tiên số liệu materialized, fallback COUNT(*) nếu chưa có dòng
+                try (PreparedStatement ps = conn.prepareStatement(SQL_COUNT_MATERIALIZED)) {
+                    ps.setInt(1, userId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            return rs.getInt(1);
+                        }
+                    }
+                } catch (SQLException e) {
+                    LOG.error("NoteDAO.countByUser: NoteStatistics unavailable - " + e.getMessage());
+                }
             
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
+                try (PreparedStatement ps = conn.prepareStatement(SQL_COUNT_BY_USER)) {
+                    ps.setInt(1, userId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            return rs.getInt(1);
+                        }
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("NoteDAO.countByUser ERROR: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("NoteDAO.countByUser ERROR: " + e.getMessage());
-        }
-        return 0;
+            return 0;
+        });
+    }
+    
+    /**
+     * Cắt chuỗi quá dài để tránh lỗi truncation
+     */
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength - 3) + "..." : value;
     }
     
     /**
      * Map ResultSet to Note object
+     * 
+     * @param withHtml ResultSet có cột HtmlContent / HtmlContentCompressed;
+     *                 false thì note đánh dấu chưa tải HTML (xem loadHtmlContent)
      */
-    private Note mapResultSetToNote(ResultSet rs) throws SQLException {
+    private Note mapResultSetToNote(ResultSet rs, boolean withHtml) throws SQLException {
         Note note = new Note();
         note.setId(rs.getInt("NoteID"));
         note.setUserId(rs.getInt("UserID"));
@@ -564,10 +936,10 @@ public class NoteDAO {
         note.setTitle(rs.getString("Title"));
         note.setContent(rs.getString("Content"));
         
-        // HTML Content - có thể null
-        String htmlContent = rs.getString("HtmlContent");
-        if (htmlContent != null && !htmlContent.trim().isEmpty()) {
-            note.setHtmlContent(htmlContent);
+        if (withHtml) {
+            readHtmlContent(rs, note);
+        } else {
+            note.setHtmlLoaded(false);
         }
         
         note.setSummary(rs.getString("Summary"));
@@ -590,4 +962,19 @@ public class NoteDAO {
         
         return note;
     }
+    
+    /**
+     * Đọc HTML Content - có thể null, nội dung lớn nằm ở cột nén (giải nén ngay,
+     * Note không giữ dữ liệu nén để getter an toàn khi đọc từ nhiều thread)
+     */
+    private static void readHtmlContent(ResultSet rs, Note note) throws SQLException {
+        String htmlContent = rs.getString("HtmlContent");
+        byte[] compressedHtml = rs.getBytes("HtmlContentCompressed");
+        if (htmlContent != null && !htmlContent.trim().isEmpty()) {
+            note.setHtmlContent(htmlContent);
+        } else if (compressedHtml != null) {
+            note.setHtmlContent(ContentCodec.decompress(compressedHtml));
+        }
+        note.setHtmlLoaded(true);
+    }
 }
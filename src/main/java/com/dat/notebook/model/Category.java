@@ -5,8 +5,11 @@ package com.dat.notebook.model;
  */
 public class Category {
     private int id;
+    private int userId;
     private String name;
     private String color;
+    private String icon;
+    private int sortOrder;
 
     public Category() {}
 
@@ -16,11 +19,28 @@ public class Category {
         this.color = color;
     }
 
+    /**
+     * Tạo bản sao độc lập (CategoryDAO trả bản sao, không lộ đối tượng trong cache)
+     */
+    public Category copy() {
+        Category copy = new Category(id, name, color);
+        copy.userId = userId;
+        copy.icon = icon;
+        copy.sortOrder = sortOrder;
+        return copy;
+    }
+
     // Getters và Setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
+    public int getUserId() { return userId; }
+    public void setUserId(int userId) { this.userId = userId; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     public String getColor() { return color; }
     public void setColor(String color) { this.color = color; }
+    public String getIcon() { return icon; }
+    public void setIcon(String icon) { this.icon = icon; }
+    public int getSortOrder() { return sortOrder; }
+    public void setSortOrder(int sortOrder) { this.sortOrder = sortOrder; }
 }
@@ -38,6 +38,7 @@ public class Note {
     private String title; // Tiêu đề ghi chú
     private String content; // Nội dung ghi chú (plain text - backward compatibility)
     private String htmlContent; // Nội dung HTML (Rich Text Editor)
+    private boolean htmlLoaded = true; // false: danh sách chưa tải HtmlContent (tải khi mở editor)
     private String summary; // Tóm tắt tự động (Smart feature)
     private String status; // Trạng thái: REGULAR, URGENT, IDEAS, COMPLETED
     private boolean isFavorite; // Đánh dấu yêu thích
@@ -212,10 +213,23 @@ public class Note {
      */
     public void setHtmlContent(String htmlContent) {
         this.htmlContent = htmlContent;
+        this.htmlLoaded = true;
         // Auto-sync plain content từ HTML
         this.content = stripHtmlTags(htmlContent);
     }
 
+    /**
+     * HtmlContent đã được tải chưa - query danh sách / delta không đọc cột
+     * HTML, khi đó getHtmlContent() chỉ là fallback từ content
+     */
+    public boolean isHtmlLoaded() {
+        return htmlLoaded;
+    }
+
+    public void setHtmlLoaded(boolean htmlLoaded) {
+        this.htmlLoaded = htmlLoaded;
+    }
+
     /**
      * Convert plain text sang HTML đơn giản
      */
@@ -508,6 +522,38 @@ public class Note {
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Tạo bản sao độc lập (dùng cho kho offline - caller sửa bản sao không
+     * làm thay đổi dữ liệu đã lưu). Tags được sao chép danh sách, các object
+     * quan hệ (Category, User) dùng chung.
+     * 
+     * @return Bản sao của ghi chú
+     */
+    public Note copy() {
+        Note copy = new Note();
+        copy.id = id;
+        copy.userId = userId;
+        copy.categoryId = categoryId;
+        copy.title = title;
+        copy.content = content;
+        copy.htmlContent = htmlContent;
+        copy.htmlLoaded = htmlLoaded;
+        copy.summary = summary;
+        copy.status = status;
+        copy.isFavorite = isFavorite;
+        copy.isArchived = isArchived;
+        copy.color = color;
+        copy.viewCount = viewCount;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.tags = tags != null ? new ArrayList<>(tags) : new ArrayList<>();
+        copy.category = category;
+        copy.user = user;
+        copy.versionCount = versionCount;
+        copy.latestVersion = latestVersion;
+        return copy;
+    }
+
     // ==================== OBJECT METHODS ====================
 
     @Override
@@ -0,0 +1,58 @@
+package com.dat.notebook.model;
+
+import java.util.List;
+
+/**
+ * Kết quả tải danh sách ghi chú tăng dần (theo token ROWVERSION).
+ *
+ * - fullReload = true: changedNotes là TOÀN BỘ ghi chú (không archived) của
+ *   user - client thay cả danh sách (lần đầu, hoặc token quá cũ)
+ * - fullReload = false: changedNotes là các ghi chú thay đổi sau token (ghi
+ *   chú có isArchived() = true cần gỡ khỏi danh sách), removedNoteIds là các
+ *   ghi chú đã bị xóa hẳn
+ *
+ * Lần tải sau truyền lại {@link #getToken()}.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class NoteDelta {
+
+    // ==================== FIELDS ====================
+
+    private final long token;
+    private final boolean fullReload;
+    private final List<Note> changedNotes;
+    private final List<Integer> removedNoteIds;
+
+    // ==================== CONSTRUCTORS ====================
+
+    public NoteDelta(long token, boolean fullReload, List<Note> changedNotes, List<Integer> removedNoteIds) {
+        this.token = token;
+        this.fullReload = fullReload;
+        this.changedNotes = changedNotes;
+        this.removedNoteIds = removedNoteIds;
+    }
+
+    // ==================== GETTERS ====================
+
+    public long getToken() {
+        return token;
+    }
+
+    public boolean isFullReload() {
+        return fullReload;
+    }
+
+    public List<Note> getChangedNotes() {
+        return changedNotes;
+    }
+
+    public List<Integer> getRemovedNoteIds() {
+        return removedNoteIds;
+    }
+
+    public boolean isEmpty() {
+        return !fullReload && changedNotes.isEmpty() && removedNoteIds.isEmpty();
+    }
+}
@@ -0,0 +1,130 @@
+package com.dat.notebook.model;
+
+/**
+ * Sự kiện miền (domain event) phát qua {@link com.dat.notebook.util.DomainEventBus}
+ * mỗi khi ghi chú / tag thay đổi.
+ *
+ * Sự kiện mô tả TRẠNG THÁI MỚI của một đối tượng, không phải thao tác: bus chỉ
+ * giữ sự kiện sau cùng cho mỗi {@link #getCoalesceKey()} đang chờ giao, nên
+ * subscriber phải xử lý idempotent (upsert / gỡ theo ID).
+ *
+ * - NoteSaved: ghi chú được tạo / cập nhật (note có thể null - khi chỉ biết ID,
+ *   subscriber tự đọc lại)
+ * - NoteArchived: ghi chú vào thùng rác
+ * - NoteRestored: ghi chú được khôi phục từ thùng rác
+ * - NoteDeleted: ghi chú bị xóa vĩnh viễn
+ * - TagsChanged: tag của ghi chú (noteId > 0) hoặc danh mục tag thay đổi
+ * - ResyncRequired: subscriber xử lý không kịp (các sự kiện đã bị bỏ) hoặc kho
+ *   cục bộ vừa nhận thay đổi từ đồng bộ nền - cần tải lại toàn bộ
+ *
+ * userId = 0 khi nơi phát không biết user (vd. TagRepository).
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public abstract class NoteEvent {
+
+    // ==================== FIELDS ====================
+
+    private final int userId;
+    private final int noteId;
+
+    protected NoteEvent(int userId, int noteId) {
+        this.userId = userId;
+        this.noteId = noteId;
+    }
+
+    // ==================== GETTERS ====================
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getNoteId() {
+        return noteId;
+    }
+
+    /**
+     * Khóa gộp: sự kiện sau thay thế sự kiện trước cùng khóa còn đang chờ giao.
+     * Mọi sự kiện vòng đời của một ghi chú dùng chung khóa - chỉ trạng thái
+     * cuối cùng của ghi chú được giao.
+     */
+    public Object getCoalesceKey() {
+        return "note:" + noteId;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{userId=" + userId + ", noteId=" + noteId + "}";
+    }
+
+    // ==================== EVENT TYPES ====================
+
+    public static final class NoteSaved extends NoteEvent {
+
+        private final Note note;
+
+        public NoteSaved(int userId, int noteId, Note note) {
+            super(userId, noteId);
+            this.note = note;
+        }
+
+        public NoteSaved(Note note) {
+            this(note.getUserId(), note.getId(), note);
+        }
+
+        /**
+         * Ghi chú sau khi lưu (null nếu nơi phát chỉ biết ID). Nơi phát truyền bản
+         * sao (Note.copy()) nên không dính đối tượng caller đang sửa - vẫn dùng
+         * chung giữa các subscriber, không sửa đối tượng này.
+         */
+        public Note getNote() {
+            return note;
+        }
+    }
+
+    public static final class NoteArchived extends NoteEvent {
+
+        public NoteArchived(int userId, int noteId) {
+            super(userId, noteId);
+        }
+    }
+
+    public static final class NoteRestored extends NoteEvent {
+
+        public NoteRestored(int userId, int noteId) {
+            super(userId, noteId);
+        }
+    }
+
+    public static final class NoteDeleted extends NoteEvent {
+
+        public NoteDeleted(int userId, int noteId) {
+            super(userId, noteId);
+        }
+    }
+
+    public static final class TagsChanged extends NoteEvent {
+
+        public TagsChanged(int userId, int noteId) {
+            super(userId, noteId);
+        }
+
+        @Override
+        public Object getCoalesceKey() {
+            return "tags:" + getNoteId();
+        }
+    }
+
+    public static final class ResyncRequired extends NoteEvent {
+
+        public ResyncRequired(int userId) {
+            super(userId, 0);
+        }
+
+        @Override
+        public Object getCoalesceKey() {
+            return "resync";
+        }
+    }
+}
@@ -23,6 +23,7 @@ public class NoteVersion {
     private LocalDateTime createdAt;    // Thời điểm tạo version
     private Integer createdBy;          // UserID người tạo version
     private String changeDescription;   // Mô tả thay đổi (optional)
+    private Integer contentLength;      // Độ dài HTML (ký tự), null nếu chưa biết
     
     // Optional - thông tin người tạo
     private String createdByUsername;
@@ -182,6 +183,21 @@ public class NoteVersion {
         this.changeDescription = changeDescription;
     }
     
+    public Integer getContentLength() {
+        return contentLength;
+    }
+    
+    public void setContentLength(Integer contentLength) {
+        this.contentLength = contentLength;
+    }
+    
+    /**
+     * Nội dung đã được tải chưa (version tóm tắt chỉ có metadata)
+     */
+    public boolean isContentLoaded() {
+        return htmlContent != null;
+    }
+    
     public String getCreatedByUsername() {
         return createdByUsername;
     }
@@ -0,0 +1,103 @@
+package com.dat.notebook.repository;
+
+import com.dat.notebook.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FullTextSearch - Hỗ trợ tìm kiếm bằng SQL Server Full-Text Search.
+ *
+ * Full-text index trên Notes (Title, Content, Summary) được tạo bởi migration
+ * V006 nếu instance có cài Full-Text Search. Class này:
+ * - Phát hiện index có tồn tại hay không (cache kết quả, kiểm tra lại định kỳ)
+ * - Chuyển từ khóa người dùng thành điều kiện CONTAINS an toàn
+ *   (mỗi từ là một prefix term: "từ*", nối bằng AND)
+ *
+ * Khi không có full-text index hoặc query full-text lỗi, repository
+ * fallback về LIKE như trước.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class FullTextSearch {
+
+    /** Thời gian cache kết quả kiểm tra (ms) */
+    private static final long RECHECK_INTERVAL_MS = 5 * 60 * 1000;
+
+    /** Giới hạn số từ để query CONTAINS không quá dài */
+    private static final int MAX_TERMS = 8;
+
+    private static final String SQL_CHECK_INDEX =
+        "SELECT COUNT(*) FROM sys.fulltext_indexes " +
+        "WHERE object_id = OBJECT_ID('Notes') AND is_enabled = 1";
+
+    private static volatile boolean available;
+    private static volatile long checkedAt;
+
+    private FullTextSearch() {
+        // Utility class
+    }
+
+    /**
+     * Full-text index trên Notes có sẵn sàng không
+     *
+     * @return true nếu dùng được CONTAINS/CONTAINSTABLE
+     */
+    public static boolean isAvailable() {
+        long now = System.currentTimeMillis();
+        if (checkedAt == 0 || now - checkedAt > RECHECK_INTERVAL_MS) {
+            available = checkIndex();
+            checkedAt = now;
+        }
+        return available;
+    }
+
+    /**
+     * Đánh dấu full-text không dùng được (query CONTAINS vừa lỗi);
+     * sẽ được kiểm tra lại sau RECHECK_INTERVAL_MS
+     */
+    public static void markUnavailable() {
+        available = false;
+        checkedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Chuyển từ khóa thành điều kiện tìm kiếm cho CONTAINS/CONTAINSTABLE.
+     * Ví dụ: {@code ghi chú "java"} => {@code "ghi*" AND "chú*" AND "java*"}
+     *
+     * @param keyword Từ khóa người dùng nhập
+     * @return Điều kiện CONTAINS, hoặc null nếu không có từ nào hợp lệ
+     */
+    public static String toContainsQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= keyword.length() && terms.size() < MAX_TERMS; i++) {
+            char c = i < keyword.length() ? keyword.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                terms.add("\"" + word + "*\"");
+                word.setLength(0);
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" AND ", terms);
+    }
+
+    private static boolean checkIndex() {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_CHECK_INDEX);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() && rs.getInt(1) > 0;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.dat.notebook.repository;
 
 import com.dat.notebook.config.DatabaseConfig;
 import com.dat.notebook.model.Note;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.MetricsRegistry;
+import com.dat.notebook.util.WriteBehindCounter;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -14,13 +17,17 @@ import java.util.Optional;
  * 
  * Chức năng:
  * - CRUD operations cho Note
- * - Tìm kiếm, lọc ghi chú
+ * - Tìm kiếm, lọc ghi chú (full-text + RANK nếu có, fallback LIKE)
  * - Thống kê ghi chú
  * 
  * @author SmartNotebook Team
  * @version 1.0
  */
 public class NoteRepository {
+
+    private static final AppLogger LOG = AppLogger.getLogger(NoteRepository.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
     
     // ==================== SQL QUERIES ====================
     
@@ -72,6 +79,18 @@ public class NoteRepository {
         "AND (? IS NULL OR IsFavorite = ?) " +
         "ORDER BY UpdatedAt DESC";
     
+    /** Full-text: CONTAINSTABLE + RANK, tham số 1 là điều kiện CONTAINS (xem FullTextSearch) */
+    private static final String SQL_SEARCH_FULLTEXT = 
+        "SELECT n.NoteID, n.UserID, n.CategoryID, n.Title, n.Content, n.Summary, n.Status, " +
+        "n.IsFavorite, n.IsArchived, n.Color, n.ViewCount, n.CreatedAt, n.UpdatedAt " +
+        "FROM CONTAINSTABLE(Notes, (Title, Content, Summary), ?) ft " +
+        "INNER JOIN Notes n ON n.NoteID = ft.[KEY] " +
+        "WHERE n.UserID = ? AND n.IsArchived = 0 " +
+        "AND (? IS NULL OR n.Status = ?) " +
+        "AND (? IS NULL OR n.CategoryID = ?) " +
+        "AND (? IS NULL OR n.IsFavorite = ?) " +
+        "ORDER BY ft.RANK DESC, n.UpdatedAt DESC";
+    
     private static final String SQL_INSERT = 
         "INSERT INTO Notes (UserID, CategoryID, Title, Content, Summary, Status, " +
         "IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt) " +
@@ -94,7 +113,7 @@ public class NoteRepository {
         "UPDATE Notes SET Status = ?, UpdatedAt = GETDATE() WHERE NoteID = ?";
     
     private static final String SQL_INCREMENT_VIEW = 
-        "UPDATE Notes SET ViewCount = ViewCount + 1 WHERE NoteID = ?";
+        "UPDATE Notes SET ViewCount = ViewCount + ? WHERE NoteID = ?";
     
     private static final String SQL_ARCHIVE = 
         "UPDATE Notes SET IsArchived = 1, UpdatedAt = GETDATE() WHERE NoteID = ?";
@@ -102,6 +121,15 @@ public class NoteRepository {
     private static final String SQL_DELETE = 
         "DELETE FROM Notes WHERE NoteID = ?";
     
+    private static final String SQL_RESTORE = 
+        "UPDATE Notes SET IsArchived = 0, UpdatedAt = GETDATE() WHERE NoteID = ?";
+    
+    private static final String SQL_FIND_ARCHIVED = 
+        "SELECT NoteID, UserID, CategoryID, Title, Content, Summary, Status, " +
+        "IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt " +
+        "FROM Notes WHERE UserID = ? AND IsArchived = 1 " +
+        "ORDER BY UpdatedAt DESC";
+    
     private static final String SQL_COUNT_BY_USER = 
         "SELECT COUNT(*) FROM Notes WHERE UserID = ? AND IsArchived = 0";
     
@@ -115,6 +143,21 @@ public class NoteRepository {
         "  SUM(CASE WHEN IsFavorite = 1 THEN 1 ELSE 0 END) AS FavoriteCount " +
         "FROM Notes WHERE UserID = ? AND IsArchived = 0";
     
+    // Thống kê materialized (bảng NoteStatistics do trigger trg_Notes_Statistics duy trì)
+    private static final String SQL_MATERIALIZED_STATISTICS = 
+        "SELECT TotalNotes, RegularCount, UrgentCount, IdeasCount, CompletedCount, " +
+        "FavoriteCount, ArchivedCount, TotalWords " +
+        "FROM NoteStatistics WHERE UserID = ?";
+    
+    private static final String SQL_RECONCILE_STATISTICS = 
+        "{CALL sp_ReconcileNoteStatistics}";
+    
+    // ==================== WRITE-BEHIND COUNTERS ====================
+    
+    /** ViewCount được cộng dồn trong bộ nhớ, flush mỗi 30 giây */
+    private static final WriteBehindCounter VIEW_COUNTER =
+        new WriteBehindCounter("ViewCount", SQL_INCREMENT_VIEW, 30);
+    
     // ==================== FIND OPERATIONS ====================
     
     /**
@@ -124,19 +167,21 @@ public class NoteRepository {
      * @return Optional chứa Note nếu tìm thấy
      */
     public Optional<Note> findById(int id) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
+        return METRICS.timedDb("noteRepository.findById", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
             
-            ps.setInt(1, id);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToNote(rs));
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToNote(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding note by ID: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding note by ID: " + e.getMessage());
-        }
-        return Optional.empty();
+            return Optional.empty();
+        });
     }
     
     /**
@@ -146,20 +191,22 @@ public class NoteRepository {
      * @return Danh sách ghi chú
      */
     public List<Note> findByUser(int userId) {
-        List<Note> notes = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USER)) {
+        return METRICS.timedDb("noteRepository.findByUser", () -> {
+            List<Note> notes = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USER)) {
             
-            ps.setInt(1, userId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding notes by user: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding notes by user: " + e.getMessage());
-        }
-        return notes;
+            return notes;
+        });
     }
     
     /**
@@ -170,21 +217,23 @@ public class NoteRepository {
      * @return Danh sách ghi chú
      */
     public List<Note> findByUserAndStatus(int userId, String status) {
-        List<Note> notes = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USER_AND_STATUS)) {
+        return METRICS.timedDb("noteRepository.findByUserAndStatus", () -> {
+            List<Note> notes = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USER_AND_STATUS)) {
             
-            ps.setInt(1, userId);
-            ps.setString(2, status);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                ps.setInt(1, userId);
+                ps.setString(2, status);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding notes by status: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding notes by status: " + e.getMessage());
-        }
-        return notes;
+            return notes;
+        });
     }
     
     /**
@@ -195,21 +244,23 @@ public class NoteRepository {
      * @return Danh sách ghi chú
      */
     public List<Note> findByUserAndCategory(int userId, int categoryId) {
-        List<Note> notes = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USER_AND_CATEGORY)) {
+        return METRICS.timedDb("noteRepository.findByUserAndCategory", () -> {
+            List<Note> notes = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USER_AND_CATEGORY)) {
             
-            ps.setInt(1, userId);
-            ps.setInt(2, categoryId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                ps.setInt(1, userId);
+                ps.setInt(2, categoryId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding notes by category: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding notes by category: " + e.getMessage());
-        }
-        return notes;
+            return notes;
+        });
     }
     
     /**
@@ -219,20 +270,22 @@ public class NoteRepository {
      * @return Danh sách ghi chú yêu thích
      */
     public List<Note> findFavorites(int userId) {
-        List<Note> notes = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_FAVORITES)) {
+        return METRICS.timedDb("noteRepository.findFavorites", () -> {
+            List<Note> notes = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_FAVORITES)) {
             
-            ps.setInt(1, userId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding favorite notes: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding favorite notes: " + e.getMessage());
-        }
-        return notes;
+            return notes;
+        });
     }
     
     /**
@@ -243,25 +296,32 @@ public class NoteRepository {
      * @return Danh sách ghi chú khớp
      */
     public List<Note> search(int userId, String keyword) {
-        List<Note> notes = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_SEARCH)) {
+        return METRICS.timedDb("noteRepository.search", () -> {
+            List<Note> ranked = searchFullText(userId, keyword, null, null, null);
+            if (ranked != null) {
+                return ranked;
+            }
+        
+            List<Note> notes = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_SEARCH)) {
             
-            String pattern = "%" + keyword + "%";
-            ps.setInt(1, userId);
-            ps.setString(2, pattern);
-            ps.setString(3, pattern);
-            ps.setString(4, pattern);
+                String pattern = "%" + keyword + "%";
+                ps.setInt(1, userId);
+                ps.setString(2, pattern);
+                ps.setString(3, pattern);
+                ps.setString(4, pattern);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error searching notes: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error searching notes: " + e.getMessage());
-        }
-        return notes;
+            return notes;
+        });
     }
     
     /**
@@ -276,36 +336,92 @@ public class NoteRepository {
      */
     public List<Note> searchAdvanced(int userId, String keyword, String status, 
                                       Integer categoryId, Boolean favoriteOnly) {
+        return METRICS.timedDb("noteRepository.searchAdvanced", () -> {
+            List<Note> ranked = searchFullText(userId, keyword, status, categoryId, favoriteOnly);
+            if (ranked != null) {
+                return ranked;
+            }
+        
+            List<Note> notes = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_SEARCH_ADVANCED)) {
+            
+                String pattern = "%" + (keyword != null ? keyword : "") + "%";
+                ps.setInt(1, userId);
+                ps.setString(2, pattern);
+                ps.setString(3, pattern);
+                ps.setString(4, pattern);
+            
+                // Status filter
+                ps.setString(5, status);
+                ps.setString(6, status);
+            
+                // Category filter
+                if (categoryId != null) {
+                    ps.setInt(7, categoryId);
+                    ps.setInt(8, categoryId);
+                } else {
+                    ps.setNull(7, Types.INTEGER);
+                    ps.setNull(8, Types.INTEGER);
+                }
+            
+                // Favorite filter
+                if (favoriteOnly != null && favoriteOnly) {
+                    ps.setBoolean(9, true);
+                    ps.setBoolean(10, true);
+                } else {
+                    ps.setNull(9, Types.BOOLEAN);
+                    ps.setNull(10, Types.BOOLEAN);
+                }
+            
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error in advanced search: " + e.getMessage());
+            }
+            return notes;
+        });
+    }
+    
+    /**
+     * Tìm kiếm bằng full-text index, xếp hạng theo RANK
+     * 
+     * @return Danh sách ghi chú, hoặc null nếu full-text không dùng được
+     *         (chưa có index, từ khóa rỗng, query lỗi) - caller fallback về LIKE
+     */
+    private List<Note> searchFullText(int userId, String keyword, String status,
+                                      Integer categoryId, Boolean favoriteOnly) {
+        String query = FullTextSearch.toContainsQuery(keyword);
+        if (query == null || !FullTextSearch.isAvailable()) {
+            return null;
+        }
+        
         List<Note> notes = new ArrayList<>();
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_SEARCH_ADVANCED)) {
-            
-            String pattern = "%" + (keyword != null ? keyword : "") + "%";
-            ps.setInt(1, userId);
-            ps.setString(2, pattern);
-            ps.setString(3, pattern);
-            ps.setString(4, pattern);
+             PreparedStatement ps = conn.prepareStatement(SQL_SEARCH_FULLTEXT)) {
             
-            // Status filter
-            ps.setString(5, status);
-            ps.setString(6, status);
+            ps.setString(1, query);
+            ps.setInt(2, userId);
+            ps.setString(3, status);
+            ps.setString(4, status);
             
-            // Category filter
             if (categoryId != null) {
-                ps.setInt(7, categoryId);
-                ps.setInt(8, categoryId);
+                ps.setInt(5, categoryId);
+                ps.setInt(6, categoryId);
             } else {
-                ps.setNull(7, Types.INTEGER);
-                ps.setNull(8, Types.INTEGER);
+                ps.setNull(5, Types.INTEGER);
+                ps.setNull(6, Types.INTEGER);
             }
             
-            // Favorite filter
             if (favoriteOnly != null && favoriteOnly) {
-                ps.setBoolean(9, true);
-                ps.setBoolean(10, true);
+                ps.setBoolean(7, true);
+                ps.setBoolean(8, true);
             } else {
-                ps.setNull(9, Types.BOOLEAN);
-                ps.setNull(10, Types.BOOLEAN);
+                ps.setNull(7, Types.BOOLEAN);
+                ps.setNull(8, Types.BOOLEAN);
             }
             
             try (ResultSet rs = ps.executeQuery()) {
@@ -313,10 +429,12 @@ public class NoteRepository {
                     notes.add(mapResultSetToNote(rs));
                 }
             }
+            return notes;
         } catch (SQLException e) {
-            System.err.println("Error in advanced search: " + e.getMessage());
+            LOG.error("Full-text search unavailable, fallback to LIKE: " + e.getMessage());
+            FullTextSearch.markUnavailable();
+            return null;
         }
-        return notes;
     }
     
     // ==================== CRUD OPERATIONS ====================
@@ -328,40 +446,42 @@ public class NoteRepository {
      * @return true nếu thành công
      */
     public boolean insert(Note note) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        return METRICS.timedDb("noteRepository.insert", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
             
-            ps.setInt(1, note.getUserId());
+                ps.setInt(1, note.getUserId());
             
-            if (note.getCategoryId() != null && note.getCategoryId() > 0) {
-                ps.setInt(2, note.getCategoryId());
-            } else {
-                ps.setNull(2, Types.INTEGER);
-            }
+                if (note.getCategoryId() != null && note.getCategoryId() > 0) {
+                    ps.setInt(2, note.getCategoryId());
+                } else {
+                    ps.setNull(2, Types.INTEGER);
+                }
+            
+                ps.setString(3, note.getTitle());
+                ps.setString(4, note.getContent());
+                ps.setString(5, note.getSummary());
+                ps.setString(6, note.getStatus() != null ? note.getStatus() : "REGULAR");
+                ps.setBoolean(7, note.isFavorite());
+                ps.setBoolean(8, note.isArchived());
+                ps.setString(9, note.getColor() != null ? note.getColor() : "#ffffff");
             
-            ps.setString(3, note.getTitle());
-            ps.setString(4, note.getContent());
-            ps.setString(5, note.getSummary());
-            ps.setString(6, note.getStatus() != null ? note.getStatus() : "REGULAR");
-            ps.setBoolean(7, note.isFavorite());
-            ps.setBoolean(8, note.isArchived());
-            ps.setString(9, note.getColor() != null ? note.getColor() : "#ffffff");
-            
-            int affected = ps.executeUpdate();
-            if (affected > 0) {
-                try (ResultSet keys = ps.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        note.setId(keys.getInt(1));
+                int affected = ps.executeUpdate();
+                if (affected > 0) {
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            note.setId(keys.getInt(1));
+                        }
                     }
+                    note.setCreatedAt(LocalDateTime.now());
+                    note.setUpdatedAt(LocalDateTime.now());
+                    return true;
                 }
-                note.setCreatedAt(LocalDateTime.now());
-                note.setUpdatedAt(LocalDateTime.now());
-                return true;
+            } catch (SQLException e) {
+                LOG.error("Error inserting note: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error inserting note: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -371,33 +491,35 @@ public class NoteRepository {
      * @return true nếu thành công
      */
     public boolean update(Note note) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
+        return METRICS.timedDb("noteRepository.update", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
             
-            if (note.getCategoryId() != null && note.getCategoryId() > 0) {
-                ps.setInt(1, note.getCategoryId());
-            } else {
-                ps.setNull(1, Types.INTEGER);
-            }
+                if (note.getCategoryId() != null && note.getCategoryId() > 0) {
+                    ps.setInt(1, note.getCategoryId());
+                } else {
+                    ps.setNull(1, Types.INTEGER);
+                }
             
-            ps.setString(2, note.getTitle());
-            ps.setString(3, note.getContent());
-            ps.setString(4, note.getSummary());
-            ps.setString(5, note.getStatus());
-            ps.setBoolean(6, note.isFavorite());
-            ps.setBoolean(7, note.isArchived());
-            ps.setString(8, note.getColor());
-            ps.setInt(9, note.getId());
-            
-            boolean success = ps.executeUpdate() > 0;
-            if (success) {
-                note.setUpdatedAt(LocalDateTime.now());
+                ps.setString(2, note.getTitle());
+                ps.setString(3, note.getContent());
+                ps.setString(4, note.getSummary());
+                ps.setString(5, note.getStatus());
+                ps.setBoolean(6, note.isFavorite());
+                ps.setBoolean(7, note.isArchived());
+                ps.setString(8, note.getColor());
+                ps.setInt(9, note.getId());
+            
+                boolean success = ps.executeUpdate() > 0;
+                if (success) {
+                    note.setUpdatedAt(LocalDateTime.now());
+                }
+                return success;
+            } catch (SQLException e) {
+                LOG.error("Error updating note: " + e.getMessage());
             }
-            return success;
-        } catch (SQLException e) {
-            System.err.println("Error updating note: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -410,19 +532,21 @@ public class NoteRepository {
      * @return true nếu thành công
      */
     public boolean updateContent(int noteId, String title, String content, String summary) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_CONTENT)) {
+        return METRICS.timedDb("noteRepository.updateContent", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_CONTENT)) {
             
-            ps.setString(1, title);
-            ps.setString(2, content);
-            ps.setString(3, summary);
-            ps.setInt(4, noteId);
+                ps.setString(1, title);
+                ps.setString(2, content);
+                ps.setString(3, summary);
+                ps.setInt(4, noteId);
             
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error updating note content: " + e.getMessage());
-        }
-        return false;
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error updating note content: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -432,15 +556,17 @@ public class NoteRepository {
      * @return true nếu thành công
      */
     public boolean toggleFavorite(int noteId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_TOGGLE_FAVORITE)) {
+        return METRICS.timedDb("noteRepository.toggleFavorite", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_TOGGLE_FAVORITE)) {
             
-            ps.setInt(1, noteId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error toggling favorite: " + e.getMessage());
-        }
-        return false;
+                ps.setInt(1, noteId);
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error toggling favorite: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -451,34 +577,34 @@ public class NoteRepository {
      * @return true nếu thành công
      */
     public boolean updateStatus(int noteId, String status) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_STATUS)) {
+        return METRICS.timedDb("noteRepository.updateStatus", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_STATUS)) {
             
-            ps.setString(1, status);
-            ps.setInt(2, noteId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error updating status: " + e.getMessage());
-        }
-        return false;
+                ps.setString(1, status);
+                ps.setInt(2, noteId);
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error updating status: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
-     * Tăng số lần xem
+     * Tăng số lần xem (write-behind)
+     * Chỉ cộng dồn trong bộ nhớ, được ghi xuống DB theo batch định kỳ
+     * và khi đóng ứng dụng (WriteBehindCounter.flushAll)
      * 
      * @param noteId ID ghi chú
-     * @return true nếu thành công
+     * @return true nếu đã ghi nhận
      */
     public boolean incrementViewCount(int noteId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_INCREMENT_VIEW)) {
-            
-            ps.setInt(1, noteId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error incrementing view count: " + e.getMessage());
+        if (noteId <= 0) {
+            return false;
         }
-        return false;
+        VIEW_COUNTER.increment(noteId);
+        return true;
     }
     
     /**
@@ -488,15 +614,17 @@ public class NoteRepository {
      * @return true nếu thành công
      */
     public boolean archive(int noteId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_ARCHIVE)) {
+        return METRICS.timedDb("noteRepository.archive", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_ARCHIVE)) {
             
-            ps.setInt(1, noteId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error archiving note: " + e.getMessage());
-        }
-        return false;
+                ps.setInt(1, noteId);
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error archiving note: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -512,15 +640,17 @@ public class NoteRepository {
      * @return true nếu thành công
      */
     public boolean delete(int noteId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_ARCHIVE)) {
+        return METRICS.timedDb("noteRepository.delete", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_ARCHIVE)) {
             
-            ps.setInt(1, noteId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error archiving note: " + e.getMessage());
-        }
-        return false;
+                ps.setInt(1, noteId);
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error archiving note: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -531,15 +661,17 @@ public class NoteRepository {
      * @return true nếu thành công
      */
     public boolean deletePermanently(int noteId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
+        return METRICS.timedDb("noteRepository.deletePermanently", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
             
-            ps.setInt(1, noteId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error permanently deleting note: " + e.getMessage());
-        }
-        return false;
+                ps.setInt(1, noteId);
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error permanently deleting note: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -549,16 +681,17 @@ public class NoteRepository {
      * @return true nếu thành công
      */
     public boolean restore(int noteId) {
-        String SQL_RESTORE = "UPDATE Notes SET IsArchived = 0, UpdatedAt = GETDATE() WHERE NoteID = ?";
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_RESTORE)) {
+        return METRICS.timedDb("noteRepository.restore", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_RESTORE)) {
             
-            ps.setInt(1, noteId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error restoring note: " + e.getMessage());
-        }
-        return false;
+                ps.setInt(1, noteId);
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error restoring note: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -568,73 +701,163 @@ public class NoteRepository {
      * @return Danh sách archived notes
      */
     public List<Note> getArchivedNotes(int userId) {
-        String SQL_GET_ARCHIVED = "SELECT * FROM Notes WHERE UserID = ? AND IsArchived = 1 ORDER BY UpdatedAt DESC";
-        List<Note> notes = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_GET_ARCHIVED)) {
+        return METRICS.timedDb("noteRepository.getArchivedNotes", () -> {
+            List<Note> notes = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_ARCHIVED)) {
             
-            ps.setInt(1, userId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        notes.add(mapResultSetToNote(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error getting archived notes: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting archived notes: " + e.getMessage());
-        }
-        return notes;
+            return notes;
+        });
     }
     
     // ==================== STATISTICS ====================
     
     /**
      * Đếm số ghi chú của user
+     * Đọc O(1) từ NoteStatistics, fallback COUNT(*) nếu chưa có
      * 
      * @param userId ID người dùng
      * @return Số ghi chú
      */
     public int countByUser(int userId) {
+        return METRICS.timedDb("noteRepository.countByUser", () -> {
+            long[] materialized = findMaterializedStatistics(userId);
+            if (materialized != null) {
+                return (int) materialized[0];
+            }
+        
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_COUNT_BY_USER)) {
+            
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error counting notes: " + e.getMessage());
+            }
+            return 0;
+        });
+    }
+    
+    /**
+     * Lấy thống kê ghi chú của user
+     * Đọc O(1) từ NoteStatistics, fallback aggregate trên Notes nếu chưa có
+     * 
+     * @param userId ID người dùng
+     * @return Mảng thống kê [total, regular, urgent, ideas, completed, favorite]
+     */
+    public int[] getStatistics(int userId) {
+        return METRICS.timedDb("noteRepository.getStatistics", () -> {
+            int[] stats = new int[6];
+        
+            long[] materialized = findMaterializedStatistics(userId);
+            if (materialized != null) {
+                for (int i = 0; i < stats.length; i++) {
+                    stats[i] = (int) materialized[i];
+                }
+                return stats;
+            }
+        
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_STATISTICS)) {
+            
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        stats[0] = rs.getInt("TotalNotes");
+                        stats[1] = rs.getInt("RegularCount");
+                        stats[2] = rs.getInt("UrgentCount");
+                        stats[3] = rs.getInt("IdeasCount");
+                        stats[4] = rs.getInt("CompletedCount");
+                        stats[5] = rs.getInt("FavoriteCount");
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error getting statistics: " + e.getMessage());
+            }
+            return stats;
+        });
+    }
+    
+    /**
+     * Lấy thống kê đầy đủ (gồm thùng rác và tổng số từ)
+     * 
+     * @param userId ID người dùng
+     * @return Mảng [total, regular, urgent, ideas, completed, favorite, archived, totalWords]
+     *         hoặc mảng 0 nếu chưa có số liệu materialized
+     */
+    public long[] getFullStatistics(int userId) {
+        return METRICS.timedDb("noteRepository.getFullStatistics", () -> {
+            long[] materialized = findMaterializedStatistics(userId);
+            return materialized != null ? materialized : new long[8];
+        });
+    }
+    
+    /**
+     * Đối soát NoteStatistics với dữ liệu thật trong Notes
+     * App lên lịch chạy nền mỗi 15 phút; có thể gọi thủ công sau khi import dữ liệu
+     * 
+     * @return Số dòng thống kê đã được sửa
+     */
+    public static int reconcileStatistics() {
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_COUNT_BY_USER)) {
+             CallableStatement cs = conn.prepareCall(SQL_RECONCILE_STATISTICS)) {
             
-            ps.setInt(1, userId);
-            try (ResultSet rs = ps.executeQuery()) {
+            try (ResultSet rs = cs.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getInt(1);
+                    int corrected = rs.getInt("CorrectedRows");
+                    if (corrected > 0) {
+                        LOG.info("NoteRepository: Reconciled " + corrected + " statistics rows");
+                    }
+                    return corrected;
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Error counting notes: " + e.getMessage());
+            LOG.error("Error reconciling statistics: " + e.getMessage());
         }
         return 0;
     }
     
     /**
-     * Lấy thống kê ghi chú của user
+     * Đọc dòng thống kê materialized của user
      * 
-     * @param userId ID người dùng
-     * @return Mảng thống kê [total, regular, urgent, ideas, completed, favorite]
+     * @return Mảng 8 phần tử hoặc null nếu chưa có dòng / bảng chưa tồn tại
      */
-    public int[] getStatistics(int userId) {
-        int[] stats = new int[6];
+    private long[] findMaterializedStatistics(int userId) {
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_STATISTICS)) {
+             PreparedStatement ps = conn.prepareStatement(SQL_MATERIALIZED_STATISTICS)) {
             
             ps.setInt(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    stats[0] = rs.getInt("TotalNotes");
-                    stats[1] = rs.getInt("RegularCount");
-                    stats[2] = rs.getInt("UrgentCount");
-                    stats[3] = rs.getInt("IdeasCount");
-                    stats[4] = rs.getInt("CompletedCount");
-                    stats[5] = rs.getInt("FavoriteCount");
+                    return new long[] {
+                        rs.getInt("TotalNotes"),
+                        rs.getInt("RegularCount"),
+                        rs.getInt("UrgentCount"),
+                        rs.getInt("IdeasCount"),
+                        rs.getInt("CompletedCount"),
+                        rs.getInt("FavoriteCount"),
+                        rs.getInt("ArchivedCount"),
+                        rs.getLong("TotalWords")
+                    };
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Error getting statistics: " + e.getMessage());
+            LOG.error("Materialized statistics unavailable: " + e.getMessage());
         }
-        return stats;
+        return null;
     }
     
     // ==================== HELPER METHODS ====================
@@ -2,6 +2,7 @@ package com.dat.notebook.repository;
 
 import com.dat.notebook.config.DatabaseConfig;
 import com.dat.notebook.model.User;
+import com.dat.notebook.util.AppLogger;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -16,6 +17,9 @@ import java.util.Optional;
  * @version 2.0 - Simplified for actual schema
  */
 public class SimpleUserRepository {
+
+    private static final AppLogger LOG = AppLogger.getLogger(SimpleUserRepository.class);
+
     
     /**
      * Xác thực đăng nhập với username và password hash.
@@ -46,7 +50,7 @@ public class SimpleUserRepository {
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Lỗi xác thực: " + e.getMessage());
+            LOG.error("Lỗi xác thực: " + e.getMessage());
         }
         return Optional.empty();
     }
@@ -71,7 +75,7 @@ public class SimpleUserRepository {
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Lỗi kiểm tra username: " + e.getMessage());
+            LOG.error("Lỗi kiểm tra username: " + e.getMessage());
         }
         return false;
     }
@@ -119,18 +123,17 @@ public class SimpleUserRepository {
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     int newId = rs.getInt(1);
-                    System.out.println("✅ Tạo user thành công! ID: " + newId);
+                    LOG.info("✅ Tạo user thành công! ID: " + newId);
                     return newId;
                 }
             }
         } catch (SQLException e) {
             // Nếu lỗi do không có cột email, thử lại không có email
             if (hasEmail && e.getMessage().contains("Invalid column name 'email'")) {
-                System.out.println("⚠️ Bảng User không có cột email, thử lại...");
+                LOG.warn("⚠️ Bảng User không có cột email, thử lại...");
                 return createUserWithEmail(username, passwordHash, null);
             }
-            System.err.println("❌ Lỗi tạo user: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("❌ Lỗi tạo user: " + e.getMessage(), e);
         }
         return -1;
     }
@@ -157,10 +160,10 @@ public class SimpleUserRepository {
         } catch (SQLException e) {
             // Nếu cột email không tồn tại, bỏ qua
             if (e.getMessage().contains("Invalid column name")) {
-                System.out.println("⚠️ Bảng User không có cột email");
+                LOG.warn("⚠️ Bảng User không có cột email");
                 return false;
             }
-            System.err.println("❌ Lỗi kiểm tra email: " + e.getMessage());
+            LOG.error("❌ Lỗi kiểm tra email: " + e.getMessage());
         }
         return false;
     }
@@ -191,7 +194,7 @@ public class SimpleUserRepository {
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Lỗi tìm user: " + e.getMessage());
+            LOG.error("Lỗi tìm user: " + e.getMessage());
         }
         return Optional.empty();
     }
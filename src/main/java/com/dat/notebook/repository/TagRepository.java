@@ -1,7 +1,11 @@
 package com.dat.notebook.repository;
 
 import com.dat.notebook.config.DatabaseConfig;
+import com.dat.notebook.model.NoteEvent;
 import com.dat.notebook.model.Tag;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.DomainEventBus;
+import com.dat.notebook.util.MetricsRegistry;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -16,11 +20,16 @@ import java.util.Optional;
  * - CRUD operations cho Tag
  * - Quản lý quan hệ Note-Tag
  * - Gợi ý tags phổ biến
+ * - Phát NoteEvent.TagsChanged lên DomainEventBus sau mỗi lần ghi thành công
  * 
  * @author SmartNotebook Team
  * @version 1.0
  */
 public class TagRepository {
+
+    private static final AppLogger LOG = AppLogger.getLogger(TagRepository.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
     
     // ==================== SQL QUERIES ====================
     
@@ -84,19 +93,21 @@ public class TagRepository {
      * @return Optional chứa Tag nếu tìm thấy
      */
     public Optional<Tag> findById(int id) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
+        return METRICS.timedDb("tagRepository.findById", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
             
-            ps.setInt(1, id);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToTag(rs));
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToTag(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding tag by ID: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding tag by ID: " + e.getMessage());
-        }
-        return Optional.empty();
+            return Optional.empty();
+        });
     }
     
     /**
@@ -106,20 +117,22 @@ public class TagRepository {
      * @return Danh sách tags
      */
     public List<Tag> findByUser(int userId) {
-        List<Tag> tags = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USER)) {
+        return METRICS.timedDb("tagRepository.findByUser", () -> {
+            List<Tag> tags = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USER)) {
             
-            ps.setInt(1, userId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    tags.add(mapResultSetToTag(rs));
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        tags.add(mapResultSetToTag(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding tags by user: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding tags by user: " + e.getMessage());
-        }
-        return tags;
+            return tags;
+        });
     }
     
     /**
@@ -130,20 +143,22 @@ public class TagRepository {
      * @return Optional chứa Tag nếu tìm thấy
      */
     public Optional<Tag> findByName(int userId, String name) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_NAME)) {
+        return METRICS.timedDb("tagRepository.findByName", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_NAME)) {
             
-            ps.setInt(1, userId);
-            ps.setString(2, Tag.normalizeTagName(name));
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToTag(rs));
+                ps.setInt(1, userId);
+                ps.setString(2, Tag.normalizeTagName(name));
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToTag(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding tag by name: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding tag by name: " + e.getMessage());
-        }
-        return Optional.empty();
+            return Optional.empty();
+        });
     }
     
     /**
@@ -153,20 +168,22 @@ public class TagRepository {
      * @return Danh sách tags
      */
     public List<Tag> findByNote(int noteId) {
-        List<Tag> tags = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_NOTE)) {
+        return METRICS.timedDb("tagRepository.findByNote", () -> {
+            List<Tag> tags = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_NOTE)) {
             
-            ps.setInt(1, noteId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    tags.add(mapResultSetToTag(rs));
+                ps.setInt(1, noteId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        tags.add(mapResultSetToTag(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding tags by note: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding tags by note: " + e.getMessage());
-        }
-        return tags;
+            return tags;
+        });
     }
     
     /**
@@ -177,21 +194,23 @@ public class TagRepository {
      * @return Danh sách tags phổ biến
      */
     public List<Tag> findPopular(int userId, int limit) {
-        List<Tag> tags = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_POPULAR)) {
+        return METRICS.timedDb("tagRepository.findPopular", () -> {
+            List<Tag> tags = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_POPULAR)) {
             
-            ps.setInt(1, limit);
-            ps.setInt(2, userId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    tags.add(mapResultSetToTag(rs));
+                ps.setInt(1, limit);
+                ps.setInt(2, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        tags.add(mapResultSetToTag(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding popular tags: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding popular tags: " + e.getMessage());
-        }
-        return tags;
+            return tags;
+        });
     }
     
     /**
@@ -202,21 +221,23 @@ public class TagRepository {
      * @return Danh sách tags khớp
      */
     public List<Tag> search(int userId, String keyword) {
-        List<Tag> tags = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_SEARCH)) {
+        return METRICS.timedDb("tagRepository.search", () -> {
+            List<Tag> tags = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_SEARCH)) {
             
-            ps.setInt(1, userId);
-            ps.setString(2, "%" + keyword + "%");
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    tags.add(mapResultSetToTag(rs));
+                ps.setInt(1, userId);
+                ps.setString(2, "%" + keyword + "%");
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        tags.add(mapResultSetToTag(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error searching tags: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error searching tags: " + e.getMessage());
-        }
-        return tags;
+            return tags;
+        });
     }
     
     // ==================== CRUD OPERATIONS ====================
@@ -228,27 +249,30 @@ public class TagRepository {
      * @return true nếu thành công
      */
     public boolean insert(Tag tag) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        return METRICS.timedDb("tagRepository.insert", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
             
-            ps.setInt(1, tag.getUserId());
-            ps.setString(2, tag.getName());
-            ps.setString(3, tag.getColor());
+                ps.setInt(1, tag.getUserId());
+                ps.setString(2, tag.getName());
+                ps.setString(3, tag.getColor());
             
-            int affected = ps.executeUpdate();
-            if (affected > 0) {
-                try (ResultSet keys = ps.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        tag.setId(keys.getInt(1));
+                int affected = ps.executeUpdate();
+                if (affected > 0) {
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            tag.setId(keys.getInt(1));
+                        }
                     }
+                    tag.setCreatedAt(LocalDateTime.now());
+                    publishTagsChanged(tag.getUserId(), 0);
+                    return true;
                 }
-                tag.setCreatedAt(LocalDateTime.now());
-                return true;
+            } catch (SQLException e) {
+                LOG.error("Error inserting tag: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error inserting tag: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -259,19 +283,21 @@ public class TagRepository {
      * @return Tag tìm được hoặc tạo mới
      */
     public Tag findOrCreate(int userId, String tagName) {
-        String normalizedName = Tag.normalizeTagName(tagName);
-        Optional<Tag> existing = findByName(userId, normalizedName);
+        return METRICS.timedDb("tagRepository.findOrCreate", () -> {
+            String normalizedName = Tag.normalizeTagName(tagName);
+            Optional<Tag> existing = findByName(userId, normalizedName);
         
-        if (existing.isPresent()) {
-            return existing.get();
-        }
+            if (existing.isPresent()) {
+                return existing.get();
+            }
         
-        Tag newTag = new Tag(userId, normalizedName);
-        if (insert(newTag)) {
-            return newTag;
-        }
+            Tag newTag = new Tag(userId, normalizedName);
+            if (insert(newTag)) {
+                return newTag;
+            }
         
-        return null;
+            return null;
+        });
     }
     
     /**
@@ -281,18 +307,24 @@ public class TagRepository {
      * @return true nếu thành công
      */
     public boolean update(Tag tag) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
+        return METRICS.timedDb("tagRepository.update", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
             
-            ps.setString(1, tag.getName());
-            ps.setString(2, tag.getColor());
-            ps.setInt(3, tag.getId());
+                ps.setString(1, tag.getName());
+                ps.setString(2, tag.getColor());
+                ps.setInt(3, tag.getId());
             
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error updating tag: " + e.getMessage());
-        }
-        return false;
+                boolean success = ps.executeUpdate() > 0;
+                if (success) {
+                    publishTagsChanged(tag.getUserId(), 0);
+                }
+                return success;
+            } catch (SQLException e) {
+                LOG.error("Error updating tag: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -302,19 +334,21 @@ public class TagRepository {
      * @return true nếu thành công
      */
     public boolean incrementUsage(int tagId) {
-        // UsageCount column đã bị xóa khỏi database schema
-        return true;
-        /*
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_INCREMENT_USAGE)) {
+        return METRICS.timedDb("tagRepository.incrementUsage", () -> {
+            // UsageCount column đã bị xóa khỏi database schema
+            return true;
+            /*
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_INCREMENT_USAGE)) {
             
-            ps.setInt(1, tagId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error incrementing tag usage: " + e.getMessage());
-        }
-        return false;
-        */
+                ps.setInt(1, tagId);
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error incrementing tag usage: " + e.getMessage());
+            }
+            return false;
+            */
+        });
     }
     
     /**
@@ -324,19 +358,21 @@ public class TagRepository {
      * @return true nếu thành công
      */
     public boolean decrementUsage(int tagId) {
-        // UsageCount column đã bị xóa khỏi database schema
-        return true;
-        /*
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_DECREMENT_USAGE)) {
+        return METRICS.timedDb("tagRepository.decrementUsage", () -> {
+            // UsageCount column đã bị xóa khỏi database schema
+            return true;
+            /*
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_DECREMENT_USAGE)) {
             
-            ps.setInt(1, tagId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error decrementing tag usage: " + e.getMessage());
-        }
-        return false;
-        */
+                ps.setInt(1, tagId);
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error decrementing tag usage: " + e.getMessage());
+            }
+            return false;
+            */
+        });
     }
     
     /**
@@ -346,15 +382,21 @@ public class TagRepository {
      * @return true nếu thành công
      */
     public boolean delete(int tagId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
+        return METRICS.timedDb("tagRepository.delete", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
             
-            ps.setInt(1, tagId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error deleting tag: " + e.getMessage());
-        }
-        return false;
+                ps.setInt(1, tagId);
+                boolean success = ps.executeUpdate() > 0;
+                if (success) {
+                    publishTagsChanged(0, 0);
+                }
+                return success;
+            } catch (SQLException e) {
+                LOG.error("Error deleting tag: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     // ==================== NOTE-TAG RELATIONSHIP ====================
@@ -367,26 +409,29 @@ public class TagRepository {
      * @return true nếu thành công
      */
     public boolean addTagToNote(int noteId, int tagId) {
-        // Kiểm tra đã có chưa
-        if (noteHasTag(noteId, tagId)) {
-            return true;
-        }
+        return METRICS.timedDb("tagRepository.addTagToNote", () -> {
+            // Kiểm tra đã có chưa
+            if (noteHasTag(noteId, tagId)) {
+                return true;
+            }
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_ADD_TAG_TO_NOTE)) {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_ADD_TAG_TO_NOTE)) {
             
-            ps.setInt(1, noteId);
-            ps.setInt(2, tagId);
+                ps.setInt(1, noteId);
+                ps.setInt(2, tagId);
             
-            boolean success = ps.executeUpdate() > 0;
-            if (success) {
-                incrementUsage(tagId);
+                boolean success = ps.executeUpdate() > 0;
+                if (success) {
+                    incrementUsage(tagId);
+                    publishTagsChanged(0, noteId);
+                }
+                return success;
+            } catch (SQLException e) {
+                LOG.error("Error adding tag to note: " + e.getMessage());
             }
-            return success;
-        } catch (SQLException e) {
-            System.err.println("Error adding tag to note: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -397,21 +442,24 @@ public class TagRepository {
      * @return true nếu thành công
      */
     public boolean removeTagFromNote(int noteId, int tagId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_REMOVE_TAG_FROM_NOTE)) {
+        return METRICS.timedDb("tagRepository.removeTagFromNote", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_REMOVE_TAG_FROM_NOTE)) {
             
-            ps.setInt(1, noteId);
-            ps.setInt(2, tagId);
+                ps.setInt(1, noteId);
+                ps.setInt(2, tagId);
             
-            boolean success = ps.executeUpdate() > 0;
-            if (success) {
-                decrementUsage(tagId);
+                boolean success = ps.executeUpdate() > 0;
+                if (success) {
+                    decrementUsage(tagId);
+                    publishTagsChanged(0, noteId);
+                }
+                return success;
+            } catch (SQLException e) {
+                LOG.error("Error removing tag from note: " + e.getMessage());
             }
-            return success;
-        } catch (SQLException e) {
-            System.err.println("Error removing tag from note: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -421,24 +469,29 @@ public class TagRepository {
      * @return true nếu thành công
      */
     public boolean removeAllTagsFromNote(int noteId) {
-        // Lấy danh sách tags trước để giảm usage count
-        List<Tag> tags = findByNote(noteId);
+        return METRICS.timedDb("tagRepository.removeAllTagsFromNote", () -> {
+            // Lấy danh sách tags trước để giảm usage count
+            List<Tag> tags = findByNote(noteId);
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_REMOVE_ALL_TAGS_FROM_NOTE)) {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_REMOVE_ALL_TAGS_FROM_NOTE)) {
             
-            ps.setInt(1, noteId);
-            ps.executeUpdate();
+                ps.setInt(1, noteId);
+                ps.executeUpdate();
             
-            // Giảm usage count cho tất cả tags
-            for (Tag tag : tags) {
-                decrementUsage(tag.getId());
+                // Giảm usage count cho tất cả tags
+                for (Tag tag : tags) {
+                    decrementUsage(tag.getId());
+                }
+                if (!tags.isEmpty()) {
+                    publishTagsChanged(0, noteId);
+                }
+                return true;
+            } catch (SQLException e) {
+                LOG.error("Error removing all tags from note: " + e.getMessage());
             }
-            return true;
-        } catch (SQLException e) {
-            System.err.println("Error removing all tags from note: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -449,21 +502,23 @@ public class TagRepository {
      * @return true nếu có
      */
     public boolean noteHasTag(int noteId, int tagId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_CHECK_NOTE_HAS_TAG)) {
+        return METRICS.timedDb("tagRepository.noteHasTag", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_CHECK_NOTE_HAS_TAG)) {
             
-            ps.setInt(1, noteId);
-            ps.setInt(2, tagId);
+                ps.setInt(1, noteId);
+                ps.setInt(2, tagId);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt(1) > 0;
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error checking note has tag: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error checking note has tag: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -474,18 +529,30 @@ public class TagRepository {
      * @return true nếu thành công
      */
     public boolean updateNoteTags(int noteId, List<Integer> tagIds) {
-        removeAllTagsFromNote(noteId);
+        return METRICS.timedDb("tagRepository.updateNoteTags", () -> {
+            removeAllTagsFromNote(noteId);
         
-        for (Integer tagId : tagIds) {
-            if (!addTagToNote(noteId, tagId)) {
-                return false;
+            for (Integer tagId : tagIds) {
+                if (!addTagToNote(noteId, tagId)) {
+                    return false;
+                }
             }
-        }
-        return true;
+            return true;
+        });
     }
     
     // ==================== HELPER METHODS ====================
     
+    /**
+     * Báo tag thay đổi cho các view / cache đang đăng ký
+     * 
+     * @param userId ID người dùng (0 nếu không rõ)
+     * @param noteId ID ghi chú (0 = danh mục tag của user)
+     */
+    private void publishTagsChanged(int userId, int noteId) {
+        DomainEventBus.getInstance().publish(new NoteEvent.TagsChanged(userId, noteId));
+    }
+    
     /**
      * Map ResultSet thành đối tượng Tag
      * 
@@ -2,6 +2,8 @@ package com.dat.notebook.repository;
 
 import com.dat.notebook.config.DatabaseConfig;
 import com.dat.notebook.model.User;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.MetricsRegistry;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -21,6 +23,10 @@ import java.util.Optional;
  * @version 1.0
  */
 public class UserRepository {
+
+    private static final AppLogger LOG = AppLogger.getLogger(UserRepository.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
     
     // ==================== SQL QUERIES ====================
     
@@ -70,19 +76,21 @@ public class UserRepository {
      * @return Optional chứa User nếu tìm thấy
      */
     public Optional<User> findById(int id) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
+        return METRICS.timedDb("userRepository.findById", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
             
-            ps.setInt(1, id);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToUser(rs));
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToUser(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding user by ID: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding user by ID: " + e.getMessage());
-        }
-        return Optional.empty();
+            return Optional.empty();
+        });
     }
     
     /**
@@ -92,19 +100,21 @@ public class UserRepository {
      * @return Optional chứa User nếu tìm thấy
      */
     public Optional<User> findByUsername(String username) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USERNAME)) {
+        return METRICS.timedDb("userRepository.findByUsername", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USERNAME)) {
             
-            ps.setString(1, username);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToUser(rs));
+                ps.setString(1, username);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToUser(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding user by username: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding user by username: " + e.getMessage());
-        }
-        return Optional.empty();
+            return Optional.empty();
+        });
     }
     
     /**
@@ -114,19 +124,21 @@ public class UserRepository {
      * @return Optional chứa User nếu tìm thấy
      */
     public Optional<User> findByEmail(String email) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_EMAIL)) {
+        return METRICS.timedDb("userRepository.findByEmail", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_EMAIL)) {
             
-            ps.setString(1, email);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToUser(rs));
+                ps.setString(1, email);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToUser(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error finding user by email: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding user by email: " + e.getMessage());
-        }
-        return Optional.empty();
+            return Optional.empty();
+        });
     }
     
     /**
@@ -135,18 +147,20 @@ public class UserRepository {
      * @return Danh sách users
      */
     public List<User> findAll() {
-        List<User> users = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL);
-             ResultSet rs = ps.executeQuery()) {
+        return METRICS.timedDb("userRepository.findAll", () -> {
+            List<User> users = new ArrayList<>();
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL);
+                 ResultSet rs = ps.executeQuery()) {
             
-            while (rs.next()) {
-                users.add(mapResultSetToUser(rs));
+                while (rs.next()) {
+                    users.add(mapResultSetToUser(rs));
+                }
+            } catch (SQLException e) {
+                LOG.error("Error finding all users: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error finding all users: " + e.getMessage());
-        }
-        return users;
+            return users;
+        });
     }
     
     // ==================== AUTHENTICATION ====================
@@ -159,21 +173,23 @@ public class UserRepository {
      * @return Optional chứa User nếu xác thực thành công
      */
     public Optional<User> authenticate(String username, String passwordHash) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_AUTHENTICATE)) {
+        return METRICS.timedDb("userRepository.authenticate", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_AUTHENTICATE)) {
             
-            ps.setString(1, username);
-            ps.setString(2, passwordHash);
+                ps.setString(1, username);
+                ps.setString(2, passwordHash);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToUser(rs));
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToUser(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error authenticating user: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error authenticating user: " + e.getMessage());
-        }
-        return Optional.empty();
+            return Optional.empty();
+        });
     }
     
     /**
@@ -184,21 +200,23 @@ public class UserRepository {
      * @return true nếu username đã tồn tại
      */
     public boolean isUsernameExists(String username, int excludeUserId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_CHECK_USERNAME_EXISTS)) {
+        return METRICS.timedDb("userRepository.isUsernameExists", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_CHECK_USERNAME_EXISTS)) {
             
-            ps.setString(1, username);
-            ps.setInt(2, excludeUserId);
+                ps.setString(1, username);
+                ps.setInt(2, excludeUserId);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt(1) > 0;
+                    }
                 }
+            } catch (SQLException e) {
+                LOG.error("Error checking username exists: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error checking username exists: " + e.getMessage());
-        }
-        return false;
+            return false;
+        });
     }
     
     // ==================== CRUD OPERATIONS ====================
@@ -210,28 +228,29 @@ public class UserRepository {
      * @return true nếu thành công
      */
     public boolean insert(User user) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        return METRICS.timedDb("userRepository.insert", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
             
-            ps.setString(1, user.getUsername());
-            ps.setString(2, user.getPasswordHash());
-            ps.setString(3, user.getEmail());
-            ps.setString(4, user.getFullName());
+                ps.setString(1, user.getUsername());
+                ps.setString(2, user.getPasswordHash());
+                ps.setString(3, user.getEmail());
+                ps.setString(4, user.getFullName());
             
-            int affected = ps.executeUpdate();
-            if (affected > 0) {
-                try (ResultSet keys = ps.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        user.setId(keys.getInt(1));
+                int affected = ps.executeUpdate();
+                if (affected > 0) {
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            user.setId(keys.getInt(1));
+                        }
                     }
+                    return true;
                 }
-                return true;
+            } catch (SQLException e) {
+                LOG.error("Error inserting user: " + e.getMessage(), e);
             }
-        } catch (SQLException e) {
-            System.err.println("Error inserting user: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -241,19 +260,21 @@ public class UserRepository {
      * @return true nếu thành công
      */
     public boolean update(User user) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
+        return METRICS.timedDb("userRepository.update", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
             
-            ps.setString(1, user.getUsername());
-            ps.setString(2, user.getEmail());
-            ps.setString(3, user.getFullName());
-            ps.setInt(4, user.getId());
+                ps.setString(1, user.getUsername());
+                ps.setString(2, user.getEmail());
+                ps.setString(3, user.getFullName());
+                ps.setInt(4, user.getId());
             
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error updating user: " + e.getMessage());
-        }
-        return false;
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error updating user: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -264,17 +285,19 @@ public class UserRepository {
      * @return true nếu thành công
      */
     public boolean updatePassword(int userId, String newPasswordHash) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_PASSWORD)) {
+        return METRICS.timedDb("userRepository.updatePassword", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_PASSWORD)) {
             
-            ps.setString(1, newPasswordHash);
-            ps.setInt(2, userId);
+                ps.setString(1, newPasswordHash);
+                ps.setInt(2, userId);
             
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error updating password: " + e.getMessage());
-        }
-        return false;
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error updating password: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     /**
@@ -284,15 +307,17 @@ public class UserRepository {
      * @return true nếu thành công
      */
     public boolean delete(int userId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
+        return METRICS.timedDb("userRepository.delete", () -> {
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
             
-            ps.setInt(1, userId);
-            return ps.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error deleting user: " + e.getMessage());
-        }
-        return false;
+                ps.setInt(1, userId);
+                return ps.executeUpdate() > 0;
+            } catch (SQLException e) {
+                LOG.error("Error deleting user: " + e.getMessage());
+            }
+            return false;
+        });
     }
     
     // ==================== HELPER METHODS ====================
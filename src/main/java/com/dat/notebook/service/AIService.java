@@ -1,5 +1,10 @@
 package com.dat.notebook.service;
 
+import com.dat.notebook.service.ai.AIEngine;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.FlightEvents;
+import com.dat.notebook.util.MetricsRegistry;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -20,6 +25,9 @@ import java.util.stream.Collectors;
  */
 public class AIService {
 
+    private static final AppLogger LOG = AppLogger.getLogger(AIService.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
     private static AIService instance;
 
     // Store prompts: Key = Type (SUMMARY, TITLE, TAGS, GENERAL), Value = Prompt
@@ -45,7 +53,7 @@ public class AIService {
     private void loadOfflinePrompts() {
         try (java.io.InputStream is = getClass().getResourceAsStream("/ai_prompts_offline.txt")) {
             if (is == null) {
-                System.err.println("AI Prompts file not found!");
+                LOG.warn("AI Prompts file not found!");
                 return;
             }
 
@@ -73,7 +81,7 @@ public class AIService {
                 }
             }
         } catch (Exception e) {
-            System.err.println("Error loading AI prompts: " + e.getMessage());
+            LOG.error("Error loading AI prompts: " + e.getMessage());
         }
     }
 
@@ -93,11 +101,13 @@ public class AIService {
      * @return Bản tóm tắt (3-5 điểm chính)
      */
     public String summarizeNote(String content) {
-        if (content == null || content.trim().isEmpty()) {
-            return "Không có nội dung để tóm tắt.";
-        }
-        // Use new AIEngine
-        return com.dat.notebook.service.ai.AIEngine.generateSummary(content);
+        return METRICS.timed("aiService.summarizeNote", () -> {
+            FlightEvents.AIAnalysisEvent event = FlightEvents.AIAnalysisEvent.start("summary");
+            long start = System.nanoTime();
+            String summary = summarize(content);
+            event.finish(content, System.nanoTime() - start, 0, 0);
+            return summary;
+        });
     }
 
     // ===== CHỨC NĂNG 2: GỢI Ý TIÊU ĐỀ =====
@@ -109,11 +119,13 @@ public class AIService {
      * @return Tiêu đề gợi ý
      */
     public String suggestTitle(String content) {
-        if (content == null || content.trim().isEmpty()) {
-            return "Ghi chú không có tiêu đề";
-        }
-        // Use new AIEngine
-        return com.dat.notebook.service.ai.AIEngine.generateTitle(content);
+        return METRICS.timed("aiService.suggestTitle", () -> {
+            FlightEvents.AIAnalysisEvent event = FlightEvents.AIAnalysisEvent.start("title");
+            long start = System.nanoTime();
+            String title = title(content);
+            event.finish(content, 0, System.nanoTime() - start, 0);
+            return title;
+        });
     }
 
     /**
@@ -124,11 +136,13 @@ public class AIService {
      * @return Danh sách tiêu đề gợi ý
      */
     public List<String> suggestMultipleTitles(String content, int count) {
-        if (content == null || content.trim().isEmpty()) {
-            return Arrays.asList("Ghi chú không có tiêu đề");
-        }
-        // AIEngine provides one best title only
-        return Arrays.asList(com.dat.notebook.service.ai.AIEngine.generateTitle(content));
+        return METRICS.timed("aiService.suggestMultipleTitles", () -> {
+            if (content == null || content.trim().isEmpty()) {
+                return Arrays.asList("Ghi chú không có tiêu đề");
+            }
+            // AIEngine provides one best title only
+            return Arrays.asList(AIEngine.generateTitle(content));
+        });
     }
 
     // ===== CHỨC NĂNG 3: GỢI Ý TAG =====
@@ -140,11 +154,13 @@ public class AIService {
      * @return Danh sách tags (3-6 tags)
      */
     public List<String> suggestTags(String content) {
-        if (content == null || content.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        // Use new AIEngine
-        return com.dat.notebook.service.ai.AIEngine.generateTags(content);
+        return METRICS.timed("aiService.suggestTags", () -> {
+            FlightEvents.AIAnalysisEvent event = FlightEvents.AIAnalysisEvent.start("tags");
+            long start = System.nanoTime();
+            List<String> tags = tags(content);
+            event.finish(content, 0, 0, System.nanoTime() - start);
+            return tags;
+        });
     }
 
     // ===== HELPER METHOD: Format tags để hiển thị =====
@@ -202,10 +218,41 @@ public class AIService {
      * @return AIResult chứa đầy đủ kết quả
      */
     public AIResult analyzeNote(String content) {
-        String summary = summarizeNote(content);
-        String title = suggestTitle(content);
-        List<String> tags = suggestTags(content);
+        return METRICS.timed("aiService.analyzeNote", () -> {
+            // Một sự kiện JFR với thời gian từng pha
+            FlightEvents.AIAnalysisEvent event = FlightEvents.AIAnalysisEvent.start("analyze");
+            long start = System.nanoTime();
+            String summary = summarize(content);
+            long summaryDone = System.nanoTime();
+            String title = title(content);
+            long titleDone = System.nanoTime();
+            List<String> tags = tags(content);
+            event.finish(content, summaryDone - start, titleDone - summaryDone, System.nanoTime() - titleDone);
 
-        return new AIResult(summary, title, tags);
+            return new AIResult(summary, title, tags);
+        });
+    }
+
+    // ===== AIEngine (không đo) =====
+
+    private static String summarize(String content) {
+        if (content == null || content.trim().isEmpty()) {
+            return "Không có nội dung để tóm tắt.";
+        }
+        return AIEngine.generateSummary(content);
+    }
+
+    private static String title(String content) {
+        if (content == null || content.trim().isEmpty()) {
+            return "Ghi chú không có tiêu đề";
+        }
+        return AIEngine.generateTitle(content);
+    }
+
+    private static List<String> tags(String content) {
+        if (content == null || content.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return AIEngine.generateTags(content);
     }
 }
@@ -2,6 +2,7 @@ package com.dat.notebook.service;
 
 import com.dat.notebook.model.User;
 import com.dat.notebook.repository.UserRepository;
+import com.dat.notebook.util.AppLogger;
 import com.dat.notebook.util.PasswordUtil;
 
 import java.util.Optional;
@@ -19,6 +20,9 @@ import java.util.Optional;
  * @version 1.0
  */
 public class AuthService {
+
+    private static final AppLogger LOG = AppLogger.getLogger(AuthService.class);
+
     
     // ==================== SINGLETON ====================
     
@@ -69,11 +73,11 @@ public class AuthService {
         
         if (userOpt.isPresent()) {
             this.currentUser = userOpt.get();
-            System.out.println("Đăng nhập thành công: " + currentUser.getUsername());
+            LOG.info("Đăng nhập thành công: " + currentUser.getUsername());
             return currentUser;
         }
         
-        System.out.println("Đăng nhập thất bại: Sai username hoặc password");
+        LOG.info("Đăng nhập thất bại: Sai username hoặc password");
         return null;
     }
     
@@ -82,7 +86,7 @@ public class AuthService {
      */
     public void logout() {
         if (currentUser != null) {
-            System.out.println("Đăng xuất: " + currentUser.getUsername());
+            LOG.info("Đăng xuất: " + currentUser.getUsername());
         }
         this.currentUser = null;
     }
@@ -128,18 +132,18 @@ public class AuthService {
     public User register(String username, String password, String email, String fullName) {
         // Validate input
         if (username == null || username.trim().isEmpty()) {
-            System.err.println("Username không được để trống");
+            LOG.warn("Username không được để trống");
             return null;
         }
         
         if (password == null || password.length() < 6) {
-            System.err.println("Mật khẩu phải có ít nhất 6 ký tự");
+            LOG.warn("Mật khẩu phải có ít nhất 6 ký tự");
             return null;
         }
         
         // Check username exists
         if (userRepository.isUsernameExists(username.trim(), 0)) {
-            System.err.println("Username đã tồn tại: " + username);
+            LOG.warn("Username đã tồn tại: " + username);
             return null;
         }
         
@@ -152,11 +156,11 @@ public class AuthService {
         newUser.setActive(true);
         
         if (userRepository.insert(newUser)) {
-            System.out.println("Đăng ký thành công: " + newUser.getUsername());
+            LOG.info("Đăng ký thành công: " + newUser.getUsername());
             return newUser;
         }
         
-        System.err.println("Không thể tạo tài khoản mới");
+        LOG.warn("Không thể tạo tài khoản mới");
         return null;
     }
     
@@ -182,20 +186,20 @@ public class AuthService {
      */
     public boolean changePassword(String oldPassword, String newPassword) {
         if (currentUser == null) {
-            System.err.println("Chưa đăng nhập");
+            LOG.warn("Chưa đăng nhập");
             return false;
         }
         
         // Verify old password
         String oldHash = PasswordUtil.hashPassword(oldPassword);
         if (!oldHash.equals(currentUser.getPasswordHash())) {
-            System.err.println("Mật khẩu cũ không đúng");
+            LOG.warn("Mật khẩu cũ không đúng");
             return false;
         }
         
         // Validate new password
         if (newPassword == null || newPassword.length() < 6) {
-            System.err.println("Mật khẩu mới phải có ít nhất 6 ký tự");
+            LOG.warn("Mật khẩu mới phải có ít nhất 6 ký tự");
             return false;
         }
         
@@ -203,7 +207,7 @@ public class AuthService {
         String newHash = PasswordUtil.hashPassword(newPassword);
         if (userRepository.updatePassword(currentUser.getId(), newHash)) {
             currentUser.setPasswordHash(newHash);
-            System.out.println("Đổi mật khẩu thành công");
+            LOG.info("Đổi mật khẩu thành công");
             return true;
         }
         
@@ -237,7 +241,7 @@ public class AuthService {
      */
     public boolean updateProfile(String fullName, String email) {
         if (currentUser == null) {
-            System.err.println("Chưa đăng nhập");
+            LOG.warn("Chưa đăng nhập");
             return false;
         }
         
@@ -248,7 +252,7 @@ public class AuthService {
             // Update current user object
             currentUser.setFullName(fullName);
             currentUser.setEmail(email);
-            System.out.println("Cập nhật profile thành công");
+            LOG.info("Cập nhật profile thành công");
             return true;
         }
         
@@ -282,7 +286,7 @@ public class AuthService {
         demoUser.setActive(true);
         
         this.currentUser = demoUser;
-        System.out.println("Đăng nhập chế độ Demo");
+        LOG.info("Đăng nhập chế độ Demo");
         return currentUser;
     }
     
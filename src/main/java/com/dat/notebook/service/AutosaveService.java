@@ -0,0 +1,295 @@
+package com.dat.notebook.service;
+
+import com.dat.notebook.dao.NoteDAO;
+import com.dat.notebook.model.Note;
+import com.dat.notebook.model.NoteVersion;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.AutosaveJournal;
+import com.dat.notebook.util.BackgroundJobs;
+import com.dat.notebook.util.FlightEvents;
+import com.dat.notebook.util.MetricsRegistry;
+import com.dat.notebook.util.NoteVersionDAO;
+import com.dat.notebook.util.SmartTextUtil;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AutosaveService - Autosave ghi vào journal cục bộ trước, đưa vào DB sau.
+ *
+ * - {@link #record} ghi snapshot vào {@link AutosaveJournal} (fsync cục bộ) rồi
+ *   trả về ngay - UI không chờ round trip tới SQL Server
+ * - Snapshot được gộp theo ghi chú: chỉ bản mới nhất của mỗi ghi chú được
+ *   đưa vào DB (Notes) trên thread nền
+ * - DB lỗi thì thử lại với backoff; snapshot vẫn nằm trong journal nên
+ *   crash / mất điện không làm mất nội dung đã autosave
+ * - Khởi động lại: {@link #recoverOnStartup()} đưa các snapshot còn sót vào DB
+ * - Snapshot mang UpdatedAt của ghi chú lúc editor mở nó: ghi chú đã bị sửa
+ *   từ nơi khác thì snapshot được giữ thành một version thay vì ghi đè
+ * - Save tường minh lưu thẳng qua NoteServiceV2 rồi gọi {@link #markSaved(int)}
+ *
+ * Thư mục journal: -Dautosave.journal.dir (mặc định ~/.smartnotebook/journal).
+ * Không mở được journal thì {@link #record} trả về false và caller lưu thẳng DB.
+ *
+ * QUAN TRỌNG: Service KHÔNG chứa SQL - chỉ gọi DAO
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class AutosaveService {
+
+    private static final AppLogger LOG = AppLogger.getLogger(AutosaveService.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    private static final long REPLAY_DELAY_MS = 500;
+    private static final long MIN_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    private static AutosaveService instance;
+
+    private final NoteDAO noteDAO;
+    private final NoteVersionDAO versionDAO;
+    private final SummaryService summaryService;
+    private final AutosaveJournal journal;
+
+    /** noteId -> snapshot mới nhất chưa đưa vào DB */
+    private final Map<Integer, AutosaveJournal.Entry> pending = new ConcurrentHashMap<>();
+
+    /** noteId -> UpdatedAt do lần autosave gần nhất của phiên này ghi (không tính là xung đột) */
+    private final Map<Integer, LocalDateTime> ownSavedAt = new ConcurrentHashMap<>();
+
+    /** Khóa riêng cho replay - record() trên UI thread không chờ round trip DB */
+    private final Object replayLock = new Object();
+    private final AtomicBoolean replayScheduled = new AtomicBoolean();
+    private long backoffMs = MIN_BACKOFF_MS;
+
+    private AutosaveService() {
+        this.noteDAO = NoteDAO.create();
+        this.versionDAO = new NoteVersionDAO();
+        this.summaryService = SummaryService.getInstance();
+        this.journal = openJournal();
+        METRICS.gauge("autosave.pending", pending::size);
+    }
+
+    public static synchronized AutosaveService getInstance() {
+        if (instance == null) {
+            instance = new AutosaveService();
+        }
+        return instance;
+    }
+
+    // ==================== PUBLIC API ====================
+
+    /**
+     * Ghi snapshot autosave vào journal và lên lịch đưa vào DB
+     *
+     * @param baseUpdatedAt UpdatedAt của ghi chú khi editor mở nó (null = không rõ)
+     * @return true nếu snapshot đã bền trên đĩa cục bộ; false nếu journal
+     *         không dùng được (caller cần lưu thẳng vào DB)
+     */
+    public boolean record(int noteId, int userId, String title, String htmlContent, LocalDateTime baseUpdatedAt) {
+        if (journal == null) {
+            return false;
+        }
+        try {
+            long seq = METRICS.timed("autosave.record",
+                    () -> journal.append(noteId, userId, title, htmlContent, baseUpdatedAt));
+            pending.put(noteId, new AutosaveJournal.Entry(seq, noteId, userId, LocalDateTime.now(),
+                                                          title, htmlContent, baseUpdatedAt));
+            scheduleReplay(REPLAY_DELAY_MS);
+            return true;
+        } catch (IOException e) {
+            LOG.error("AutosaveService.record ERROR: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Đưa các snapshot còn sót từ lần chạy trước (crash, mất kết nối) vào DB.
+     * Gọi sau khi schema migration đã chạy.
+     */
+    public void recoverOnStartup() {
+        if (journal == null) {
+            return;
+        }
+        List<AutosaveJournal.Entry> recovered = journal.recover();
+        for (AutosaveJournal.Entry entry : recovered) {
+            // Bản ghi mới trong phiên hiện tại (nếu có) luôn thắng bản khôi phục
+            pending.putIfAbsent(entry.noteId, entry);
+        }
+        if (!recovered.isEmpty()) {
+            LOG.info("✓ Autosave journal: khôi phục " + recovered.size() + " snapshot chưa lưu");
+            replayPending();
+        }
+    }
+
+    /**
+     * Đưa mọi snapshot đang chờ vào DB
+     *
+     * @return Số snapshot còn chờ (do DB lỗi)
+     */
+    public int replayPending() {
+        synchronized (replayLock) {
+            replayScheduled.set(false);
+            List<AutosaveJournal.Entry> batch = new ArrayList<>(pending.values());
+            for (AutosaveJournal.Entry entry : batch) {
+                if (!apply(entry)) {
+                    break;
+                }
+                // Chỉ bỏ khỏi pending nếu chưa có snapshot mới hơn ghi vào trong lúc áp dụng
+                pending.remove(entry.noteId, entry);
+                journal.markApplied(entry.noteId, entry.seq);
+            }
+
+            if (pending.isEmpty()) {
+                backoffMs = MIN_BACKOFF_MS;
+            } else {
+                scheduleReplay(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+            return pending.size();
+        }
+    }
+
+    /**
+     * Ghi chú vừa được lưu thẳng vào DB (Save, đổi trạng thái...): snapshot
+     * đang chờ của nó đã cũ - bỏ khỏi hàng đợi và ghi checkpoint để không bị
+     * áp dụng / phát lại sau đó
+     *
+     * @param noteId ID ghi chú
+     */
+    public void markSaved(int noteId) {
+        if (journal == null) {
+            return;
+        }
+        synchronized (replayLock) {
+            ownSavedAt.remove(noteId);
+            AutosaveJournal.Entry entry = pending.remove(noteId);
+            if (entry != null) {
+                journal.markApplied(noteId, entry.seq);
+            }
+        }
+    }
+
+    /**
+     * Ghi đè nội dung các ghi chú vừa tải từ DB bằng snapshot chưa kịp đưa vào DB,
+     * để danh sách / editor không hiển thị bản cũ hơn những gì đã autosave
+     *
+     * @param notes Danh sách ghi chú vừa tải
+     */
+    public void overlayPending(List<Note> notes) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (Note note : notes) {
+            AutosaveJournal.Entry entry = pending.get(note.getId());
+            if (entry != null && entry.userId == note.getUserId()) {
+                note.setTitle(entry.title);
+                note.setHtmlContent(entry.htmlContent);
+                note.setContent(entry.htmlContent != null ? SmartTextUtil.stripHtml(entry.htmlContent) : "");
+            }
+        }
+    }
+
+    /**
+     * Số ghi chú có snapshot chưa vào DB
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Thử đưa lần cuối vào DB rồi đóng journal (gọi khi thoát ứng dụng).
+     * Snapshot chưa đưa được vẫn nằm trên đĩa cho lần khởi động sau.
+     */
+    public void shutdown() {
+        if (journal == null) {
+            return;
+        }
+        synchronized (replayLock) {
+            if (!pending.isEmpty()) {
+                replayPending();
+            }
+            journal.close();
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * @return true nếu snapshot đã xử lý xong (đã ghi, hoặc giữ thành version khi xung đột)
+     */
+    private boolean apply(AutosaveJournal.Entry entry) {
+        FlightEvents.NoteSaveEvent saveEvent = FlightEvents.NoteSaveEvent.start("autosave");
+        return METRICS.timed("autosave.apply", () -> {
+            String html = entry.htmlContent;
+            String content = html != null ? SmartTextUtil.stripHtml(html) : "";
+            String summary = summaryService.summarize(content);
+            NoteDAO.AutosaveResult result = noteDAO.applyAutosave(entry.noteId, entry.userId, entry.title,
+                    content, html, summary, entry.baseUpdatedAt, ownSavedAt.get(entry.noteId));
+            boolean handled;
+            switch (result.status) {
+                case APPLIED:
+                    if (result.savedAt != null) {
+                        ownSavedAt.put(entry.noteId, result.savedAt);
+                    }
+                    handled = true;
+                    break;
+                case CONFLICT:
+                    handled = keepAsVersion(entry);
+                    break;
+                default:
+                    handled = false;
+                    break;
+            }
+            saveEvent.finish(entry.noteId, html, result.status == NoteDAO.AutosaveResult.Status.APPLIED);
+            if (!handled) {
+                METRICS.counter("autosave.applyFailures").increment();
+            }
+            return handled;
+        });
+    }
+
+    /**
+     * Ghi chú đã bị sửa từ nơi khác sau mốc của snapshot: không ghi đè, giữ
+     * snapshot thành một version để người dùng khôi phục từ lịch sử
+     */
+    private boolean keepAsVersion(AutosaveJournal.Entry entry) {
+        METRICS.counter("autosave.conflicts").increment();
+        LOG.warn("AutosaveService: Ghi chú " + entry.noteId + " đã thay đổi từ nơi khác - "
+                + "giữ snapshot autosave thành version");
+        NoteVersion version = new NoteVersion();
+        version.setNoteId(entry.noteId);
+        version.setTitle(entry.title);
+        version.setHtmlContent(entry.htmlContent);
+        version.setCreatedBy(entry.userId);
+        version.setChangeDescription("Autosave bị xung đột (lưu lúc " + entry.savedAt.withNano(0) + ")");
+        return versionDAO.insertVersion(version);
+    }
+
+    private void scheduleReplay(long delayMs) {
+        if (replayScheduled.compareAndSet(false, true)) {
+            BackgroundJobs.schedule("autosave-replay", this::replayPending, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static AutosaveJournal openJournal() {
+        String dir = System.getProperty("autosave.journal.dir");
+        Path path = dir != null ? Paths.get(dir)
+                                : Paths.get(System.getProperty("user.home"), ".smartnotebook", "journal");
+        try {
+            return new AutosaveJournal(path);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("AutosaveService: Không mở được journal tại " + path + " - " + e.getMessage());
+            return null;
+        }
+    }
+}
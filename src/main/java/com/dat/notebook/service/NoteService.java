@@ -1,9 +1,13 @@
 package com.dat.notebook.service;
 
 import com.dat.notebook.model.Note;
+import com.dat.notebook.model.NoteEvent;
 import com.dat.notebook.model.Tag;
 import com.dat.notebook.repository.NoteRepository;
 import com.dat.notebook.repository.TagRepository;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.CategoryDAO;
+import com.dat.notebook.util.DomainEventBus;
 import com.dat.notebook.util.SmartTextUtil;
 
 import java.time.LocalDateTime;
@@ -34,20 +38,25 @@ import java.util.stream.Collectors;
  * - Gợi ý tiêu đề (Smart feature)
  * - Tìm kiếm nâng cao
  * - Quản lý tags
+ * - Phát NoteEvent lên DomainEventBus sau mỗi lần ghi thành công
  * 
  * @author SmartNotebook Team
  * @version 1.0
  */
 public class NoteService {
 
+    private static final AppLogger LOG = AppLogger.getLogger(NoteService.class);
+
     // ==================== DEPENDENCIES ====================
 
     private final NoteRepository noteRepository;
     private final TagRepository tagRepository;
+    private final CategoryDAO categoryDAO = new CategoryDAO();
     private final AuthService authService;
     private final SummaryService summaryService;
     private final TitleSuggestionService titleSuggestionService;
     private final TagSuggestionService tagSuggestionService;
+    private final DomainEventBus eventBus = DomainEventBus.getInstance();
 
     // ==================== CONSTRUCTOR ====================
 
@@ -94,7 +103,7 @@ public class NoteService {
     public Note createNote(String title, String content, String status, Integer categoryId) {
         int userId = authService.getCurrentUserId();
         if (userId <= 0) {
-            System.err.println("Chưa đăng nhập, không thể tạo ghi chú");
+            LOG.warn("Chưa đăng nhập, không thể tạo ghi chú");
             return null;
         }
 
@@ -119,11 +128,12 @@ public class NoteService {
         note.setUpdatedAt(LocalDateTime.now());
 
         if (noteRepository.insert(note)) {
-            System.out.println("Tạo ghi chú thành công: " + note.getTitle());
+            LOG.info("Tạo ghi chú thành công: " + note.getTitle());
+            eventBus.publish(new NoteEvent.NoteSaved(note.copy()));
             return note;
         }
 
-        System.err.println("Không thể tạo ghi chú");
+        LOG.warn("Không thể tạo ghi chú");
         return null;
     }
 
@@ -153,7 +163,7 @@ public class NoteService {
         if (note.getUserId() <= 0) {
             int userId = authService.getCurrentUserId();
             if (userId <= 0) {
-                System.err.println("Chưa đăng nhập, không thể tạo ghi chú");
+                LOG.warn("Chưa đăng nhập, không thể tạo ghi chú");
                 return null;
             }
             note.setUserId(userId);
@@ -178,11 +188,12 @@ public class NoteService {
         }
 
         if (noteRepository.insert(note)) {
-            System.out.println("Tạo ghi chú thành công: " + note.getTitle());
+            LOG.info("Tạo ghi chú thành công: " + note.getTitle());
+            eventBus.publish(new NoteEvent.NoteSaved(note.copy()));
             return note;
         }
 
-        System.err.println("Không thể tạo ghi chú");
+        LOG.warn("Không thể tạo ghi chú");
         return null;
     }
 
@@ -225,6 +236,7 @@ public class NoteService {
         for (Note note : notes) {
             note.setTags(tagRepository.findByNote(note.getId()));
         }
+        categoryDAO.resolveCategories(userId, notes);
 
         return notes;
     }
@@ -246,6 +258,7 @@ public class NoteService {
         for (Note note : notes) {
             note.setTags(tagRepository.findByNote(note.getId()));
         }
+        categoryDAO.resolveCategories(userId, notes);
 
         return notes;
     }
@@ -313,7 +326,8 @@ public class NoteService {
 
         note.setUpdatedAt(LocalDateTime.now());
 
-        return noteRepository.update(note);
+        return publishIfSuccess(noteRepository.update(note),
+                new NoteEvent.NoteSaved(authService.getCurrentUserId(), note.getId(), note.copy()));
     }
 
     /**
@@ -328,7 +342,8 @@ public class NoteService {
         // Auto-generate summary
         String summary = summaryService.summarize(content);
 
-        return noteRepository.updateContent(noteId, title, content, summary);
+        return publishIfSuccess(noteRepository.updateContent(noteId, title, content, summary),
+                new NoteEvent.NoteSaved(authService.getCurrentUserId(), noteId, null));
     }
 
     /**
@@ -338,7 +353,8 @@ public class NoteService {
      * @return true nếu thành công
      */
     public boolean toggleFavorite(int noteId) {
-        return noteRepository.toggleFavorite(noteId);
+        return publishIfSuccess(noteRepository.toggleFavorite(noteId),
+                new NoteEvent.NoteSaved(authService.getCurrentUserId(), noteId, null));
     }
 
     /**
@@ -352,7 +368,8 @@ public class NoteService {
         if (!Note.isValidStatus(status)) {
             return false;
         }
-        return noteRepository.updateStatus(noteId, status);
+        return publishIfSuccess(noteRepository.updateStatus(noteId, status),
+                new NoteEvent.NoteSaved(authService.getCurrentUserId(), noteId, null));
     }
 
     /**
@@ -374,7 +391,8 @@ public class NoteService {
      * @return true nếu thành công
      */
     public boolean archiveNote(int noteId) {
-        return noteRepository.archive(noteId);
+        return publishIfSuccess(noteRepository.archive(noteId),
+                new NoteEvent.NoteArchived(authService.getCurrentUserId(), noteId));
     }
 
     /**
@@ -385,7 +403,8 @@ public class NoteService {
      */
     public boolean deleteNote(int noteId) {
         // Soft delete - move to trash
-        return noteRepository.delete(noteId);
+        return publishIfSuccess(noteRepository.delete(noteId),
+                new NoteEvent.NoteArchived(authService.getCurrentUserId(), noteId));
     }
 
     /**
@@ -395,7 +414,8 @@ public class NoteService {
      * @return true nếu thành công
      */
     public boolean restoreNote(int noteId) {
-        return noteRepository.restore(noteId);
+        return publishIfSuccess(noteRepository.restore(noteId),
+                new NoteEvent.NoteRestored(authService.getCurrentUserId(), noteId));
     }
 
     /**
@@ -418,7 +438,8 @@ public class NoteService {
         // Remove tags first
         tagRepository.removeAllTagsFromNote(noteId);
         // Permanently delete
-        return noteRepository.deletePermanently(noteId);
+        return publishIfSuccess(noteRepository.deletePermanently(noteId),
+                new NoteEvent.NoteDeleted(authService.getCurrentUserId(), noteId));
     }
 
     // ==================== SEARCH ====================
@@ -593,4 +614,16 @@ public class NoteService {
                 .limit(limit)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Phát sự kiện nếu thao tác ghi thành công
+     * 
+     * @return success (để return thẳng)
+     */
+    private boolean publishIfSuccess(boolean success, NoteEvent event) {
+        if (success) {
+            eventBus.publish(event);
+        }
+        return success;
+    }
 }
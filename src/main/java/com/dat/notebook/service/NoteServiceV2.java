@@ -2,6 +2,12 @@ package com.dat.notebook.service;
 
 import com.dat.notebook.dao.NoteDAO;
 import com.dat.notebook.model.Note;
+import com.dat.notebook.model.NoteDelta;
+import com.dat.notebook.model.NoteEvent;
+import com.dat.notebook.util.AppLogger;
+import com.dat.notebook.util.CategoryDAO;
+import com.dat.notebook.util.DomainEventBus;
+import com.dat.notebook.util.FlightEvents;
 import com.dat.notebook.util.SmartTextUtil;
 
 import java.time.LocalDateTime;
@@ -16,6 +22,7 @@ import java.util.Optional;
  * - Tự động tạo summary (Smart feature) - sử dụng SummaryService
  * - Gợi ý tiêu đề (Smart feature) - sử dụng TitleSuggestionService
  * - Tìm kiếm nâng cao
+ * - Phát NoteEvent lên DomainEventBus sau mỗi lần ghi thành công
  * 
  * QUAN TRỌNG: Service KHÔNG chứa SQL - chỉ gọi DAO
  * 
@@ -24,17 +31,21 @@ import java.util.Optional;
  */
 public class NoteServiceV2 {
 
+    private static final AppLogger LOG = AppLogger.getLogger(NoteServiceV2.class);
+
     // ==================== DEPENDENCIES ====================
 
     private final NoteDAO noteDAO;
+    private final CategoryDAO categoryDAO = new CategoryDAO();
     private final AuthService authService;
     private final SummaryService summaryService;
     private final TitleSuggestionService titleSuggestionService;
+    private final DomainEventBus eventBus = DomainEventBus.getInstance();
 
     // ==================== CONSTRUCTOR ====================
 
     public NoteServiceV2() {
-        this.noteDAO = new NoteDAO();
+        this.noteDAO = NoteDAO.create();
         this.authService = AuthService.getInstance();
         this.summaryService = SummaryService.getInstance();
         this.titleSuggestionService = TitleSuggestionService.getInstance();
@@ -60,10 +71,11 @@ public class NoteServiceV2 {
     public Note createNote(String title, String content, String htmlContent) {
         int userId = getCurrentUserId();
         if (userId <= 0) {
-            System.err.println("NoteService: Chưa đăng nhập, không thể tạo ghi chú");
+            LOG.warn("NoteService: Chưa đăng nhập, không thể tạo ghi chú");
             return null;
         }
 
+        FlightEvents.NoteSaveEvent saveEvent = FlightEvents.NoteSaveEvent.start("create");
         Note note = new Note();
         note.setUserId(userId);
         note.setContent(content);
@@ -86,12 +98,15 @@ public class NoteServiceV2 {
         note.setCreatedAt(LocalDateTime.now());
         note.setUpdatedAt(LocalDateTime.now());
 
-        if (noteDAO.insert(note)) {
-            System.out.println("NoteService: Tạo ghi chú thành công - " + note.getTitle());
+        boolean inserted = noteDAO.insert(note);
+        saveEvent.finish(note.getId(), htmlContent, inserted);
+        if (inserted) {
+            LOG.info("NoteService: Tạo ghi chú thành công - " + note.getTitle());
+            eventBus.publish(new NoteEvent.NoteSaved(note.copy()));
             return note;
         }
 
-        System.err.println("NoteService: Không thể tạo ghi chú");
+        LOG.warn("NoteService: Không thể tạo ghi chú");
         return null;
     }
 
@@ -108,10 +123,11 @@ public class NoteServiceV2 {
 
         int userId = getCurrentUserId();
         if (userId <= 0) {
-            System.err.println("NoteService: Chưa đăng nhập");
+            LOG.warn("NoteService: Chưa đăng nhập");
             return null;
         }
 
+        FlightEvents.NoteSaveEvent saveEvent = FlightEvents.NoteSaveEvent.start("create");
         note.setUserId(userId);
 
         // Smart feature: Auto-suggest title
@@ -132,7 +148,10 @@ public class NoteServiceV2 {
         }
         note.setUpdatedAt(LocalDateTime.now());
 
-        if (noteDAO.insert(note)) {
+        boolean inserted = noteDAO.insert(note);
+        saveEvent.finish(note.getId(), note.getHtmlContent(), inserted);
+        if (inserted) {
+            eventBus.publish(new NoteEvent.NoteSaved(note.copy()));
             return note;
         }
 
@@ -166,6 +185,21 @@ public class NoteServiceV2 {
         return noteDAO.findById(noteId, userId);
     }
 
+    /**
+     * Tải HtmlContent cho ghi chú lấy từ danh sách (danh sách / delta không
+     * đọc cột HTML). Gọi trước khi mở ghi chú trong editor.
+     * 
+     * @param note Ghi chú
+     * @return true nếu ghi chú đã có HTML, false nếu lỗi
+     */
+    public boolean loadHtmlContent(Note note) {
+        if (note == null || note.isHtmlLoaded()) {
+            return true;
+        }
+        int userId = getCurrentUserId();
+        return userId > 0 && noteDAO.loadHtmlContent(note, userId);
+    }
+
     /**
      * Lấy tất cả ghi chú của user hiện tại
      * 
@@ -177,7 +211,28 @@ public class NoteServiceV2 {
             return List.of();
         }
 
-        return noteDAO.findAllByUser(userId);
+        List<Note> notes = noteDAO.findAllByUser(userId);
+        categoryDAO.resolveCategories(userId, notes);
+        return notes;
+    }
+
+    /**
+     * Lấy các thay đổi trong danh sách ghi chú từ lần tải trước
+     * 
+     * @param userId ID người dùng
+     * @param token Token của lần tải trước (0 = tải toàn bộ)
+     * @return NoteDelta hoặc null nếu không lấy được delta
+     */
+    public NoteDelta getNoteChanges(int userId, long token) {
+        if (userId <= 0) {
+            return null;
+        }
+
+        NoteDelta delta = noteDAO.findChangesSince(userId, token);
+        if (delta != null) {
+            categoryDAO.resolveCategories(userId, delta.getChangedNotes());
+        }
+        return delta;
     }
 
     /**
@@ -191,7 +246,9 @@ public class NoteServiceV2 {
             return List.of();
         }
 
-        return noteDAO.findAllByUser(userId);
+        List<Note> notes = noteDAO.findAllByUser(userId);
+        categoryDAO.resolveCategories(userId, notes);
+        return notes;
     }
 
     /**
@@ -263,7 +320,10 @@ public class NoteServiceV2 {
             return List.of();
         }
 
-        return noteDAO.search(userId, keyword.trim());
+        FlightEvents.SearchEvent searchEvent = FlightEvents.SearchEvent.start("service");
+        List<Note> results = noteDAO.search(userId, keyword.trim());
+        searchEvent.finish(keyword.trim(), results.size());
+        return results;
     }
 
     // ==================== UPDATE ====================
@@ -284,6 +344,14 @@ public class NoteServiceV2 {
             return false;
         }
 
+        // Note từ danh sách chưa có HTML: getHtmlContent() chỉ là bản chuyển từ
+        // plain text, phải tải HTML thật trước khi ghi lại cả dòng
+        if (!noteDAO.loadHtmlContent(note, userId)) {
+            return false;
+        }
+
+        FlightEvents.NoteSaveEvent saveEvent = FlightEvents.NoteSaveEvent.start("update");
+
         // Re-generate summary từ content mới
         String content = note.getHtmlContent() != null ? SmartTextUtil.stripHtml(note.getHtmlContent())
                 : note.getContent();
@@ -291,7 +359,9 @@ public class NoteServiceV2 {
 
         note.setUpdatedAt(LocalDateTime.now());
 
-        return noteDAO.update(note, userId);
+        boolean updated = noteDAO.update(note, userId);
+        saveEvent.finish(note.getId(), note.getHtmlContent(), updated);
+        return publishIfSuccess(updated, new NoteEvent.NoteSaved(userId, note.getId(), note.copy()));
     }
 
     /**
@@ -309,11 +379,15 @@ public class NoteServiceV2 {
             return false;
         }
 
+        FlightEvents.NoteSaveEvent saveEvent = FlightEvents.NoteSaveEvent.start("content");
+
         // Generate summary từ content mới
         String textContent = htmlContent != null ? SmartTextUtil.stripHtml(htmlContent) : content;
         String summary = summaryService.summarize(textContent);
 
-        return noteDAO.updateContent(noteId, userId, title, content, htmlContent, summary);
+        boolean updated = noteDAO.updateContent(noteId, userId, title, content, htmlContent, summary);
+        saveEvent.finish(noteId, htmlContent, updated);
+        return publishIfSuccess(updated, new NoteEvent.NoteSaved(userId, noteId, null));
     }
 
     /**
@@ -328,7 +402,7 @@ public class NoteServiceV2 {
             return false;
         }
 
-        return noteDAO.toggleFavorite(noteId, userId);
+        return publishIfSuccess(noteDAO.toggleFavorite(noteId, userId), new NoteEvent.NoteSaved(userId, noteId, null));
     }
 
     /**
@@ -344,7 +418,8 @@ public class NoteServiceV2 {
             return false;
         }
 
-        return noteDAO.updateStatus(noteId, userId, status);
+        return publishIfSuccess(noteDAO.updateStatus(noteId, userId, status),
+                new NoteEvent.NoteSaved(userId, noteId, null));
     }
 
     /**
@@ -371,7 +446,7 @@ public class NoteServiceV2 {
             return false;
         }
 
-        return noteDAO.delete(noteId, userId);
+        return publishIfSuccess(noteDAO.delete(noteId, userId), new NoteEvent.NoteArchived(userId, noteId));
     }
 
     /**
@@ -386,7 +461,7 @@ public class NoteServiceV2 {
             return false;
         }
 
-        return noteDAO.restore(noteId, userId);
+        return publishIfSuccess(noteDAO.restore(noteId, userId), new NoteEvent.NoteRestored(userId, noteId));
     }
 
     /**
@@ -401,7 +476,7 @@ public class NoteServiceV2 {
             return false;
         }
 
-        return noteDAO.deletePermanently(noteId, userId);
+        return publishIfSuccess(noteDAO.deletePermanently(noteId, userId), new NoteEvent.NoteDeleted(userId, noteId));
     }
 
     // ==================== UTILITY ====================
@@ -420,6 +495,18 @@ public class NoteServiceV2 {
         return noteDAO.countByUser(userId);
     }
 
+    /**
+     * Phát sự kiện nếu thao tác ghi thành công
+     * 
+     * @return success (để return thẳng)
+     */
+    private boolean publishIfSuccess(boolean success, NoteEvent event) {
+        if (success) {
+            eventBus.publish(event);
+        }
+        return success;
+    }
+
     /**
      * Lấy ID user hiện tại từ AuthService
      */
@@ -1,11 +1,14 @@
 package com.dat.notebook.service;
 
+import com.dat.notebook.util.AppLogger;
+
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.text.Normalizer;
 import java.util.*;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -22,6 +25,8 @@ import java.util.stream.Collectors;
  */
 public class TextAnalysisService {
 
+    private static final AppLogger LOG = AppLogger.getLogger(TextAnalysisService.class);
+
     // Singleton instance
     private static TextAnalysisService instance;
 
@@ -62,10 +67,10 @@ public class TextAnalysisService {
                     }
                 }
                 reader.close();
-                System.out.println("Loaded " + stopwords.size() + " Vietnamese stopwords");
+                LOG.info("Loaded " + stopwords.size() + " Vietnamese stopwords");
             }
         } catch (Exception e) {
-            System.err.println("Error loading stopwords: " + e.getMessage());
+            LOG.error("Error loading stopwords: " + e.getMessage());
             // Load default stopwords nếu file không tồn tại
             loadDefaultStopwords();
         }
@@ -169,6 +174,35 @@ public class TextAnalysisService {
         return result;
     }
 
+    /**
+     * Tách văn bản thành các token KHÔNG mất thông tin: từ và cụm phân cách
+     * (khoảng trắng, dấu câu) xen kẽ, giữ nguyên chữ hoa/thường.
+     * Nối các token lại được đúng văn bản gốc - dùng cho diff.
+     *
+     * @param text Văn bản đầu vào
+     * @return Danh sách token
+     */
+    public List<String> splitTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> result = new ArrayList<>();
+        Matcher matcher = WORD_PATTERN.matcher(text);
+        int last = 0;
+        while (matcher.find()) {
+            if (matcher.start() > last) {
+                result.add(text.substring(last, matcher.start()));
+            }
+            result.add(matcher.group());
+            last = matcher.end();
+        }
+        if (last < text.length()) {
+            result.add(text.substring(last));
+        }
+        return result;
+    }
+
     /**
      * Loại bỏ stopwords từ danh sách từ
      * 
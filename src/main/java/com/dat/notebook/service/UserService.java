@@ -3,6 +3,7 @@ package com.dat.notebook.service;
 import com.dat.notebook.config.DatabaseConfig;
 import com.dat.notebook.model.User;
 import com.dat.notebook.repository.SimpleUserRepository;
+import com.dat.notebook.util.AppLogger;
 import com.dat.notebook.util.PasswordUtil;
 
 import java.sql.Connection;
@@ -26,6 +27,9 @@ import java.sql.SQLException;
  * @version 1.0
  */
 public class UserService {
+
+    private static final AppLogger LOG = AppLogger.getLogger(UserService.class);
+
     
     // ==================== SINGLETON PATTERN ====================
     
@@ -129,15 +133,15 @@ public class UserService {
      */
     public RegistrationResult registerUser(String username, String password, String email) {
         
-        System.out.println("=== BẮT ĐẦU ĐĂNG KÝ USER ===");
-        System.out.println("Username: " + username);
-        System.out.println("Email: " + (email != null && !email.isEmpty() ? email : "(không có)"));
+        LOG.debug("=== BẮT ĐẦU ĐĂNG KÝ USER ===");
+        LOG.debug("Username: " + username);
+        LOG.debug("Email: " + (email != null && !email.isEmpty() ? email : "(không có)"));
         
         // ===== BƯỚC 1: Validate dữ liệu =====
         
         // 1.1 Kiểm tra username
         if (username == null || username.trim().isEmpty()) {
-            System.out.println("❌ Lỗi: Username rỗng");
+            LOG.warn("❌ Lỗi: Username rỗng");
             return new RegistrationResult(
                 RegistrationResult.Status.INVALID_DATA, 
                 "Tên đăng nhập không được để trống"
@@ -148,7 +152,7 @@ public class UserService {
         
         // 1.2 Kiểm tra độ dài username
         if (username.length() < 3 || username.length() > 20) {
-            System.out.println("❌ Lỗi: Username không hợp lệ (độ dài)");
+            LOG.warn("❌ Lỗi: Username không hợp lệ (độ dài)");
             return new RegistrationResult(
                 RegistrationResult.Status.INVALID_DATA, 
                 "Tên đăng nhập phải từ 3-20 ký tự"
@@ -157,7 +161,7 @@ public class UserService {
         
         // 1.3 Kiểm tra password
         if (password == null || password.length() < 6) {
-            System.out.println("❌ Lỗi: Password không hợp lệ");
+            LOG.warn("❌ Lỗi: Password không hợp lệ");
             return new RegistrationResult(
                 RegistrationResult.Status.INVALID_DATA, 
                 "Mật khẩu phải có ít nhất 6 ký tự"
@@ -167,7 +171,7 @@ public class UserService {
         // ===== BƯỚC 2: Kiểm tra kết nối database =====
         
         if (!DatabaseConfig.testConnection()) {
-            System.out.println("❌ Lỗi: Không kết nối được database");
+            LOG.warn("❌ Lỗi: Không kết nối được database");
             return new RegistrationResult(
                 RegistrationResult.Status.CONNECTION_ERROR, 
                 "Không thể kết nối đến cơ sở dữ liệu"
@@ -178,15 +182,15 @@ public class UserService {
         
         try {
             if (isUsernameExists(username)) {
-                System.out.println("❌ Lỗi: Username '" + username + "' đã tồn tại");
+                LOG.warn("❌ Lỗi: Username '" + username + "' đã tồn tại");
                 return new RegistrationResult(
                     RegistrationResult.Status.USERNAME_EXISTS, 
                     "Tên đăng nhập đã được sử dụng"
                 );
             }
-            System.out.println("✓ Username chưa tồn tại");
+            LOG.debug("✓ Username chưa tồn tại");
         } catch (SQLException e) {
-            System.out.println("❌ Lỗi SQL khi kiểm tra username: " + e.getMessage());
+            LOG.error("❌ Lỗi SQL khi kiểm tra username: " + e.getMessage());
             return new RegistrationResult(
                 RegistrationResult.Status.DATABASE_ERROR, 
                 "Lỗi khi kiểm tra tên đăng nhập: " + e.getMessage()
@@ -199,15 +203,15 @@ public class UserService {
             email = email.trim();
             try {
                 if (isEmailExists(email)) {
-                    System.out.println("❌ Lỗi: Email '" + email + "' đã tồn tại");
+                    LOG.warn("❌ Lỗi: Email '" + email + "' đã tồn tại");
                     return new RegistrationResult(
                         RegistrationResult.Status.EMAIL_EXISTS, 
                         "Email đã được đăng ký"
                     );
                 }
-                System.out.println("✓ Email chưa tồn tại");
+                LOG.debug("✓ Email chưa tồn tại");
             } catch (SQLException e) {
-                System.out.println("❌ Lỗi SQL khi kiểm tra email: " + e.getMessage());
+                LOG.error("❌ Lỗi SQL khi kiểm tra email: " + e.getMessage());
                 return new RegistrationResult(
                     RegistrationResult.Status.DATABASE_ERROR, 
                     "Lỗi khi kiểm tra email: " + e.getMessage()
@@ -218,7 +222,7 @@ public class UserService {
         // ===== BƯỚC 5: Hash mật khẩu =====
         
         String passwordHash = PasswordUtil.hashPassword(password);
-        System.out.println("✓ Đã hash mật khẩu (MD5)");
+        LOG.debug("✓ Đã hash mật khẩu (MD5)");
         
         // ===== BƯỚC 6: Insert user vào database =====
         
@@ -226,7 +230,7 @@ public class UserService {
             int userId = createUserWithEmail(username, passwordHash, email);
             
             if (userId > 0) {
-                System.out.println("✅ ĐĂNG KÝ THÀNH CÔNG! User ID: " + userId);
+                LOG.info("✅ ĐĂNG KÝ THÀNH CÔNG! User ID: " + userId);
                 
                 // Tạo object User để trả về
                 User newUser = new User();
@@ -241,7 +245,7 @@ public class UserService {
                     newUser
                 );
             } else {
-                System.out.println("❌ Không thể tạo user (ID = -1)");
+                LOG.warn("❌ Không thể tạo user (ID = -1)");
                 return new RegistrationResult(
                     RegistrationResult.Status.DATABASE_ERROR, 
                     "Không thể tạo tài khoản mới"
@@ -249,8 +253,7 @@ public class UserService {
             }
             
         } catch (SQLException e) {
-            System.out.println("❌ Lỗi SQL khi insert user: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("❌ Lỗi SQL khi insert user: " + e.getMessage(), e);
             return new RegistrationResult(
                 RegistrationResult.Status.DATABASE_ERROR, 
                 "Lỗi khi tạo tài khoản: " + e.getMessage()
@@ -320,7 +323,7 @@ public class UserService {
         } catch (SQLException e) {
             // Nếu cột email không tồn tại, bỏ qua lỗi
             if (e.getMessage().contains("Invalid column name")) {
-                System.out.println("⚠️ Bảng User không có cột email, bỏ qua kiểm tra");
+                LOG.warn("⚠️ Bảng User không có cột email, bỏ qua kiểm tra");
                 return false;
             }
             throw e;
@@ -369,7 +372,7 @@ public class UserService {
         } catch (SQLException e) {
             // Nếu lỗi do không có cột email, thử lại không có email
             if (hasEmail && e.getMessage().contains("Invalid column name 'email'")) {
-                System.out.println("⚠️ Bảng User không có cột email, insert không có email");
+                LOG.warn("⚠️ Bảng User không có cột email, insert không có email");
                 return createUserWithEmail(username, passwordHash, null);
             }
             throw e;
@@ -429,26 +432,26 @@ public class UserService {
      * @return true nếu cập nhật thành công
      */
     public boolean updateUserProfile(int userId, String fullName, String email) {
-        System.out.println("=== CẬP NHẬT PROFILE USER ===");
-        System.out.println("User ID: " + userId);
-        System.out.println("Full Name: " + fullName);
-        System.out.println("Email: " + email);
+        LOG.debug("=== CẬP NHẬT PROFILE USER ===");
+        LOG.debug("User ID: " + userId);
+        LOG.debug("Full Name: " + fullName);
+        LOG.debug("Email: " + email);
         
         // Validate email if provided
         if (email != null && !email.trim().isEmpty()) {
             if (!isValidEmail(email.trim())) {
-                System.out.println("❌ Lỗi: Email không hợp lệ");
+                LOG.warn("❌ Lỗi: Email không hợp lệ");
                 return false;
             }
             
             // Check email exists (exclude current user)
             try {
                 if (isEmailExistsExcludeUser(email.trim(), userId)) {
-                    System.out.println("❌ Lỗi: Email đã được sử dụng bởi user khác");
+                    LOG.warn("❌ Lỗi: Email đã được sử dụng bởi user khác");
                     return false;
                 }
             } catch (SQLException e) {
-                System.out.println("❌ Lỗi SQL khi kiểm tra email: " + e.getMessage());
+                LOG.error("❌ Lỗi SQL khi kiểm tra email: " + e.getMessage());
                 return false;
             }
         }
@@ -466,16 +469,15 @@ public class UserService {
             int rowsAffected = ps.executeUpdate();
             
             if (rowsAffected > 0) {
-                System.out.println("✅ Cập nhật profile thành công!");
+                LOG.info("✅ Cập nhật profile thành công!");
                 return true;
             } else {
-                System.out.println("❌ Không tìm thấy user để cập nhật");
+                LOG.warn("❌ Không tìm thấy user để cập nhật");
                 return false;
             }
             
         } catch (SQLException e) {
-            System.out.println("❌ Lỗi SQL khi cập nhật profile: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("❌ Lỗi SQL khi cập nhật profile: " + e.getMessage(), e);
             return false;
         }
     }
@@ -505,7 +507,7 @@ public class UserService {
         } catch (SQLException e) {
             // Nếu cột email không tồn tại, bỏ qua lỗi
             if (e.getMessage().contains("Invalid column name")) {
-                System.out.println("⚠️ Bảng User không có cột email, bỏ qua kiểm tra");
+                LOG.warn("⚠️ Bảng User không có cột email, bỏ qua kiểm tra");
                 return false;
             }
             throw e;
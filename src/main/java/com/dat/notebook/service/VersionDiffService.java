@@ -0,0 +1,147 @@
+package com.dat.notebook.service;
+
+import com.dat.notebook.model.Note;
+import com.dat.notebook.util.NoteVersionDAO;
+import com.dat.notebook.util.SmartTextUtil;
+import com.dat.notebook.util.TextDiff;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * VersionDiffService - So sánh nội dung giữa hai version, hoặc giữa một
+ * version và nội dung hiện tại của ghi chú.
+ *
+ * - HTML được đổi sang text giữ cấu trúc dòng trước khi diff
+ * - LINE: mỗi dòng (đoạn) là một token; WORD: token lấy từ
+ *   {@link TextAnalysisService#splitTokens(String)}
+ * - Kết quả được cache (LRU): version không đổi sau khi tạo nên diff giữa
+ *   hai version luôn dùng lại được; diff với ghi chú hiện tại được khóa
+ *   theo hash nội dung ghi chú
+ *
+ * QUAN TRỌNG: Service KHÔNG chứa SQL - chỉ gọi DAO
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class VersionDiffService {
+
+    public enum Granularity { LINE, WORD }
+
+    private static final int LINE_CONTEXT = 3;
+    private static final int WORD_CONTEXT = 8;
+    private static final int MAX_CACHE_ENTRIES = 64;
+
+    private static VersionDiffService instance;
+
+    private final NoteVersionDAO versionDAO;
+    private final TextAnalysisService textService;
+
+    private final Map<String, TextDiff.Result> cache =
+        new LinkedHashMap<String, TextDiff.Result>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TextDiff.Result> eldest) {
+                return size() > MAX_CACHE_ENTRIES;
+            }
+        };
+
+    private VersionDiffService() {
+        this.versionDAO = new NoteVersionDAO();
+        this.textService = TextAnalysisService.getInstance();
+    }
+
+    public static synchronized VersionDiffService getInstance() {
+        if (instance == null) {
+            instance = new VersionDiffService();
+        }
+        return instance;
+    }
+
+    // ==================== PUBLIC API ====================
+
+    /**
+     * So sánh hai version
+     *
+     * @param oldVersionId Version cũ
+     * @param newVersionId Version mới
+     * @param granularity Theo dòng hoặc theo từ
+     * @return Kết quả diff, null nếu không tìm thấy version
+     */
+    public TextDiff.Result diffVersions(int oldVersionId, int newVersionId, Granularity granularity) {
+        String key = "v:" + oldVersionId + ":" + newVersionId + ":" + granularity;
+        TextDiff.Result cached = getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String oldHtml = versionDAO.getVersionHtml(oldVersionId);
+        String newHtml = versionDAO.getVersionHtml(newVersionId);
+        if (oldHtml == null || newHtml == null) {
+            return null;
+        }
+
+        TextDiff.Result result = diffHtml(oldHtml, newHtml, granularity);
+        putCached(key, result);
+        return result;
+    }
+
+    /**
+     * So sánh một version với nội dung hiện tại của ghi chú
+     *
+     * @param versionId Version
+     * @param note Ghi chú hiện tại (đã có nội dung)
+     * @param granularity Theo dòng hoặc theo từ
+     * @return Kết quả diff (version -> ghi chú), null nếu không tìm thấy version
+     */
+    public TextDiff.Result diffWithNote(int versionId, Note note, Granularity granularity) {
+        String html = note.getHtmlContent();
+        String key = "n:" + versionId + ":" + note.getId() + ":" + html.length() + ":" + html.hashCode()
+                   + ":" + granularity;
+        TextDiff.Result cached = getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String versionHtml = versionDAO.getVersionHtml(versionId);
+        if (versionHtml == null) {
+            return null;
+        }
+
+        TextDiff.Result result = diffHtml(versionHtml, html, granularity);
+        putCached(key, result);
+        return result;
+    }
+
+    /**
+     * Xóa toàn bộ cache (vd: sau rollback hoặc khi đăng xuất)
+     */
+    public synchronized void clearCache() {
+        cache.clear();
+    }
+
+    // ==================== HELPERS ====================
+
+    private TextDiff.Result diffHtml(String oldHtml, String newHtml, Granularity granularity) {
+        String oldText = SmartTextUtil.stripHtmlKeepLines(oldHtml);
+        String newText = SmartTextUtil.stripHtmlKeepLines(newHtml);
+
+        if (granularity == Granularity.WORD) {
+            return TextDiff.diff(textService.splitTokens(oldText), textService.splitTokens(newText), WORD_CONTEXT);
+        }
+        List<String> oldLines = TextDiff.splitLines(oldText);
+        List<String> newLines = TextDiff.splitLines(newText);
+        return TextDiff.diff(oldLines, newLines, LINE_CONTEXT);
+    }
+
+    private synchronized TextDiff.Result getCached(String key) {
+        return cache.get(key);
+    }
+
+    private synchronized void putCached(String key, TextDiff.Result result) {
+        // Kết quả dừng vì timeout không tối ưu - lần sau thử lại
+        if (!result.timedOut) {
+            cache.put(key, result);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.dat.notebook.service;
+
+import com.dat.notebook.model.NoteVersion;
+import com.dat.notebook.util.BackgroundJobs;
+import com.dat.notebook.util.NoteVersionDAO;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * VersionHistoryService - Duyệt lịch sử version theo kiểu "lazy".
+ *
+ * - Danh sách version được tải theo trang tóm tắt (keyset, không có nội dung)
+ * - Nội dung HTML chỉ được tải khi cần xem, và được giữ trong cache LRU
+ *   giới hạn theo tổng số ký tự (version không đổi sau khi tạo)
+ * - Khi chọn một version, version liền trước/liền sau được tải nền trước
+ *   nên bước qua lại trong lịch sử gần như tức thời
+ *
+ * QUAN TRỌNG: Service KHÔNG chứa SQL - chỉ gọi DAO
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class VersionHistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 30;
+
+    /** Tổng số ký tự HTML tối đa trong cache (~8 MB) */
+    private static final long MAX_CACHED_CHARS = 4_000_000L;
+
+    private static VersionHistoryService instance;
+
+    private final NoteVersionDAO versionDAO;
+
+    /** versionId -> HTML, thứ tự truy cập (LRU); truy cập qua synchronized */
+    private final LinkedHashMap<Integer, String> bodies = new LinkedHashMap<>(32, 0.75f, true);
+    private long cachedChars;
+
+    /** Các lần tải đang chạy - tránh tải trùng một version */
+    private final Map<Integer, CompletableFuture<String>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * Một trang lịch sử version
+     */
+    public static final class Page {
+        public final List<NoteVersion> versions;
+        public final boolean hasMore;
+
+        Page(List<NoteVersion> versions, boolean hasMore) {
+            this.versions = Collections.unmodifiableList(versions);
+            this.hasMore = hasMore;
+        }
+
+        /**
+         * Version cuối trang - con trỏ cho trang kế tiếp
+         */
+        public NoteVersion last() {
+            return versions.isEmpty() ? null : versions.get(versions.size() - 1);
+        }
+    }
+
+    private VersionHistoryService() {
+        this.versionDAO = new NoteVersionDAO();
+    }
+
+    public static synchronized VersionHistoryService getInstance() {
+        if (instance == null) {
+            instance = new VersionHistoryService();
+        }
+        return instance;
+    }
+
+    // ==================== PAGING ====================
+
+    /**
+     * Tải trang version kế tiếp
+     *
+     * @param noteId ID của ghi chú
+     * @param previous Trang trước (null = trang đầu, version mới nhất)
+     * @param pageSize Số version mỗi trang
+     * @return Trang version tóm tắt
+     */
+    public Page loadPage(int noteId, Page previous, int pageSize) {
+        NoteVersion after = previous != null ? previous.last() : null;
+        // Lấy thêm 1 dòng để biết còn trang sau không
+        List<NoteVersion> rows = versionDAO.getVersionSummaries(noteId, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        return new Page(rows, hasMore);
+    }
+
+    // ==================== BODIES ====================
+
+    /**
+     * Lấy nội dung HTML của version (chặn tới khi tải xong)
+     *
+     * @return HTML hoặc null nếu không tìm thấy
+     */
+    public String getBody(NoteVersion version) {
+        if (version.isContentLoaded()) {
+            return version.getHtmlContent();
+        }
+        String cached = getCachedBody(version.getVersionId());
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            return loadBodyAsync(version.getVersionId()).join();
+        } catch (CompletionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Nội dung đã có trong cache, không truy cập DB
+     *
+     * @return HTML hoặc null nếu chưa tải
+     */
+    public synchronized String getCachedBody(int versionId) {
+        return bodies.get(versionId);
+    }
+
+    /**
+     * Tải nội dung trên thread nền
+     *
+     * @return Future hoàn thành với HTML (null nếu không tìm thấy)
+     */
+    public CompletableFuture<String> loadBodyAsync(int versionId) {
+        String cached = getCachedBody(versionId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return loading.computeIfAbsent(versionId, id ->
+            BackgroundJobs.supply("version-body", () -> {
+                String html = versionDAO.getVersionHtml(id);
+                if (html != null) {
+                    putCached(id, html);
+                }
+                return html;
+            }).whenComplete((html, error) -> loading.remove(id)));
+    }
+
+    /**
+     * Tải nền version liền trước và liền sau vị trí đang xem
+     *
+     * @param versions Danh sách đang hiển thị
+     * @param index Vị trí đang chọn
+     */
+    public void prefetchAdjacent(List<NoteVersion> versions, int index) {
+        for (int i : new int[] {index + 1, index - 1}) {
+            if (i >= 0 && i < versions.size() && !versions.get(i).isContentLoaded()) {
+                loadBodyAsync(versions.get(i).getVersionId());
+            }
+        }
+    }
+
+    /**
+     * Xóa cache nội dung (vd: khi đăng xuất)
+     */
+    public synchronized void clearCache() {
+        bodies.clear();
+        cachedChars = 0;
+    }
+
+    private synchronized void putCached(int versionId, String html) {
+        // Nội dung quá lớn sẽ đẩy hết phần còn lại ra khỏi cache - không giữ
+        if (html.length() > MAX_CACHED_CHARS / 4) {
+            return;
+        }
+        String previous = bodies.put(versionId, html);
+        if (previous != null) {
+            cachedChars -= previous.length();
+        }
+        cachedChars += html.length();
+
+        Iterator<Map.Entry<Integer, String>> it = bodies.entrySet().iterator();
+        while (cachedChars > MAX_CACHED_CHARS && it.hasNext()) {
+            Map.Entry<Integer, String> eldest = it.next();
+            if (eldest.getKey() != versionId) {
+                cachedChars -= eldest.getValue().length();
+                it.remove();
+            }
+        }
+    }
+}
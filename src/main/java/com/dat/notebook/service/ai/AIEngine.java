@@ -1,26 +1,27 @@
 package com.dat.notebook.service.ai;
 
 import com.dat.notebook.service.TitleSuggestionService;
+import com.dat.notebook.util.AppLogger;
 import java.util.List;
 
 public class AIEngine {
 
+    private static final AppLogger LOG = AppLogger.getLogger(AIEngine.class);
+
     public static String generateTitle(String text) {
-        System.out.println("AIEngine: Generating Title for text length " + (text != null ? text.length() : 0));
+        LOG.debug(() -> "AIEngine: Generating Title for text length " + (text != null ? text.length() : 0));
         String title = TitleSuggestionService.getInstance().suggestTitle(text);
-        System.out.println("AIEngine: Generated Title: " + title);
+        LOG.debug(() -> "AIEngine: Generated Title: " + title);
         return title;
     }
 
     public static String generateSummary(String text) {
-        System.out.println("AIEngine: Generating Summary...");
         String summary = SummaryExtractor.summarize(text);
-        System.out.println("AIEngine: Generated Summary: " + summary);
+        LOG.debug(() -> "AIEngine: Generated Summary (" + (summary != null ? summary.length() : 0) + " ký tự)");
         return summary;
     }
 
     public static List<String> generateTags(String text) {
-        System.out.println("AIEngine: Generating Tags...");
         return KeywordExtractor.getInstance().extractMeaningfulKeywords(text, 8);
     }
 }
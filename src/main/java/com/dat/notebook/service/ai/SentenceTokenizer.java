@@ -1,5 +1,7 @@
 package com.dat.notebook.service.ai;
 
+import com.dat.notebook.util.AppLogger;
+
 import java.text.BreakIterator;
 import java.util.ArrayList;
 import java.util.List;
@@ -8,6 +10,8 @@ import java.util.stream.Collectors;
 
 public class SentenceTokenizer {
 
+    private static final AppLogger LOG = AppLogger.getLogger(SentenceTokenizer.class);
+
     // Minimum sentence length - allow very short meaningful sentences
     private static final int MIN_SENTENCE_LENGTH = 3;
     
@@ -42,8 +46,8 @@ public class SentenceTokenizer {
             }
         }
         
-        System.out.println("🟡 SentenceTokenizer: Found " + sentences.size() + " valid sentences from " + 
-                           cleanText.length() + " characters.");
+        LOG.debug(() -> "SentenceTokenizer: Found " + sentences.size() + " valid sentences from "
+                + cleanText.length() + " characters.");
         return sentences;
     }
     
@@ -0,0 +1,199 @@
+package com.dat.notebook.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * AppLogger - Ghi log có cấp độ, thay cho System.out / System.err
+ *
+ * - Cấp độ: DEBUG < INFO < WARN < ERROR; cấu hình log.level (mặc định INFO)
+ *   và log.level.&lt;TênClass&gt; trong db.properties, -D ghi đè
+ * - Lệnh log bị tắt chỉ tốn một phép so sánh: dùng bản nhận Supplier cho
+ *   thông điệp tốn công ghép chuỗi (chỉ được gọi khi cấp độ đang bật)
+ * - Ghi bất đồng bộ qua {@link AsyncLogAppender}: thread gọi (thường là FX
+ *   thread) chỉ đưa LogEvent vào ring buffer, không chờ I/O console / file
+ *
+ * Dùng: {@code private static final AppLogger LOG = AppLogger.getLogger(X.class);}
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class AppLogger {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    // ==================== CONFIG ====================
+
+    private static final Properties CONFIG = loadConfig();
+    private static final Level ROOT_LEVEL = parseLevel(setting("log.level"), Level.INFO);
+    private static final Map<String, AppLogger> LOGGERS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private volatile Level level;
+
+    private AppLogger(String name) {
+        this.name = name;
+        this.level = parseLevel(setting("log.level." + name), ROOT_LEVEL);
+    }
+
+    /**
+     * Logger cho class (tên = simple name, dùng cho log.level.&lt;tên&gt;)
+     */
+    public static AppLogger getLogger(Class<?> type) {
+        return LOGGERS.computeIfAbsent(type.getSimpleName(), AppLogger::new);
+    }
+
+    // ==================== LEVEL ====================
+
+    public String getName() {
+        return name;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    public boolean isEnabled(Level target) {
+        return target != Level.OFF && target.ordinal() >= level.ordinal();
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    // ==================== LOG ====================
+
+    public void debug(String message) {
+        log(Level.DEBUG, message, null);
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, message.get(), null);
+        }
+    }
+
+    public void info(String message) {
+        log(Level.INFO, message, null);
+    }
+
+    public void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, message.get(), null);
+        }
+    }
+
+    public void warn(String message) {
+        log(Level.WARN, message, null);
+    }
+
+    public void warn(String message, Throwable error) {
+        log(Level.WARN, message, error);
+    }
+
+    public void error(String message) {
+        log(Level.ERROR, message, null);
+    }
+
+    public void error(String message, Throwable error) {
+        log(Level.ERROR, message, error);
+    }
+
+    private void log(Level target, String message, Throwable error) {
+        if (!isEnabled(target)) {
+            return;
+        }
+        AsyncLogAppender.getInstance().append(new LogEvent(
+                System.currentTimeMillis(), target, name, Thread.currentThread().getName(), message, error));
+    }
+
+    // ==================== LOG EVENT ====================
+
+    /**
+     * Một dòng log có cấu trúc - được định dạng trên thread ghi log, không
+     * phải thread gọi
+     */
+    public static final class LogEvent {
+
+        private final long timestamp;
+        private final Level level;
+        private final String logger;
+        private final String thread;
+        private final String message;
+        private final Throwable error;
+
+        LogEvent(long timestamp, Level level, String logger, String thread, String message, Throwable error) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.logger = logger;
+            this.thread = thread;
+            this.message = message;
+            this.error = error;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        public String getLogger() {
+            return logger;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Đọc cấu hình log: System property trước, sau đó db.properties
+     */
+    static String setting(String key) {
+        return System.getProperty(key, CONFIG.getProperty(key));
+    }
+
+    private static Properties loadConfig() {
+        Properties props = new Properties();
+        try (InputStream input = AppLogger.class.getClassLoader().getResourceAsStream("db.properties")) {
+            if (input != null) {
+                props.load(input);
+            }
+        } catch (IOException e) {
+            // Không đọc được cấu hình - dùng mặc định
+        }
+        return props;
+    }
+
+    private static Level parseLevel(String value, Level defaultLevel) {
+        if (value == null || value.isBlank()) {
+            return defaultLevel;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+}
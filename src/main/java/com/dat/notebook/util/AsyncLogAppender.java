@@ -0,0 +1,213 @@
+package com.dat.notebook.util;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * AsyncLogAppender - Ghi log bất đồng bộ qua ring buffer
+ *
+ * - Thread gọi chỉ chép tham chiếu LogEvent vào mảng vòng (giữ khóa vài
+ *   nano giây), thread nền "log-writer" định dạng và ghi console / file theo lô;
+ *   writer chỉ được đánh thức khi đã ngủ hẳn - log dồn dập không gây
+ *   notify cho từng dòng
+ * - Buffer đầy (log.bufferSize, mặc định 8192): sự kiện mới bị bỏ và được
+ *   đếm, dòng kế tiếp báo số dòng bị bỏ - thread gọi không bao giờ bị chặn
+ * - WARN / ERROR ra System.err, còn lại ra System.out; log.file (nếu có)
+ *   nhận tất cả
+ * - Shutdown hook chờ ghi hết buffer (tối đa 2 giây)
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+final class AsyncLogAppender implements Runnable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final long FLUSH_TIMEOUT_MS = 2000;
+    /** Thời gian writer chờ gom thêm dòng trước khi ngủ hẳn (producer không phải notify) */
+    private static final long LINGER_MS = 1;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final AsyncLogAppender INSTANCE = new AsyncLogAppender();
+
+    private final AppLogger.LogEvent[] ring;
+    private final int mask;
+    private final Object lock = new Object();
+    private final PrintStream file;
+
+    /** Vị trí ghi kế tiếp / vị trí đọc kế tiếp (tăng dần, lấy mod theo mask) */
+    private long head;
+    private long tail;
+    private long dropped;
+    private long droppedTotal;
+    private boolean writerWaiting;
+
+    private AsyncLogAppender() {
+        int capacity = Integer.highestOneBit(Math.max(64, bufferSize()) - 1) << 1;
+        this.ring = new AppLogger.LogEvent[capacity];
+        this.mask = capacity - 1;
+        this.file = openFile(AppLogger.setting("log.file"));
+
+        Thread writer = new Thread(this, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "log-flush"));
+    }
+
+    static AsyncLogAppender getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== PRODUCER ====================
+
+    void append(AppLogger.LogEvent event) {
+        synchronized (lock) {
+            if (head - tail == ring.length) {
+                dropped++;
+                droppedTotal++;
+                return;
+            }
+            ring[(int) (head & mask)] = event;
+            head++;
+            if (writerWaiting) {
+                lock.notify();
+            }
+        }
+    }
+
+    /**
+     * Tổng số dòng bị bỏ vì buffer đầy từ khi khởi động
+     */
+    long getDroppedTotal() {
+        synchronized (lock) {
+            return droppedTotal;
+        }
+    }
+
+    /**
+     * Chờ thread nền ghi hết các dòng đang chờ
+     */
+    void flush() {
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MS;
+        synchronized (lock) {
+            while (tail != head && System.currentTimeMillis() < deadline) {
+                try {
+                    lock.wait(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // ==================== WRITER ====================
+
+    @Override
+    public void run() {
+        AppLogger.LogEvent[] batch = new AppLogger.LogEvent[ring.length];
+        while (true) {
+            int count;
+            long droppedNow;
+            synchronized (lock) {
+                try {
+                    if (head == tail) {
+                        lock.wait(LINGER_MS);
+                    }
+                    while (head == tail) {
+                        writerWaiting = true;
+                        try {
+                            lock.wait();
+                        } finally {
+                            writerWaiting = false;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                count = (int) (head - tail);
+                for (int i = 0; i < count; i++) {
+                    int slot = (int) ((tail + i) & mask);
+                    batch[i] = ring[slot];
+                    ring[slot] = null;
+                }
+                droppedNow = dropped;
+                dropped = 0;
+            }
+
+            if (droppedNow > 0) {
+                write(AppLogger.Level.WARN, "[log] buffer đầy - đã bỏ " + droppedNow + " dòng log");
+            }
+            for (int i = 0; i < count; i++) {
+                write(batch[i].getLevel(), format(batch[i]));
+                batch[i] = null;
+            }
+            System.out.flush();
+            System.err.flush();
+            if (file != null) {
+                file.flush();
+            }
+
+            synchronized (lock) {
+                tail += count;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void write(AppLogger.Level level, String line) {
+        if (level.ordinal() >= AppLogger.Level.WARN.ordinal()) {
+            System.err.println(line);
+        } else {
+            System.out.println(line);
+        }
+        if (file != null) {
+            file.println(line);
+        }
+    }
+
+    private static String format(AppLogger.LogEvent event) {
+        StringBuilder line = new StringBuilder(64 + (event.getMessage() != null ? event.getMessage().length() : 4));
+        line.append(TIME_FORMAT.format(Instant.ofEpochMilli(event.getTimestamp())))
+                .append(' ').append(String.format("%-5s", event.getLevel()))
+                .append(" [").append(event.getThread()).append("] ")
+                .append(event.getLogger()).append(" - ")
+                .append(event.getMessage());
+        if (event.getError() != null) {
+            StringWriter trace = new StringWriter();
+            event.getError().printStackTrace(new PrintWriter(trace));
+            line.append(System.lineSeparator()).append(trace.toString().stripTrailing());
+        }
+        return line.toString();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static int bufferSize() {
+        String value = AppLogger.setting("log.bufferSize");
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : DEFAULT_BUFFER_SIZE;
+        } catch (NumberFormatException e) {
+            return DEFAULT_BUFFER_SIZE;
+        }
+    }
+
+    private static PrintStream openFile(String path) {
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+        try {
+            return new PrintStream(new FileOutputStream(path.trim(), true), false, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("AsyncLogAppender: không mở được " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.dat.notebook.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * AutosaveJournal - Nhật ký autosave cục bộ, chỉ ghi nối (append-only).
+ *
+ * Mỗi snapshot autosave được ghi vào segment file ánh xạ bộ nhớ
+ * (memory-mapped) rồi force() xuống đĩa trước khi append() trả về - độ bền
+ * của thao tác gõ phím chỉ tốn một lần fsync cục bộ thay vì round trip tới DB.
+ *
+ * Định dạng record:
+ * [MAGIC 4 byte][độ dài body 4 byte][CRC32C của body 4 byte][body]
+ * body = seq (8) + noteId (4) + userId (4) + savedAt epoch ms (8)
+ *      + title UTF-8 (độ dài 4 + bytes) + HTML nén bằng {@link ContentCodec} (độ dài 4 + bytes, -1 = null)
+ *      [+ UpdatedAt gốc của ghi chú: epoch giây UTC (8) + nano (4) - không có = không rõ]
+ * Record checkpoint (MAGIC_APPLIED) cùng header, body = noteId (4) + seq (8).
+ * Phần còn lại của segment là byte 0 nên MAGIC không khớp = hết dữ liệu.
+ * Record hỏng (ghi dở khi crash) bị CRC loại bỏ cùng mọi thứ sau nó trong segment.
+ *
+ * Snapshot đã được đưa vào DB thì {@link #markApplied(int, long)} ghi một
+ * checkpoint xuống journal, nên sau crash snapshot đã áp dụng không bị phát
+ * lại (đè lên lần lưu mới hơn). Segment chỉ bị xóa theo thứ tự cũ -> mới khi
+ * mọi ghi chú trong nó đã áp dụng tới seq cuối cùng - checkpoint nằm ở segment
+ * sau nên không được xóa trước segment chứa snapshot mà nó xác nhận.
+ * Sau khi khởi động lại, {@link #recover()} trả về snapshot mới nhất chưa
+ * áp dụng của mỗi ghi chú còn nằm trong các segment cũ.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class AutosaveJournal implements Closeable {
+
+    private static final AppLogger LOG = AppLogger.getLogger(AutosaveJournal.class);
+
+    private static final int MAGIC = 0x534E4A52; // "SNJR"
+    private static final int MAGIC_APPLIED = 0x534E4A41; // "SNJA"
+    private static final int APPLIED_BODY = 12;
+    private static final int RECORD_HEADER = 12;
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    /** Segment đang ghi được thay mới khi đã dùng quá mức này và đã áp dụng hết */
+    private static final int ROLL_THRESHOLD = 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".jnl";
+
+    /**
+     * Một snapshot autosave
+     */
+    public static final class Entry {
+        public final long seq;
+        public final int noteId;
+        public final int userId;
+        public final LocalDateTime savedAt;
+        public final String title;
+        public final String htmlContent;
+        /** UpdatedAt của ghi chú khi editor mở nó - mốc phát hiện xung đột (null = không rõ) */
+        public final LocalDateTime baseUpdatedAt;
+
+        public Entry(long seq, int noteId, int userId, LocalDateTime savedAt, String title, String htmlContent,
+                     LocalDateTime baseUpdatedAt) {
+            this.seq = seq;
+            this.noteId = noteId;
+            this.userId = userId;
+            this.savedAt = savedAt;
+            this.title = title;
+            this.htmlContent = htmlContent;
+            this.baseUpdatedAt = baseUpdatedAt;
+        }
+    }
+
+    /**
+     * Một segment file và seq lớn nhất của từng ghi chú trong nó
+     */
+    private static final class Segment {
+        final long id;
+        final Path path;
+        final Map<Integer, Long> lastSeqByNote = new HashMap<>();
+        MappedByteBuffer buffer; // chỉ segment đang ghi
+
+        Segment(long id, Path path) {
+            this.id = id;
+            this.path = path;
+        }
+    }
+
+    private final Path directory;
+    private final List<Segment> closedSegments = new ArrayList<>();
+    private final List<Path> undeletable = new ArrayList<>();
+    private final Map<Integer, Long> appliedSeq = new HashMap<>();
+    private final Map<Integer, Entry> recovered = new LinkedHashMap<>();
+    private Segment active;
+    private long nextSeq = 1;
+    private long nextSegmentId = 1;
+
+    /**
+     * Mở journal: đọc các segment còn lại từ lần chạy trước, tạo segment mới để ghi
+     *
+     * @param directory Thư mục chứa segment
+     */
+    public AutosaveJournal(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        scanExistingSegments();
+        openNewSegment(0);
+    }
+
+    // ==================== WRITE ====================
+
+    /**
+     * Ghi một snapshot và đảm bảo nó đã xuống đĩa
+     *
+     * @param baseUpdatedAt UpdatedAt của ghi chú khi editor mở nó (null = không rõ)
+     * @return seq của snapshot
+     */
+    public synchronized long append(int noteId, int userId, String title, String htmlContent,
+                                    LocalDateTime baseUpdatedAt) throws IOException {
+        if (active == null) {
+            throw new IOException("Journal đã đóng");
+        }
+        long seq = nextSeq++;
+        byte[] body = encodeBody(seq, noteId, userId, System.currentTimeMillis(), title, htmlContent, baseUpdatedAt);
+        writeRecord(MAGIC, body);
+
+        active.lastSeqByNote.put(noteId, seq);
+        return seq;
+    }
+
+    /**
+     * Đánh dấu mọi snapshot của ghi chú tới seq đã được đưa vào DB: ghi
+     * checkpoint xuống đĩa rồi xóa các segment cũ không còn snapshot nào chưa áp dụng
+     */
+    public synchronized void markApplied(int noteId, long seq) {
+        if (active != null) {
+            try {
+                writeRecord(MAGIC_APPLIED, ByteBuffer.allocate(APPLIED_BODY).putInt(noteId).putLong(seq).array());
+            } catch (IOException e) {
+                // Không mất dữ liệu: sau crash snapshot chỉ bị áp dụng lại
+                LOG.error("AutosaveJournal: Không ghi được checkpoint - " + e.getMessage());
+            }
+        }
+        appliedSeq.merge(noteId, seq, Math::max);
+        recovered.computeIfPresent(noteId, (id, entry) -> entry.seq <= seq ? null : entry);
+
+        deleteAppliedSegments();
+        if (active != null && closedSegments.isEmpty()
+                && active.buffer.position() > ROLL_THRESHOLD && isFullyApplied(active)) {
+            try {
+                rollSegment(0);
+            } catch (IOException e) {
+                LOG.error("AutosaveJournal: Không tạo được segment mới - " + e.getMessage());
+            }
+        }
+        retryDeletes();
+    }
+
+    // ==================== RECOVERY ====================
+
+    /**
+     * Snapshot mới nhất của mỗi ghi chú còn chưa áp dụng từ lần chạy trước
+     */
+    public synchronized List<Entry> recover() {
+        return new ArrayList<>(recovered.values());
+    }
+
+    /**
+     * Số segment còn giữ trên đĩa (gồm segment đang ghi)
+     */
+    public synchronized int getSegmentCount() {
+        return closedSegments.size() + (active != null ? 1 : 0);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (active != null) {
+            active.buffer.force();
+            if (closedSegments.isEmpty() && isFullyApplied(active)) {
+                Path path = active.path;
+                active = null;
+                delete(path);
+            } else {
+                closedSegments.add(active);
+                active = null;
+            }
+        }
+    }
+
+    private void scanExistingSegments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        paths.sort(null);
+
+        for (Path path : paths) {
+            long id = segmentId(path);
+            if (id < 0) {
+                continue;
+            }
+            Segment segment = new Segment(id, path);
+            List<Entry> entries = new ArrayList<>();
+            readSegment(path, entries, appliedSeq);
+            for (Entry entry : entries) {
+                segment.lastSeqByNote.merge(entry.noteId, entry.seq, Math::max);
+                Entry previous = recovered.get(entry.noteId);
+                if (previous == null || previous.seq < entry.seq) {
+                    recovered.put(entry.noteId, entry);
+                }
+                nextSeq = Math.max(nextSeq, entry.seq + 1);
+            }
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+            closedSegments.add(segment);
+        }
+        // Bỏ snapshot đã có checkpoint (đã vào DB trước khi crash)
+        recovered.values().removeIf(entry -> entry.seq <= appliedSeq.getOrDefault(entry.noteId, 0L));
+        deleteAppliedSegments();
+        if (!recovered.isEmpty()) {
+            LOG.info("AutosaveJournal: Khôi phục " + recovered.size() + " snapshot chưa đồng bộ");
+        }
+    }
+
+    /**
+     * Đọc các record hợp lệ của một segment (dừng ở record hỏng đầu tiên):
+     * snapshot vào entries, checkpoint vào applied
+     */
+    private static void readSegment(Path path, List<Entry> entries, Map<Integer, Long> applied) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (buffer.remaining() >= RECORD_HEADER) {
+            int start = buffer.position();
+            int magic = buffer.getInt();
+            if (magic != MAGIC && magic != MAGIC_APPLIED) {
+                break;
+            }
+            int length = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                LOG.warn("AutosaveJournal: Record bị cắt cụt tại " + path.getFileName() + ":" + start);
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(body);
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != expectedCrc) {
+                LOG.warn("AutosaveJournal: Sai CRC tại " + path.getFileName() + ":" + start);
+                break;
+            }
+            try {
+                if (magic == MAGIC_APPLIED) {
+                    ByteBuffer checkpoint = ByteBuffer.wrap(body);
+                    applied.merge(checkpoint.getInt(), checkpoint.getLong(), Math::max);
+                } else {
+                    entries.add(decodeBody(body));
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException | IllegalStateException
+                     | DateTimeException e) {
+                LOG.warn("AutosaveJournal: Record không đọc được tại " + path.getFileName() + ":" + start);
+                break;
+            }
+        }
+    }
+
+    // ==================== SEGMENTS ====================
+
+    private void openNewSegment(int minSize) throws IOException {
+        long id = nextSegmentId++;
+        Path path = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = new Segment(id, path);
+            active.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(SEGMENT_SIZE, minSize));
+        }
+        syncDirectory();
+    }
+
+    /**
+     * Ghi một record vào segment đang ghi (thay segment mới nếu hết chỗ) và force xuống đĩa
+     */
+    private void writeRecord(int magic, byte[] body) throws IOException {
+        int recordSize = RECORD_HEADER + body.length;
+        if (active.buffer.remaining() < recordSize) {
+            rollSegment(recordSize);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        MappedByteBuffer buffer = active.buffer;
+        int start = buffer.position();
+        buffer.putInt(magic);
+        buffer.putInt(body.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(body);
+        buffer.force(start, recordSize);
+    }
+
+    private void rollSegment(int minSize) throws IOException {
+        Segment previous = active;
+        previous.buffer.force();
+        openNewSegment(minSize);
+        previous.buffer = null;
+        if (closedSegments.isEmpty() && isFullyApplied(previous)) {
+            delete(previous.path);
+        } else {
+            closedSegments.add(previous);
+        }
+    }
+
+    /**
+     * Xóa các segment cũ nhất đã áp dụng hết, dừng ở segment đầu tiên còn
+     * snapshot chưa áp dụng (giữ lại checkpoint ở các segment sau nó)
+     */
+    private void deleteAppliedSegments() {
+        Iterator<Segment> it = closedSegments.iterator();
+        while (it.hasNext()) {
+            Segment segment = it.next();
+            if (!isFullyApplied(segment)) {
+                break;
+            }
+            it.remove();
+            delete(segment.path);
+        }
+    }
+
+    private boolean isFullyApplied(Segment segment) {
+        for (Map.Entry<Integer, Long> e : segment.lastSeqByNote.entrySet()) {
+            if (appliedSeq.getOrDefault(e.getKey(), 0L) < e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Windows không cho xóa file còn được map - thử lại sau
+            undeletable.add(path);
+        }
+    }
+
+    private void retryDeletes() {
+        Iterator<Path> it = undeletable.iterator();
+        while (it.hasNext()) {
+            try {
+                Files.deleteIfExists(it.next());
+                it.remove();
+            } catch (IOException ignored) {
+                // Giữ lại cho lần sau
+            }
+        }
+    }
+
+    /**
+     * fsync thư mục để file segment mới chắc chắn còn sau crash (bỏ qua nếu OS không hỗ trợ)
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Windows không mở được thư mục như file
+        }
+    }
+
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    // ==================== ENCODING ====================
+
+    private static byte[] encodeBody(long seq, int noteId, int userId, long savedAt,
+                                     String title, String htmlContent, LocalDateTime baseUpdatedAt)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(seq);
+            out.writeInt(noteId);
+            out.writeInt(userId);
+            out.writeLong(savedAt);
+            byte[] titleBytes = (title != null ? title : "").getBytes(StandardCharsets.UTF_8);
+            out.writeInt(titleBytes.length);
+            out.write(titleBytes);
+            if (htmlContent == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] compressed = ContentCodec.compress(htmlContent);
+                out.writeInt(compressed.length);
+                out.write(compressed);
+            }
+            if (baseUpdatedAt != null) {
+                out.writeLong(baseUpdatedAt.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(baseUpdatedAt.getNano());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Entry decodeBody(byte[] body) {
+        ByteBuffer in = ByteBuffer.wrap(body);
+        long seq = in.getLong();
+        int noteId = in.getInt();
+        int userId = in.getInt();
+        long savedAt = in.getLong();
+        byte[] titleBytes = new byte[in.getInt()];
+        in.get(titleBytes);
+        String title = new String(titleBytes, StandardCharsets.UTF_8);
+        int htmlLength = in.getInt();
+        String html = null;
+        if (htmlLength >= 0) {
+            byte[] compressed = new byte[htmlLength];
+            in.get(compressed);
+            html = ContentCodec.decompress(compressed);
+        }
+        // Record ghi trước khi có mốc UpdatedAt thì kết thúc ngay sau HTML
+        LocalDateTime base = null;
+        if (in.remaining() >= 12) {
+            base = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+        }
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(savedAt), ZoneId.systemDefault());
+        return new Entry(seq, noteId, userId, time, title, html, base);
+    }
+}
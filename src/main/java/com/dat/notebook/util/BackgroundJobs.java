@@ -0,0 +1,90 @@
+package com.dat.notebook.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * BackgroundJobs - Scheduler dùng chung cho các job nền (flush counter,
+ * đối soát thống kê, dọn dẹp...).
+ *
+ * Tất cả thread là daemon nên không giữ JVM sống khi đóng ứng dụng.
+ * Mỗi job được bọc try/catch để một lỗi không làm hủy lịch chạy định kỳ.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class BackgroundJobs {
+
+    private static final AppLogger LOG = AppLogger.getLogger(BackgroundJobs.class);
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(1);
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(2, r -> {
+        Thread t = new Thread(r, "background-job-" + THREAD_COUNTER.getAndIncrement());
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private BackgroundJobs() {
+        // Utility class
+    }
+
+    /**
+     * Lên lịch một job chạy định kỳ (fixed delay)
+     *
+     * @param name Tên job (dùng cho log lỗi)
+     * @param task Công việc
+     * @param initialDelay Độ trễ lần đầu
+     * @param delay Khoảng nghỉ giữa 2 lần chạy
+     * @param unit Đơn vị thời gian
+     * @return ScheduledFuture để hủy nếu cần
+     */
+    public static ScheduledFuture<?> scheduleWithFixedDelay(String name, Runnable task,
+                                                           long initialDelay, long delay, TimeUnit unit) {
+        return SCHEDULER.scheduleWithFixedDelay(wrap(name, task), initialDelay, delay, unit);
+    }
+
+    /**
+     * Chạy một job một lần sau khoảng trễ
+     *
+     * @param name Tên job
+     * @param task Công việc
+     * @param delay Độ trễ
+     * @param unit Đơn vị thời gian
+     * @return ScheduledFuture
+     */
+    public static ScheduledFuture<?> schedule(String name, Runnable task, long delay, TimeUnit unit) {
+        return SCHEDULER.schedule(wrap(name, task), delay, unit);
+    }
+
+    /**
+     * Chạy một job trả về kết quả ngay khi có thread rảnh
+     *
+     * @param name Tên job
+     * @param task Công việc
+     * @return Future hoàn thành với kết quả (hoặc exception của task)
+     */
+    public static <T> CompletableFuture<T> supply(String name, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, SCHEDULER).whenComplete((result, error) -> {
+            if (error != null) {
+                LOG.error("BackgroundJobs[" + name + "] ERROR: " + error.getMessage());
+            }
+        });
+    }
+
+    private static Runnable wrap(String name, Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOG.error("BackgroundJobs[" + name + "] ERROR: " + e.getMessage());
+            }
+        };
+    }
+}
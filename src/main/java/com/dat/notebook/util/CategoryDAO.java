@@ -1,6 +1,7 @@
 package com.dat.notebook.util;
 
 import com.dat.notebook.model.Category;
+import com.dat.notebook.model.Note;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -8,15 +9,73 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object cho Category
- * Phiên bản tạm: lưu trong memory (chưa kết nối database)
+ *
+ * - Danh mục của mỗi user được cache trong memory (danh mục hiếm khi đổi):
+ *   chỉ lần đọc đầu tiên truy vấn DB, insert / update / delete / reorder
+ *   xóa cache của user đó
+ * - {@link #resolveCategories(int, List)} gắn Category vào ghi chú từ cache -
+ *   câu truy vấn ghi chú không cần JOIN Categories
+ * - Mọi Category trả ra là bản sao - caller sửa không làm hỏng cache
+ * - Không kết nối được DB: getCategoriesByUser dùng danh sách tạm trong memory
+ *   (không cache); resolve không dùng danh sách này (ID không phải của user)
+ *   mà để trống danh mục
+ *
+ * @author SmartNotebook Team
+ * @version 1.1
  */
 public class CategoryDAO {
 
-    // Lưu tạm trong memory
+    private static final AppLogger LOG = AppLogger.getLogger(CategoryDAO.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    // ==================== SQL QUERIES ====================
+
+    private static final String CATEGORY_COLUMNS = "CategoryID, UserID, Name, Color, Icon, SortOrder";
+
+    private static final String SQL_FIND_BY_USER =
+        "SELECT " + CATEGORY_COLUMNS + " FROM Categories WHERE UserID = ? ORDER BY SortOrder, CategoryID";
+
+    private static final String SQL_FIND_BY_ID =
+        "SELECT " + CATEGORY_COLUMNS + " FROM Categories WHERE CategoryID = ?";
+
+    private static final String SQL_INSERT =
+        "INSERT INTO Categories (UserID, Name, Color, Icon, SortOrder) " +
+        "VALUES (?, ?, ?, ?, (SELECT ISNULL(MAX(SortOrder), 0) + 1 FROM Categories WHERE UserID = ?))";
+
+    private static final String SQL_UPDATE =
+        "UPDATE Categories SET Name = ?, Color = ?, Icon = ? WHERE CategoryID = ?";
+
+    private static final String SQL_UPDATE_SORT_ORDER =
+        "UPDATE Categories SET SortOrder = ? WHERE CategoryID = ? AND UserID = ?";
+
+    private static final String SQL_DETACH_NOTES =
+        "UPDATE Notes SET CategoryID = NULL WHERE CategoryID = ?";
+
+    private static final String SQL_DELETE =
+        "DELETE FROM Categories WHERE CategoryID = ?";
+
+    private static final String DEFAULT_COLOR = "#a8edea";
+    private static final String DEFAULT_ICON = "📁";
+
+    // ==================== CACHE ====================
+
+    /** userId -> danh mục (đã sắp theo SortOrder, không sửa được) */
+    private static final Map<Integer, List<Category>> CACHE = new HashMap<>();
+
+    /**
+     * Tăng mỗi lần invalidate - kết quả tải về sau khi cache đã bị xóa
+     * (dữ liệu có thể cũ) không được đưa vào cache
+     */
+    private static long invalidations = 0;
+
+    // Lưu tạm trong memory (khi không có DB)
     private static List<Category> categories = new ArrayList<>();
     private static int nextId = 1;
 
@@ -25,86 +84,207 @@ public class CategoryDAO {
         categories.add(new Category(nextId++, "Công việc", "#4CAF50"));
         categories.add(new Category(nextId++, "Cá nhân", "#2196F3"));
         categories.add(new Category(nextId++, "Học tập", "#FF9800"));
+
+        METRICS.gauge("categories.cachedUsers", () -> {
+            synchronized (CACHE) {
+                return CACHE.size();
+            }
+        });
     }
 
+    // ==================== READ ====================
+
     /**
-     * Lấy tất cả danh mục
+     * Lấy tất cả danh mục của user đang đăng nhập
      */
     public List<Category> getAllCategories() {
+        return getCategoriesByUser(SessionManager.getInstance().getCurrentUserId());
+    }
+
+    /**
+     * Lấy danh mục của user (từ cache nếu có)
+     *
+     * @param userId ID người dùng
+     * @return Bản sao danh mục theo SortOrder
+     */
+    public List<Category> getCategoriesByUser(int userId) {
+        List<Category> loaded = loadCategories(userId);
+        if (loaded == null) {
+            return memoryCategories();
+        }
+        List<Category> result = new ArrayList<>(loaded.size());
+        for (Category category : loaded) {
+            result.add(category.copy());
+        }
+        return result;
+    }
+
+    /**
+     * Danh mục của user trong cache (tải từ DB nếu chưa có)
+     *
+     * @return Danh sách dùng chung với cache (không sửa), null nếu không đọc được DB
+     */
+    private List<Category> loadCategories(int userId) {
+        List<Category> cached;
+        long generation;
+        synchronized (CACHE) {
+            cached = CACHE.get(userId);
+            generation = invalidations;
+        }
+        if (cached != null) {
+            METRICS.counter("categories.cacheHits").increment();
+            return cached;
+        }
+        METRICS.counter("categories.cacheMisses").increment();
+
+        List<Category> result;
+        try {
+            result = queryCategories(userId);
+        } catch (SQLException e) {
+            LOG.error("CategoryDAO.getCategoriesByUser ERROR: " + e.getMessage());
+            return null;
+        }
+        if (result == null) {
+            return null;
+        }
+
+        List<Category> loaded = Collections.unmodifiableList(result);
+        synchronized (CACHE) {
+            if (invalidations == generation) {
+                CACHE.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Đọc danh mục của user từ DB (không qua cache)
+     *
+     * @return null nếu không có kết nối
+     */
+    List<Category> queryCategories(int userId) throws SQLException {
         try (Connection conn = DBConnection.tryGetConnection()) {
             if (conn == null) {
-                return new ArrayList<>(categories);
-            }
-
-            String sql = "SELECT CategoryID, CategoryName FROM Categories ORDER BY CategoryID ASC";
-            try (PreparedStatement ps = conn.prepareStatement(sql);
-                 ResultSet rs = ps.executeQuery()) {
-                List<Category> result = new ArrayList<>();
-                while (rs.next()) {
-                    Category category = new Category();
-                    category.setId(rs.getInt("CategoryID"));
-                    category.setName(rs.getString("CategoryName"));
-                    category.setColor("#667eea"); // Default color
-                    result.add(category);
+                return null;
+            }
+
+            List<Category> result = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_USER)) {
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(mapResultSetToCategory(rs));
+                    }
                 }
-                return result;
             }
-        } catch (SQLException e) {
-            return new ArrayList<>(categories);
+            return result;
         }
     }
 
     /**
-     * Lấy danh mục theo ID
+     * Lấy danh mục theo ID (tìm trong cache trước)
      */
     public Category getCategoryById(int id) {
-        try (Connection conn = DBConnection.tryGetConnection()) {
-            if (conn == null) {
-                for (Category cat : categories) {
+        synchronized (CACHE) {
+            for (List<Category> userCategories : CACHE.values()) {
+                for (Category cat : userCategories) {
                     if (cat.getId() == id) {
-                        return cat;
+                        return cat.copy();
                     }
                 }
-                return null;
             }
+        }
 
-            String sql = "SELECT CategoryID, CategoryName FROM Categories WHERE CategoryID = ?";
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = DBConnection.tryGetConnection()) {
+            if (conn == null) {
+                return findInMemory(id);
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
                 ps.setInt(1, id);
                 try (ResultSet rs = ps.executeQuery()) {
-                    if (!rs.next()) {
-                        return null;
-                    }
-                    Category category = new Category();
-                    category.setId(rs.getInt("CategoryID"));
-                    category.setName(rs.getString("CategoryName"));
-                    category.setColor("#667eea");
-                    return category;
+                    return rs.next() ? mapResultSetToCategory(rs) : null;
                 }
             }
         } catch (SQLException e) {
-            for (Category cat : categories) {
-                if (cat.getId() == id) {
-                    return cat;
-                }
+            return findInMemory(id);
+        }
+    }
+
+    /**
+     * Gắn Category (từ cache) vào các ghi chú có CategoryID - thay cho JOIN
+     * Categories trong câu truy vấn ghi chú. Chỉ truy vấn DB khi cache của
+     * user chưa có và có ít nhất một ghi chú thuộc danh mục. Không đọc được
+     * danh mục của user thì để trống (không gắn danh mục mẫu trong memory).
+     *
+     * @param userId ID người dùng sở hữu các ghi chú
+     * @param notes Danh sách ghi chú (được sửa tại chỗ)
+     */
+    public void resolveCategories(int userId, List<Note> notes) {
+        if (notes == null || notes.stream().allMatch(note -> note.getCategoryId() == null)) {
+            return;
+        }
+
+        List<Category> loaded = loadCategories(userId);
+        if (loaded == null) {
+            return;
+        }
+        Map<Integer, Category> byId = new HashMap<>();
+        for (Category category : loaded) {
+            byId.put(category.getId(), category);
+        }
+        Map<Integer, Category> copies = new HashMap<>();
+        for (Note note : notes) {
+            Category category = note.getCategoryId() != null ? byId.get(note.getCategoryId()) : null;
+            if (category != null) {
+                note.setCategory(copies.computeIfAbsent(category.getId(), id -> category.copy()));
             }
+        }
+    }
+
+    /**
+     * Tên danh mục của ghi chú (từ cache)
+     *
+     * @return Tên, hoặc null nếu ghi chú không thuộc danh mục nào / không đọc được danh mục
+     */
+    public String resolveCategoryName(int userId, Integer categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        List<Category> loaded = loadCategories(userId);
+        if (loaded == null) {
             return null;
         }
+        for (Category category : loaded) {
+            if (category.getId() == categoryId) {
+                return category.getName();
+            }
+        }
+        return null;
     }
 
+    // ==================== WRITE ====================
+
     /**
-     * Thêm mới danh mục
+     * Thêm mới danh mục (SortOrder = cuối danh sách của user)
      */
     public boolean insertCategory(Category category) {
+        if (category.getUserId() <= 0) {
+            category.setUserId(SessionManager.getInstance().getCurrentUserId());
+        }
+
         try (Connection conn = DBConnection.tryGetConnection()) {
             if (conn == null) {
                 category.setId(nextId++);
                 return categories.add(category);
             }
 
-            String sql = "INSERT INTO Categories (CategoryName) VALUES (?)";
-            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setString(1, category.getName());
+            try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setInt(1, category.getUserId());
+                ps.setString(2, category.getName());
+                ps.setString(3, category.getColor() != null ? category.getColor() : DEFAULT_COLOR);
+                ps.setString(4, category.getIcon() != null ? category.getIcon() : DEFAULT_ICON);
+                ps.setInt(5, category.getUserId());
                 int affected = ps.executeUpdate();
                 if (affected <= 0) {
                     return false;
@@ -114,6 +294,7 @@ public class CategoryDAO {
                         category.setId(keys.getInt(1));
                     }
                 }
+                invalidate(category.getUserId());
                 return true;
             }
         } catch (SQLException e) {
@@ -137,11 +318,14 @@ public class CategoryDAO {
                 return false;
             }
 
-            String sql = "UPDATE Categories SET CategoryName = ? WHERE CategoryID = ?";
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
                 ps.setString(1, updatedCat.getName());
-                ps.setInt(2, updatedCat.getId());
-                return ps.executeUpdate() > 0;
+                ps.setString(2, updatedCat.getColor() != null ? updatedCat.getColor() : DEFAULT_COLOR);
+                ps.setString(3, updatedCat.getIcon() != null ? updatedCat.getIcon() : DEFAULT_ICON);
+                ps.setInt(4, updatedCat.getId());
+                boolean success = ps.executeUpdate() > 0;
+                invalidateOwner(updatedCat.getId(), updatedCat.getUserId());
+                return success;
             }
         } catch (SQLException e) {
             for (int i = 0; i < categories.size(); i++) {
@@ -155,20 +339,136 @@ public class CategoryDAO {
     }
 
     /**
-     * Xóa danh mục
+     * Xóa danh mục - các ghi chú thuộc danh mục được chuyển về "không danh mục"
+     * (cùng transaction, tránh vi phạm FK_Notes_Categories)
      */
     public boolean deleteCategory(int id) {
         try (Connection conn = DBConnection.tryGetConnection()) {
             if (conn == null) {
                 return categories.removeIf(cat -> cat.getId() == id);
             }
-            String sql = "DELETE FROM Categories WHERE CategoryID = ?";
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setInt(1, id);
-                return ps.executeUpdate() > 0;
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement detach = conn.prepareStatement(SQL_DETACH_NOTES);
+                 PreparedStatement delete = conn.prepareStatement(SQL_DELETE)) {
+                detach.setInt(1, id);
+                detach.executeUpdate();
+                delete.setInt(1, id);
+                boolean success = delete.executeUpdate() > 0;
+                conn.commit();
+                invalidateOwner(id, 0);
+                return success;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
+            LOG.error("CategoryDAO.deleteCategory ERROR: " + e.getMessage());
             return categories.removeIf(cat -> cat.getId() == id);
         }
     }
+
+    /**
+     * Sắp xếp lại danh mục của user trong MỘT batch / transaction:
+     * SortOrder = vị trí trong orderedIds (bắt đầu từ 1)
+     *
+     * @param userId ID người dùng
+     * @param orderedIds ID danh mục theo thứ tự mới
+     * @return true nếu thành công
+     */
+    public boolean reorderCategories(int userId, List<Integer> orderedIds) {
+        if (orderedIds == null || orderedIds.isEmpty()) {
+            return true;
+        }
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_SORT_ORDER)) {
+                for (int i = 0; i < orderedIds.size(); i++) {
+                    ps.setInt(1, i + 1);
+                    ps.setInt(2, orderedIds.get(i));
+                    ps.setInt(3, userId);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                invalidate(userId);
+            }
+        } catch (SQLException e) {
+            LOG.error("CategoryDAO.reorderCategories ERROR: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ==================== CACHE CONTROL ====================
+
+    /**
+     * Xóa cache danh mục của user (lần đọc sau truy vấn lại DB)
+     */
+    public static void invalidate(int userId) {
+        synchronized (CACHE) {
+            invalidations++;
+            CACHE.remove(userId);
+        }
+    }
+
+    /**
+     * Xóa toàn bộ cache (vd. khi đăng xuất)
+     */
+    public static void invalidateAll() {
+        synchronized (CACHE) {
+            invalidations++;
+            CACHE.clear();
+        }
+    }
+
+    /**
+     * Xóa cache của user sở hữu danh mục; không biết chủ sở hữu => xóa hết
+     */
+    private static void invalidateOwner(int categoryId, int userId) {
+        if (userId > 0) {
+            invalidate(userId);
+            return;
+        }
+        synchronized (CACHE) {
+            invalidations++;
+            CACHE.values().removeIf(list -> list.stream().anyMatch(cat -> cat.getId() == categoryId));
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private Category mapResultSetToCategory(ResultSet rs) throws SQLException {
+        Category category = new Category();
+        category.setId(rs.getInt("CategoryID"));
+        category.setUserId(rs.getInt("UserID"));
+        category.setName(rs.getString("Name"));
+        String color = rs.getString("Color");
+        category.setColor(color != null ? color : DEFAULT_COLOR);
+        category.setIcon(rs.getString("Icon"));
+        category.setSortOrder(rs.getInt("SortOrder"));
+        return category;
+    }
+
+    private List<Category> memoryCategories() {
+        List<Category> result = new ArrayList<>(categories.size());
+        for (Category cat : categories) {
+            result.add(cat.copy());
+        }
+        return result;
+    }
+
+    private Category findInMemory(int id) {
+        for (Category cat : categories) {
+            if (cat.getId() == id) {
+                return cat.copy();
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,195 @@
+package com.dat.notebook.util;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * ConnectionCircuitBreaker - Ngắt mạch khi không kết nối được SQL Server.
+ *
+ * - CLOSED: kết nối bình thường; đếm số lần thất bại liên tiếp
+ * - OPEN: sau failureThreshold lần thất bại liên tiếp - mọi lần lấy connection
+ *   thất bại ngay (không chờ login timeout của driver)
+ * - HALF_OPEN: prober nền đang thử kết nối lại; thành công => CLOSED,
+ *   thất bại => OPEN và lần thử sau chờ gấp đôi (tới maxBackoff)
+ *
+ * Listener nhận mọi lần đổi trạng thái (trên thread của bên gây ra thay đổi -
+ * UI cần tự chuyển sang FX thread).
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class ConnectionCircuitBreaker {
+
+    private static final AppLogger LOG = AppLogger.getLogger(ConnectionCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Hàm thử kết nối dùng cho prober
+     */
+    @FunctionalInterface
+    public interface Probe {
+        void connect() throws SQLException;
+    }
+
+    private final int failureThreshold;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Probe probe;
+    private final List<Consumer<State>> listeners = new CopyOnWriteArrayList<>();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long backoffMs;
+    private String lastError;
+
+    /**
+     * @param failureThreshold Số lần thất bại liên tiếp để mở mạch
+     * @param initialBackoffMs Chờ trước lần thử lại đầu tiên
+     * @param maxBackoffMs Chờ tối đa giữa hai lần thử lại
+     * @param probe Cách thử kết nối khi mạch đang mở
+     */
+    public ConnectionCircuitBreaker(int failureThreshold, long initialBackoffMs, long maxBackoffMs, Probe probe) {
+        if (failureThreshold < 1 || initialBackoffMs <= 0 || maxBackoffMs < initialBackoffMs) {
+            throw new IllegalArgumentException("Cấu hình circuit breaker không hợp lệ");
+        }
+        this.failureThreshold = failureThreshold;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.backoffMs = initialBackoffMs;
+        this.probe = probe;
+    }
+
+    // ==================== CALLERS ====================
+
+    /**
+     * Có được thử kết nối không (false khi mạch mở hoặc prober đang thử)
+     */
+    public synchronized boolean allowRequest() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Ghi nhận kết nối thành công
+     */
+    public void recordSuccess() {
+        State changed;
+        synchronized (this) {
+            consecutiveFailures = 0;
+            backoffMs = initialBackoffMs;
+            lastError = null;
+            changed = transition(State.CLOSED);
+        }
+        publish(changed);
+    }
+
+    /**
+     * Ghi nhận kết nối thất bại
+     */
+    public void recordFailure(SQLException error) {
+        State changed = null;
+        synchronized (this) {
+            lastError = error.getMessage();
+            consecutiveFailures++;
+            if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+                changed = transition(State.OPEN);
+                scheduleProbe();
+            }
+        }
+        publish(changed);
+    }
+
+    // ==================== STATE ====================
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Thời gian chờ trước lần thử lại kế tiếp (ms)
+     */
+    public synchronized long getBackoffMs() {
+        return backoffMs;
+    }
+
+    public void addListener(Consumer<State> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<State> listener) {
+        listeners.remove(listener);
+    }
+
+    // ==================== PROBER ====================
+
+    private void scheduleProbe() {
+        BackgroundJobs.schedule("db-circuit-probe", this::runProbe, backoffMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void runProbe() {
+        State changed;
+        synchronized (this) {
+            if (state != State.OPEN) {
+                return;
+            }
+            changed = transition(State.HALF_OPEN);
+        }
+        publish(changed);
+
+        try {
+            probe.connect();
+            recordSuccess();
+        } catch (SQLException e) {
+            synchronized (this) {
+                lastError = e.getMessage();
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+                changed = transition(State.OPEN);
+                scheduleProbe();
+            }
+            publish(changed);
+        }
+    }
+
+    /**
+     * Đổi trạng thái (gọi khi đang giữ khóa)
+     *
+     * @return Trạng thái mới nếu có thay đổi, null nếu giữ nguyên
+     */
+    private State transition(State next) {
+        if (state == next) {
+            return null;
+        }
+        state = next;
+        switch (next) {
+            case OPEN:
+                LOG.warn("⚠ DB circuit OPEN - thử lại sau " + backoffMs + " ms (" + lastError + ")");
+                break;
+            case CLOSED:
+                LOG.info("✓ DB circuit CLOSED - đã kết nối lại SQL Server");
+                break;
+            default:
+                break;
+        }
+        return next;
+    }
+
+    private void publish(State changed) {
+        if (changed == null) {
+            return;
+        }
+        for (Consumer<State> listener : listeners) {
+            try {
+                listener.accept(changed);
+            } catch (RuntimeException e) {
+                LOG.error("ConnectionCircuitBreaker listener ERROR: " + e.getMessage());
+            }
+        }
+    }
+}
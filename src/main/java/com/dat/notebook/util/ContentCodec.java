@@ -0,0 +1,144 @@
+package com.dat.notebook.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * ContentCodec - Nén nội dung HTML lớn trước khi ghi xuống DB.
+ *
+ * HTML lưu trong NVARCHAR(MAX) là UTF-16, thường nén được 5-10 lần.
+ * Nội dung dài hơn INLINE_THRESHOLD ký tự được ghi vào cột VARBINARY(MAX)
+ * (HtmlContentCompressed / BodyCompressed) và cột NVARCHAR tương ứng = NULL;
+ * nội dung nhỏ vẫn để inline như cũ.
+ *
+ * Định dạng: [MAGIC][FORMAT_DEFLATE_UTF8][độ dài ký tự - 4 byte][payload Deflate của UTF-8]
+ *
+ * Quy ước đọc: cột inline khác NULL luôn được ưu tiên (stored procedure cũ
+ * có thể ghi inline mà không xóa bản nén).
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class ContentCodec {
+
+    /** Nội dung dài hơn ngưỡng này (ký tự) sẽ được nén */
+    public static final int INLINE_THRESHOLD = 4000;
+
+    private static final byte MAGIC = 'Z';
+    private static final byte FORMAT_DEFLATE_UTF8 = 1;
+    private static final int HEADER_SIZE = 6;
+
+    private ContentCodec() {
+        // Utility class
+    }
+
+    /**
+     * Nội dung có nên được nén không
+     */
+    public static boolean shouldCompress(String content) {
+        return content != null && content.length() > INLINE_THRESHOLD;
+    }
+
+    /**
+     * Nén nội dung
+     *
+     * @param content Nội dung gốc
+     * @return Dữ liệu nén có header
+     */
+    public static byte[] compress(String content) {
+        byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length / 4 + HEADER_SIZE);
+            out.write(MAGIC);
+            out.write(FORMAT_DEFLATE_UTF8);
+            out.writeBytes(ByteBuffer.allocate(4).putInt(content.length()).array());
+
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Giải nén dữ liệu từ {@link #compress(String)}
+     *
+     * @throws IllegalStateException nếu header không hợp lệ hoặc dữ liệu hỏng
+     */
+    public static String decompress(byte[] data) {
+        if (data == null || data.length < HEADER_SIZE || data[0] != MAGIC) {
+            throw new IllegalStateException("Dữ liệu nén không hợp lệ");
+        }
+        if (data[1] != FORMAT_DEFLATE_UTF8) {
+            throw new IllegalStateException("Định dạng nén không hỗ trợ: " + data[1]);
+        }
+        int length = ByteBuffer.wrap(data, 2, 4).getInt();
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, HEADER_SIZE, data.length - HEADER_SIZE);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 2);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Dữ liệu nén bị cắt cụt");
+                }
+                out.write(buffer, 0, n);
+            }
+            String content = out.toString(StandardCharsets.UTF_8);
+            if (content.length() != length) {
+                throw new IllegalStateException("Dữ liệu nén bị hỏng (độ dài không khớp)");
+            }
+            return content;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Dữ liệu nén bị hỏng: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Lấy nội dung từ cặp cột (inline, nén) - inline được ưu tiên
+     */
+    public static String read(String inline, byte[] compressed) {
+        if (inline != null || compressed == null) {
+            return inline;
+        }
+        return decompress(compressed);
+    }
+
+    /**
+     * Bind nội dung vào cặp tham số (inline, nén) theo ngưỡng
+     *
+     * @param ps PreparedStatement
+     * @param inlineIndex Vị trí tham số cột NVARCHAR
+     * @param compressedIndex Vị trí tham số cột VARBINARY
+     * @param content Nội dung
+     */
+    public static void bind(PreparedStatement ps, int inlineIndex, int compressedIndex, String content)
+            throws SQLException {
+        if (shouldCompress(content)) {
+            ps.setNull(inlineIndex, Types.NVARCHAR);
+            ps.setBytes(compressedIndex, compress(content));
+        } else {
+            ps.setString(inlineIndex, content);
+            ps.setNull(compressedIndex, Types.VARBINARY);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ContentCompressionJob - Nén dần các nội dung lớn đã có trước migration V009.
+ *
+ * Mỗi lượt nén tối đa BATCH_SIZE dòng của Notes.HtmlContent và
+ * VersionBlobs.Body vượt ngưỡng {@link ContentCodec#INLINE_THRESHOLD},
+ * nghỉ PAUSE_SECONDS rồi chạy lượt tiếp; dừng khi không còn dòng nào
+ * (lượt sau chỉ chạy lại ở lần khởi động kế tiếp).
+ *
+ * UPDATE có điều kiện "nội dung vẫn như lúc đọc" nên không ghi đè thay đổi
+ * của người dùng xảy ra giữa chừng.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class ContentCompressionJob {
+
+    private static final AppLogger LOG = AppLogger.getLogger(ContentCompressionJob.class);
+
+    private static final int BATCH_SIZE = 200;
+    private static final long PAUSE_SECONDS = 5;
+
+    // ==================== SQL ====================
+
+    private static final String SQL_FIND_NOTES =
+        "SELECT TOP (?) NoteID, HtmlContent FROM Notes " +
+        "WHERE HtmlContent IS NOT NULL AND LEN(HtmlContent) > ?";
+
+    private static final String SQL_COMPRESS_NOTE =
+        "UPDATE Notes SET HtmlContent = NULL, HtmlContentCompressed = ? " +
+        "WHERE NoteID = ? AND HtmlContent = ?";
+
+    private static final String SQL_FIND_BLOBS =
+        "SELECT TOP (?) BlobID, Body FROM VersionBlobs " +
+        "WHERE Body IS NOT NULL AND LEN(Body) > ?";
+
+    private static final String SQL_COMPRESS_BLOB =
+        "UPDATE VersionBlobs SET Body = NULL, BodyCompressed = ? WHERE BlobID = ?";
+
+    private ContentCompressionJob() {
+        // Utility class
+    }
+
+    /**
+     * Bắt đầu nén nền sau một khoảng trễ
+     *
+     * @param initialDelaySeconds Độ trễ trước lượt đầu (giây)
+     */
+    public static void start(long initialDelaySeconds) {
+        BackgroundJobs.schedule("content-compression", ContentCompressionJob::runAndReschedule,
+                initialDelaySeconds, TimeUnit.SECONDS);
+    }
+
+    private static void runAndReschedule() {
+        int compressed = compressBatch();
+        if (compressed > 0) {
+            LOG.info("ContentCompressionJob: Đã nén " + compressed + " dòng");
+            BackgroundJobs.schedule("content-compression", ContentCompressionJob::runAndReschedule,
+                    PAUSE_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Nén một lô Notes + VersionBlobs
+     *
+     * @return Số dòng đã nén
+     */
+    public static int compressBatch() {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            return compressNotes(conn) + compressBlobs(conn);
+        } catch (SQLException e) {
+            LOG.error("ContentCompressionJob ERROR: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static int compressNotes(Connection conn) throws SQLException {
+        int count = 0;
+        try (PreparedStatement find = conn.prepareStatement(SQL_FIND_NOTES);
+             PreparedStatement update = conn.prepareStatement(SQL_COMPRESS_NOTE)) {
+            find.setInt(1, BATCH_SIZE);
+            find.setInt(2, ContentCodec.INLINE_THRESHOLD);
+            try (ResultSet rs = find.executeQuery()) {
+                while (rs.next()) {
+                    String html = rs.getString("HtmlContent");
+                    update.setBytes(1, ContentCodec.compress(html));
+                    update.setInt(2, rs.getInt("NoteID"));
+                    update.setString(3, html);
+                    update.addBatch();
+                    count++;
+                }
+            }
+            if (count > 0) {
+                // Chỉ đếm dòng thực sự được nén (dòng vừa bị sửa thì bỏ qua)
+                count = 0;
+                for (int updated : update.executeBatch()) {
+                    count += Math.max(updated, 0);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int compressBlobs(Connection conn) throws SQLException {
+        int count = 0;
+        try (PreparedStatement find = conn.prepareStatement(SQL_FIND_BLOBS);
+             PreparedStatement update = conn.prepareStatement(SQL_COMPRESS_BLOB)) {
+            find.setInt(1, BATCH_SIZE);
+            find.setInt(2, ContentCodec.INLINE_THRESHOLD);
+            try (ResultSet rs = find.executeQuery()) {
+                while (rs.next()) {
+                    // Blob bất biến (khóa bởi hash) nên không cần điều kiện nội dung
+                    update.setBytes(1, ContentCodec.compress(rs.getString("Body")));
+                    update.setInt(2, rs.getInt("BlobID"));
+                    update.addBatch();
+                    count++;
+                }
+            }
+            if (count > 0) {
+                update.executeBatch();
+            }
+        }
+        return count;
+    }
+}
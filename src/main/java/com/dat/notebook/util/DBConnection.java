@@ -2,6 +2,7 @@ package com.dat.notebook.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.NoSuchAlgorithmException;
 import java.security.Security;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -10,6 +11,8 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
 
+import javax.net.ssl.SSLContext;
+
 /**
  * DBConnection - Quản lý kết nối SQL Server với TLS 1.0 (CHỈ CHO HỌC TẬP)
  * 
@@ -28,6 +31,9 @@ import java.util.Properties;
  * @version 2.0 - TLS 1.0 Hack Edition
  */
 public class DBConnection {
+
+    private static final AppLogger LOG = AppLogger.getLogger(DBConnection.class);
+
     private static String server;
     private static String port;
     private static String database;
@@ -36,6 +42,10 @@ public class DBConnection {
     private static String encrypt;
     private static String trustServerCertificate;
     private static String sslProtocol;
+    private static String loginTimeout;
+    private static ConnectionCircuitBreaker circuitBreaker;
+    private static boolean sqlTiming = false;
+    private static volatile boolean bannerPrinted;
 
     static {
         // BƯỚC 1: Kích hoạt TLS 1.0 trong JVM (HACK BẢO MẬT)
@@ -45,6 +55,19 @@ public class DBConnection {
         loadDatabaseConfig();
     }
 
+    /**
+     * Đọc một cấu hình số nguyên dương, sai định dạng thì dùng mặc định
+     */
+    private static int intSetting(Properties props, String key, int defaultValue) {
+        try {
+            int value = Integer.parseInt(setting(props, key, String.valueOf(defaultValue)).trim());
+            return value > 0 ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            LOG.warn("⚠ " + key + " không hợp lệ, dùng " + defaultValue);
+            return defaultValue;
+        }
+    }
+
     /**
      * BƯỚC 1: Kích hoạt TLS 1.0 trong JVM
      * 
@@ -59,12 +82,12 @@ public class DBConnection {
      * - Không hỗ trợ cipher suites hiện đại
      */
     private static void enableLegacyTLS() {
-        System.out.println("\n⚠️  BẮT ĐẦU HACK BẢO MẬT JVM - CHỈ CHO HỌC TẬP ⚠️");
+        LOG.warn("⚠️ BẮT ĐẦU HACK BẢO MẬT JVM - CHỈ CHO HỌC TẬP");
         
         // Lấy giá trị hiện tại của jdk.tls.disabledAlgorithms
         String disabledAlgorithms = Security.getProperty("jdk.tls.disabledAlgorithms");
-        System.out.println("\n[TRƯỚC] jdk.tls.disabledAlgorithms:");
-        System.out.println(disabledAlgorithms);
+        String before = disabledAlgorithms;
+        LOG.debug(() -> "[TRƯỚC] jdk.tls.disabledAlgorithms: " + before);
         
         // Xóa TLSv1 và TLSv1.1 khỏi danh sách disabled
         if (disabledAlgorithms != null) {
@@ -76,20 +99,20 @@ public class DBConnection {
                 .replaceAll(",\\s*$", "");           // Xóa dấu phẩy cuối
             
             Security.setProperty("jdk.tls.disabledAlgorithms", disabledAlgorithms);
-            System.out.println("\n[SAU] jdk.tls.disabledAlgorithms:");
-            System.out.println(disabledAlgorithms);
+            String after = disabledAlgorithms;
+            LOG.debug(() -> "[SAU] jdk.tls.disabledAlgorithms: " + after);
         }
         
         // Thiết lập giao thức TLS được phép sử dụng
         // Bao gồm TLSv1 để tương thích với SQL Server cũ
         System.setProperty("jdk.tls.client.protocols", "TLSv1,TLSv1.1,TLSv1.2");
-        System.out.println("\n[THIẾT LẬP] jdk.tls.client.protocols = TLSv1,TLSv1.1,TLSv1.2");
+        LOG.debug("[THIẾT LẬP] jdk.tls.client.protocols = TLSv1,TLSv1.1,TLSv1.2");
         
         // Tắt endpoint identification (không kiểm tra hostname trong certificate)
         // Cần thiết vì SQL Server tự ký certificate
         System.setProperty("jdk.tls.trustNameService", "true");
         
-        System.out.println("\n✓ Đã kích hoạt TLS 1.0 - KHÔNG SỬ DỤNG TRONG PRODUCTION!\n");
+        LOG.warn("✓ Đã kích hoạt TLS 1.0 - KHÔNG SỬ DỤNG TRONG PRODUCTION!");
     }
 
     /**
@@ -99,24 +122,52 @@ public class DBConnection {
         Properties props = new Properties();
         try (InputStream input = DBConnection.class.getClassLoader().getResourceAsStream("db.properties")) {
             if (input == null) {
-                System.err.println("❌ Không tìm thấy db.properties!");
+                LOG.error("❌ Không tìm thấy db.properties!");
+                createCircuitBreaker(props);
                 return;
             }
             props.load(input);
             
-            server = props.getProperty("db.server");
-            port = props.getProperty("db.port");
-            database = props.getProperty("db.database");
-            username = props.getProperty("db.username");
-            password = props.getProperty("db.password");
-            encrypt = props.getProperty("db.encrypt", "true");
-            trustServerCertificate = props.getProperty("db.trustServerCertificate", "true");
-            sslProtocol = props.getProperty("db.sslProtocol", "TLSv1");
+            // System property (-Ddb.server=...) ghi đè db.properties,
+            // dùng khi chạy công cụ với SQL Server khác (vd: container local)
+            server = setting(props, "db.server", null);
+            port = setting(props, "db.port", null);
+            database = setting(props, "db.database", null);
+            username = setting(props, "db.username", null);
+            password = setting(props, "db.password", null);
+            encrypt = setting(props, "db.encrypt", "true");
+            trustServerCertificate = setting(props, "db.trustServerCertificate", "true");
+            sslProtocol = setting(props, "db.sslProtocol", "TLSv1");
+            loginTimeout = String.valueOf(intSetting(props, "db.loginTimeout", 5));
+            sqlTiming = Boolean.parseBoolean(setting(props, "db.sqlTiming.enabled", "false").trim());
+            SqlTimingProxy.setSlowThresholdMillis(intSetting(props, "db.slowQuery.thresholdMs", 250));
             
-            System.out.println("✓ Đã tải db.properties thành công");
+            LOG.info("✓ Đã tải db.properties thành công");
         } catch (IOException ex) {
-            System.err.println("❌ Lỗi đọc db.properties: " + ex.getMessage());
+            LOG.error("❌ Lỗi đọc db.properties: " + ex.getMessage());
         }
+        createCircuitBreaker(props);
+    }
+
+    /**
+     * Circuit breaker cho kết nối: mở sau db.circuit.failureThreshold lần lỗi
+     * liên tiếp, prober nền thử lại sau db.circuit.initialBackoffMs, gấp đôi
+     * mỗi lần thất bại tới db.circuit.maxBackoffMs
+     */
+    private static void createCircuitBreaker(Properties props) {
+        int threshold = intSetting(props, "db.circuit.failureThreshold", 3);
+        int initialBackoff = intSetting(props, "db.circuit.initialBackoffMs", 2000);
+        int maxBackoff = Math.max(initialBackoff, intSetting(props, "db.circuit.maxBackoffMs", 60000));
+        circuitBreaker = new ConnectionCircuitBreaker(threshold, initialBackoff, maxBackoff,
+            () -> openConnection().close());
+        MetricsRegistry.getInstance().gauge("db.circuit.state", () -> circuitBreaker.getState().name());
+    }
+    
+    /**
+     * Đọc một cấu hình: System property trước, sau đó db.properties
+     */
+    private static String setting(Properties props, String key, String defaultValue) {
+        return System.getProperty(key, props.getProperty(key, defaultValue));
     }
     
     // ==================== GET CONNECTION ====================
@@ -135,15 +186,38 @@ public class DBConnection {
      * - Nếu false → lỗi "unable to find valid certification path"
      */
     public static Connection getConnection() throws SQLException {
+        if (!circuitBreaker.allowRequest()) {
+            throw new SQLException("Circuit breaker " + circuitBreaker.getState()
+                + " - SQL Server không khả dụng (lỗi gần nhất: " + circuitBreaker.getLastError() + ")", "08001");
+        }
+        try {
+            Connection conn = MetricsRegistry.getInstance().timed("db.connect", DBConnection::openConnection);
+            circuitBreaker.recordSuccess();
+            // Đo từng câu SQL + slow-query log (db.sqlTiming.enabled)
+            return sqlTiming ? SqlTimingProxy.wrap(conn) : conn;
+        } catch (SQLException e) {
+            MetricsRegistry.getInstance().counter("db.connect.failures").increment();
+            circuitBreaker.recordFailure(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Mở kết nối thật (không qua circuit breaker); in thông tin kết nối một lần
+     */
+    private static Connection openConnection() throws SQLException {
         String url = String.format(
-            "jdbc:sqlserver://%s:%s;databaseName=%s;encrypt=%s;trustServerCertificate=%s;sslProtocol=%s",
-            server, port, database, encrypt, trustServerCertificate, sslProtocol
+            "jdbc:sqlserver://%s:%s;databaseName=%s;encrypt=%s;trustServerCertificate=%s;sslProtocol=%s;loginTimeout=%s",
+            server, port, database, encrypt, trustServerCertificate, sslProtocol, loginTimeout
         );
         
-        System.out.println("\n🔌 Đang kết nối SQL Server...");
-        System.out.println("URL: " + url.replace(password, "****"));
-        System.out.println("User: " + username);
-        System.out.println("SSL Protocol: " + sslProtocol);
+        if (!bannerPrinted) {
+            bannerPrinted = true;
+            LOG.info("🔌 Đang kết nối SQL Server: " + url.replace(password, "****")
+                + " (user " + username + ", SSL " + sslProtocol + ")");
+        } else {
+            LOG.debug(() -> "Mở kết nối SQL Server " + server + ":" + port + "/" + database);
+        }
         
         return DriverManager.getConnection(url, username, password);
     }
@@ -151,18 +225,44 @@ public class DBConnection {
     /**
      * Thử lấy Connection; trả về null nếu kết nối thất bại.
      * Dùng để app vẫn chạy được ở chế độ offline (in-memory).
+     * Khi circuit breaker đang mở, trả về null ngay (không chờ timeout, không log).
      * 
      * @return Connection object hoặc null
      */
     public static Connection tryGetConnection() {
+        if (!circuitBreaker.allowRequest()) {
+            return null;
+        }
         try {
             return getConnection();
         } catch (SQLException e) {
-            System.err.println("⚠ Không thể kết nối DB (chạy demo mode): " + e.getMessage());
+            LOG.error("⚠ Không thể kết nối DB (chạy demo mode): " + e.getMessage());
             return null;
         }
     }
     
+    /**
+     * Làm nóng trước khi mở kết nối đầu tiên (chạy nền lúc khởi động):
+     * nạp JDBC driver qua DriverManager và khởi tạo SSLContext mặc định
+     * (provider JSSE + trust store) - hai việc chiếm phần lớn thời gian
+     * của lần getConnection() đầu tiên. Không mở kết nối nào.
+     */
+    public static void warmUp() {
+        try {
+            DriverManager.getDrivers();
+            SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException e) {
+            LOG.warn("⚠ Không khởi tạo được SSLContext mặc định: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Circuit breaker của kết nối (UI đăng ký listener để hiển thị trạng thái)
+     */
+    public static ConnectionCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
     /**
      * Test kết nối database
      * 
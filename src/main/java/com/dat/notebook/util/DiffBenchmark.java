@@ -0,0 +1,133 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.service.TextAnalysisService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * DiffBenchmark - Đo {@link TextDiff} trên tài liệu ~1 MB.
+ *
+ * Sinh một tài liệu giả (từ vựng cố định, seed cố định) rồi tạo bản sửa với
+ * tỉ lệ thay đổi cho trước (sửa/chèn/xóa từ ngẫu nhiên trên các dòng).
+ * Với mỗi tỉ lệ đo median / p95 cho diff theo dòng và theo từ, ở chế độ
+ * CLASSIC và LINEAR_SPACE, kèm bộ nhớ heap tăng thêm (ước lượng).
+ *
+ * Chạy (không cần DB):
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass="com.dat.notebook.util.DiffBenchmark" -Dexec.args="1048576"
+ * </pre>
+ * Tham số: [kích thước tài liệu (ký tự)]
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class DiffBenchmark {
+
+    private static final String[] WORDS = {
+        "ghi", "chú", "java", "dự", "án", "báo", "cáo", "tuần", "họp", "nhóm",
+        "database", "kế", "hoạch", "ý", "tưởng", "học", "tập", "version", "note", "diff"
+    };
+    private static final double[] CHANGE_RATES = {0.001, 0.01, 0.05};
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 7;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        Random random = new Random(42);
+        String original = generate(size, random);
+        TextAnalysisService tokenizer = TextAnalysisService.getInstance();
+
+        System.out.println("\n========================================");
+        System.out.println("📊 DIFF BENCHMARK - " + original.length() + " ký tự");
+        System.out.println("========================================\n");
+        System.out.printf("%-7s %-6s %-13s %10s %10s %10s %10s %8s%n",
+            "change", "unit", "mode", "tokens", "edits", "median ms", "p95 ms", "heap MB");
+
+        for (double rate : CHANGE_RATES) {
+            String modified = mutate(original, rate, random);
+            List<String> oldLines = TextDiff.splitLines(original);
+            List<String> newLines = TextDiff.splitLines(modified);
+            List<String> oldWords = tokenizer.splitTokens(original);
+            List<String> newWords = tokenizer.splitTokens(modified);
+
+            for (TextDiff.Mode mode : new TextDiff.Mode[] {TextDiff.Mode.CLASSIC, TextDiff.Mode.LINEAR_SPACE}) {
+                measure(rate, "line", mode, oldLines, newLines);
+                measure(rate, "word", mode, oldWords, newWords);
+            }
+        }
+    }
+
+    // ==================== MEASURE ====================
+
+    private static void measure(double rate, String unit, TextDiff.Mode mode,
+                                List<String> oldTokens, List<String> newTokens) {
+        long[] samples = new long[ITERATIONS];
+        long heapDelta = 0;
+        TextDiff.Result result = null;
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            System.gc();
+            long before = runtime.totalMemory() - runtime.freeMemory();
+            long start = System.nanoTime();
+            result = TextDiff.diff(oldTokens, newTokens, 3, mode, 0);
+            long elapsed = System.nanoTime() - start;
+            heapDelta = Math.max(heapDelta, runtime.totalMemory() - runtime.freeMemory() - before);
+            if (i >= WARMUP) {
+                samples[i - WARMUP] = elapsed;
+            }
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-7s %-6s %-13s %10d %10d %10.1f %10.1f %8.1f%n",
+            (rate * 100) + "%", unit, mode, oldTokens.size(),
+            result.insertedTokens + result.deletedTokens,
+            samples[ITERATIONS / 2] / 1e6, samples[(int) Math.ceil(ITERATIONS * 0.95) - 1] / 1e6,
+            heapDelta / (1024.0 * 1024.0));
+    }
+
+    // ==================== DATA ====================
+
+    private static String generate(int size, Random random) {
+        StringBuilder sb = new StringBuilder(size + 100);
+        int lineLength = 0;
+        while (sb.length() < size) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            sb.append(word);
+            lineLength += word.length();
+            if (lineLength > 60 + random.nextInt(40)) {
+                sb.append(random.nextInt(4) == 0 ? ".\n" : "\n");
+                lineLength = 0;
+            } else {
+                sb.append(random.nextInt(8) == 0 ? ", " : " ");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Sửa ngẫu nhiên khoảng rate * số từ (thay, chèn hoặc xóa một từ)
+     */
+    private static String mutate(String text, double rate, Random random) {
+        List<String> words = new ArrayList<>(Arrays.asList(text.split(" ", -1)));
+        int changes = (int) Math.max(1, words.size() * rate);
+        for (int c = 0; c < changes; c++) {
+            int index = random.nextInt(words.size());
+            switch (random.nextInt(3)) {
+                case 0:
+                    words.set(index, WORDS[random.nextInt(WORDS.length)] + "x");
+                    break;
+                case 1:
+                    words.add(index, "mới" + c);
+                    break;
+                default:
+                    if (!words.get(index).contains("\n")) {
+                        words.remove(index);
+                    }
+            }
+        }
+        return String.join(" ", words);
+    }
+}
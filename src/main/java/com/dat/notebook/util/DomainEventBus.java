@@ -0,0 +1,200 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.model.NoteEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * DomainEventBus - Bus sự kiện trong tiến trình để các view / cache cập nhật
+ * tăng dần thay vì truy vấn lại DB sau mỗi thao tác.
+ *
+ * Service / repository gọi {@link #publish(NoteEvent)} sau khi ghi thành công;
+ * view đăng ký bằng {@link #subscribe(String, Executor, Consumer)} và nhận
+ * sự kiện theo lô trên executor của mình (UI truyền Platform::runLater).
+ *
+ * Mỗi subscriber có một hộp thư riêng:
+ * - Gộp: sự kiện cùng khóa gộp (cùng ghi chú) còn chờ giao bị thay bằng sự
+ *   kiện mới nhất - 50 lần lưu liên tiếp chỉ gây 1 lần vẽ lại
+ * - Chỉ một lượt giao được xếp trên executor tại một thời điểm - hàng đợi
+ *   FX không bao giờ bị dồn bởi bus
+ * - Back-pressure: hộp thư đầy (MAILBOX_CAPACITY khóa) => bỏ các sự kiện đang
+ *   chờ và thay bằng một ResyncRequired; publish không bao giờ chặn
+ *   (publisher thường là FX thread)
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class DomainEventBus {
+
+    private static final AppLogger LOG = AppLogger.getLogger(DomainEventBus.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    /** Số khóa tối đa chờ giao cho mỗi subscriber */
+    private static final int MAILBOX_CAPACITY = 256;
+
+    private static final DomainEventBus INSTANCE = new DomainEventBus();
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private DomainEventBus() {
+        METRICS.gauge("events.subscribers", subscriptions::size);
+    }
+
+    public static DomainEventBus getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== PUBLISH ====================
+
+    /**
+     * Phát sự kiện tới mọi subscriber (không chặn, không ném lỗi)
+     */
+    public void publish(NoteEvent event) {
+        if (event == null) {
+            return;
+        }
+        METRICS.counter("events.published").increment();
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    // ==================== SUBSCRIBE ====================
+
+    /**
+     * Đăng ký nhận sự kiện
+     *
+     * @param name Tên subscriber (dùng khi log lỗi)
+     * @param executor Nơi chạy handler (vd. Platform::runLater cho UI)
+     * @param handler Nhận lô sự kiện đã gộp, theo thứ tự thay đổi cuối cùng
+     * @return Subscription - truyền cho {@link #unsubscribe(Subscription)}
+     */
+    public Subscription subscribe(String name, Executor executor, Consumer<List<NoteEvent>> handler) {
+        Subscription subscription = new Subscription(name, executor, handler);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Hủy đăng ký - sự kiện còn chờ không được giao nữa
+     */
+    public void unsubscribe(Subscription subscription) {
+        if (subscription == null) {
+            return;
+        }
+        subscription.active = false;
+        subscriptions.remove(subscription);
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    // ==================== SUBSCRIPTION ====================
+
+    public static final class Subscription {
+
+        private final String name;
+        private final Executor executor;
+        private final Consumer<List<NoteEvent>> handler;
+        private final Map<Object, NoteEvent> pending = new LinkedHashMap<>();
+
+        private volatile boolean active = true;
+        private boolean scheduled;
+        private long delivered;
+        private long coalesced;
+        private long overflows;
+
+        private Subscription(String name, Executor executor, Consumer<List<NoteEvent>> handler) {
+            this.name = name;
+            this.executor = executor;
+            this.handler = handler;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public synchronized long getDeliveredCount() {
+            return delivered;
+        }
+
+        /**
+         * Số sự kiện bị thay bởi sự kiện mới hơn cùng khóa trước khi kịp giao
+         */
+        public synchronized long getCoalescedCount() {
+            return coalesced;
+        }
+
+        /**
+         * Số lần hộp thư đầy và bị thay bằng ResyncRequired
+         */
+        public synchronized long getOverflowCount() {
+            return overflows;
+        }
+
+        private void offer(NoteEvent event) {
+            synchronized (this) {
+                if (!active) {
+                    return;
+                }
+                // remove rồi put để sự kiện mới nằm cuối - giữ thứ tự thay đổi cuối cùng
+                if (pending.remove(event.getCoalesceKey()) != null) {
+                    coalesced++;
+                    METRICS.counter("events.coalesced").increment();
+                }
+                if (pending.size() >= MAILBOX_CAPACITY) {
+                    coalesced += pending.size();
+                    overflows++;
+                    METRICS.counter("events.coalesced").add(pending.size());
+                    METRICS.counter("events.overflows").increment();
+                    pending.clear();
+                    NoteEvent resync = new NoteEvent.ResyncRequired(event.getUserId());
+                    pending.put(resync.getCoalesceKey(), resync);
+                }
+                pending.put(event.getCoalesceKey(), event);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    scheduled = false;
+                }
+                LOG.error("DomainEventBus: không giao được sự kiện cho " + name + ": " + e.getMessage());
+            }
+        }
+
+        private void drain() {
+            List<NoteEvent> batch;
+            synchronized (this) {
+                scheduled = false;
+                if (!active || pending.isEmpty()) {
+                    pending.clear();
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                delivered += batch.size();
+            }
+            METRICS.counter("events.delivered").add(batch.size());
+
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException e) {
+                LOG.error("DomainEventBus: subscriber " + name + " ERROR: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.dat.notebook.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * FlightEvents - Các loại sự kiện JDK Flight Recorder của SmartNotebook
+ *
+ * Bật ghi: java -XX:StartFlightRecording=settings=default,filename=notebook.jfr ...
+ * (hoặc jcmd &lt;pid&gt; JFR.start), mở file .jfr bằng JDK Mission Control -
+ * các sự kiện nằm trong nhóm "SmartNotebook", cùng trục thời gian với GC,
+ * lock và I/O của JVM nên đối chiếu được khung hình chậm với lời gọi DB.
+ *
+ * Mẫu dùng: start() khi bắt đầu, finish(...) khi xong. Khi không ghi
+ * (hoặc sự kiện ngắn hơn threshold) finish() chỉ kiểm tra shouldCommit()
+ * và không tính toán trường nào.
+ *
+ * Nơi phát sự kiện:
+ * - NoteSave: NoteServiceV2 (tạo / cập nhật / nội dung), AutosaveService.apply
+ * - Search: lọc danh sách ghi chú khi gõ, NoteServiceV2.searchNotes
+ * - AIAnalysis: AIService.analyzeNote
+ * - UiRebuild: danh sách ghi chú chính và thùng rác
+ * - DbCall: mọi lời gọi DAO / repository đo qua MetricsRegistry.timedDb -
+ *   luôn phát, không phụ thuộc db.sqlTiming.enabled (SqlTimingProxy chỉ ghi
+ *   timer sql.* và slow-query log)
+ *
+ * Tất cả sự kiện tắt stack trace để chi phí mỗi lần commit thấp.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class FlightEvents {
+
+    private static final String CATEGORY = "SmartNotebook";
+
+    private FlightEvents() {
+        // Utility class
+    }
+
+    // ==================== NOTE SAVE ====================
+
+    @Name("com.dat.notebook.NoteSave")
+    @Label("Note Save")
+    @Category({CATEGORY, "Notes"})
+    @Description("Lưu ghi chú (tạo, cập nhật, autosave vào DB)")
+    @StackTrace(false)
+    public static final class NoteSaveEvent extends Event {
+
+        @Label("Note ID")
+        int noteId;
+
+        @Label("Operation")
+        String operation;
+
+        @Label("Content Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Success")
+        boolean success;
+
+        public static NoteSaveEvent start(String operation) {
+            NoteSaveEvent event = new NoteSaveEvent();
+            event.operation = operation;
+            event.begin();
+            return event;
+        }
+
+        public void finish(int noteId, String htmlContent, boolean success) {
+            end();
+            if (shouldCommit()) {
+                this.noteId = noteId;
+                this.bytes = utf8Length(htmlContent);
+                this.success = success;
+                commit();
+            }
+        }
+    }
+
+    // ==================== SEARCH ====================
+
+    @Name("com.dat.notebook.Search")
+    @Label("Search")
+    @Category({CATEGORY, "Notes"})
+    @Description("Tìm kiếm / lọc ghi chú")
+    @StackTrace(false)
+    public static final class SearchEvent extends Event {
+
+        @Label("Source")
+        @Description("noteList = lọc trong bộ nhớ khi gõ, service = truy vấn qua DAO")
+        String source;
+
+        @Label("Query Length")
+        int queryLength;
+
+        @Label("Hits")
+        int hits;
+
+        public static SearchEvent start(String source) {
+            SearchEvent event = new SearchEvent();
+            event.source = source;
+            event.begin();
+            return event;
+        }
+
+        public void finish(String query, int hits) {
+            end();
+            if (shouldCommit()) {
+                this.queryLength = query != null ? query.length() : 0;
+                this.hits = hits;
+                commit();
+            }
+        }
+    }
+
+    // ==================== AI ANALYSIS ====================
+
+    @Name("com.dat.notebook.AIAnalysis")
+    @Label("AI Analysis")
+    @Category({CATEGORY, "AI"})
+    @Description("Tóm tắt / gợi ý tiêu đề / gợi ý tag (offline AIEngine)")
+    @StackTrace(false)
+    public static final class AIAnalysisEvent extends Event {
+
+        @Label("Operation")
+        String operation;
+
+        @Label("Characters")
+        int chars;
+
+        @Label("Summary Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long summaryDuration;
+
+        @Label("Title Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long titleDuration;
+
+        @Label("Tags Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long tagsDuration;
+
+        public static AIAnalysisEvent start(String operation) {
+            AIAnalysisEvent event = new AIAnalysisEvent();
+            event.operation = operation;
+            event.begin();
+            return event;
+        }
+
+        /**
+         * @param summaryNanos / titleNanos / tagsNanos thời gian từng pha (0 = không chạy)
+         */
+        public void finish(String content, long summaryNanos, long titleNanos, long tagsNanos) {
+            end();
+            if (shouldCommit()) {
+                this.chars = content != null ? content.length() : 0;
+                this.summaryDuration = summaryNanos;
+                this.titleDuration = titleNanos;
+                this.tagsDuration = tagsNanos;
+                commit();
+            }
+        }
+    }
+
+    // ==================== DB CALL ====================
+
+    @Name("com.dat.notebook.DbCall")
+    @Label("DB Call")
+    @Category({CATEGORY, "Database"})
+    @Description("Một lời gọi DAO / repository (có thể gồm nhiều câu SQL trong một transaction)")
+    @StackTrace(false)
+    public static final class DbCallEvent extends Event {
+
+        @Label("SQL ID")
+        @Description("Tên thao tác đo bằng MetricsRegistry.timedDb (vd. noteDAO.findById)")
+        String sqlId;
+
+        @Label("Rows")
+        @Description("Số phần tử trả về (danh sách / Optional), 0 nếu null, -1 nếu kết quả không phải tập dòng")
+        int rows;
+
+        @Label("Success")
+        boolean success;
+
+        public static DbCallEvent start(String sqlId) {
+            DbCallEvent event = new DbCallEvent();
+            event.sqlId = sqlId;
+            event.begin();
+            return event;
+        }
+
+        /**
+         * @param result Kết quả của lời gọi (null nếu ném lỗi)
+         */
+        public void finish(Object result, boolean success) {
+            end();
+            if (shouldCommit()) {
+                this.rows = rowsOf(result);
+                this.success = success;
+                commit();
+            }
+        }
+    }
+
+    // ==================== UI REBUILD ====================
+
+    @Name("com.dat.notebook.UiRebuild")
+    @Label("UI Rebuild")
+    @Category({CATEGORY, "UI"})
+    @Description("Dựng lại một phần scene graph trên FX thread")
+    @StackTrace(false)
+    public static final class UiRebuildEvent extends Event {
+
+        @Label("View")
+        String view;
+
+        @Label("Items")
+        int items;
+
+        public static UiRebuildEvent start(String view) {
+            UiRebuildEvent event = new UiRebuildEvent();
+            event.view = view;
+            event.begin();
+            return event;
+        }
+
+        public void finish(int items) {
+            end();
+            if (shouldCommit()) {
+                this.items = items;
+                commit();
+            }
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Số dòng của kết quả DbCall (-1: không phải danh sách / Optional)
+     */
+    static int rowsOf(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Số byte UTF-8 của chuỗi mà không cấp phát mảng byte
+     */
+    static long utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
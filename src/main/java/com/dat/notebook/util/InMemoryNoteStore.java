@@ -0,0 +1,280 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.model.Note;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * InMemoryNoteStore - Kho ghi chú trong bộ nhớ cho chế độ offline/demo
+ * (khi không kết nối được database).
+ *
+ * - Index chính: ConcurrentHashMap id -> Note => get/update/delete O(1)
+ * - Index phụ: categoryId / status / yêu thích -> tập id => lọc O(k)
+ *   với k là số ghi chú khớp, không quét toàn bộ
+ * - Id cấp bằng AtomicInteger
+ * - Copy-on-read / copy-on-write: kho chỉ giữ bản sao riêng, mọi kết quả trả
+ *   về đều là bản sao => caller (UI, autosave trên executor) sửa object của
+ *   mình không làm hỏng kho và index
+ *
+ * Ghi (insert/update/delete) tuần tự hóa bằng một khóa để index phụ luôn
+ * khớp với index chính; đọc không khóa. Đọc qua index phụ kiểm tra lại giá
+ * trị trên ghi chú nên không bao giờ trả kết quả sai khi đang có ghi song song.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class InMemoryNoteStore implements NoteBackend {
+
+    /** Thứ tự giống truy vấn DB: UpdatedAt DESC, NoteID DESC */
+    private static final Comparator<Note> NEWEST_FIRST =
+        Comparator.comparing(Note::getUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                  .thenComparing(Note::getId, Comparator.reverseOrder());
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Map<Integer, Note> byId = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Integer>> byCategory = new ConcurrentHashMap<>();
+    private final Map<String, Set<Integer>> byStatus = new ConcurrentHashMap<>();
+    private final Set<Integer> favorites = ConcurrentHashMap.newKeySet();
+
+    private final Object writeLock = new Object();
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    // ==================== WRITE ====================
+
+    /**
+     * Thêm ghi chú; id và thời điểm tạo/cập nhật được gán lên chính object của caller
+     *
+     * @param note Ghi chú cần thêm
+     * @return true
+     */
+    @Override
+    public boolean insertNote(Note note) {
+        LocalDateTime now = LocalDateTime.now();
+        note.setId(nextId.getAndIncrement());
+        if (note.getCreatedAt() == null) {
+            note.setCreatedAt(now);
+        }
+        if (note.getUpdatedAt() == null) {
+            note.setUpdatedAt(now);
+        }
+        Note stored = note.copy();
+        synchronized (writeLock) {
+            byId.put(stored.getId(), stored);
+            index(stored);
+        }
+        return true;
+    }
+
+    /**
+     * Thay nội dung ghi chú đã có
+     *
+     * @param note Ghi chú (theo id)
+     * @return false nếu không có ghi chú với id đó
+     */
+    @Override
+    public boolean updateNote(Note note) {
+        synchronized (writeLock) {
+            Note previous = byId.get(note.getId());
+            if (previous == null) {
+                return false;
+            }
+            note.setUpdatedAt(LocalDateTime.now());
+            Note stored = note.copy();
+            unindex(previous);
+            byId.put(stored.getId(), stored);
+            index(stored);
+            return true;
+        }
+    }
+
+    /**
+     * Xóa ghi chú
+     *
+     * @return false nếu không có ghi chú với id đó
+     */
+    @Override
+    public boolean deleteNote(int id) {
+        synchronized (writeLock) {
+            Note previous = byId.remove(id);
+            if (previous == null) {
+                return false;
+            }
+            unindex(previous);
+            return true;
+        }
+    }
+
+    /**
+     * Cấp id mới (dùng khi backend phía trên cần id trước khi ghi)
+     */
+    public int allocateId() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Đảm bảo các id tới upTo không bị cấp lại (vd: id của ghi chú đã xóa)
+     */
+    public void reserveIds(int upTo) {
+        nextId.accumulateAndGet(upTo + 1, Math::max);
+    }
+
+    /**
+     * Id sẽ được cấp tiếp theo
+     */
+    public int getNextId() {
+        return nextId.get();
+    }
+
+    /**
+     * Đặt ghi chú với id có sẵn (thêm mới hoặc thay thế), không đổi thời điểm
+     * cập nhật - dùng khi dựng lại kho từ nơi lưu bền
+     */
+    public void restore(Note note) {
+        Note stored = note.copy();
+        synchronized (writeLock) {
+            nextId.accumulateAndGet(stored.getId() + 1, Math::max);
+            Note previous = byId.put(stored.getId(), stored);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(stored);
+        }
+    }
+
+    // ==================== READ ====================
+
+    /**
+     * @return Bản sao ghi chú hoặc null
+     */
+    @Override
+    public Note getNoteById(int id) {
+        Note note = byId.get(id);
+        return note != null ? note.copy() : null;
+    }
+
+    /**
+     * @return Bản sao mọi ghi chú, mới cập nhật trước
+     */
+    @Override
+    public List<Note> getAllNotes() {
+        return sortedCopies(byId.values());
+    }
+
+    /**
+     * @param categoryId ID danh mục (0 = không có danh mục)
+     */
+    @Override
+    public List<Note> getNotesByCategory(int categoryId) {
+        List<Note> matches = new ArrayList<>();
+        for (Integer id : byCategory.getOrDefault(categoryId, Set.of())) {
+            Note note = byId.get(id);
+            if (note != null && categoryKey(note) == categoryId) {
+                matches.add(note);
+            }
+        }
+        return sortedCopies(matches);
+    }
+
+    public List<Note> getByStatus(String status) {
+        if (status == null) {
+            return new ArrayList<>();
+        }
+        List<Note> matches = new ArrayList<>();
+        for (Integer id : byStatus.getOrDefault(status, Set.of())) {
+            Note note = byId.get(id);
+            if (note != null && status.equals(statusKey(note))) {
+                matches.add(note);
+            }
+        }
+        return sortedCopies(matches);
+    }
+
+    public List<Note> getFavorites() {
+        List<Note> matches = new ArrayList<>();
+        for (Integer id : favorites) {
+            Note note = byId.get(id);
+            if (note != null && note.isFavorite()) {
+                matches.add(note);
+            }
+        }
+        return sortedCopies(matches);
+    }
+
+    /**
+     * Tìm theo tiêu đề / nội dung (không phân biệt hoa thường) - quét toàn bộ,
+     * kho offline không có index full-text
+     */
+    @Override
+    public List<Note> searchNotes(String keyword) {
+        String lowerKeyword = keyword.toLowerCase();
+        List<Note> matches = new ArrayList<>();
+        for (Note note : byId.values()) {
+            if ((note.getTitle() != null && note.getTitle().toLowerCase().contains(lowerKeyword))
+                    || (note.getContent() != null && note.getContent().toLowerCase().contains(lowerKeyword))) {
+                matches.add(note);
+            }
+        }
+        return sortedCopies(matches);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // ==================== INDEXES ====================
+
+    private void index(Note note) {
+        int id = note.getId();
+        byCategory.computeIfAbsent(categoryKey(note), k -> ConcurrentHashMap.newKeySet()).add(id);
+        byStatus.computeIfAbsent(statusKey(note), k -> ConcurrentHashMap.newKeySet()).add(id);
+        if (note.isFavorite()) {
+            favorites.add(id);
+        }
+    }
+
+    private void unindex(Note note) {
+        int id = note.getId();
+        removeFrom(byCategory, categoryKey(note), id);
+        removeFrom(byStatus, statusKey(note), id);
+        favorites.remove(id);
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Integer>> index, K key, int id) {
+        Set<Integer> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key, ids);
+            }
+        }
+    }
+
+    private static int categoryKey(Note note) {
+        Integer categoryId = note.getCategoryId();
+        return categoryId != null && categoryId > 0 ? categoryId : 0;
+    }
+
+    private static String statusKey(Note note) {
+        return note.getStatus() != null ? note.getStatus() : Note.STATUS_REGULAR;
+    }
+
+    private static List<Note> sortedCopies(Iterable<Note> notes) {
+        List<Note> copies = new ArrayList<>();
+        for (Note note : notes) {
+            copies.add(note.copy());
+        }
+        copies.sort(NEWEST_FIRST);
+        return copies;
+    }
+}
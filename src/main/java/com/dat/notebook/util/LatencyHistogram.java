@@ -0,0 +1,142 @@
+package com.dat.notebook.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram - Histogram độ trễ kiểu HDR (log-linear), không khóa
+ *
+ * - Giá trị tính bằng micro giây; mỗi lũy thừa 2 chia thành SUB_BUCKETS ô
+ *   đều nhau => sai số tương đối tối đa ~3% ở mọi dải (1µs .. ~12 ngày)
+ * - record() chỉ là vài phép bit + một incrementAndGet, an toàn đa luồng
+ * - Percentile tính khi lấy snapshot; snapshot không nguyên tử so với các
+ *   lần record đang chạy song song (đủ cho mục đích chẩn đoán)
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Giá trị lớn nhất ghi nhận được (µs) - lớn hơn bị kẹp lại */
+    private static final long MAX_TRACKABLE_MICROS = (1L << 40) - 1;
+
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_MICROS) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    // ==================== RECORD ====================
+
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1_000);
+    }
+
+    public void recordMicros(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_TRACKABLE_MICROS);
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        totalMicros.add(value);
+        maxMicros.accumulate(value);
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long max = maxMicros.get();
+        return new Snapshot(total, totalMicros.sum(), max,
+                percentile(counts, total, 0.50, max),
+                percentile(counts, total, 0.90, max),
+                percentile(counts, total, 0.99, max));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Kết quả tại một thời điểm - mọi giá trị thời gian tính bằng µs
+     */
+    public static final class Snapshot {
+
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+        private final long p50Micros;
+        private final long p90Micros;
+        private final long p99Micros;
+
+        private Snapshot(long count, long totalMicros, long maxMicros,
+                         long p50Micros, long p90Micros, long p99Micros) {
+            this.count = count;
+            this.totalMicros = totalMicros;
+            this.maxMicros = maxMicros;
+            this.p50Micros = p50Micros;
+            this.p90Micros = p90Micros;
+            this.p99Micros = p99Micros;
+        }
+
+        public long getCount() { return count; }
+        public long getTotalMicros() { return totalMicros; }
+        public long getMaxMicros() { return maxMicros; }
+        public long getP50Micros() { return p50Micros; }
+        public long getP90Micros() { return p90Micros; }
+        public long getP99Micros() { return p99Micros; }
+
+        public long getMeanMicros() {
+            return count == 0 ? 0 : totalMicros / count;
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Ô chứa giá trị: v < 2*SUB_BUCKETS nằm ở ô v (chính xác tuyệt đối),
+     * lớn hơn thì giữ SUB_BUCKET_BITS+1 bit cao nhất
+     */
+    private static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS + 1);
+        return SUB_BUCKETS * shift + (int) (value >>> shift);
+    }
+
+    /**
+     * Giá trị đại diện (điểm giữa) của một ô
+     */
+    private static long valueOf(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long top = index % SUB_BUCKETS + SUB_BUCKETS;
+        return (top << shift) + (1L << (shift - 1));
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * quantile));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(valueOf(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,535 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.model.Note;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * LocalNoteBackend - Engine lưu ghi chú cục bộ dạng log-structured.
+ *
+ * - Mọi thay đổi được ghi nối (append) vào một file log rồi force() xuống
+ *   đĩa trước khi trả về: PUT (toàn bộ ghi chú) hoặc DELETE (id)
+ * - Index trong memory là một {@link InMemoryNoteStore}: đọc không chạm đĩa,
+ *   lọc theo danh mục / trạng thái O(k)
+ * - Mở: đọc lại log để dựng index; record cuối ghi dở khi crash bị CRC loại
+ *   và file được cắt về record hợp lệ cuối cùng
+ * - Compaction: khi phần log chứa bản cũ / đã xóa vượt quá nửa file, ghi lại
+ *   các ghi chú còn sống vào file mới rồi thay thế nguyên tử; chạy định kỳ
+ *   trên {@link BackgroundJobs}
+ *
+ * Định dạng record (giống {@link AutosaveJournal}):
+ * [MAGIC 4 byte][độ dài body 4 byte][CRC32C của body 4 byte][body]
+ * body = loại (1 byte) + id (4) [+ các trường ghi chú nếu là PUT; HTML lớn được nén bằng {@link ContentCodec}]
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class LocalNoteBackend implements NoteBackend, Closeable {
+
+    private static final AppLogger LOG = AppLogger.getLogger(LocalNoteBackend.class);
+
+    private static final int MAGIC = 0x534E4C47; // "SNLG"
+    private static final int RECORD_HEADER = 12;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+
+    private static final String LOG_FILE = "notes.log";
+    private static final String COMPACT_FILE = "notes.log.compact";
+
+    /** Chỉ compaction khi log lớn hơn ngưỡng này và phần rác >= một nửa */
+    private static final long COMPACTION_MIN_BYTES = 1024 * 1024;
+    private static final long COMPACTION_CHECK_MINUTES = 10;
+
+    private final Path directory;
+    private final Path logPath;
+    private final InMemoryNoteStore index = new InMemoryNoteStore();
+
+    /** id -> kích thước record PUT còn hiệu lực (để tính phần rác trong log) */
+    private final Map<Integer, Integer> liveRecordBytes = new HashMap<>();
+    private long liveBytes;
+    private long logBytes;
+
+    private FileChannel log;
+    private ScheduledFuture<?> compactionTask;
+
+    /**
+     * Mở (hoặc tạo) kho tại thư mục cho trước
+     *
+     * @param directory Thư mục chứa file log
+     */
+    public LocalNoteBackend(Path directory) throws IOException {
+        this.directory = directory;
+        this.logPath = directory.resolve(LOG_FILE);
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(COMPACT_FILE)); // compaction dở dang
+        load();
+        log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        log.truncate(logBytes); // bỏ record hỏng ở cuối
+        log.position(logBytes);
+    }
+
+    /**
+     * Kiểm tra compaction định kỳ trên thread nền
+     */
+    public synchronized void startCompaction() {
+        if (compactionTask == null) {
+            compactionTask = BackgroundJobs.scheduleWithFixedDelay("local-store-compaction",
+                this::compactIfNeeded, COMPACTION_CHECK_MINUTES, COMPACTION_CHECK_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    // ==================== WRITE ====================
+
+    @Override
+    public synchronized boolean insertNote(Note note) {
+        LocalDateTime now = LocalDateTime.now();
+        Note stored = note.copy();
+        stored.setId(index.allocateId());
+        if (stored.getCreatedAt() == null) {
+            stored.setCreatedAt(now);
+        }
+        stored.setUpdatedAt(now);
+        if (!appendPut(stored)) {
+            return false;
+        }
+        index.restore(stored);
+        note.setId(stored.getId());
+        note.setCreatedAt(stored.getCreatedAt());
+        note.setUpdatedAt(stored.getUpdatedAt());
+        return true;
+    }
+
+    @Override
+    public synchronized boolean updateNote(Note note) {
+        if (!liveRecordBytes.containsKey(note.getId())) {
+            return false;
+        }
+        Note stored = note.copy();
+        stored.setUpdatedAt(LocalDateTime.now());
+        if (!appendPut(stored)) {
+            return false;
+        }
+        index.restore(stored);
+        note.setUpdatedAt(stored.getUpdatedAt());
+        return true;
+    }
+
+    @Override
+    public synchronized boolean deleteNote(int id) {
+        if (!liveRecordBytes.containsKey(id)) {
+            return false;
+        }
+        try {
+            ByteBuffer body = ByteBuffer.allocate(5).put(TYPE_DELETE).putInt(id);
+            append(body.array());
+        } catch (IOException e) {
+            LOG.error("LocalNoteBackend.deleteNote ERROR: " + e.getMessage());
+            return false;
+        }
+        liveBytes -= liveRecordBytes.remove(id);
+        index.deleteNote(id);
+        return true;
+    }
+
+    /**
+     * Ghi ghi chú nguyên trạng (thêm mới hoặc thay thế) - giữ id và thời điểm
+     * cập nhật có sẵn; dùng khi nhận bản từ nơi khác (đồng bộ với SQL Server)
+     */
+    public synchronized boolean putNote(Note note) {
+        Note stored = note.copy();
+        if (!appendPut(stored)) {
+            return false;
+        }
+        index.restore(stored);
+        return true;
+    }
+
+    // ==================== READ ====================
+
+    @Override
+    public List<Note> getAllNotes() {
+        return index.getAllNotes();
+    }
+
+    @Override
+    public List<Note> getNotesByCategory(int categoryId) {
+        return index.getNotesByCategory(categoryId);
+    }
+
+    @Override
+    public Note getNoteById(int id) {
+        return index.getNoteById(id);
+    }
+
+    @Override
+    public List<Note> searchNotes(String keyword) {
+        return index.searchNotes(keyword);
+    }
+
+    /**
+     * Id mọi ghi chú trong kho (bản sao)
+     */
+    public synchronized Set<Integer> getNoteIds() {
+        return new HashSet<>(liveRecordBytes.keySet());
+    }
+
+    public List<Note> getNotesByStatus(String status) {
+        return index.getByStatus(status);
+    }
+
+    public List<Note> getFavorites() {
+        return index.getFavorites();
+    }
+
+    // ==================== COMPACTION ====================
+
+    /**
+     * Compaction nếu log đủ lớn và ít nhất một nửa là rác
+     *
+     * @return true nếu đã compaction
+     */
+    public synchronized boolean compactIfNeeded() {
+        if (log == null || logBytes < COMPACTION_MIN_BYTES || liveBytes * 2 > logBytes) {
+            return false;
+        }
+        try {
+            compact();
+            return true;
+        } catch (IOException e) {
+            LOG.error("LocalNoteBackend: Compaction thất bại - " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Ghi lại các ghi chú còn sống vào file mới rồi thay file log (nguyên tử)
+     */
+    public synchronized void compact() throws IOException {
+        long before = logBytes;
+        Path compactPath = directory.resolve(COMPACT_FILE);
+        Map<Integer, Integer> sizes = new HashMap<>();
+        long written = 0;
+        Files.deleteIfExists(compactPath);
+        try (FileChannel out = FileChannel.open(compactPath, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE)) {
+            // Giữ mốc id: DELETE của id lớn nhất đã cấp => id không bị cấp lại sau khi mở lại
+            int lastId = index.getNextId() - 1;
+            if (lastId > 0 && !liveRecordBytes.containsKey(lastId)) {
+                ByteBuffer record = frame(ByteBuffer.allocate(5).put(TYPE_DELETE).putInt(lastId).array());
+                written += record.remaining();
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+            }
+            for (Note note : index.getAllNotes()) {
+                ByteBuffer record = frame(encodePut(note));
+                sizes.put(note.getId(), record.remaining());
+                written += record.remaining();
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+            }
+            out.force(true);
+        }
+
+        log.close();
+        log = null;
+        try {
+            Files.move(compactPath, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            log.position(log.size());
+        }
+        syncDirectory();
+
+        liveRecordBytes.clear();
+        liveRecordBytes.putAll(sizes);
+        liveBytes = written;
+        logBytes = written;
+        LOG.info("✓ LocalNoteBackend: compaction " + before / 1024 + " KB -> " + written / 1024 + " KB");
+    }
+
+    public synchronized long getLogBytes() {
+        return logBytes;
+    }
+
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (compactionTask != null) {
+            compactionTask.cancel(false);
+            compactionTask = null;
+        }
+        if (log != null) {
+            try {
+                log.force(true);
+                log.close();
+            } catch (IOException e) {
+                LOG.error("LocalNoteBackend: Lỗi đóng log - " + e.getMessage());
+            }
+            log = null;
+        }
+    }
+
+    // ==================== LOG ====================
+
+    private boolean appendPut(Note note) {
+        try {
+            int size = append(encodePut(note));
+            Integer previous = liveRecordBytes.put(note.getId(), size);
+            liveBytes += size - (previous != null ? previous : 0);
+            return true;
+        } catch (IOException e) {
+            LOG.error("LocalNoteBackend: Ghi log thất bại - " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Ghi một record và force xuống đĩa
+     *
+     * @return Kích thước record (byte)
+     */
+    private int append(byte[] body) throws IOException {
+        if (log == null) {
+            throw new IOException("Kho đã đóng");
+        }
+        ByteBuffer record = frame(body);
+        int size = record.remaining();
+        long start = log.position();
+        try {
+            while (record.hasRemaining()) {
+                log.write(record);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            // Không để lại record dở dang giữa log
+            log.truncate(start);
+            log.position(start);
+            throw e;
+        }
+        logBytes += size;
+        return size;
+    }
+
+    private static ByteBuffer frame(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + body.length);
+        record.putInt(MAGIC).putInt(body.length).putInt((int) crc.getValue()).put(body);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Dựng index từ log; logBytes = độ dài phần log hợp lệ
+     */
+    private void load() throws IOException {
+        if (!Files.exists(logPath)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(logPath));
+        int puts = 0;
+        int deletes = 0;
+        while (buffer.remaining() >= RECORD_HEADER) {
+            int start = buffer.position();
+            if (buffer.getInt() != MAGIC) {
+                break;
+            }
+            int length = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                LOG.warn("LocalNoteBackend: Record bị cắt cụt tại " + start);
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(body);
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != expectedCrc) {
+                LOG.warn("LocalNoteBackend: Sai CRC tại " + start);
+                break;
+            }
+            try {
+                ByteBuffer in = ByteBuffer.wrap(body);
+                byte type = in.get();
+                int size = RECORD_HEADER + length;
+                if (type == TYPE_PUT) {
+                    Note note = decodePut(in);
+                    index.restore(note);
+                    Integer previous = liveRecordBytes.put(note.getId(), size);
+                    liveBytes += size - (previous != null ? previous : 0);
+                    puts++;
+                } else if (type == TYPE_DELETE) {
+                    int id = in.getInt();
+                    index.reserveIds(id);
+                    Integer previous = liveRecordBytes.remove(id);
+                    if (previous != null) {
+                        liveBytes -= previous;
+                    }
+                    index.deleteNote(id);
+                    deletes++;
+                } else {
+                    throw new IllegalStateException("Loại record không hợp lệ: " + type);
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException | IllegalStateException e) {
+                LOG.warn("LocalNoteBackend: Record không đọc được tại " + start);
+                buffer.position(start);
+                break;
+            }
+            logBytes = buffer.position();
+        }
+        LOG.info("✓ LocalNoteBackend: " + index.size() + " ghi chú (" + puts + " PUT, "
+            + deletes + " DELETE, " + logBytes / 1024 + " KB log)");
+    }
+
+    // ==================== ENCODING ====================
+
+    private static byte[] encodePut(Note note) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(TYPE_PUT);
+            out.writeInt(note.getId());
+            out.writeInt(note.getUserId());
+            out.writeInt(note.getCategoryId() != null ? note.getCategoryId() : 0);
+            writeString(out, note.getTitle());
+            writeText(out, note.getContent());
+            String html = note.getHtmlContent();
+            boolean compressed = ContentCodec.shouldCompress(html);
+            out.writeBoolean(compressed);
+            writeBytes(out, compressed ? ContentCodec.compress(html) : html.getBytes(StandardCharsets.UTF_8));
+            writeString(out, note.getSummary());
+            writeString(out, note.getStatus());
+            out.writeBoolean(note.isFavorite());
+            out.writeBoolean(note.isArchived());
+            writeString(out, note.getColor());
+            out.writeInt(note.getViewCount());
+            out.writeLong(toEpochMillis(note.getCreatedAt()));
+            out.writeLong(toEpochMillis(note.getUpdatedAt()));
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // ByteArrayOutputStream không ném IOException
+        }
+    }
+
+    private static Note decodePut(ByteBuffer in) {
+        Note note = new Note();
+        note.setId(in.getInt());
+        note.setUserId(in.getInt());
+        note.setCategoryId(in.getInt());
+        note.setTitle(readString(in));
+        String content = readText(in);
+        boolean compressed = in.get() != 0;
+        byte[] html = readBytes(in);
+        if (compressed) {
+            note.setHtmlContent(ContentCodec.decompress(html));
+        } else if (html != null) {
+            note.setHtmlContent(new String(html, StandardCharsets.UTF_8));
+        }
+        note.setContent(content);
+        note.setSummary(readString(in));
+        note.setStatus(readString(in));
+        note.setFavorite(in.get() != 0);
+        note.setArchived(in.get() != 0);
+        note.setColor(readString(in));
+        note.setViewCount(in.getInt());
+        note.setCreatedAt(fromEpochMillis(in.getLong()));
+        note.setUpdatedAt(fromEpochMillis(in.getLong()));
+        return note;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    /**
+     * Chuỗi có thể lớn (plain text): nén bằng ContentCodec nếu vượt ngưỡng
+     */
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        boolean compressed = ContentCodec.shouldCompress(value);
+        out.writeBoolean(compressed);
+        if (compressed) {
+            writeBytes(out, ContentCodec.compress(value));
+        } else {
+            writeString(out, value);
+        }
+    }
+
+    private static String readText(ByteBuffer in) {
+        boolean compressed = in.get() != 0;
+        return compressed ? ContentCodec.decompress(readBytes(in)) : readString(in);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = readBytes(in);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : Long.MIN_VALUE;
+    }
+
+    private static LocalDateTime fromEpochMillis(long millis) {
+        return millis != Long.MIN_VALUE
+            ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()) : null;
+    }
+
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Windows không mở được thư mục như file
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.dat.notebook.util;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * MetricsRegistry - Counter / gauge / timer dùng chung cho toàn ứng dụng
+ *
+ * Cách dùng:
+ * <pre>
+ *   return METRICS.timedDb("noteRepository.findById", () -> {
+ *       ...
+ *   });
+ * </pre>
+ * (DAO / repository dùng timedDb - kèm JFR DbCallEvent; chỗ khác dùng timed)
+ *
+ * - Timer ghi vào {@link LatencyHistogram} (count, mean, p50/p90/p99, max)
+ * - Counter dùng LongAdder, gauge đọc giá trị lúc lấy snapshot
+ * - Snapshot dạng text (log / màn hình chẩn đoán) hoặc JSON (file)
+ * - Xuất định kỳ: metrics.report.intervalSeconds (0 = tắt);
+ *   metrics.report.file có giá trị => ghi JSON ra file, không thì log INFO
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class MetricsRegistry {
+
+    private static final AppLogger LOG = AppLogger.getLogger(MetricsRegistry.class);
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<?>> gauges = new ConcurrentHashMap<>();
+    private final long startedAt = System.currentTimeMillis();
+
+    private ScheduledFuture<?> reporter;
+
+    private MetricsRegistry() {
+        gauge("jvm.heap.usedMb", () -> heap().getUsed() / (1024 * 1024));
+        gauge("jvm.heap.committedMb", () -> heap().getCommitted() / (1024 * 1024));
+        gauge("jvm.threads", () -> ManagementFactory.getThreadMXBean().getThreadCount());
+        gauge("jvm.uptimeSeconds", () -> ManagementFactory.getRuntimeMXBean().getUptime() / 1000);
+        gauge("log.droppedLines", () -> AsyncLogAppender.getInstance().getDroppedTotal());
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== METRICS ====================
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, key -> new Timer());
+    }
+
+    /**
+     * Đo một lần gọi có kết quả (ghi thời gian cả khi ném lỗi)
+     */
+    public <T, E extends Exception> T timed(String name, TimedCall<T, E> work) throws E {
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            timer(name).recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Đo một lần gọi không có kết quả
+     */
+    public <E extends Exception> void timed(String name, TimedRun<E> work) throws E {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            timer(name).recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Đo một lời gọi DB của DAO / repository: ghi timer như
+     * {@link #timed(String, TimedCall)} và luôn phát JFR DbCallEvent (gọi trực
+     * tiếp, không qua proxy - gần như không tốn gì khi không ghi JFR)
+     */
+    public <T, E extends Exception> T timedDb(String name, TimedCall<T, E> work) throws E {
+        FlightEvents.DbCallEvent event = FlightEvents.DbCallEvent.start(name);
+        long start = System.nanoTime();
+        T result = null;
+        boolean success = false;
+        try {
+            result = work.call();
+            success = true;
+            return result;
+        } finally {
+            timer(name).recordNanos(System.nanoTime() - start);
+            event.finish(result, success);
+        }
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Đăng ký (hoặc thay) một gauge - supplier được gọi mỗi lần lấy snapshot
+     * nên phải rẻ và không ném lỗi
+     */
+    public void gauge(String name, Supplier<?> supplier) {
+        gauges.put(name, supplier);
+    }
+
+    @FunctionalInterface
+    public interface TimedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface TimedRun<E extends Exception> {
+        void run() throws E;
+    }
+
+    public static final class Timer {
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Timer() {
+        }
+
+        public void recordNanos(long nanos) {
+            histogram.recordNanos(nanos);
+        }
+
+        public LatencyHistogram.Snapshot snapshot() {
+            return histogram.snapshot();
+        }
+    }
+
+    public static final class Counter {
+
+        private final LongAdder value = new LongAdder();
+
+        private Counter() {
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long delta) {
+            value.add(delta);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    /**
+     * Snapshot dạng bảng text, sắp theo tên
+     */
+    public String snapshotText() {
+        StringBuilder out = new StringBuilder();
+        out.append("SmartNotebook metrics @ ").append(Instant.now())
+                .append(" (uptime ").append((System.currentTimeMillis() - startedAt) / 1000).append("s)\n");
+
+        out.append("\n[timers] count / mean / p50 / p90 / p99 / max (ms)\n");
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            LatencyHistogram.Snapshot s = entry.getValue().snapshot();
+            out.append(String.format("  %-44s %8d %9s %9s %9s %9s %9s%n", entry.getKey(), s.getCount(),
+                    millis(s.getMeanMicros()), millis(s.getP50Micros()), millis(s.getP90Micros()),
+                    millis(s.getP99Micros()), millis(s.getMaxMicros())));
+        }
+
+        out.append("\n[counters]\n");
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            out.append(String.format("  %-44s %d%n", entry.getKey(), entry.getValue().get()));
+        }
+
+        out.append("\n[gauges]\n");
+        for (Map.Entry<String, Supplier<?>> entry : new TreeMap<>(gauges).entrySet()) {
+            out.append(String.format("  %-44s %s%n", entry.getKey(), readGauge(entry.getValue())));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Snapshot dạng JSON (một object, thời gian tính bằng µs)
+     */
+    public String snapshotJson() {
+        StringBuilder out = new StringBuilder("{\"timestamp\":\"").append(Instant.now()).append("\",\"timers\":{");
+        String separator = "";
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            LatencyHistogram.Snapshot s = entry.getValue().snapshot();
+            out.append(separator).append(quote(entry.getKey()))
+                    .append(":{\"count\":").append(s.getCount())
+                    .append(",\"meanMicros\":").append(s.getMeanMicros())
+                    .append(",\"p50Micros\":").append(s.getP50Micros())
+                    .append(",\"p90Micros\":").append(s.getP90Micros())
+                    .append(",\"p99Micros\":").append(s.getP99Micros())
+                    .append(",\"maxMicros\":").append(s.getMaxMicros()).append('}');
+            separator = ",";
+        }
+
+        out.append("},\"counters\":{");
+        separator = "";
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            out.append(separator).append(quote(entry.getKey())).append(':').append(entry.getValue().get());
+            separator = ",";
+        }
+
+        out.append("},\"gauges\":{");
+        separator = "";
+        for (Map.Entry<String, Supplier<?>> entry : new TreeMap<>(gauges).entrySet()) {
+            Object value = readGauge(entry.getValue());
+            out.append(separator).append(quote(entry.getKey())).append(':')
+                    .append(value instanceof Number ? value.toString() : quote(String.valueOf(value)));
+            separator = ",";
+        }
+        return out.append("}}").toString();
+    }
+
+    // ==================== REPORTER ====================
+
+    /**
+     * Bật xuất snapshot định kỳ theo cấu hình (gọi một lần khi khởi động)
+     */
+    public synchronized void startReporter() {
+        long interval = longSetting("metrics.report.intervalSeconds", 0);
+        if (interval <= 0 || reporter != null) {
+            return;
+        }
+        String file = AppLogger.setting("metrics.report.file");
+        Path target = file != null && !file.isBlank() ? Paths.get(file.trim()) : null;
+        reporter = BackgroundJobs.scheduleWithFixedDelay("metrics-report",
+                () -> report(target), interval, interval, TimeUnit.SECONDS);
+    }
+
+    private void report(Path target) {
+        if (target == null) {
+            LOG.info(snapshotText());
+            return;
+        }
+        // Ghi file tạm rồi đổi tên - người đọc không bao giờ thấy file ghi dở
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.write(temp, snapshotJson().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.warn("MetricsRegistry: không ghi được " + target + ": " + e.getMessage());
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static Object readGauge(Supplier<?> supplier) {
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.3f", micros / 1000.0);
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    private static MemoryUsage heap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    }
+
+    private static long longSetting(String key, long defaultValue) {
+        String value = AppLogger.setting(key);
+        try {
+            return value != null && !value.isBlank() ? Long.parseLong(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
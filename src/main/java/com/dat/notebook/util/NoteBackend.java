@@ -0,0 +1,54 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.model.Note;
+
+import java.util.List;
+
+/**
+ * NoteBackend - Kho ghi chú cục bộ do {@link NoteStore} chọn; dao.LocalNoteDAO
+ * thêm phần lọc theo user trên đó.
+ *
+ * Các cài đặt:
+ * - {@link NoteSyncEngine}: kho cục bộ đồng bộ nền với SQL Server
+ * - {@link LocalNoteBackend}: engine file cục bộ (log + index trong memory),
+ *   chạy hoàn toàn offline, dữ liệu còn sau khi khởi động lại
+ * - {@link InMemoryNoteStore}: chỉ trong memory (demo / test, mất khi thoát)
+ *
+ * Danh sách trả về luôn sắp theo UpdatedAt DESC, NoteID DESC.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public interface NoteBackend {
+
+    /**
+     * Tên backend (hiển thị / log)
+     */
+    String getName();
+
+    List<Note> getAllNotes();
+
+    /**
+     * @param categoryId ID danh mục (0 = không có danh mục)
+     */
+    List<Note> getNotesByCategory(int categoryId);
+
+    /**
+     * @return Ghi chú hoặc null nếu không có
+     */
+    Note getNoteById(int id);
+
+    /**
+     * Thêm ghi chú; id và thời điểm tạo/cập nhật được gán lên object truyền vào
+     */
+    boolean insertNote(Note note);
+
+    boolean updateNote(Note note);
+
+    boolean deleteNote(int id);
+
+    /**
+     * Tìm theo tiêu đề / nội dung
+     */
+    List<Note> searchNotes(String keyword);
+}
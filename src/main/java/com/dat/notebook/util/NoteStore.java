@@ -0,0 +1,124 @@
+package com.dat.notebook.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * NoteStore - Chọn nơi lưu ghi chú MỘT lần theo cấu hình storage.backend
+ * (db.properties hoặc -Dstorage.backend):
+ * - sqlserver (mặc định): dao.NoteDAO truy vấn thẳng SQL Server
+ * - local: engine file cục bộ tại storage.local.dir (mặc định ~/.smartnotebook/store)
+ * - memory: chỉ trong memory (demo / test)
+ * - sync: kho cục bộ + {@link NoteSyncEngine} đồng bộ nền với SQL Server
+ *   (storage.sync.intervalSeconds, storage.sync.batchSize)
+ * Với local / memory / sync, dao.NoteDAO.create() trả về dao.LocalNoteDAO đọc
+ * ghi qua {@link NoteBackend} này.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class NoteStore {
+
+    private static final AppLogger LOG = AppLogger.getLogger(NoteStore.class);
+
+    private static boolean initialized;
+    private static NoteBackend backend;
+
+    private NoteStore() {
+    }
+
+    /**
+     * Backend cục bộ theo cấu hình (khởi tạo lần đầu gọi)
+     *
+     * @return NoteBackend, hoặc null nếu dùng SQL Server trực tiếp
+     */
+    public static synchronized NoteBackend getBackend() {
+        if (!initialized) {
+            backend = createBackend();
+            initialized = true;
+            LOG.info("✓ NoteStore: dùng backend " + (backend != null ? backend.getName() : "sqlserver"));
+        }
+        return backend;
+    }
+
+    // ==================== BACKEND SELECTION ====================
+
+    private static NoteBackend createBackend() {
+        Properties props = new Properties();
+        try (InputStream input = NoteStore.class.getClassLoader().getResourceAsStream("db.properties")) {
+            if (input != null) {
+                props.load(input);
+            }
+        } catch (IOException e) {
+            LOG.error("NoteStore: Không đọc được db.properties - " + e.getMessage());
+        }
+        String kind = setting(props, "storage.backend", "sqlserver").toLowerCase();
+
+        switch (kind) {
+            case "memory":
+                return new InMemoryNoteStore();
+            case "local":
+                return openLocal(props, false);
+            case "sync":
+                return openLocal(props, true);
+            case "sqlserver":
+                return null;
+            default:
+                LOG.warn("NoteStore: storage.backend=" + kind + " không hợp lệ, dùng sqlserver");
+                return null;
+        }
+    }
+
+    private static NoteBackend openLocal(Properties props, boolean sync) {
+        String dir = setting(props, "storage.local.dir", "");
+        Path path = dir.isEmpty() ? Paths.get(System.getProperty("user.home"), ".smartnotebook", "store")
+                                  : Paths.get(dir);
+        LocalNoteBackend local;
+        try {
+            local = new LocalNoteBackend(path);
+            local.startCompaction();
+        } catch (IOException e) {
+            LOG.error("NoteStore: Không mở được kho cục bộ tại " + path + " - " + e.getMessage()
+                + " (dùng bộ nhớ tạm)");
+            return new InMemoryNoteStore();
+        }
+        if (!sync) {
+            return local;
+        }
+        try {
+            NoteSyncEngine engine = new NoteSyncEngine(local, new NoteSyncRemote(), path,
+                intSetting(props, "storage.sync.batchSize", 50), NoteStore::syncUserId);
+            engine.start(intSetting(props, "storage.sync.intervalSeconds", 30));
+            return engine;
+        } catch (IOException e) {
+            LOG.error("NoteStore: Không khởi tạo được đồng bộ - " + e.getMessage() + " (chỉ dùng kho cục bộ)");
+            return local;
+        }
+    }
+
+    /**
+     * User được đồng bộ: user đang đăng nhập (không đồng bộ ở chế độ demo)
+     */
+    private static int syncUserId() {
+        SessionManager session = SessionManager.getInstance();
+        return session.isDemoMode() ? -1 : session.getCurrentUserId();
+    }
+
+    private static int intSetting(Properties props, String key, int defaultValue) {
+        try {
+            int value = Integer.parseInt(setting(props, key, String.valueOf(defaultValue)));
+            return value > 0 ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            LOG.warn("NoteStore: " + key + " không hợp lệ, dùng " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static String setting(Properties props, String key, String defaultValue) {
+        String value = System.getProperty(key, props.getProperty(key));
+        return value != null && !value.trim().isEmpty() ? value.trim() : defaultValue;
+    }
+}
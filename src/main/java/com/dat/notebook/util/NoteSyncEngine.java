@@ -0,0 +1,869 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.model.Note;
+import com.dat.notebook.model.NoteEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * NoteSyncEngine - Đồng bộ hai chiều giữa kho cục bộ ({@link LocalNoteBackend})
+ * và bảng Notes trên SQL Server.
+ *
+ * App đọc/ghi kho cục bộ (tốc độ memory, chạy được offline); engine đồng bộ
+ * trên {@link BackgroundJobs}:
+ * - Phiên bản: mỗi ghi chú đã đồng bộ nhớ rowversion (Notes.RowVer, do server
+ *   cấp) của bản server mà kho cục bộ đang giữ. Không so sánh đồng hồ máy
+ *   khách với server ở bất kỳ đâu.
+ * - Outbox: mỗi ghi chú sửa cục bộ có một mục (INSERT / UPDATE / DELETE) mang
+ *   đồng hồ logic (bộ đếm tăng dần, lưu bền), rowversion của bản server mà
+ *   thay đổi dựa trên (base) và hash nội dung của bản đó. Nhiều lần sửa cùng
+ *   ghi chú gộp thành một mục.
+ * - Push: đẩy outbox theo thứ tự đồng hồ, mỗi lô một transaction. UPDATE /
+ *   DELETE chỉ áp dụng khi RowVer trên server vẫn là base - nếu không là xung
+ *   đột. Sau khi push, mục chỉ bị xóa nếu đồng hồ không đổi trong lúc push
+ *   (ghi chú sửa tiếp thì mục được giữ với base mới).
+ * - Pull: đọc các dòng có RowVer trong (token, MIN_ACTIVE_ROWVERSION()) của
+ *   user, rồi đối chiếu tập NoteID để phát hiện ghi chú bị xóa hẳn trên
+ *   server. Kho cục bộ đổi thì phát ResyncRequired để màn hình tải lại.
+ *
+ * Giải quyết xung đột (tất định, không mất dữ liệu):
+ * - server chỉ đổi cột phụ (ViewCount, LastVersionNumber... cũng đổi RowVer):
+ *   nội dung trùng hash base - đổi base, thay đổi cục bộ vẫn được đẩy lên
+ * - sửa / sửa: bản server thắng; bản cục bộ được giữ thành ghi chú mới
+ *   "(bản xung đột)" và đẩy lên như một ghi chú mới
+ * - xóa cục bộ / sửa trên server: bản sửa thắng (khôi phục về máy)
+ * - sửa cục bộ / xóa trên server: bản sửa thắng (đưa lên lại như ghi chú mới)
+ *
+ * Ghi chú tạo offline mang id âm tạm thời; khi lên server được đổi sang
+ * NoteID thật (id cũ vẫn tra được trong phiên qua bảng ánh xạ).
+ * Trạng thái (outbox, watermark, đồng hồ) nằm trong sync.state cạnh file log,
+ * ghi lại nguyên tử (file tạm + ATOMIC_MOVE) TRƯỚC khi đổi kho cục bộ.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class NoteSyncEngine implements NoteBackend, Closeable {
+
+    private static final AppLogger LOG = AppLogger.getLogger(NoteSyncEngine.class);
+
+    private static final String STATE_FILE = "sync.state";
+    private static final String STATE_TEMP_FILE = "sync.state.tmp";
+    private static final int STATE_MAGIC = 0x534E5359; // "SNSY"
+    private static final int STATE_FORMAT = 2;
+
+    private static final byte OP_INSERT = 1;
+    private static final byte OP_UPDATE = 2;
+    private static final byte OP_DELETE = 3;
+
+    /** Hậu tố tiêu đề của bản cục bộ giữ lại khi xung đột sửa / sửa */
+    private static final String CONFLICT_SUFFIX = " (bản xung đột)";
+    /** Gộp các lần ghi liên tiếp thành một lần push */
+    private static final long PUSH_DELAY_MS = 2000;
+    /** SQL Server: transaction bị chọn làm nạn nhân deadlock (đã rollback toàn bộ) */
+    private static final int ERROR_DEADLOCK_VICTIM = 1205;
+
+    private final LocalNoteBackend local;
+    private final NoteSyncRemote remote;
+    private final Path statePath;
+    private final Path stateTempPath;
+    private final int batchSize;
+    private final IntSupplier currentUser;
+
+    private final Object lock = new Object();
+    private final Map<Integer, OutboxEntry> outbox = new HashMap<>();
+    /** userId -> token rowversion của lần pull trước */
+    private final Map<Integer, Long> watermarks = new HashMap<>();
+    /** NoteID -> rowversion của bản server mà kho cục bộ đang giữ */
+    private final Map<Integer, Long> versions = new HashMap<>();
+    private long clock;
+    private int nextTempId = -1;
+    /** Số ghi chú cục bộ đổi theo server trong vòng đồng bộ hiện tại */
+    private int remoteChanges;
+
+    /** id tạm -> NoteID trên server (trong phiên) */
+    private final Map<Integer, Integer> remappedIds = new ConcurrentHashMap<>();
+    /** Ghi chú bị server từ chối (lỗi dữ liệu) - không đẩy lại trong phiên */
+    private final Set<Integer> rejected = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean syncScheduled = new AtomicBoolean();
+    private final Consumer<ConnectionCircuitBreaker.State> reconnectListener = state -> {
+        if (state == ConnectionCircuitBreaker.State.CLOSED) {
+            requestSync(0);
+        }
+    };
+    private volatile ScheduledFuture<?> periodicTask;
+
+    /**
+     * @param local Kho cục bộ (engine chịu trách nhiệm đóng)
+     * @param remote Truy cập bảng Notes
+     * @param directory Thư mục chứa sync.state (cùng thư mục kho cục bộ)
+     * @param batchSize Số ghi chú mỗi transaction khi push
+     * @param currentUser User đang đăng nhập (<= 0: không đồng bộ)
+     */
+    public NoteSyncEngine(LocalNoteBackend local, NoteSyncRemote remote, Path directory,
+                          int batchSize, IntSupplier currentUser) throws IOException {
+        this.local = local;
+        this.remote = remote;
+        this.statePath = directory.resolve(STATE_FILE);
+        this.stateTempPath = directory.resolve(STATE_TEMP_FILE);
+        this.batchSize = batchSize;
+        this.currentUser = currentUser;
+
+        synchronized (lock) {
+            if (Files.exists(statePath)) {
+                loadState();
+            } else {
+                adoptLocalNotes();
+            }
+            recoverOrphans();
+            saveState();
+        }
+    }
+
+    /**
+     * Đồng bộ định kỳ và ngay khi kết nối DB được khôi phục
+     */
+    public void start(long intervalSeconds) {
+        if (periodicTask == null) {
+            DBConnection.getCircuitBreaker().addListener(reconnectListener);
+            periodicTask = BackgroundJobs.scheduleWithFixedDelay("note-sync", this::syncNow,
+                0, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "sync";
+    }
+
+    /**
+     * Số ghi chú còn thay đổi chưa đẩy lên server
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return outbox.size();
+        }
+    }
+
+    // ==================== READ (kho cục bộ) ====================
+
+    @Override
+    public List<Note> getAllNotes() {
+        return local.getAllNotes();
+    }
+
+    @Override
+    public List<Note> getNotesByCategory(int categoryId) {
+        return local.getNotesByCategory(categoryId);
+    }
+
+    @Override
+    public Note getNoteById(int id) {
+        return local.getNoteById(resolveId(id));
+    }
+
+    @Override
+    public List<Note> searchNotes(String keyword) {
+        return local.searchNotes(keyword);
+    }
+
+    // ==================== WRITE (kho cục bộ + outbox) ====================
+
+    @Override
+    public boolean insertNote(Note note) {
+        synchronized (lock) {
+            LocalDateTime now = now();
+            Note stored = note.copy();
+            stored.setId(nextTempId--);
+            if (stored.getCreatedAt() == null) {
+                stored.setCreatedAt(now);
+            }
+            stored.setUpdatedAt(now);
+            if (stored.getUserId() <= 0) {
+                stored.setUserId(Math.max(currentUser.getAsInt(), 0));
+            }
+            if (!enqueue(new OutboxEntry(stored.getId(), ++clock, OP_INSERT, 0, 0)) || !local.putNote(stored)) {
+                return false;
+            }
+            note.setId(stored.getId());
+            note.setUserId(stored.getUserId());
+            note.setCreatedAt(stored.getCreatedAt());
+            note.setUpdatedAt(now);
+        }
+        requestSync(PUSH_DELAY_MS);
+        return true;
+    }
+
+    @Override
+    public boolean updateNote(Note note) {
+        synchronized (lock) {
+            int id = resolveId(note.getId());
+            Note existing = local.getNoteById(id);
+            if (existing == null) {
+                return false;
+            }
+            OutboxEntry pending = outbox.get(id);
+            OutboxEntry next = pending != null
+                ? new OutboxEntry(id, ++clock, pending.op, pending.base, pending.baseHash)
+                : new OutboxEntry(id, ++clock, OP_UPDATE, versionOf(id), contentHash(existing));
+            LocalDateTime now = now();
+            Note stored = note.copy();
+            stored.setId(id);
+            stored.setUpdatedAt(now);
+            if (stored.getUserId() <= 0) {
+                stored.setUserId(existing.getUserId());
+            }
+            if (!enqueue(next) || !local.putNote(stored)) {
+                return false;
+            }
+            note.setId(id);
+            note.setUpdatedAt(now);
+        }
+        requestSync(PUSH_DELAY_MS);
+        return true;
+    }
+
+    @Override
+    public boolean deleteNote(int noteId) {
+        synchronized (lock) {
+            int id = resolveId(noteId);
+            Note existing = local.getNoteById(id);
+            if (existing == null) {
+                return false;
+            }
+            OutboxEntry pending = outbox.get(id);
+            if (pending != null && pending.op == OP_INSERT) {
+                // Chưa từng lên server: bỏ luôn khỏi outbox
+                outbox.remove(id);
+                if (!saveStateQuietly()) {
+                    outbox.put(id, pending);
+                    return false;
+                }
+            } else {
+                OutboxEntry next = pending != null
+                    ? new OutboxEntry(id, ++clock, OP_DELETE, pending.base, pending.baseHash)
+                    : new OutboxEntry(id, ++clock, OP_DELETE, versionOf(id), contentHash(existing));
+                if (!enqueue(next)) {
+                    return false;
+                }
+            }
+            if (!local.deleteNote(id)) {
+                return false;
+            }
+        }
+        requestSync(PUSH_DELAY_MS);
+        return true;
+    }
+
+    // ==================== SYNC ====================
+
+    /**
+     * Hẹn một lần đồng bộ (các yêu cầu trong lúc chờ được gộp lại)
+     */
+    public void requestSync(long delayMs) {
+        if (periodicTask != null && syncScheduled.compareAndSet(false, true)) {
+            BackgroundJobs.schedule("note-sync", () -> {
+                syncScheduled.set(false);
+                syncNow();
+            }, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Một vòng đồng bộ: pull rồi push. Bỏ qua nếu chưa đăng nhập, đang ở chế
+     * độ demo, circuit breaker đang mở hoặc đang có vòng khác chạy.
+     */
+    public void syncNow() {
+        int userId = currentUser.getAsInt();
+        if (userId <= 0 || !DBConnection.getCircuitBreaker().allowRequest()
+                || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try (Connection conn = DBConnection.getConnection()) {
+            syncOnce(conn, userId);
+        } catch (SQLException e) {
+            LOG.error("NoteSyncEngine: Đồng bộ dừng - " + e.getMessage());
+        } finally {
+            int changed;
+            synchronized (lock) {
+                changed = remoteChanges;
+                remoteChanges = 0;
+            }
+            running.set(false);
+            if (changed > 0) {
+                // Màn hình đang hiển thị bản cũ - tải lại từ kho cục bộ
+                DomainEventBus.getInstance().publish(new NoteEvent.ResyncRequired(userId));
+            }
+        }
+    }
+
+    /**
+     * Pull rồi push trên một kết nối có sẵn (không kiểm tra đăng nhập /
+     * circuit breaker, không phát ResyncRequired - việc của syncNow)
+     */
+    void syncOnce(Connection conn, int userId) throws SQLException {
+        int pulled = pull(conn, userId);
+        int pushed = push(conn, userId);
+        if (pulled > 0 || pushed > 0) {
+            LOG.info("✓ NoteSyncEngine: nhận " + pulled + ", gửi " + pushed
+                + " ghi chú (còn chờ " + getPendingCount() + ")");
+        }
+    }
+
+    /**
+     * @return Số ghi chú cục bộ thay đổi theo server
+     */
+    private int pull(Connection conn, int userId) throws SQLException {
+        long since;
+        synchronized (lock) {
+            since = watermarks.getOrDefault(userId, 0L);
+        }
+        NoteSyncRemote.Changes changes = remote.findChangedSince(conn, userId, since);
+        Set<Integer> remoteIds = remote.findIds(conn, userId);
+
+        int applied = 0;
+        synchronized (lock) {
+            for (NoteSyncRemote.Row row : changes.rows) {
+                if (applyRemote(row)) {
+                    applied++;
+                }
+            }
+            // Ghi chú đã đồng bộ (id dương) không còn trên server: đã bị xóa hẳn
+            for (Integer id : local.getNoteIds()) {
+                if (id <= 0 || remoteIds.contains(id)) {
+                    continue;
+                }
+                Note note = local.getNoteById(id);
+                if (note == null || note.getUserId() != userId) {
+                    continue;
+                }
+                OutboxEntry pending = outbox.get(id);
+                if (pending == null) {
+                    versions.remove(id);
+                    local.deleteNote(id);
+                    applied++;
+                } else if (resolveConflict(pending, null)) {
+                    applied++;
+                }
+            }
+            watermarks.put(userId, changes.token);
+            remoteChanges += applied;
+            saveStateQuietly();
+        }
+        return applied;
+    }
+
+    /**
+     * @return Số ghi chú đã đẩy lên server
+     */
+    private int push(Connection conn, int userId) throws SQLException {
+        List<OutboxEntry> pending = new ArrayList<>();
+        synchronized (lock) {
+            for (OutboxEntry entry : outbox.values()) {
+                if (!rejected.contains(entry.noteId)) {
+                    pending.add(entry);
+                }
+            }
+        }
+        pending.sort(Comparator.comparingLong(entry -> entry.clock));
+
+        int pushed = 0;
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            pushed += pushBatch(conn, userId, pending.subList(from, Math.min(from + batchSize, pending.size())));
+        }
+        return pushed;
+    }
+
+    private int pushBatch(Connection conn, int userId, List<OutboxEntry> batch) throws SQLException {
+        List<Runnable> completions = new ArrayList<>();
+        List<Integer> conflicts = new ArrayList<>();
+
+        conn.setAutoCommit(false);
+        try {
+            for (OutboxEntry sent : batch) {
+                Note note;
+                synchronized (lock) {
+                    if (outbox.get(sent.noteId) == null) {
+                        continue;
+                    }
+                    note = local.getNoteById(sent.noteId);
+                }
+                if (note == null && sent.op != OP_DELETE) {
+                    completions.add(() -> dropIfUnchanged(sent));
+                    continue;
+                }
+                if (note != null && note.getUserId() <= 0) {
+                    note.setUserId(userId);
+                } else if (note != null && note.getUserId() != userId) {
+                    continue; // Ghi chú của user khác: chờ user đó đăng nhập
+                }
+                // Lỗi của một ghi chú chỉ hủy phần việc của ghi chú đó
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    switch (sent.op) {
+                        case OP_INSERT: {
+                            long pushedHash = contentHash(note);
+                            long version = remote.insertForSync(conn, note);
+                            int remoteId = note.getId();
+                            completions.add(() -> completeInsert(sent, remoteId, userId, version, pushedHash));
+                            break;
+                        }
+                        case OP_UPDATE: {
+                            long pushedHash = contentHash(note);
+                            long version = remote.updateIfUnchanged(conn, note, sent.base);
+                            if (version == 0) {
+                                conflicts.add(sent.noteId);
+                            } else {
+                                completions.add(() -> completeUpdate(sent, version, pushedHash));
+                            }
+                            break;
+                        }
+                        default:
+                            if (remote.deleteIfUnchanged(conn, sent.noteId, userId, sent.base)) {
+                                completions.add(() -> dropIfUnchanged(sent));
+                            } else {
+                                conflicts.add(sent.noteId);
+                            }
+                            break;
+                    }
+                } catch (SQLException e) {
+                    if (abortsBatch(conn, e)) {
+                        // Transaction đã mất: không completion nào được áp dụng
+                        throw e;
+                    }
+                    conn.rollback(savepoint);
+                    rejected.add(sent.noteId);
+                    LOG.error("NoteSyncEngine: Server từ chối ghi chú " + sent.noteId
+                        + " (bỏ qua tới lần chạy sau) - " + e.getMessage());
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException ignored) {
+                // Kết nối đã hỏng - transaction bị hủy phía server
+            }
+            throw e;
+        } finally {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException ignored) {
+                // Kết nối đã hỏng
+            }
+        }
+
+        synchronized (lock) {
+            completions.forEach(Runnable::run);
+            saveStateQuietly();
+        }
+
+        // Xung đột lúc push: đọc bản hiện tại trên server rồi giải quyết ngay
+        for (Integer noteId : conflicts) {
+            NoteSyncRemote.Row row = remote.findForSync(conn, noteId, userId);
+            synchronized (lock) {
+                OutboxEntry current = outbox.get(noteId);
+                if (current != null) {
+                    boolean changed = row != null ? applyRemote(row) : resolveConflict(current, null);
+                    if (changed) {
+                        remoteChanges++;
+                    }
+                    saveStateQuietly();
+                }
+            }
+        }
+        return completions.size();
+    }
+
+    // ==================== APPLY / CONFLICT (gọi khi giữ lock) ====================
+
+    /**
+     * Áp dụng một dòng từ server vào kho cục bộ
+     *
+     * @return true nếu kho cục bộ thay đổi
+     */
+    private boolean applyRemote(NoteSyncRemote.Row row) {
+        int id = row.note.getId();
+        OutboxEntry pending = outbox.get(id);
+        if (pending != null) {
+            if (row.version == pending.base) {
+                return false; // Thay đổi cục bộ dựa đúng trên bản này - chờ push
+            }
+            return resolveConflict(pending, row);
+        }
+        if (versionOf(id) == row.version) {
+            return false; // Đã có (vd: chính bản vừa push)
+        }
+        versions.put(id, row.version);
+        return local.putNote(row.note);
+    }
+
+    /**
+     * Ghi chú có thay đổi cục bộ chưa push và RowVer trên server đã khác base
+     *
+     * @param row Bản trên server, null nếu đã bị xóa hẳn
+     * @return true nếu kho cục bộ thay đổi
+     */
+    private boolean resolveConflict(OutboxEntry pending, NoteSyncRemote.Row row) {
+        int id = pending.noteId;
+        if (row == null) {
+            outbox.remove(id);
+            versions.remove(id);
+            if (pending.op == OP_DELETE) {
+                return false; // Hai phía cùng xóa
+            }
+            Note note = local.getNoteById(id);
+            if (note == null) {
+                return false;
+            }
+            int tempId = nextTempId--;
+            LOG.info("NoteSyncEngine: Ghi chú " + id + " đã bị xóa trên server nhưng còn sửa cục bộ"
+                + " - đưa lên lại như ghi chú mới");
+            rekey(note, tempId);
+            outbox.put(tempId, new OutboxEntry(tempId, ++clock, OP_INSERT, 0, 0));
+            return true;
+        }
+        versions.put(id, row.version);
+        if (contentHash(row.note) == pending.baseHash) {
+            // Server chỉ đổi cột phụ: thay đổi cục bộ vẫn áp dụng lên bản mới
+            outbox.put(id, new OutboxEntry(id, pending.clock, pending.op, row.version, pending.baseHash));
+            return false;
+        }
+        outbox.remove(id);
+        if (pending.op == OP_DELETE) {
+            LOG.info("NoteSyncEngine: Ghi chú " + id + " bị xóa cục bộ nhưng đã sửa trên server"
+                + " - giữ bản sửa");
+            return local.putNote(row.note);
+        }
+        Note note = local.getNoteById(id);
+        if (note != null && contentHash(note) != contentHash(row.note)) {
+            // Hai phía cùng sửa: bản server thắng, bản cục bộ thành ghi chú mới
+            int tempId = nextTempId--;
+            Note copy = note.copy();
+            copy.setId(tempId);
+            copy.setTitle((note.getTitle() != null ? note.getTitle() : "") + CONFLICT_SUFFIX);
+            outbox.put(tempId, new OutboxEntry(tempId, ++clock, OP_INSERT, 0, 0));
+            local.putNote(copy);
+            LOG.info("NoteSyncEngine: Xung đột ghi chú " + id + " - giữ bản server, bản cục bộ lưu thành "
+                + tempId);
+        }
+        return local.putNote(row.note);
+    }
+
+    private void completeInsert(OutboxEntry sent, int remoteId, int userId, long version, long pushedHash) {
+        OutboxEntry current = outbox.remove(sent.noteId);
+        Note note = local.getNoteById(sent.noteId);
+        if (note != null) {
+            note.setUserId(userId);
+            rekey(note, remoteId);
+        }
+        versions.put(remoteId, version);
+        if (current == null) {
+            // Bị xóa cục bộ trong lúc đang push
+            outbox.put(remoteId, new OutboxEntry(remoteId, ++clock, OP_DELETE, version, pushedHash));
+        } else if (current.clock != sent.clock) {
+            // Được sửa tiếp trong lúc đang push
+            outbox.put(remoteId, new OutboxEntry(remoteId, current.clock, OP_UPDATE, version, pushedHash));
+        }
+    }
+
+    private void completeUpdate(OutboxEntry sent, long version, long pushedHash) {
+        OutboxEntry current = outbox.get(sent.noteId);
+        if (current == null) {
+            return;
+        }
+        versions.put(sent.noteId, version);
+        if (current.clock != sent.clock) {
+            outbox.put(sent.noteId, new OutboxEntry(sent.noteId, current.clock, current.op, version, pushedHash));
+            return;
+        }
+        outbox.remove(sent.noteId);
+    }
+
+    private void dropIfUnchanged(OutboxEntry sent) {
+        OutboxEntry current = outbox.get(sent.noteId);
+        if (current != null && current.clock == sent.clock) {
+            outbox.remove(sent.noteId);
+            if (sent.op == OP_DELETE) {
+                versions.remove(sent.noteId);
+            }
+        }
+    }
+
+    /**
+     * Đổi id ghi chú trong kho cục bộ (ghi bản mới trước rồi xóa bản cũ)
+     */
+    private void rekey(Note note, int newId) {
+        int oldId = note.getId();
+        Note moved = note.copy();
+        moved.setId(newId);
+        local.putNote(moved);
+        local.deleteNote(oldId);
+        versions.remove(oldId);
+        remappedIds.remove(newId); // newId giờ là id đang dùng (id cũ có thể trùng NoteID mới)
+        remappedIds.put(oldId, newId);
+    }
+
+    private int resolveId(int id) {
+        Integer mapped = remappedIds.get(id);
+        while (mapped != null) {
+            id = mapped;
+            mapped = remappedIds.get(id);
+        }
+        return id;
+    }
+
+    /**
+     * Lỗi làm hỏng cả transaction của batch: mất kết nối, bị chọn làm nạn nhân
+     * deadlock (server đã rollback hết) hoặc transaction bị "doomed"
+     * (XACT_STATE() <> 1 - chỉ còn rollback được)
+     */
+    private boolean abortsBatch(Connection conn, SQLException e) {
+        if (isConnectionFailure(conn, e) || e.getErrorCode() == ERROR_DEADLOCK_VICTIM) {
+            return true;
+        }
+        try {
+            return remote.transactionState(conn) != 1;
+        } catch (SQLException state) {
+            return true;
+        }
+    }
+
+    private static boolean isConnectionFailure(Connection conn, SQLException e) {
+        String state = e.getSQLState();
+        if (state != null && state.startsWith("08")) {
+            return true;
+        }
+        try {
+            return conn.isClosed();
+        } catch (SQLException closed) {
+            return true;
+        }
+    }
+
+    private long versionOf(int id) {
+        Long version = versions.get(id);
+        return version != null ? version : 0;
+    }
+
+    /**
+     * Hash các cột người dùng sửa được (không gồm ViewCount, thời điểm...) -
+     * phân biệt server sửa nội dung với server chỉ đổi cột phụ
+     */
+    static long contentHash(Note note) {
+        StringBuilder fields = new StringBuilder();
+        for (Object value : new Object[] {note.getTitle(), note.getContent(), note.getHtmlContent(),
+                note.getSummary(), note.getStatus(), note.isFavorite(), note.isArchived(), note.getColor(),
+                note.getCategoryId() != null && note.getCategoryId() > 0 ? note.getCategoryId() : 0}) {
+            fields.append(value).append('\u0000');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(fields.toString().getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+
+    private static LocalDateTime now() {
+        // Kho cục bộ lưu tới mili giây
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    // ==================== STATE ====================
+
+    /**
+     * Lần đầu bật đồng bộ trên kho đã có dữ liệu: mọi ghi chú hiện có chỉ nằm
+     * trên máy - chuyển sang id tạm và đưa vào outbox để tạo trên server
+     */
+    private void adoptLocalNotes() {
+        int adopted = 0;
+        for (Integer id : local.getNoteIds()) {
+            Note note = local.getNoteById(id);
+            if (note != null && id > 0) {
+                int tempId = nextTempId--;
+                rekey(note, tempId);
+                outbox.put(tempId, new OutboxEntry(tempId, ++clock, OP_INSERT, 0, 0));
+                adopted++;
+            }
+        }
+        if (adopted > 0) {
+            LOG.info("NoteSyncEngine: " + adopted + " ghi chú cục bộ sẽ được đưa lên server");
+        }
+    }
+
+    /**
+     * Ghi chú id tạm không có trong outbox (crash giữa lúc ghi state và kho):
+     * đưa lại vào outbox; id tạm kế tiếp luôn nhỏ hơn mọi id đang dùng
+     */
+    private void recoverOrphans() {
+        for (Integer id : local.getNoteIds()) {
+            if (id < 0) {
+                nextTempId = Math.min(nextTempId, id - 1);
+                if (!outbox.containsKey(id)) {
+                    outbox.put(id, new OutboxEntry(id, ++clock, OP_INSERT, 0, 0));
+                }
+            }
+        }
+    }
+
+    /**
+     * Ghi mục outbox rồi lưu state; hoàn tác trong memory nếu lưu thất bại
+     */
+    private boolean enqueue(OutboxEntry entry) {
+        OutboxEntry previous = outbox.put(entry.noteId, entry);
+        if (saveStateQuietly()) {
+            return true;
+        }
+        if (previous != null) {
+            outbox.put(entry.noteId, previous);
+        } else {
+            outbox.remove(entry.noteId);
+        }
+        return false;
+    }
+
+    private boolean saveStateQuietly() {
+        try {
+            saveState();
+            return true;
+        } catch (IOException e) {
+            LOG.error("NoteSyncEngine: Không lưu được sync.state - " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void saveState() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + outbox.size() * 32 + versions.size() * 12);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(STATE_MAGIC);
+        out.writeInt(STATE_FORMAT);
+        out.writeLong(clock);
+        out.writeInt(nextTempId);
+        out.writeInt(watermarks.size());
+        for (Map.Entry<Integer, Long> mark : watermarks.entrySet()) {
+            out.writeInt(mark.getKey());
+            out.writeLong(mark.getValue());
+        }
+        out.writeInt(versions.size());
+        for (Map.Entry<Integer, Long> version : versions.entrySet()) {
+            out.writeInt(version.getKey());
+            out.writeLong(version.getValue());
+        }
+        out.writeInt(outbox.size());
+        for (OutboxEntry entry : outbox.values()) {
+            out.writeInt(entry.noteId);
+            out.writeLong(entry.clock);
+            out.writeByte(entry.op);
+            out.writeLong(entry.base);
+            out.writeLong(entry.baseHash);
+        }
+        out.flush();
+
+        try (FileChannel channel = FileChannel.open(stateTempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(stateTempPath, statePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void loadState() {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(statePath))) {
+            if (in.readInt() != STATE_MAGIC || in.readInt() != STATE_FORMAT) {
+                throw new IOException("sai định dạng");
+            }
+            clock = in.readLong();
+            nextTempId = in.readInt();
+            int marks = in.readInt();
+            for (int i = 0; i < marks; i++) {
+                watermarks.put(in.readInt(), in.readLong());
+            }
+            int known = in.readInt();
+            for (int i = 0; i < known; i++) {
+                versions.put(in.readInt(), in.readLong());
+            }
+            int entries = in.readInt();
+            for (int i = 0; i < entries; i++) {
+                OutboxEntry entry = new OutboxEntry(in.readInt(), in.readLong(), in.readByte(),
+                    in.readLong(), in.readLong());
+                outbox.put(entry.noteId, entry);
+            }
+        } catch (IOException e) {
+            // Không dựng lại được outbox: kéo lại toàn bộ từ server ở lần đồng bộ tới
+            LOG.error("NoteSyncEngine: sync.state hỏng, đồng bộ lại từ đầu - " + e.getMessage());
+            outbox.clear();
+            watermarks.clear();
+            versions.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        ScheduledFuture<?> task = periodicTask;
+        if (task != null) {
+            task.cancel(false);
+            DBConnection.getCircuitBreaker().removeListener(reconnectListener);
+        }
+        synchronized (lock) {
+            local.close();
+        }
+    }
+
+    /**
+     * Một thay đổi cục bộ chờ đẩy lên server (bất biến - thay bằng mục mới khi đổi)
+     */
+    private static final class OutboxEntry {
+        final int noteId;
+        /** Đồng hồ logic của lần sửa cục bộ gần nhất */
+        final long clock;
+        final byte op;
+        /** Rowversion của bản server mà thay đổi dựa trên (0 với INSERT) */
+        final long base;
+        /** contentHash của bản server đó */
+        final long baseHash;
+
+        OutboxEntry(int noteId, long clock, byte op, long base, long baseHash) {
+            this.noteId = noteId;
+            this.clock = clock;
+            this.op = op;
+            this.base = base;
+            this.baseHash = baseHash;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.model.Note;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * NoteSyncRemote - Truy cập bảng Notes cho {@link NoteSyncEngine}.
+ * Mọi thao tác nhận Connection của caller (nhiều thao tác trong một
+ * transaction) và ném SQLException để engine phân biệt mất kết nối với xung đột.
+ *
+ * Phiên bản của dòng là Notes.RowVer (V012) đọc dưới dạng BIGINT - do server
+ * cấp, tăng sau mọi UPDATE - nên phát hiện xung đột không phụ thuộc đồng hồ
+ * máy khách.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class NoteSyncRemote {
+
+    // ==================== SYNC ====================
+    // Số dòng đổi lấy qua OUTPUT INTO (Notes có trigger nên không dùng OUTPUT trần).
+
+    private static final String SYNC_COLUMNS =
+        "NoteID, UserID, CategoryID, Title, Content, HtmlContent, HtmlContentCompressed, Summary, " +
+        "Status, IsFavorite, IsArchived, Color, ViewCount, CreatedAt, UpdatedAt, " +
+        "CAST(RowVer AS BIGINT) AS RowVersion";
+
+    // Mọi dòng có rowversion < MIN_ACTIVE_ROWVERSION() đã commit
+    private static final String SQL_SYNC_BOUNDS =
+        "SELECT CAST(MIN_ACTIVE_ROWVERSION() AS BIGINT) AS UpperBound";
+
+    private static final String SQL_SYNC_CHANGED_SINCE =
+        "SELECT " + SYNC_COLUMNS + " FROM Notes " +
+        "WHERE UserID = ? " +
+        "AND RowVer > CAST(CAST(? AS BIGINT) AS BINARY(8)) AND RowVer < CAST(CAST(? AS BIGINT) AS BINARY(8)) " +
+        "ORDER BY RowVer";
+
+    private static final String SQL_SYNC_FIND =
+        "SELECT " + SYNC_COLUMNS + " FROM Notes WHERE NoteID = ? AND UserID = ?";
+
+    private static final String SQL_SYNC_IDS = "SELECT NoteID FROM Notes WHERE UserID = ?";
+
+    private static final String SQL_SYNC_INSERT =
+        "INSERT INTO Notes (UserID, CategoryID, Title, Content, HtmlContent, HtmlContentCompressed, Summary, " +
+        "                   Status, IsFavorite, IsArchived, Color, CreatedAt, UpdatedAt) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, GETDATE()); " +
+        "SELECT NoteID, CAST(RowVer AS BIGINT) AS RowVersion FROM Notes " +
+        "WHERE NoteID = CAST(SCOPE_IDENTITY() AS INT)";
+
+    private static final String SQL_SYNC_UPDATE =
+        "DECLARE @changed TABLE (NoteID INT); " +
+        "UPDATE Notes SET CategoryID = ?, Title = ?, Content = ?, HtmlContent = ?, HtmlContentCompressed = ?, " +
+        "                 Summary = ?, Status = ?, IsFavorite = ?, IsArchived = ?, Color = ?, UpdatedAt = GETDATE() " +
+        "OUTPUT inserted.NoteID INTO @changed " +
+        "WHERE NoteID = ? AND UserID = ? AND RowVer = CAST(CAST(? AS BIGINT) AS BINARY(8)); " +
+        "SELECT CAST(RowVer AS BIGINT) AS RowVersion FROM Notes WHERE NoteID IN (SELECT NoteID FROM @changed)";
+
+    private static final String SQL_SYNC_DELETE =
+        "DECLARE @changed TABLE (NoteID INT); " +
+        "DELETE FROM Notes OUTPUT deleted.NoteID INTO @changed " +
+        "WHERE NoteID = ? AND UserID = ? AND RowVer = CAST(CAST(? AS BIGINT) AS BINARY(8)); " +
+        "SELECT COUNT(*) AS Affected FROM @changed";
+
+    private static final String SQL_XACT_STATE = "SELECT XACT_STATE()";
+
+    /**
+     * Ghi chú của user có rowversion trong (token, MIN_ACTIVE_ROWVERSION()),
+     * cũ trước - không sót dòng của transaction commit muộn
+     *
+     * @param token Token của lần pull trước (0 = lấy tất cả)
+     */
+    public Changes findChangedSince(Connection conn, int userId, long token) throws SQLException {
+        long upperBound;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SYNC_BOUNDS);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            upperBound = rs.getLong("UpperBound");
+        }
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SYNC_CHANGED_SINCE)) {
+            ps.setInt(1, userId);
+            ps.setLong(2, token);
+            ps.setLong(3, upperBound);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<Row> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(mapSyncRow(rs));
+                }
+                return new Changes(rows, Math.max(token, upperBound - 1));
+            }
+        }
+    }
+
+    /**
+     * @return Dòng hoặc null nếu không còn trên server
+     */
+    public Row findForSync(Connection conn, int noteId, int userId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SYNC_FIND)) {
+            ps.setInt(1, noteId);
+            ps.setInt(2, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapSyncRow(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Id mọi ghi chú của user (phát hiện ghi chú bị xóa hẳn trên server)
+     */
+    public Set<Integer> findIds(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SYNC_IDS)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                Set<Integer> ids = new HashSet<>();
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+                return ids;
+            }
+        }
+    }
+
+    /**
+     * Thêm ghi chú lên server; gán NoteID mới lên note
+     *
+     * @return Rowversion của dòng mới
+     */
+    public long insertForSync(Connection conn, Note note) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SYNC_INSERT)) {
+            ps.setInt(1, note.getUserId());
+            bindCategory(ps, 2, note);
+            ps.setString(3, note.getTitle() != null ? note.getTitle() : "");
+            ps.setString(4, note.getContent());
+            ContentCodec.bind(ps, 5, 6, note.getHtmlContent());
+            ps.setString(7, note.getSummary());
+            ps.setString(8, note.getStatus() != null ? note.getStatus() : "REGULAR");
+            ps.setBoolean(9, note.isFavorite());
+            ps.setBoolean(10, note.isArchived());
+            ps.setString(11, note.getColor() != null ? note.getColor() : "#ffffff");
+            ps.setTimestamp(12, Timestamp.valueOf(note.getCreatedAt() != null ? note.getCreatedAt() : LocalDateTime.now()));
+            try (ResultSet rs = NoteVersionDAO.firstResultSet(ps)) {
+                if (rs == null || !rs.next()) {
+                    throw new SQLException("INSERT Notes không trả về NoteID");
+                }
+                note.setId(rs.getInt("NoteID"));
+                return rs.getLong("RowVersion");
+            }
+        }
+    }
+
+    /**
+     * Cập nhật ghi chú nếu trên server vẫn là phiên bản expectedVersion
+     *
+     * @return Rowversion mới, hoặc 0 nếu server đã đổi / xóa ghi chú (xung đột)
+     */
+    public long updateIfUnchanged(Connection conn, Note note, long expectedVersion) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SYNC_UPDATE)) {
+            bindCategory(ps, 1, note);
+            ps.setString(2, note.getTitle() != null ? note.getTitle() : "");
+            ps.setString(3, note.getContent());
+            ContentCodec.bind(ps, 4, 5, note.getHtmlContent());
+            ps.setString(6, note.getSummary());
+            ps.setString(7, note.getStatus() != null ? note.getStatus() : "REGULAR");
+            ps.setBoolean(8, note.isFavorite());
+            ps.setBoolean(9, note.isArchived());
+            ps.setString(10, note.getColor() != null ? note.getColor() : "#ffffff");
+            ps.setInt(11, note.getId());
+            ps.setInt(12, note.getUserId());
+            ps.setLong(13, expectedVersion);
+            try (ResultSet rs = NoteVersionDAO.firstResultSet(ps)) {
+                return rs != null && rs.next() ? rs.getLong("RowVersion") : 0;
+            }
+        }
+    }
+
+    /**
+     * Xóa ghi chú nếu trên server vẫn là phiên bản expectedVersion
+     *
+     * @return false nếu server đã đổi / xóa ghi chú
+     */
+    public boolean deleteIfUnchanged(Connection conn, int noteId, int userId, long expectedVersion)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SYNC_DELETE)) {
+            ps.setInt(1, noteId);
+            ps.setInt(2, userId);
+            ps.setLong(3, expectedVersion);
+            try (ResultSet rs = NoteVersionDAO.firstResultSet(ps)) {
+                return rs != null && rs.next() && rs.getInt("Affected") > 0;
+            }
+        }
+    }
+
+    /**
+     * XACT_STATE() của transaction hiện tại trên kết nối
+     *
+     * @return 1 = còn dùng được, -1 = doomed (chỉ rollback được), 0 = không có transaction
+     */
+    public int transactionState(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_XACT_STATE);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void bindCategory(PreparedStatement ps, int index, Note note) throws SQLException {
+        if (note.getCategoryId() == null || note.getCategoryId() <= 0) {
+            ps.setNull(index, java.sql.Types.INTEGER);
+        } else {
+            ps.setInt(index, note.getCategoryId());
+        }
+    }
+
+    private static Row mapSyncRow(ResultSet rs) throws SQLException {
+        Note note = new Note();
+        note.setId(rs.getInt("NoteID"));
+        note.setUserId(rs.getInt("UserID"));
+        note.setTitle(rs.getString("Title"));
+        note.setContent(rs.getString("Content"));
+
+        // Load HTML content nếu có (nội dung lớn nằm ở cột nén)
+        String htmlContent = rs.getString("HtmlContent");
+        byte[] compressedHtml = rs.getBytes("HtmlContentCompressed");
+        if (htmlContent != null && !htmlContent.isEmpty()) {
+            note.setHtmlContent(htmlContent);
+        } else if (compressedHtml != null) {
+            note.setHtmlContent(ContentCodec.decompress(compressedHtml));
+        }
+
+        int catId = rs.getInt("CategoryID");
+        if (rs.wasNull()) {
+            catId = 0;
+        }
+        note.setCategoryId(catId);
+
+        String status = rs.getString("Status");
+        note.setStatus(status != null ? status : "REGULAR");
+        note.setSummary(rs.getString("Summary"));
+        note.setFavorite(rs.getBoolean("IsFavorite"));
+        note.setArchived(rs.getBoolean("IsArchived"));
+        note.setColor(rs.getString("Color"));
+        note.setViewCount(rs.getInt("ViewCount"));
+
+        Timestamp created = rs.getTimestamp("CreatedAt");
+        if (created != null) {
+            note.setCreatedAt(created.toLocalDateTime());
+        }
+        Timestamp updated = rs.getTimestamp("UpdatedAt");
+        if (updated != null) {
+            note.setUpdatedAt(updated.toLocalDateTime());
+        }
+        return new Row(note, rs.getLong("RowVersion"));
+    }
+
+    /**
+     * Một dòng Notes kèm rowversion
+     */
+    public static final class Row {
+        public final Note note;
+        public final long version;
+
+        Row(Note note, long version) {
+            this.note = note;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Kết quả pull: các dòng đổi và token cho lần pull sau
+     */
+    public static final class Changes {
+        public final List<Row> rows;
+        public final long token;
+
+        Changes(List<Row> rows, long token) {
+            this.rows = rows;
+            this.token = token;
+        }
+    }
+}
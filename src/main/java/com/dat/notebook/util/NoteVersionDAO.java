@@ -2,131 +2,348 @@ package com.dat.notebook.util;
 
 import com.dat.notebook.model.NoteVersion;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Data Access Object cho NoteVersion
  * Quản lý version history của ghi chú
  * 
+ * Nội dung version nằm trong bảng VersionBlobs (content-addressed):
+ * - Khóa bởi SHA-256 của HTML => nội dung giống nhau (rollback, lưu không
+ *   thay đổi, ghi chú trùng) chỉ được ghi MỘT lần, version chỉ tham chiếu
+ * - Blob là keyframe (Body đầy đủ, nén bằng {@link ContentCodec} nếu lớn) hoặc delta (xem {@link VersionDelta})
+ *   so với keyframe; sau KEYFRAME_INTERVAL blob, hoặc khi delta không nhỏ hơn
+ *   một nửa nội dung, một keyframe mới được ghi
+ * - Dựng lại một version chỉ cần 1 keyframe + 1 delta (một câu SELECT)
+ * - RefCount do trigger trg_NoteVersions_BlobRefs duy trì; blob không còn
+ *   tham chiếu được sp_CollectVersionBlobs dọn
+ * Dòng cũ (BlobID IS NULL, kiểu V007 hoặc đầy đủ) vẫn đọc được và được
+ * {@link #convertLegacyVersions(int)} chuyển dần sang blob.
+ * 
  * @author SmartNotebook Team
- * @version 1.0
+ * @version 1.2
  */
 public class NoteVersionDAO {
+
+    private static final AppLogger LOG = AppLogger.getLogger(NoteVersionDAO.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    
+    // ==================== STORAGE ====================
+    
+    /** Số version tối đa trong một nhóm keyframe (1 keyframe + 15 delta) */
+    static final int KEYFRAME_INTERVAL = 16;
+    
+    static final int STORAGE_FULL = 0;
+    static final int STORAGE_DELTA = 1;
+    
+    /** Cột cần để dựng HTML của version (xem readHtml) */
+    private static final String SQL_BODY_COLUMNS =
+        "v.HtmlContent, v.StorageKind, v.DeltaContent, bv.HtmlContent AS BaseHtmlContent, " +
+        "v.BlobID, b.StorageKind AS BlobKind, b.Body AS BlobBody, b.BodyCompressed AS BlobBodyCompressed, " +
+        "b.DeltaContent AS BlobDelta, kb.Body AS BlobBaseBody, kb.BodyCompressed AS BlobBaseBodyCompressed ";
+    
+    private static final String SQL_BODY_FROM =
+        "FROM NoteVersions v " +
+        "LEFT JOIN NoteVersions bv ON bv.VersionID = v.BaseVersionID " +
+        "LEFT JOIN VersionBlobs b ON b.BlobID = v.BlobID " +
+        "LEFT JOIN VersionBlobs kb ON kb.BlobID = b.BaseBlobID ";
+    
+    private static final String SQL_FULL_COLUMNS =
+        "v.VersionID, v.NoteID, v.Title, v.PlainTextContent, v.VersionNumber, v.CreatedAt, " +
+        "v.CreatedBy, v.ChangeDescription, u.username AS CreatedByUsername, " + SQL_BODY_COLUMNS;
+    
+    private static final String SQL_FULL_FROM =
+        SQL_BODY_FROM + "LEFT JOIN [User] u ON v.CreatedBy = u.user_id ";
+    
+    /** Chỉ cột có trong IX_NoteVersions_Note_Version (không đọc nội dung) */
+    private static final String SQL_SUMMARY_COLUMNS =
+        "v.VersionID, v.NoteID, v.Title, v.VersionNumber, v.CreatedAt, v.CreatedBy, " +
+        "v.ChangeDescription, u.username AS CreatedByUsername, v.ContentLength ";
+    
+    /**
+     * Đọc bộ đếm Notes.LastVersionNumber và version mới nhất (hash để bỏ qua
+     * bản trùng), giữ khóa U trên dòng Notes tới hết transaction - một round
+     * trip, không ghi gì nên bản trùng không đổi RowVer của Notes.
+     * Không có dòng nếu ghi chú không tồn tại.
+     */
+    private static final String SQL_LOCK_LATEST_VERSION =
+        "SELECT n.LastVersionNumber, v.VersionID, v.VersionNumber, v.Title, v.CreatedAt, v.BlobID, " +
+        "       b.ContentHash, b.StorageKind AS BlobKind, b.BaseBlobID " +
+        "FROM Notes n WITH (UPDLOCK, ROWLOCK) " +
+        "OUTER APPLY (SELECT TOP 1 VersionID, VersionNumber, Title, CreatedAt, BlobID FROM NoteVersions " +
+        "             WHERE NoteID = n.NoteID ORDER BY VersionNumber DESC) v " +
+        "LEFT JOIN VersionBlobs b ON b.BlobID = v.BlobID " +
+        "WHERE n.NoteID = ?";
+    
+    /** Cấp số version - chỉ chạy khi thật sự insert version (dòng Notes đang bị khóa U) */
+    private static final String SQL_RESERVE_VERSION =
+        "UPDATE Notes SET LastVersionNumber = ? WHERE NoteID = ?";
+    
+    /**
+     * Blob vừa lưu/tìm thấy và keyframe mà blob kế tiếp nên delta theo
+     */
+    private static final class StoredBlob {
+        final int blobId;
+        final int keyframeBlobId;
+        
+        StoredBlob(int blobId, int keyframeBlobId) {
+            this.blobId = blobId;
+            this.keyframeBlobId = keyframeBlobId;
+        }
+    }
     
     // ==================== CREATE ====================
     
     /**
      * Tạo version mới cho ghi chú
-     * Sử dụng stored procedure sp_CreateNoteVersion
+     * Giống sp_CreateNoteVersion: version chính thức thay thế các bản auto-save
+     * của người tạo, nhưng nội dung được lưu trong VersionBlobs
      * 
      * @param version NoteVersion cần tạo
      * @return true nếu thành công
      */
     public boolean createVersion(NoteVersion version) {
-        String sql = "{CALL sp_CreateNoteVersion(?, ?, ?, ?, ?)}";
-        
-        try (Connection conn = DBConnection.getConnection();
-             CallableStatement cs = conn.prepareCall(sql)) {
-            
-            cs.setInt(1, version.getNoteId());
-            cs.setString(2, version.getTitle());
-            cs.setString(3, version.getHtmlContent());
-            
-            if (version.getCreatedBy() != null) {
-                cs.setInt(4, version.getCreatedBy());
-            } else {
-                cs.setNull(4, Types.INTEGER);
-            }
-            
-            if (version.getChangeDescription() != null) {
-                cs.setString(5, version.getChangeDescription());
-            } else {
-                cs.setNull(5, Types.NVARCHAR);
-            }
-            
-            // Execute và lấy kết quả
-            try (ResultSet rs = cs.executeQuery()) {
-                if (rs.next()) {
-                    version.setVersionId(rs.getInt("NewVersionID"));
-                    version.setVersionNumber(rs.getInt("VersionNumber"));
-                    version.setCreatedAt(LocalDateTime.now());
+        return METRICS.timedDb("noteVersionDAO.createVersion", () -> {
+            try (Connection conn = DBConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    insertVersion(conn, version);
+                
+                    if (version.getCreatedBy() != null) {
+                        try (PreparedStatement ps = conn.prepareStatement(
+                                "DELETE FROM AutoSaveSnapshots WHERE NoteID = ? AND UserID = ?")) {
+                            ps.setInt(1, version.getNoteId());
+                            ps.setInt(2, version.getCreatedBy());
+                            ps.executeUpdate();
+                        }
+                    }
+                
+                    conn.commit();
                     return true;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
                 }
+            } catch (SQLException e) {
+                LOG.error("Error creating note version: " + e.getMessage());
+                return false;
             }
-            
-            return false;
-            
-        } catch (SQLException e) {
-            System.err.println("Error creating note version: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        });
     }
     
     /**
-     * Insert version thủ công (không dùng stored procedure)
+     * Insert version thủ công (không xóa auto-save snapshots)
      * Dùng khi cần control chi tiết hơn
      */
     public boolean insertVersion(NoteVersion version) {
+        return METRICS.timedDb("noteVersionDAO.insertVersion", () -> {
+            try (Connection conn = DBConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    insertVersion(conn, version);
+                    conn.commit();
+                    return true;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                LOG.error("Error inserting version: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+    
+    /**
+     * Ghi version trong transaction của caller.
+     * Đọc version mới nhất dưới khóa U trên dòng Notes (giữ tới hết
+     * transaction) nên bản trùng / keyframe / số version được chọn nhất quán
+     * khi nhiều lần lưu cùng ghi chú chạy đồng thời. Bản trùng trả về ngay,
+     * không ghi Notes; chỉ khi insert mới tăng Notes.LastVersionNumber.
+     * 
+     * @return false nếu bỏ qua vì tiêu đề + nội dung trùng version mới nhất
+     *         (version được gán thông tin của version mới nhất đó)
+     */
+    private boolean insertVersion(Connection conn, NoteVersion version) throws SQLException {
+        String html = version.getHtmlContent() != null ? version.getHtmlContent() : "";
+        byte[] hash = contentHash(html);
+        
+        // Khóa dòng Notes + đọc version mới nhất (keyframe hiện tại, hash để bỏ qua bản trùng)
+        int nextVersion;
+        Integer keyframeBlobId = null;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_LOCK_LATEST_VERSION)) {
+            ps.setInt(1, version.getNoteId());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Ghi chú không tồn tại: " + version.getNoteId());
+                }
+                nextVersion = rs.getInt("LastVersionNumber") + 1;
+                if (rs.getObject("BlobID") != null) {
+                    if (Arrays.equals(hash, rs.getBytes("ContentHash"))
+                            && Objects.equals(version.getTitle(), rs.getString("Title"))) {
+                        version.setVersionId(rs.getInt("VersionID"));
+                        version.setVersionNumber(rs.getInt("VersionNumber"));
+                        version.setCreatedAt(rs.getTimestamp("CreatedAt").toLocalDateTime());
+                        return false;
+                    }
+                    keyframeBlobId = rs.getInt("BlobKind") == STORAGE_DELTA
+                        ? rs.getInt("BaseBlobID") : rs.getInt("BlobID");
+                }
+            }
+        }
+        
+        try (PreparedStatement ps = conn.prepareStatement(SQL_RESERVE_VERSION)) {
+            ps.setInt(1, nextVersion);
+            ps.setInt(2, version.getNoteId());
+            ps.executeUpdate();
+        }
+        
+        StoredBlob blob = storeBlob(conn, html, hash, keyframeBlobId);
+        
         String sql = "INSERT INTO NoteVersions " +
-                     "(NoteID, Title, HtmlContent, PlainTextContent, VersionNumber, " +
-                     "CreatedAt, CreatedBy, ChangeDescription) " +
-                     "VALUES (?, ?, ?, ?, ?, GETDATE(), ?, ?)";
+                     "(NoteID, Title, VersionNumber, CreatedAt, CreatedBy, ChangeDescription, " +
+                     "BlobID, ContentLength) " +
+                     "VALUES (?, ?, ?, GETDATE(), ?, ?, ?, ?)";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, version.getNoteId());
             ps.setString(2, version.getTitle());
-            ps.setString(3, version.getHtmlContent());
-            
-            // Generate plain text nếu chưa có
-            String plainText = version.getPlainTextContent();
-            if (plainText == null || plainText.isEmpty()) {
-                version.generatePlainText();
-                plainText = version.getPlainTextContent();
-            }
-            ps.setString(4, plainText);
-            
-            // Get next version number
-            int nextVersion = getNextVersionNumber(version.getNoteId());
-            ps.setInt(5, nextVersion);
+            ps.setInt(3, nextVersion);
             
             if (version.getCreatedBy() != null) {
-                ps.setInt(6, version.getCreatedBy());
+                ps.setInt(4, version.getCreatedBy());
             } else {
-                ps.setNull(6, Types.INTEGER);
+                ps.setNull(4, Types.INTEGER);
             }
             
             if (version.getChangeDescription() != null) {
-                ps.setString(7, version.getChangeDescription());
+                ps.setString(5, version.getChangeDescription());
             } else {
-                ps.setNull(7, Types.NVARCHAR);
+                ps.setNull(5, Types.NVARCHAR);
             }
             
-            int affected = ps.executeUpdate();
+            ps.setInt(6, blob.blobId);
+            ps.setInt(7, html.length());
+            
+            ps.executeUpdate();
             
-            if (affected > 0) {
-                try (ResultSet keys = ps.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        version.setVersionId(keys.getInt(1));
-                        version.setVersionNumber(nextVersion);
-                        version.setCreatedAt(LocalDateTime.now());
-                        return true;
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("Không lấy được VersionID mới");
+                }
+                version.setVersionId(keys.getInt(1));
+                version.setVersionNumber(nextVersion);
+                version.setCreatedAt(LocalDateTime.now());
+            }
+        }
+        
+        if (version.getPlainTextContent() == null || version.getPlainTextContent().isEmpty()) {
+            version.generatePlainText();
+        }
+        return true;
+    }
+    
+    /**
+     * Result set đầu tiên của một batch nhiều câu lệnh (bỏ qua update count)
+     * 
+     * @return ResultSet hoặc null nếu batch không trả về result set nào
+     */
+    static ResultSet firstResultSet(PreparedStatement ps) throws SQLException {
+        boolean isResultSet = ps.execute();
+        while (true) {
+            if (isResultSet) {
+                return ps.getResultSet();
+            }
+            if (ps.getUpdateCount() == -1) {
+                return null;
+            }
+            isResultSet = ps.getMoreResults();
+        }
+    }
+    
+    /**
+     * Tìm blob theo hash hoặc tạo blob mới (delta theo keyframeBlobId nếu có lợi).
+     * RefCount của phía NoteVersions do trigger tăng khi version được insert;
+     * ở đây chỉ tăng tham chiếu delta -> keyframe.
+     */
+    private StoredBlob storeBlob(Connection conn, String html, byte[] hash, Integer keyframeBlobId)
+            throws SQLException {
+        String sqlFind = "SELECT BlobID, StorageKind, BaseBlobID FROM VersionBlobs WITH (UPDLOCK, HOLDLOCK) " +
+                         "WHERE ContentHash = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sqlFind)) {
+            ps.setBytes(1, hash);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    int blobId = rs.getInt("BlobID");
+                    return new StoredBlob(blobId,
+                        rs.getInt("StorageKind") == STORAGE_DELTA ? rs.getInt("BaseBlobID") : blobId);
+                }
+            }
+        }
+        
+        byte[] delta = null;
+        if (keyframeBlobId != null) {
+            String sqlKeyframe = "SELECT k.Body, k.BodyCompressed, " +
+                                 "(SELECT COUNT(*) FROM VersionBlobs d WHERE d.BaseBlobID = k.BlobID) AS DeltaCount " +
+                                 "FROM VersionBlobs k WHERE k.BlobID = ? AND k.StorageKind = 0";
+            try (PreparedStatement ps = conn.prepareStatement(sqlKeyframe)) {
+                ps.setInt(1, keyframeBlobId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getInt("DeltaCount") < KEYFRAME_INTERVAL - 1) {
+                        delta = encodeIfSmaller(readBody(rs, "Body", "BodyCompressed"), html);
                     }
                 }
             }
+        }
+        
+        String sqlInsert = "INSERT INTO VersionBlobs (ContentHash, StorageKind, BaseBlobID, Body, BodyCompressed, " +
+                           "DeltaContent, ContentLength, RefCount) VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+        int blobId;
+        try (PreparedStatement ps = conn.prepareStatement(sqlInsert, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setBytes(1, hash);
+            if (delta != null) {
+                ps.setInt(2, STORAGE_DELTA);
+                ps.setInt(3, keyframeBlobId);
+                ps.setNull(4, Types.NVARCHAR);
+                ps.setNull(5, Types.VARBINARY);
+                ps.setBytes(6, delta);
+            } else {
+                ps.setInt(2, STORAGE_FULL);
+                ps.setNull(3, Types.INTEGER);
+                ContentCodec.bind(ps, 4, 5, html);
+                ps.setNull(6, Types.VARBINARY);
+            }
+            ps.setInt(7, html.length());
+            ps.executeUpdate();
             
-            return false;
-            
-        } catch (SQLException e) {
-            System.err.println("Error inserting version: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("Không lấy được BlobID mới");
+                }
+                blobId = keys.getInt(1);
+            }
         }
+        
+        if (delta == null) {
+            return new StoredBlob(blobId, blobId);
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE VersionBlobs SET RefCount = RefCount + 1 WHERE BlobID = ?")) {
+            ps.setInt(1, keyframeBlobId);
+            ps.executeUpdate();
+        }
+        return new StoredBlob(blobId, keyframeBlobId);
     }
     
     // ==================== READ ====================
@@ -149,28 +366,29 @@ public class NoteVersionDAO {
      * @return Danh sách versions
      */
     public List<NoteVersion> getVersionsByNoteId(int noteId, int maxVersions) {
-        String sql = "{CALL sp_GetNoteVersionHistory(?, ?)}";
-        List<NoteVersion> versions = new ArrayList<>();
+        return METRICS.timedDb("noteVersionDAO.getVersionsByNoteId", () -> {
+            String sql = "{CALL sp_GetNoteVersionHistory(?, ?)}";
+            List<NoteVersion> versions = new ArrayList<>();
         
-        try (Connection conn = DBConnection.getConnection();
-             CallableStatement cs = conn.prepareCall(sql)) {
+            try (Connection conn = DBConnection.getConnection();
+                 CallableStatement cs = conn.prepareCall(sql)) {
             
-            cs.setInt(1, noteId);
-            cs.setInt(2, maxVersions);
+                cs.setInt(1, noteId);
+                cs.setInt(2, maxVersions);
             
-            try (ResultSet rs = cs.executeQuery()) {
-                while (rs.next()) {
-                    NoteVersion version = mapRowSummary(rs);
-                    versions.add(version);
+                try (ResultSet rs = cs.executeQuery()) {
+                    while (rs.next()) {
+                        NoteVersion version = mapRowSummary(rs);
+                        versions.add(version);
+                    }
                 }
-            }
             
-        } catch (SQLException e) {
-            System.err.println("Error getting version history: " + e.getMessage());
-            e.printStackTrace();
-        }
+            } catch (SQLException e) {
+                LOG.error("Error getting version history: " + e.getMessage(), e);
+            }
         
-        return versions;
+            return versions;
+        });
     }
     
     /**
@@ -181,30 +399,27 @@ public class NoteVersionDAO {
      * @return NoteVersion hoặc null
      */
     public NoteVersion getVersionById(int versionId) {
-        String sql = "SELECT v.VersionID, v.NoteID, v.Title, v.HtmlContent, " +
-                     "v.PlainTextContent, v.VersionNumber, v.CreatedAt, " +
-                     "v.CreatedBy, v.ChangeDescription, u.Username AS CreatedByUsername " +
-                     "FROM NoteVersions v " +
-                     "LEFT JOIN Users u ON v.CreatedBy = u.UserID " +
-                     "WHERE v.VersionID = ?";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        return METRICS.timedDb("noteVersionDAO.getVersionById", () -> {
+            String sql = "SELECT " + SQL_FULL_COLUMNS + SQL_FULL_FROM +
+                         "WHERE v.VersionID = ?";
+        
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
             
-            ps.setInt(1, versionId);
+                ps.setInt(1, versionId);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return mapRowFull(rs);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return mapRowFull(rs);
+                    }
                 }
-            }
             
-        } catch (SQLException e) {
-            System.err.println("Error getting version by ID: " + e.getMessage());
-            e.printStackTrace();
-        }
+            } catch (SQLException e) {
+                LOG.error("Error getting version by ID: " + e.getMessage(), e);
+            }
         
-        return null;
+            return null;
+        });
     }
     
     /**
@@ -214,31 +429,107 @@ public class NoteVersionDAO {
      * @return NoteVersion mới nhất hoặc null
      */
     public NoteVersion getLatestVersion(int noteId) {
-        String sql = "SELECT TOP 1 v.VersionID, v.NoteID, v.Title, v.HtmlContent, " +
-                     "v.PlainTextContent, v.VersionNumber, v.CreatedAt, " +
-                     "v.CreatedBy, v.ChangeDescription, u.Username AS CreatedByUsername " +
-                     "FROM NoteVersions v " +
-                     "LEFT JOIN Users u ON v.CreatedBy = u.UserID " +
-                     "WHERE v.NoteID = ? " +
-                     "ORDER BY v.VersionNumber DESC";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        return METRICS.timedDb("noteVersionDAO.getLatestVersion", () -> {
+            String sql = "SELECT TOP 1 " + SQL_FULL_COLUMNS + SQL_FULL_FROM +
+                         "WHERE v.NoteID = ? " +
+                         "ORDER BY v.VersionNumber DESC";
+        
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
             
-            ps.setInt(1, noteId);
+                ps.setInt(1, noteId);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return mapRowFull(rs);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return mapRowFull(rs);
+                    }
                 }
+            
+            } catch (SQLException e) {
+                LOG.error("Error getting latest version: " + e.getMessage(), e);
             }
+        
+            return null;
+        });
+    }
+    
+    /**
+     * Lấy một trang version dạng tóm tắt (không có nội dung), phân trang keyset:
+     * trang sau bắt đầu ngay sau version cuối của trang trước, nên chi phí
+     * mỗi trang không phụ thuộc vào vị trí trong lịch sử
+     * 
+     * @param noteId ID của ghi chú
+     * @param after Version cuối của trang trước (null = trang đầu, mới nhất)
+     * @param pageSize Số version mỗi trang
+     * @return Danh sách versions, mới nhất trước
+     */
+    public List<NoteVersion> getVersionSummaries(int noteId, NoteVersion after, int pageSize) {
+        return METRICS.timedDb("noteVersionDAO.getVersionSummaries", () -> {
+            String sql = "SELECT TOP (?) " + SQL_SUMMARY_COLUMNS +
+                         "FROM NoteVersions v " +
+                         "LEFT JOIN [User] u ON v.CreatedBy = u.user_id " +
+                         "WHERE v.NoteID = ? AND (v.VersionNumber < ? " +
+                         "OR (v.VersionNumber = ? AND v.VersionID < ?)) " +
+                         "ORDER BY v.VersionNumber DESC, v.VersionID DESC";
+            List<NoteVersion> versions = new ArrayList<>();
+            int afterNumber = after != null ? after.getVersionNumber() : Integer.MAX_VALUE;
+            int afterId = after != null ? after.getVersionId() : Integer.MAX_VALUE;
+        
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
             
-        } catch (SQLException e) {
-            System.err.println("Error getting latest version: " + e.getMessage());
-            e.printStackTrace();
-        }
+                ps.setInt(1, pageSize);
+                ps.setInt(2, noteId);
+                ps.setInt(3, afterNumber);
+                ps.setInt(4, afterNumber);
+                ps.setInt(5, afterId);
+            
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        NoteVersion version = mapRowSummary(rs);
+                        int length = rs.getInt("ContentLength");
+                        if (!rs.wasNull()) {
+                            version.setContentLength(length);
+                        }
+                        versions.add(version);
+                    }
+                }
+            
+            } catch (SQLException e) {
+                LOG.error("Error getting version page: " + e.getMessage());
+            }
+        
+            return versions;
+        });
+    }
+    
+    /**
+     * Lấy riêng nội dung HTML của một version (dùng cùng getVersionSummaries)
+     * 
+     * @param versionId ID của version
+     * @return HTML hoặc null nếu không tìm thấy
+     */
+    public String getVersionHtml(int versionId) {
+        return METRICS.timedDb("noteVersionDAO.getVersionHtml", () -> {
+            String sql = "SELECT " + SQL_BODY_COLUMNS + SQL_BODY_FROM + "WHERE v.VersionID = ?";
+        
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+            
+                ps.setInt(1, versionId);
+            
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return readHtml(rs, versionId);
+                    }
+                }
+            
+            } catch (SQLException e) {
+                LOG.error("Error getting version content: " + e.getMessage());
+            }
         
-        return null;
+            return null;
+        });
     }
     
     /**
@@ -248,24 +539,26 @@ public class NoteVersionDAO {
      * @return Số lượng versions
      */
     public int getVersionCount(int noteId) {
-        String sql = "SELECT COUNT(*) FROM NoteVersions WHERE NoteID = ?";
+        return METRICS.timedDb("noteVersionDAO.getVersionCount", () -> {
+            String sql = "SELECT COUNT(*) FROM NoteVersions WHERE NoteID = ?";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
             
-            ps.setInt(1, noteId);
+                ps.setInt(1, noteId);
             
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
                 }
-            }
             
-        } catch (SQLException e) {
-            System.err.println("Error counting versions: " + e.getMessage());
-        }
+            } catch (SQLException e) {
+                LOG.error("Error counting versions: " + e.getMessage());
+            }
         
-        return 0;
+            return 0;
+        });
     }
     
     // ==================== DELETE ====================
@@ -273,23 +566,30 @@ public class NoteVersionDAO {
     /**
      * Xóa một version cụ thể
      * CẢNH BÁO: Không nên xóa version history trừ khi thực sự cần
+     * Nếu version là keyframe, các delta phụ thuộc được chuyển sang keyframe mới trước
      * 
      * @param versionId ID của version
      * @return true nếu xóa thành công
      */
     public boolean deleteVersion(int versionId) {
-        String sql = "DELETE FROM NoteVersions WHERE VersionID = ?";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            
-            ps.setInt(1, versionId);
-            return ps.executeUpdate() > 0;
-            
-        } catch (SQLException e) {
-            System.err.println("Error deleting version: " + e.getMessage());
-            return false;
-        }
+        return METRICS.timedDb("noteVersionDAO.deleteVersion", () -> {
+            try (Connection conn = DBConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    Set<Integer> doomed = Set.of(versionId);
+                    rebaseDependents(conn, versionId, doomed);
+                    int deleted = deleteByIds(conn, doomed);
+                    conn.commit();
+                    return deleted > 0;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                LOG.error("Error deleting version: " + e.getMessage());
+                return false;
+            }
+        });
     }
     
     /**
@@ -300,18 +600,20 @@ public class NoteVersionDAO {
      * @return Số lượng versions đã xóa
      */
     public int deleteVersionsByNoteId(int noteId) {
-        String sql = "DELETE FROM NoteVersions WHERE NoteID = ?";
+        return METRICS.timedDb("noteVersionDAO.deleteVersionsByNoteId", () -> {
+            String sql = "DELETE FROM NoteVersions WHERE NoteID = ?";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
             
-            ps.setInt(1, noteId);
-            return ps.executeUpdate();
+                ps.setInt(1, noteId);
+                return ps.executeUpdate();
             
-        } catch (SQLException e) {
-            System.err.println("Error deleting versions: " + e.getMessage());
-            return 0;
-        }
+            } catch (SQLException e) {
+                LOG.error("Error deleting versions: " + e.getMessage());
+                return 0;
+            }
+        });
     }
     
     /**
@@ -323,34 +625,112 @@ public class NoteVersionDAO {
      * @return Số lượng versions đã xóa
      */
     public int keepLatestVersions(int noteId, int keepCount) {
-        String sql = "DELETE FROM NoteVersions " +
-                     "WHERE NoteID = ? AND VersionID NOT IN (" +
-                     "  SELECT TOP (?) VersionID " +
-                     "  FROM NoteVersions " +
-                     "  WHERE NoteID = ? " +
-                     "  ORDER BY VersionNumber DESC" +
-                     ")";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            
-            ps.setInt(1, noteId);
-            ps.setInt(2, keepCount);
-            ps.setInt(3, noteId);
-            
-            return ps.executeUpdate();
-            
-        } catch (SQLException e) {
-            System.err.println("Error cleanup versions: " + e.getMessage());
-            return 0;
-        }
+        return METRICS.timedDb("noteVersionDAO.keepLatestVersions", () -> {
+            String sql = "SELECT VersionID, StorageKind FROM NoteVersions " +
+                         "WHERE NoteID = ? ORDER BY VersionNumber DESC " +
+                         "OFFSET ? ROWS";
+        
+            try (Connection conn = DBConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    Set<Integer> doomed = new HashSet<>();
+                    List<Integer> doomedKeyframes = new ArrayList<>();
+                    try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                        ps.setInt(1, noteId);
+                        ps.setInt(2, keepCount);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                doomed.add(rs.getInt("VersionID"));
+                                if (rs.getInt("StorageKind") == STORAGE_FULL) {
+                                    doomedKeyframes.add(rs.getInt("VersionID"));
+                                }
+                            }
+                        }
+                    }
+                
+                    for (int keyframeId : doomedKeyframes) {
+                        rebaseDependents(conn, keyframeId, doomed);
+                    }
+                    int deleted = deleteByIds(conn, doomed);
+                    conn.commit();
+                    return deleted;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                LOG.error("Error cleanup versions: " + e.getMessage());
+                return 0;
+            }
+        });
     }
-    
+
+    /**
+     * Xóa một tập version của ghi chú (dùng bởi {@link VersionRetentionJob})
+     * Dòng kiểu cũ được rebase như {@link #deleteVersion(int)}; dòng dùng blob
+     * chỉ giảm RefCount - byte của blob được giải phóng bởi {@link #collectGarbage()}
+     *
+     * @param noteId ID của ghi chú
+     * @param versionIds VersionID cần xóa (phải thuộc noteId)
+     * @return {số version đã xóa, số byte nội dung kiểu cũ đã xóa}
+     */
+    public long[] pruneVersions(int noteId, Set<Integer> versionIds) {
+        return METRICS.timedDb("noteVersionDAO.pruneVersions", () -> {
+            String sql = "SELECT VersionID, StorageKind, " +
+                         "CASE WHEN BlobID IS NULL THEN ISNULL(DATALENGTH(HtmlContent), 0) " +
+                         "+ ISNULL(DATALENGTH(PlainTextContent), 0) + ISNULL(DATALENGTH(DeltaContent), 0) " +
+                         "ELSE 0 END AS LegacyBytes " +
+                         "FROM NoteVersions WHERE NoteID = ?";
+
+            if (versionIds.isEmpty()) {
+                return new long[] {0, 0};
+            }
+            try (Connection conn = DBConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    Set<Integer> doomed = new HashSet<>();
+                    List<Integer> doomedKeyframes = new ArrayList<>();
+                    long legacyBytes = 0;
+                    try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                        ps.setInt(1, noteId);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                int id = rs.getInt("VersionID");
+                                if (!versionIds.contains(id)) {
+                                    continue;
+                                }
+                                doomed.add(id);
+                                legacyBytes += rs.getLong("LegacyBytes");
+                                if (rs.getInt("StorageKind") == STORAGE_FULL) {
+                                    doomedKeyframes.add(id);
+                                }
+                            }
+                        }
+                    }
+
+                    for (int keyframeId : doomedKeyframes) {
+                        rebaseDependents(conn, keyframeId, doomed);
+                    }
+                    int deleted = deleteByIds(conn, doomed);
+                    conn.commit();
+                    return new long[] {deleted, legacyBytes};
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                LOG.error("Error pruning versions: " + e.getMessage());
+                return new long[] {0, 0};
+            }
+        });
+    }
+
     // ==================== ROLLBACK ====================
     
     /**
      * Rollback note về một version cụ thể
-     * Sử dụng stored procedure sp_RollbackToVersion
+     * Nội dung version được dựng lại ở Java (delta không giải mã được trong SQL),
+     * sau đó cập nhật note và ghi version "Rolled back" trong cùng transaction
      * 
      * @param noteId ID của ghi chú
      * @param versionId ID của version muốn rollback
@@ -358,49 +738,298 @@ public class NoteVersionDAO {
      * @return true nếu thành công
      */
     public boolean rollbackToVersion(int noteId, int versionId, int userId) {
-        String sql = "{CALL sp_RollbackToVersion(?, ?, ?)}";
+        return METRICS.timedDb("noteVersionDAO.rollbackToVersion", () -> {
+            NoteVersion target = getVersionById(versionId);
+            if (target == null || target.getNoteId() != noteId) {
+                LOG.error("Error rolling back to version: Version không tồn tại");
+                return false;
+            }
         
-        try (Connection conn = DBConnection.getConnection();
-             CallableStatement cs = conn.prepareCall(sql)) {
-            
-            cs.setInt(1, noteId);
-            cs.setInt(2, versionId);
-            cs.setInt(3, userId);
+            String sql = "UPDATE Notes SET Title = ?, HtmlContent = ?, Content = ?, UpdatedAt = GETDATE() " +
+                         "WHERE NoteID = ? AND UserID = ?";
+        
+            try (Connection conn = DBConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                        ps.setString(1, target.getTitle());
+                        ps.setString(2, target.getHtmlContent());
+                        ps.setString(3, target.getPlainTextContent());
+                        ps.setInt(4, noteId);
+                        ps.setInt(5, userId);
+                        if (ps.executeUpdate() == 0) {
+                            conn.rollback();
+                            return false;
+                        }
+                    }
+                
+                    NoteVersion rollback = new NoteVersion(noteId, target.getTitle(),
+                            target.getHtmlContent(), 0, userId);
+                    rollback.setChangeDescription("Rolled back to earlier version");
+                    insertVersion(conn, rollback);
+                
+                    conn.commit();
+                    return true;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                LOG.error("Error rolling back to version: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+    
+    // ==================== GARBAGE COLLECTION ====================
+    
+    /**
+     * Xóa các blob không còn được tham chiếu (RefCount = 0)
+     * Sử dụng stored procedure sp_CollectVersionBlobs
+     * 
+     * @return {số blob, số byte} đã giải phóng
+     */
+    public long[] collectGarbage() {
+        return METRICS.timedDb("noteVersionDAO.collectGarbage", () -> {
+            String sql = "{CALL sp_CollectVersionBlobs(?)}";
+        
+            try (Connection conn = DBConnection.getConnection();
+                 CallableStatement cs = conn.prepareCall(sql)) {
             
-            cs.execute();
-            return true;
+                cs.setInt(1, 500);
+                try (ResultSet rs = cs.executeQuery()) {
+                    if (rs.next()) {
+                        return new long[] {rs.getLong("FreedBlobs"), rs.getLong("FreedBytes")};
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error collecting version blobs: " + e.getMessage());
+            }
+            return new long[] {0, 0};
+        });
+    }
+    
+    // ==================== LEGACY CONVERSION ====================
+    
+    /**
+     * Chuyển các version lưu kiểu cũ (BlobID IS NULL: nội dung đầy đủ hoặc
+     * delta V007) sang VersionBlobs. Chạy nền theo lô, mỗi note một transaction.
+     * 
+     * @param maxNotes Số note tối đa xử lý trong một lần gọi
+     * @return Số version đã chuyển
+     */
+    public int convertLegacyVersions(int maxNotes) {
+        return METRICS.timedDb("noteVersionDAO.convertLegacyVersions", () -> {
+            String sql = "SELECT DISTINCT TOP (?) NoteID FROM NoteVersions WHERE BlobID IS NULL";
+            List<Integer> noteIds = new ArrayList<>();
+            int converted = 0;
+        
+            try (Connection conn = DBConnection.getConnection()) {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, maxNotes);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            noteIds.add(rs.getInt(1));
+                        }
+                    }
+                }
             
-        } catch (SQLException e) {
-            System.err.println("Error rolling back to version: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+                for (int noteId : noteIds) {
+                    conn.setAutoCommit(false);
+                    try {
+                        converted += convertNote(conn, noteId);
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        LOG.error("Error converting versions of note " + noteId + ": " + e.getMessage());
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.error("Error converting legacy versions: " + e.getMessage());
+            }
+        
+            if (converted > 0) {
+                LOG.info("NoteVersionDAO: Đã chuyển " + converted + " version sang VersionBlobs (" +
+                    noteIds.size() + " ghi chú)");
+            }
+            return converted;
+        });
+    }
+    
+    private int convertNote(Connection conn, int noteId) throws SQLException {
+        // Dựng lại toàn bộ nội dung trước khi sửa (delta V007 cần HtmlContent của keyframe)
+        String sqlVersions = "SELECT v.VersionID, v.StorageKind, v.HtmlContent, v.DeltaContent, " +
+                             "bv.HtmlContent AS BaseHtmlContent " +
+                             "FROM NoteVersions v WITH (UPDLOCK) " +
+                             "LEFT JOIN NoteVersions bv ON bv.VersionID = v.BaseVersionID " +
+                             "WHERE v.NoteID = ? AND v.BlobID IS NULL ORDER BY v.VersionNumber";
+        List<Integer> ids = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sqlVersions)) {
+            ps.setInt(1, noteId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int versionId = rs.getInt("VersionID");
+                    ids.add(versionId);
+                    if (rs.getInt("StorageKind") == STORAGE_DELTA) {
+                        contents.add(decode(versionId, rs.getString("BaseHtmlContent"), rs.getBytes("DeltaContent")));
+                    } else {
+                        contents.add(rs.getString("HtmlContent") != null ? rs.getString("HtmlContent") : "");
+                    }
+                }
+            }
         }
+        
+        String sqlAttach = "UPDATE NoteVersions SET BlobID = ?, ContentLength = ?, StorageKind = 0, " +
+                           "BaseVersionID = NULL, HtmlContent = NULL, PlainTextContent = NULL, DeltaContent = NULL " +
+                           "WHERE VersionID = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sqlAttach)) {
+            Integer keyframeBlobId = null;
+            for (int i = 0; i < ids.size(); i++) {
+                String html = contents.get(i);
+                StoredBlob blob = storeBlob(conn, html, contentHash(html), keyframeBlobId);
+                keyframeBlobId = blob.keyframeBlobId;
+                
+                ps.setInt(1, blob.blobId);
+                ps.setInt(2, html.length());
+                ps.setInt(3, ids.get(i));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        return ids.size();
     }
     
     // ==================== HELPER METHODS ====================
     
     /**
-     * Lấy version number tiếp theo cho note
+     * Tạo delta nếu nó nhỏ hơn một nửa nội dung (UTF-16), ngược lại null
+     * => ghi keyframe
      */
-    private int getNextVersionNumber(int noteId) {
-        String sql = "SELECT ISNULL(MAX(VersionNumber), 0) + 1 FROM NoteVersions WHERE NoteID = ?";
+    private static byte[] encodeIfSmaller(String base, String target) {
+        if (base == null) {
+            return null;
+        }
+        byte[] delta = VersionDelta.encode(base, target);
+        return delta.length < target.length() ? delta : null;
+    }
+    
+    /**
+     * Trước khi xóa một keyframe kiểu V007 (chưa chuyển sang blob): delta đầu
+     * tiên còn sống trở thành keyframe, các delta còn lại được mã hóa lại theo
+     * keyframe mới. Version dùng blob không cần bước này - keyframe blob được
+     * giữ lại bởi RefCount cho tới khi không còn delta nào dùng nó.
+     * 
+     * @param doomed Các VersionID sắp bị xóa cùng lúc (không cần rebase)
+     */
+    private void rebaseDependents(Connection conn, int keyframeId, Set<Integer> doomed) throws SQLException {
+        String baseHtml = null;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT HtmlContent FROM NoteVersions WHERE VersionID = ? AND StorageKind = 0")) {
+            ps.setInt(1, keyframeId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return; // Không phải keyframe => không có delta phụ thuộc
+                }
+                baseHtml = rs.getString(1);
+            }
+        }
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            
-            ps.setInt(1, noteId);
-            
+        List<Integer> ids = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT VersionID, DeltaContent FROM NoteVersions WHERE BaseVersionID = ? ORDER BY VersionNumber")) {
+            ps.setInt(1, keyframeId);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
+                while (rs.next()) {
+                    int id = rs.getInt("VersionID");
+                    if (!doomed.contains(id)) {
+                        ids.add(id);
+                        contents.add(decode(id, baseHtml, rs.getBytes("DeltaContent")));
+                    }
                 }
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error getting next version number: " + e.getMessage());
         }
+        if (ids.isEmpty()) {
+            return;
+        }
+        
+        String sqlToKeyframe = "UPDATE NoteVersions SET StorageKind = 0, BaseVersionID = NULL, DeltaContent = NULL, " +
+                               "HtmlContent = ?, PlainTextContent = ? WHERE VersionID = ?";
+        String sqlRebase = "UPDATE NoteVersions SET BaseVersionID = ?, DeltaContent = ? WHERE VersionID = ?";
         
-        return 1; // Default to version 1
+        try (PreparedStatement toKeyframe = conn.prepareStatement(sqlToKeyframe);
+             PreparedStatement rebase = conn.prepareStatement(sqlRebase)) {
+            
+            int newKeyframeId = ids.get(0);
+            String newKeyframeHtml = contents.get(0);
+            toKeyframe.setString(1, newKeyframeHtml);
+            toKeyframe.setString(2, plainTextOf(newKeyframeHtml));
+            toKeyframe.setInt(3, newKeyframeId);
+            toKeyframe.addBatch();
+            
+            for (int i = 1; i < ids.size(); i++) {
+                byte[] delta = encodeIfSmaller(newKeyframeHtml, contents.get(i));
+                if (delta != null) {
+                    rebase.setInt(1, newKeyframeId);
+                    rebase.setBytes(2, delta);
+                    rebase.setInt(3, ids.get(i));
+                    rebase.addBatch();
+                } else {
+                    toKeyframe.setString(1, contents.get(i));
+                    toKeyframe.setString(2, plainTextOf(contents.get(i)));
+                    toKeyframe.setInt(3, ids.get(i));
+                    toKeyframe.addBatch();
+                }
+            }
+            toKeyframe.executeBatch();
+            rebase.executeBatch();
+        }
+    }
+    
+    private int deleteByIds(Connection conn, Set<Integer> versionIds) throws SQLException {
+        if (versionIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = 0;
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM NoteVersions WHERE VersionID = ?")) {
+            for (int id : versionIds) {
+                ps.setInt(1, id);
+                ps.addBatch();
+            }
+            for (int count : ps.executeBatch()) {
+                deleted += Math.max(count, 0);
+            }
+        }
+        return deleted;
+    }
+    
+    private static String decode(int versionId, String baseHtml, byte[] delta) throws SQLException {
+        try {
+            return VersionDelta.apply(baseHtml, delta);
+        } catch (IllegalStateException e) {
+            throw new SQLException("Version " + versionId + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Đọc Body của keyframe blob (inline hoặc nén bằng ContentCodec)
+     */
+    private static String readBody(ResultSet rs, String inlineColumn, String compressedColumn) throws SQLException {
+        try {
+            return ContentCodec.read(rs.getString(inlineColumn), rs.getBytes(compressedColumn));
+        } catch (IllegalStateException e) {
+            throw new SQLException("Blob: " + e.getMessage(), e);
+        }
+    }
+    
+    private static String plainTextOf(String html) {
+        NoteVersion tmp = new NoteVersion();
+        tmp.setHtmlContent(html);
+        tmp.generatePlainText();
+        return tmp.getPlainTextContent();
     }
     
     /**
@@ -431,11 +1060,43 @@ public class NoteVersionDAO {
     
     /**
      * Map ResultSet sang NoteVersion (Full - bao gồm content đầy đủ)
+     * Nội dung lấy từ blob (keyframe hoặc keyframe + delta), hoặc từ các cột cũ
+     * nếu version chưa được chuyển sang VersionBlobs
      */
     private NoteVersion mapRowFull(ResultSet rs) throws SQLException {
         NoteVersion version = mapRowSummary(rs);
-        version.setHtmlContent(rs.getString("HtmlContent"));
-        version.setPlainTextContent(rs.getString("PlainTextContent"));
+        version.setHtmlContent(readHtml(rs, version.getVersionId()));
+        if (rs.getObject("BlobID") == null && rs.getInt("StorageKind") != STORAGE_DELTA) {
+            version.setPlainTextContent(rs.getString("PlainTextContent"));
+        }
         return version;
     }
+    
+    /**
+     * Dựng HTML của version từ các cột trong SQL_BODY_COLUMNS
+     */
+    private static String readHtml(ResultSet rs, int versionId) throws SQLException {
+        if (rs.getObject("BlobID") != null) {
+            if (rs.getInt("BlobKind") == STORAGE_DELTA) {
+                return decode(versionId,
+                        readBody(rs, "BlobBaseBody", "BlobBaseBodyCompressed"), rs.getBytes("BlobDelta"));
+            }
+            return readBody(rs, "BlobBody", "BlobBodyCompressed");
+        }
+        if (rs.getInt("StorageKind") == STORAGE_DELTA) {
+            return decode(versionId, rs.getString("BaseHtmlContent"), rs.getBytes("DeltaContent"));
+        }
+        return rs.getString("HtmlContent");
+    }
+    
+    /**
+     * SHA-256 của HTML dạng UTF-16LE (trùng với HASHBYTES('SHA2_256', NVARCHAR))
+     */
+    static byte[] contentHash(String html) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(html.getBytes(StandardCharsets.UTF_16LE));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
 }
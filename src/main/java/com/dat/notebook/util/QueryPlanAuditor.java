@@ -0,0 +1,317 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.config.DatabaseConfig;
+import com.dat.notebook.config.MigrationRunner;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * QueryPlanAuditor - Kiểm tra "hình dạng" query plan của mọi hằng SQL_*
+ * trong các repository/DAO.
+ *
+ * Với mỗi câu SELECT/UPDATE/DELETE, tool bật SET SHOWPLAN_XML ON (query KHÔNG
+ * được thực thi), bind tham số giả theo ParameterMetaData rồi phân tích plan:
+ * - SORT    : có toán tử Sort => thiếu index theo đúng thứ tự ORDER BY
+ * - LOOKUP  : Key/RID Lookup lấy cột không nằm trong index
+ *             (lookup chỉ để lấy Content/HtmlContent là chấp nhận được,
+ *             vì các covering index cố ý không INCLUDE cột NVARCHAR(MAX))
+ * - SCAN    : Table/Clustered Index Scan trên Notes (chỉ cảnh báo - với
+ *             bảng ít dữ liệu optimizer có thể chọn scan)
+ * - MISSING : index mà optimizer gợi ý (MissingIndexGroup)
+ *
+ * Chạy với SQL Server local trong container:
+ * <pre>
+ * docker run -e ACCEPT_EULA=Y -e MSSQL_SA_PASSWORD=Audit_Pass123 -p 1433:1433 -d mcr.microsoft.com/mssql/server:2022-latest
+ * sqlcmd -S localhost -U sa -P Audit_Pass123 -Q "CREATE DATABASE SmartNotebook"
+ * mvn -q exec:java -Dexec.mainClass="com.dat.notebook.util.QueryPlanAuditor" \
+ *     -Ddb.port=1433 -Ddb.username=sa -Ddb.password=Audit_Pass123 -Ddb.sslProtocol=TLSv1.2
+ * </pre>
+ * Tool tự chạy MigrationRunner trước (tạo schema + covering indexes).
+ * Exit code = số query bị gắn cờ SORT/LOOKUP (0 = sạch), dùng được trong CI.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class QueryPlanAuditor {
+
+    /** Các class chứa hằng SQL_* được audit */
+    private static final String[] AUDITED_CLASSES = {
+        "com.dat.notebook.repository.NoteRepository",
+        "com.dat.notebook.repository.TagRepository",
+        "com.dat.notebook.repository.UserRepository",
+        "com.dat.notebook.dao.NoteDAO"
+    };
+
+    /** Cột LOB được phép lấy qua key lookup */
+    private static final Set<String> ALLOWED_LOOKUP_COLUMNS = Set.of("Content", "HtmlContent");
+
+    // ==================== RESULT ====================
+
+    /**
+     * Kết quả audit cho một hằng SQL
+     */
+    public static class PlanReport {
+        public final String name;
+        public final Set<String> operators = new LinkedHashSet<>();
+        public final List<String> flags = new ArrayList<>();
+        public final List<String> warnings = new ArrayList<>();
+        public String error;
+
+        PlanReport(String name) {
+            this.name = name;
+        }
+
+        public boolean isFlagged() {
+            return !flags.isEmpty();
+        }
+    }
+
+    // ==================== MAIN ====================
+
+    public static void main(String[] args) {
+        System.out.println("\n========================================");
+        System.out.println("🔍 QUERY PLAN AUDIT (SHOWPLAN_XML)");
+        System.out.println("========================================\n");
+
+        MigrationRunner.migrate();
+
+        List<PlanReport> reports = auditAll();
+        int flagged = 0;
+        for (PlanReport report : reports) {
+            print(report);
+            if (report.isFlagged()) {
+                flagged++;
+            }
+        }
+
+        System.out.println("─".repeat(80));
+        System.out.println("Tổng: " + reports.size() + " query, " + flagged + " bị gắn cờ SORT/LOOKUP");
+        System.exit(flagged);
+    }
+
+    /**
+     * Audit tất cả hằng SQL trong AUDITED_CLASSES
+     *
+     * @return Danh sách báo cáo
+     */
+    public static List<PlanReport> auditAll() {
+        List<PlanReport> reports = new ArrayList<>();
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            for (String className : AUDITED_CLASSES) {
+                for (String[] constant : collectSqlConstants(className)) {
+                    reports.add(audit(conn, constant[0], constant[1]));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("QueryPlanAuditor: Không kết nối được DB - " + e.getMessage());
+        }
+        return reports;
+    }
+
+    // ==================== AUDIT ====================
+
+    private static PlanReport audit(Connection conn, String name, String sql) {
+        PlanReport report = new PlanReport(name);
+        try (Statement st = conn.createStatement();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            // Lấy ParameterMetaData TRƯỚC khi bật SHOWPLAN (nó cần thực thi
+            // sp_describe_undeclared_parameters trên server)
+            bindDummyParameters(ps);
+            st.execute("SET SHOWPLAN_XML ON");
+            try {
+                boolean hasResult = ps.execute();
+                if (hasResult) {
+                    try (ResultSet rs = ps.getResultSet()) {
+                        if (rs.next()) {
+                            analyzePlan(rs.getString(1), report);
+                        }
+                    }
+                }
+            } finally {
+                st.execute("SET SHOWPLAN_XML OFF");
+            }
+        } catch (SQLException e) {
+            report.error = e.getMessage();
+        } catch (Exception e) {
+            report.error = "Không phân tích được plan: " + e.getMessage();
+        }
+        return report;
+    }
+
+    /**
+     * Bind giá trị giả đúng kiểu cho các tham số "?"
+     */
+    private static void bindDummyParameters(PreparedStatement ps) throws SQLException {
+        ParameterMetaData meta = ps.getParameterMetaData();
+        for (int i = 1; i <= meta.getParameterCount(); i++) {
+            int type = meta.getParameterType(i);
+            switch (type) {
+                case Types.INTEGER:
+                case Types.SMALLINT:
+                case Types.TINYINT:
+                case Types.BIGINT:
+                    ps.setInt(i, 1);
+                    break;
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    ps.setBoolean(i, false);
+                    break;
+                case Types.TIMESTAMP:
+                case Types.DATE:
+                    ps.setTimestamp(i, new Timestamp(System.currentTimeMillis()));
+                    break;
+                case Types.BINARY:
+                case Types.VARBINARY:
+                case Types.LONGVARBINARY:
+                    ps.setBytes(i, new byte[] {0});
+                    break;
+                default:
+                    ps.setString(i, "REGULAR");
+            }
+        }
+    }
+
+    /**
+     * Phân tích showplan XML, điền operators/flags/warnings vào report
+     */
+    static void analyzePlan(String planXml, PlanReport report) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(false);
+        Document doc = factory.newDocumentBuilder().parse(new InputSource(new StringReader(planXml)));
+
+        NodeList relOps = doc.getElementsByTagName("RelOp");
+        for (int i = 0; i < relOps.getLength(); i++) {
+            Element relOp = (Element) relOps.item(i);
+            String op = relOp.getAttribute("PhysicalOp");
+            report.operators.add(op);
+
+            if (op.contains("Sort")) {
+                report.flags.add("SORT (" + relOp.getAttribute("EstimateRows") + " rows)");
+            } else if (op.equals("Key Lookup") || op.equals("RID Lookup")) {
+                Set<String> columns = outputColumns(relOp);
+                columns.removeAll(ALLOWED_LOOKUP_COLUMNS);
+                if (columns.isEmpty()) {
+                    report.warnings.add("LOB lookup (Content/HtmlContent) - chấp nhận được");
+                } else {
+                    report.flags.add("LOOKUP " + columns);
+                }
+            } else if (op.equals("Table Scan") || op.equals("Clustered Index Scan") || op.equals("Index Scan")) {
+                String object = objectName(relOp);
+                if (object.contains("[Notes]")) {
+                    report.warnings.add("SCAN " + object);
+                }
+            }
+        }
+
+        NodeList missing = doc.getElementsByTagName("MissingIndexGroup");
+        for (int i = 0; i < missing.getLength(); i++) {
+            Element group = (Element) missing.item(i);
+            report.warnings.add("MISSING INDEX (impact " + group.getAttribute("Impact") + "%): "
+                    + describeMissingIndex(group));
+        }
+    }
+
+    private static Set<String> outputColumns(Element relOp) {
+        Set<String> columns = new LinkedHashSet<>();
+        NodeList outputLists = relOp.getElementsByTagName("OutputList");
+        if (outputLists.getLength() > 0) {
+            NodeList refs = ((Element) outputLists.item(0)).getElementsByTagName("ColumnReference");
+            for (int i = 0; i < refs.getLength(); i++) {
+                columns.add(((Element) refs.item(i)).getAttribute("Column"));
+            }
+        }
+        return columns;
+    }
+
+    private static String objectName(Element relOp) {
+        NodeList objects = relOp.getElementsByTagName("Object");
+        if (objects.getLength() == 0) {
+            return "";
+        }
+        Element obj = (Element) objects.item(0);
+        return obj.getAttribute("Table") + (obj.hasAttribute("Index") ? "." + obj.getAttribute("Index") : "");
+    }
+
+    private static String describeMissingIndex(Element group) {
+        StringBuilder sb = new StringBuilder();
+        NodeList columnGroups = group.getElementsByTagName("ColumnGroup");
+        for (int i = 0; i < columnGroups.getLength(); i++) {
+            Element cg = (Element) columnGroups.item(i);
+            List<String> names = new ArrayList<>();
+            NodeList cols = cg.getElementsByTagName("Column");
+            for (int j = 0; j < cols.getLength(); j++) {
+                names.add(((Element) cols.item(j)).getAttribute("Name"));
+            }
+            sb.append(cg.getAttribute("Usage").toLowerCase(Locale.ROOT)).append(names).append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    // ==================== REFLECTION ====================
+
+    /**
+     * Lấy các hằng "private static final String SQL_*" là SELECT/UPDATE/DELETE
+     *
+     * @return Danh sách [tên, sql]
+     */
+    private static List<String[]> collectSqlConstants(String className) {
+        List<String[]> constants = new ArrayList<>();
+        try {
+            Class<?> clazz = Class.forName(className);
+            for (Field field : clazz.getDeclaredFields()) {
+                int mod = field.getModifiers();
+                if (!Modifier.isStatic(mod) || field.getType() != String.class
+                        || !field.getName().startsWith("SQL_")) {
+                    continue;
+                }
+                field.setAccessible(true);
+                String sql = (String) field.get(null);
+                String head = sql.trim().toUpperCase(Locale.ROOT);
+                if (head.startsWith("SELECT") || head.startsWith("UPDATE") || head.startsWith("DELETE")) {
+                    constants.add(new String[] {clazz.getSimpleName() + "." + field.getName(), sql});
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            System.err.println("QueryPlanAuditor: Bỏ qua " + className + " - " + e.getMessage());
+        }
+        return constants;
+    }
+
+    // ==================== OUTPUT ====================
+
+    private static void print(PlanReport report) {
+        String status = report.error != null ? "⚠ ERROR" : (report.isFlagged() ? "❌ FLAG " : "✅ OK   ");
+        System.out.printf("%s %-50s %s%n", status, report.name, String.join(", ", report.operators));
+        if (report.error != null) {
+            System.out.println("         " + report.error);
+        }
+        for (String flag : report.flags) {
+            System.out.println("         ❌ " + flag);
+        }
+        for (String warning : report.warnings) {
+            System.out.println("         ⚠ " + warning);
+        }
+    }
+}
@@ -10,6 +10,9 @@ import javafx.scene.web.WebView;
  * @since 2026
  */
 public class RichTextStyleManager {
+
+    private static final AppLogger LOG = AppLogger.getLogger(RichTextStyleManager.class);
+
     
     /**
      * Toggle Bold - Simple and reliable
@@ -17,7 +20,7 @@ public class RichTextStyleManager {
     public static void toggleBold(WebView webView) {
         if (webView == null) return;
         
-        System.out.println("🟡 RichTextStyleManager: Toggle Bold");
+        LOG.debug("🟡 RichTextStyleManager: Toggle Bold");
         executeScript(webView, "document.execCommand('bold', false, null);");
         Platform.runLater(() -> webView.requestFocus());
     }
@@ -28,7 +31,7 @@ public class RichTextStyleManager {
     public static void toggleItalic(WebView webView) {
         if (webView == null) return;
         
-        System.out.println("🟡 RichTextStyleManager: Toggle Italic");
+        LOG.debug("🟡 RichTextStyleManager: Toggle Italic");
         executeScript(webView, "document.execCommand('italic', false, null);");
         Platform.runLater(() -> webView.requestFocus());
     }
@@ -39,7 +42,7 @@ public class RichTextStyleManager {
     public static void toggleUnderline(WebView webView) {
         if (webView == null) return;
         
-        System.out.println("🟡 RichTextStyleManager: Toggle Underline");
+        LOG.debug("🟡 RichTextStyleManager: Toggle Underline");
         executeScript(webView, "document.execCommand('underline', false, null);");
         Platform.runLater(() -> webView.requestFocus());
     }
@@ -50,7 +53,7 @@ public class RichTextStyleManager {
     public static void applyFontFamily(WebView webView, String fontFamily) {
         if (webView == null || fontFamily == null) return;
         
-        System.out.println("🟡 RichTextStyleManager: Apply Font: " + fontFamily);
+        LOG.debug("🟡 RichTextStyleManager: Apply Font: " + fontFamily);
         executeScript(webView, "document.execCommand('fontName', false, '" + fontFamily + "');");
         Platform.runLater(() -> webView.requestFocus());
     }
@@ -64,7 +67,7 @@ public class RichTextStyleManager {
                 webView.getEngine().executeScript(script);
             }
         } catch (Exception e) {
-            System.err.println("❌ JavaScript Error: " + e.getMessage());
+            LOG.error("❌ JavaScript Error: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,236 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.config.DatabaseConfig;
+import com.dat.notebook.config.MigrationRunner;
+import com.dat.notebook.repository.FullTextSearch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * SearchBenchmark - So sánh tìm kiếm LIKE '%kw%' với full-text (CONTAINSTABLE + RANK).
+ *
+ * Tool tạo user "bench_search" và seed N ghi chú (mặc định 1.000.000) bằng
+ * một câu INSERT ... SELECT phía server, chờ full-text index populate xong,
+ * rồi đo thời gian (median / p95) cho từng từ khóa với cả hai cách.
+ *
+ * Chạy (cần SQL Server có Full-Text Search, ví dụ image mssql/server:2022
+ * có cài mssql-server-fts):
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass="com.dat.notebook.util.SearchBenchmark" \
+ *     -Dexec.args="1000000" -Ddb.port=1433 -Ddb.username=sa -Ddb.password=...
+ * </pre>
+ * Tham số: [số dòng] [--cleanup]. Dữ liệu đã seed được giữ lại giữa các lần chạy
+ * (chỉ seed thêm phần còn thiếu); --cleanup xóa user và ghi chú benchmark.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class SearchBenchmark {
+
+    private static final String BENCH_USER = "bench_search";
+    private static final String[] KEYWORDS = {"java", "ghi chú", "báo cáo tuần", "zzkhongco"};
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 10;
+
+    // ==================== SQL ====================
+
+    private static final String SQL_ENSURE_USER =
+        "IF NOT EXISTS (SELECT 1 FROM [User] WHERE username = ?) " +
+        "INSERT INTO [User] (username, password_hash, full_name) VALUES (?, 'bench', N'Search Benchmark'); " +
+        "SELECT user_id FROM [User] WHERE username = ?";
+
+    private static final String SQL_COUNT = "SELECT COUNT(*) FROM Notes WHERE UserID = ?";
+
+    /** Sinh nội dung giả từ bảng từ vựng nhỏ, số dòng = tham số 2 */
+    private static final String SQL_SEED =
+        "WITH n AS (SELECT TOP (?) ROW_NUMBER() OVER (ORDER BY (SELECT NULL)) AS i " +
+        "           FROM sys.all_objects a CROSS JOIN sys.all_objects b CROSS JOIN sys.all_objects c), " +
+        "w AS (SELECT * FROM (VALUES (0, N'java'), (1, N'ghi chú'), (2, N'báo cáo'), (3, N'tuần'), " +
+        "      (4, N'dự án'), (5, N'họp nhóm'), (6, N'database'), (7, N'kế hoạch'), (8, N'ý tưởng'), " +
+        "      (9, N'học tập')) v(k, word)) " +
+        "INSERT INTO Notes (UserID, Title, Content, Summary, Status) " +
+        "SELECT ?, " +
+        "  CONCAT(w1.word, N' ', w2.word, N' #', n.i), " +
+        "  CONCAT(N'Nội dung ', w1.word, N' ', w3.word, N' ', w2.word, N' ', " +
+        "         REPLICATE(CONCAT(w3.word, N' ', w1.word, N' '), 20)), " +
+        "  CONCAT(w2.word, N' ', w3.word), " +
+        "  CASE n.i % 3 WHEN 0 THEN 'REGULAR' WHEN 1 THEN 'URGENT' ELSE 'IDEAS' END " +
+        "FROM n " +
+        "JOIN w w1 ON w1.k = n.i % 10 " +
+        "JOIN w w2 ON w2.k = (n.i / 10) % 10 " +
+        "JOIN w w3 ON w3.k = (n.i / 100) % 10";
+
+    private static final String SQL_POPULATE_STATUS =
+        "SELECT FULLTEXTCATALOGPROPERTY('ftNotes', 'PopulateStatus')";
+
+    private static final String SQL_LIKE =
+        "SELECT NoteID, Title, Summary, UpdatedAt FROM Notes " +
+        "WHERE UserID = ? AND IsArchived = 0 " +
+        "AND (Title LIKE ? OR Content LIKE ? OR Summary LIKE ?) " +
+        "ORDER BY UpdatedAt DESC";
+
+    private static final String SQL_FULLTEXT =
+        "SELECT n.NoteID, n.Title, n.Summary, n.UpdatedAt " +
+        "FROM CONTAINSTABLE(Notes, (Title, Content, Summary), ?) ft " +
+        "INNER JOIN Notes n ON n.NoteID = ft.[KEY] " +
+        "WHERE n.UserID = ? AND n.IsArchived = 0 " +
+        "ORDER BY ft.RANK DESC, n.UpdatedAt DESC";
+
+    private static final String SQL_CLEANUP =
+        "DELETE FROM Notes WHERE UserID = ?; DELETE FROM [User] WHERE user_id = ?";
+
+    // ==================== MAIN ====================
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 && !args[0].startsWith("--") ? Integer.parseInt(args[0]) : 1_000_000;
+        boolean cleanup = Arrays.asList(args).contains("--cleanup");
+
+        System.out.println("\n========================================");
+        System.out.println("🔎 SEARCH BENCHMARK: LIKE vs FULL-TEXT");
+        System.out.println("========================================\n");
+
+        MigrationRunner.migrate();
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            int userId = ensureUser(conn);
+            if (cleanup) {
+                try (PreparedStatement ps = conn.prepareStatement(SQL_CLEANUP)) {
+                    ps.setInt(1, userId);
+                    ps.setInt(2, userId);
+                    ps.execute();
+                }
+                System.out.println("Đã xóa dữ liệu benchmark");
+                return;
+            }
+
+            seed(conn, userId, rows);
+
+            boolean fullText = FullTextSearch.isAvailable();
+            if (fullText) {
+                waitForPopulation(conn);
+            } else {
+                System.out.println("⚠ Không có full-text index trên Notes - chỉ đo LIKE\n");
+            }
+
+            System.out.printf("%-16s %-10s %10s %10s %8s%n", "keyword", "mode", "median ms", "p95 ms", "rows");
+            System.out.println("─".repeat(60));
+            for (String keyword : KEYWORDS) {
+                measure(conn, "LIKE", keyword, userId, false);
+                if (fullText) {
+                    measure(conn, "FULLTEXT", keyword, userId, true);
+                }
+            }
+        }
+    }
+
+    // ==================== SETUP ====================
+
+    private static int ensureUser(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_ENSURE_USER)) {
+            ps.setString(1, BENCH_USER);
+            ps.setString(2, BENCH_USER);
+            ps.setString(3, BENCH_USER);
+            boolean hasResult = ps.execute();
+            while (!hasResult && ps.getUpdateCount() != -1) {
+                hasResult = ps.getMoreResults();
+            }
+            try (ResultSet rs = ps.getResultSet()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void seed(Connection conn, int userId, int rows) throws SQLException {
+        int existing;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_COUNT)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                existing = rs.getInt(1);
+            }
+        }
+        if (existing >= rows) {
+            System.out.println("Dữ liệu có sẵn: " + existing + " ghi chú");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SEED)) {
+            ps.setQueryTimeout(0);
+            ps.setInt(1, rows - existing);
+            ps.setInt(2, userId);
+            ps.executeUpdate();
+        }
+        System.out.println("Seed " + (rows - existing) + " ghi chú trong " +
+            (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static void waitForPopulation(Connection conn) throws SQLException, InterruptedException {
+        long start = System.currentTimeMillis();
+        while (true) {
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery(SQL_POPULATE_STATUS)) {
+                // 0 = idle (populate xong)
+                if (rs.next() && rs.getInt(1) == 0) {
+                    break;
+                }
+            }
+            Thread.sleep(2000);
+        }
+        System.out.println("Full-text populate xong sau " + (System.currentTimeMillis() - start) + " ms\n");
+    }
+
+    // ==================== MEASURE ====================
+
+    private static void measure(Connection conn, String mode, String keyword, int userId, boolean fullText)
+            throws SQLException {
+        long[] samples = new long[ITERATIONS];
+        int rowCount = 0;
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            long start = System.nanoTime();
+            rowCount = fullText ? runFullText(conn, keyword, userId) : runLike(conn, keyword, userId);
+            long elapsed = System.nanoTime() - start;
+            if (i >= WARMUP) {
+                samples[i - WARMUP] = elapsed;
+            }
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-16s %-10s %10.1f %10.1f %8d%n", keyword, mode,
+            samples[ITERATIONS / 2] / 1e6, samples[(int) Math.ceil(ITERATIONS * 0.95) - 1] / 1e6, rowCount);
+    }
+
+    private static int runLike(Connection conn, String keyword, int userId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_LIKE)) {
+            String pattern = "%" + keyword + "%";
+            ps.setInt(1, userId);
+            ps.setString(2, pattern);
+            ps.setString(3, pattern);
+            ps.setString(4, pattern);
+            return drain(ps);
+        }
+    }
+
+    private static int runFullText(Connection conn, String keyword, int userId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_FULLTEXT)) {
+            ps.setString(1, FullTextSearch.toContainsQuery(keyword));
+            ps.setInt(2, userId);
+            return drain(ps);
+        }
+    }
+
+    private static int drain(PreparedStatement ps) throws SQLException {
+        int count = 0;
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -11,6 +11,9 @@ import com.dat.notebook.model.User;
  * @version 1.0
  */
 public class SessionManager {
+
+    private static final AppLogger LOG = AppLogger.getLogger(SessionManager.class);
+
     
     // ==================== SINGLETON ====================
     
@@ -84,7 +87,7 @@ public class SessionManager {
      * Đăng xuất - xóa session
      */
     public void logout() {
-        System.out.println("SessionManager: Đăng xuất user " + 
+        LOG.info("SessionManager: Đăng xuất user " + 
             (currentUser != null ? currentUser.getUsername() : "null"));
         this.currentUser = null;
         this.isDemo = false;
@@ -104,7 +107,7 @@ public class SessionManager {
         this.currentUser = demoUser;
         this.isDemo = true;
         
-        System.out.println("SessionManager: Đăng nhập chế độ Demo");
+        LOG.info("SessionManager: Đăng nhập chế độ Demo");
     }
     
     /**
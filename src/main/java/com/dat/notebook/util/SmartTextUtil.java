@@ -52,6 +52,35 @@ public class SmartTextUtil {
                 .trim();
     }
 
+    /**
+     * Strip HTML tags nhưng giữ cấu trúc dòng (mỗi đoạn/khối một dòng)
+     * Dùng cho diff theo dòng giữa các version
+     *
+     * @param html HTML content
+     * @return Plain text, các dòng phân cách bởi '\n'
+     */
+    public static String stripHtmlKeepLines(String html) {
+        if (html == null || html.isEmpty()) {
+            return "";
+        }
+
+        return html
+                .replaceAll("<script[^>]*>[\\s\\S]*?</script>", "") // Remove scripts
+                .replaceAll("<style[^>]*>[\\s\\S]*?</style>", "") // Remove styles
+                .replaceAll("\\s+", " ") // Xuống dòng trong HTML không có nghĩa
+                .replaceAll("(?i)<br\\s*/?>", "\n") // Convert <br> to newline
+                .replaceAll("(?i)</(p|div|li|h[1-6]|pre|blockquote|tr)>", "\n") // Block kết thúc => newline
+                .replaceAll("<[^>]+>", "") // Remove remaining tags
+                .replaceAll("&nbsp;", " ") // Convert &nbsp;
+                .replaceAll("&lt;", "<") // Convert &lt;
+                .replaceAll("&gt;", ">") // Convert &gt;
+                .replaceAll("&quot;", "\"") // Convert &quot;
+                .replaceAll("&#39;", "'") // Convert &#39;
+                .replaceAll("&amp;", "&") // Convert &amp; (cuối cùng để không giải mã hai lần)
+                .replaceAll(" *\n *", "\n") // Trim từng dòng
+                .trim();
+    }
+
     /**
      * Convert plain text sang HTML đơn giản
      * 
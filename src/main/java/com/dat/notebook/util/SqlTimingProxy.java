@@ -0,0 +1,447 @@
+package com.dat.notebook.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SqlTimingProxy - Bọc Connection / Statement / ResultSet để đo từng câu SQL
+ *
+ * {@link DBConnection#getConnection()} bọc mọi kết nối khi bật
+ * db.sqlTiming.enabled=true (mặc định tắt - mỗi lời gọi JDBC thêm một lần
+ * invoke qua reflection), repository không phải sửa gì.
+ *
+ * Mỗi lần execute ghi nhận:
+ * - Tên SQL: "Class.SQL_CONSTANT" nếu chuỗi SQL trùng một hằng static final
+ *   của class gọi, không thì "Class.method" (SQL ghép động)
+ * - Hình dạng tham số (kiểu + độ dài chuỗi, KHÔNG ghi giá trị)
+ * - Thời gian execute (tới khi server trả kết quả đầu) và thời gian fetch
+ *   (các lần next() tới khi đóng ResultSet - get*() không đo thời gian, chỉ
+ *   đếm byte cột lớn)
+ * - Số dòng đọc (hoặc cập nhật) và số byte đọc từ cột NVARCHAR(MAX) /
+ *   VARBINARY(MAX)
+ *
+ * Kết quả vào MetricsRegistry (timer sql.&lt;tên&gt;), và câu nào chậm hơn
+ * db.slowQuery.thresholdMs được ghi vào slow-query log (logger SlowQueryLog,
+ * mức WARN). JFR DbCallEvent không phát ở đây mà luôn phát từ
+ * MetricsRegistry.timedDb ở DAO / repository.
+ *
+ * Statement.getConnection() trả về Connection đã bọc và ResultSet.getStatement()
+ * trả về Statement đã bọc. getGeneratedKeys() trả ResultSet gốc: khóa sinh ra
+ * đi kèm lần execute đã được đo, không tính là một câu SQL riêng.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+final class SqlTimingProxy {
+
+    private static final AppLogger SLOW_LOG = AppLogger.getLogger(SlowQueryLog.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    /** Cột có precision từ ngưỡng này coi là (MAX) */
+    private static final int LARGE_COLUMN_PRECISION = 1_000_000;
+    private static final int MAX_SQL_IN_LOG = 400;
+    private static final int MAX_NAME_CACHE = 1024;
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+            "executeBatch", "executeLargeBatch");
+
+    /** SQL -> tên (Class.SQL_X hoặc Class.method) */
+    private static final Map<String, String> NAMES = new ConcurrentHashMap<>();
+
+    private static volatile long slowThresholdNanos = 250_000_000L;
+
+    /** Chỉ để đặt tên logger cho slow-query log */
+    private static final class SlowQueryLog {
+    }
+
+    private SqlTimingProxy() {
+        // Utility class
+    }
+
+    static void setSlowThresholdMillis(long millis) {
+        slowThresholdNanos = millis * 1_000_000L;
+    }
+
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(SqlTimingProxy.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    // ==================== CONNECTION ====================
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            String name = method.getName();
+
+            if (result instanceof Statement && (name.equals("prepareStatement")
+                    || name.equals("prepareCall") || name.equals("createStatement"))) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                Class<?> type = name.equals("prepareCall") ? CallableStatement.class
+                        : name.equals("prepareStatement") ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(SqlTimingProxy.class.getClassLoader(), new Class<?>[] {type},
+                        new StatementHandler((Statement) result, sql, (Connection) proxy));
+            }
+            return result;
+        }
+    }
+
+    // ==================== STATEMENT ====================
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String sql;
+        /** Connection đã bọc - trả cho getConnection() thay vì kết nối gốc */
+        private final Connection connection;
+        private final List<String> parameterShapes = new ArrayList<>();
+        private int batchSize;
+        private Execution open;
+
+        StatementHandler(Statement target, String sql, Connection connection) {
+            this.target = target;
+            this.sql = sql;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (EXECUTE_METHODS.contains(name)) {
+                return execute((Statement) proxy, method, args);
+            }
+            if (name.equals("getResultSet")) {
+                ResultSet rs = (ResultSet) invokeTarget(target, method, args);
+                return rs != null && open != null ? wrapResultSet(rs, open, (Statement) proxy) : rs;
+            }
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (name.equals("close")) {
+                finishOpen();
+                return invokeTarget(target, method, args);
+            }
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                recordShape((Integer) args[0], name, args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameterShapes.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            }
+            return invokeTarget(target, method, args);
+        }
+
+        private Object execute(Statement proxy, Method method, Object[] args) throws Throwable {
+            finishOpen();
+            String text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            Execution execution = new Execution(nameOf(text), text, shapes());
+
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable e) {
+                execution.executeNanos = System.nanoTime() - execution.start;
+                execution.failed = true;
+                execution.finish();
+                throw e;
+            }
+            execution.executeNanos = System.nanoTime() - execution.start;
+
+            if (result instanceof ResultSet) {
+                open = execution;
+                return wrapResultSet((ResultSet) result, execution, proxy);
+            }
+            if (result instanceof Boolean && (Boolean) result) {
+                // execute() trả ResultSet - kết thúc khi ResultSet / Statement đóng
+                open = execution;
+                return result;
+            }
+
+            if (result instanceof Boolean) {
+                execution.rows = Math.max(target.getUpdateCount(), 0);
+            } else if (result instanceof Integer || result instanceof Long) {
+                execution.rows = ((Number) result).longValue();
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    execution.rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    execution.rows += Math.max(count, 0);
+                }
+            }
+            if (method.getName().endsWith("Batch")) {
+                execution.batchSize = batchSize;
+                batchSize = 0;
+            }
+            execution.finish();
+            return result;
+        }
+
+        private void finishOpen() {
+            if (open != null) {
+                open.finish();
+                open = null;
+            }
+        }
+
+        private void recordShape(int index, String setter, Object value) {
+            String shape;
+            if (value == null || setter.equals("setNull")) {
+                shape = "null";
+            } else if (value instanceof String) {
+                shape = "str(" + ((String) value).length() + ")";
+            } else if (value instanceof byte[]) {
+                shape = "bytes(" + ((byte[]) value).length + ")";
+            } else {
+                shape = setter.substring(3).toLowerCase();
+            }
+            while (parameterShapes.size() < index) {
+                parameterShapes.add("?");
+            }
+            parameterShapes.set(index - 1, shape);
+        }
+
+        private String shapes() {
+            return parameterShapes.isEmpty() ? "" : String.join(", ", parameterShapes);
+        }
+    }
+
+    // ==================== RESULT SET ====================
+
+    private static ResultSet wrapResultSet(ResultSet rs, Execution execution, Statement statement) {
+        return (ResultSet) Proxy.newProxyInstance(SqlTimingProxy.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class}, new ResultSetHandler(rs, execution, statement));
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final Execution execution;
+        /** Statement đã bọc - trả cho getStatement() */
+        private final Statement statement;
+        private boolean[] largeColumns;
+        private Map<String, Integer> labels;
+
+        ResultSetHandler(ResultSet target, Execution execution, Statement statement) {
+            this.target = target;
+            this.execution = execution;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                execution.finish();
+                return invokeTarget(target, method, args);
+            }
+            if (name.equals("getStatement")) {
+                return statement;
+            }
+
+            // Chỉ next() được đo thời gian (round-trip lấy dòng); get*() đọc từ bộ đệm
+            if (name.equals("next")) {
+                long start = System.nanoTime();
+                Object result = invokeTarget(target, method, args);
+                execution.fetchNanos += System.nanoTime() - start;
+                if ((Boolean) result) {
+                    execution.rows++;
+                }
+                return result;
+            }
+
+            Object result = invokeTarget(target, method, args);
+            if ((result instanceof String || result instanceof byte[])
+                    && args != null && args.length == 1 && isLargeColumn(args[0])) {
+                // NVARCHAR gửi UTF-16 qua TDS: 2 byte mỗi ký tự
+                execution.largeBytes += result instanceof String
+                        ? 2L * ((String) result).length() : ((byte[]) result).length;
+            }
+            return result;
+        }
+
+        private boolean isLargeColumn(Object column) {
+            if (largeColumns == null) {
+                labels = new HashMap<>();
+                try {
+                    ResultSetMetaData meta = target.getMetaData();
+                    largeColumns = new boolean[meta.getColumnCount() + 1];
+                    for (int i = 1; i < largeColumns.length; i++) {
+                        int type = meta.getColumnType(i);
+                        largeColumns[i] = type == Types.LONGNVARCHAR || type == Types.LONGVARCHAR
+                                || type == Types.LONGVARBINARY || type == Types.CLOB || type == Types.NCLOB
+                                || type == Types.BLOB || meta.getPrecision(i) >= LARGE_COLUMN_PRECISION;
+                        labels.put(meta.getColumnLabel(i).toLowerCase(), i);
+                    }
+                } catch (SQLException e) {
+                    // Không có metadata - không đếm byte, không làm hỏng truy vấn
+                    largeColumns = new boolean[0];
+                }
+            }
+            Integer index = column instanceof Integer ? (Integer) column
+                    : column instanceof String ? labels.get(((String) column).toLowerCase()) : null;
+            return index != null && index > 0 && index < largeColumns.length && largeColumns[index];
+        }
+    }
+
+    // ==================== EXECUTION ====================
+
+    private static final class Execution {
+
+        final String name;
+        final String sql;
+        final String parameters;
+        final long start;
+        long executeNanos;
+        long fetchNanos;
+        long rows;
+        long largeBytes;
+        int batchSize;
+        boolean failed;
+        private boolean finished;
+
+        Execution(String name, String sql, String parameters) {
+            this.name = name;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.start = System.nanoTime();
+        }
+
+        void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+
+            long total = executeNanos + fetchNanos;
+            METRICS.timer("sql." + name).recordNanos(total);
+            METRICS.counter("sql.rows").add(rows);
+            METRICS.counter("sql.largeColumnBytes").add(largeBytes);
+            if (failed) {
+                METRICS.counter("sql.errors").increment();
+            }
+
+            if (total >= slowThresholdNanos) {
+                METRICS.counter("sql.slow").increment();
+                SLOW_LOG.warn(describe(total));
+            }
+        }
+
+        private String describe(long total) {
+            StringBuilder line = new StringBuilder("[slow-query] ").append(name)
+                    .append(String.format(" %.1f ms (execute %.1f, fetch %.1f)",
+                            total / 1e6, executeNanos / 1e6, fetchNanos / 1e6))
+                    .append(" rows=").append(rows);
+            if (largeBytes > 0) {
+                line.append(" largeColumnBytes=").append(largeBytes);
+            }
+            if (batchSize > 0) {
+                line.append(" batch=").append(batchSize);
+            }
+            if (failed) {
+                line.append(" FAILED");
+            }
+            line.append(" params=(").append(parameters).append(')');
+            if (sql != null) {
+                String compact = sql.replaceAll("\\s+", " ").trim();
+                line.append(" sql=").append(compact.length() > MAX_SQL_IN_LOG
+                        ? compact.substring(0, MAX_SQL_IN_LOG) + "..." : compact);
+            }
+            return line.toString();
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Tên ổn định cho một câu SQL - tra hằng SQL_* của class gọi (một lần
+     * cho mỗi chuỗi SQL, kết quả được cache)
+     */
+    private static String nameOf(String sql) {
+        if (sql == null) {
+            return "unknown";
+        }
+        String cached = NAMES.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+
+        StackWalker.StackFrame caller = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE)
+                .walk(frames -> frames.filter(SqlTimingProxy::isApplicationFrame).findFirst().orElse(null));
+        String name = caller == null ? "unknown" : constantName(caller.getDeclaringClass(), sql);
+        if (name == null) {
+            name = caller.getDeclaringClass().getSimpleName() + "." + caller.getMethodName();
+        }
+        if (NAMES.size() < MAX_NAME_CACHE) {
+            NAMES.put(sql, name);
+        }
+        return name;
+    }
+
+    private static boolean isApplicationFrame(StackWalker.StackFrame frame) {
+        Class<?> type = frame.getDeclaringClass();
+        String className = type.getName();
+        return !Proxy.isProxyClass(type)
+                && className.startsWith("com.dat.notebook.")
+                && !className.startsWith(SqlTimingProxy.class.getName())
+                && type != DBConnection.class;
+    }
+
+    private static String constantName(Class<?> owner, String sql) {
+        for (Field field : owner.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (field.getType() != String.class || !Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                if (sql.equals(field.get(null))) {
+                    return owner.getSimpleName() + "." + field.getName();
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                // Không đọc được field - bỏ qua
+            }
+        }
+        return null;
+    }
+}
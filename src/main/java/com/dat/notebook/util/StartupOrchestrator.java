@@ -0,0 +1,284 @@
+package com.dat.notebook.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * StartupOrchestrator - Chạy song song các bước khởi tạo độc lập và ghi
+ * timeline khởi động
+ *
+ * - {@link #task} đăng ký bước khởi tạo kèm các bước phụ thuộc; {@link #start()}
+ *   chạy mọi bước ngay khi phụ thuộc xong, trên pool "startup-N" (daemon)
+ * - {@link #timed} đo các bước phải chạy trên FX thread (load FXML...),
+ *   {@link #supply} chạy một bước nền phát sinh sau (vd. tải trước ghi chú),
+ *   có thể chờ các bước đã đăng ký (vd. đọc Notes sau migration)
+ * - {@link #markInteractive} đánh dấu màn hình đầu tiên dùng được; timeline
+ *   (mốc tính từ lúc JVM khởi động) được log một lần khi đã interactive và
+ *   mọi bước đăng ký đã xong
+ * - Mỗi bước cũng vào MetricsRegistry (timer startup.&lt;tên&gt;)
+ *
+ * Bước lỗi chỉ được log - các bước phụ thuộc vẫn chạy (mỗi bước tự xử lý
+ * trường hợp thiếu DB như khi chạy tuần tự trước đây).
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class StartupOrchestrator {
+
+    private static final AppLogger LOG = AppLogger.getLogger(StartupOrchestrator.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    private static final StartupOrchestrator INSTANCE = new StartupOrchestrator();
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(1);
+
+    /** Pool cached: thread tự giải phóng sau 60s rảnh, không giữ tài nguyên sau khởi động */
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "startup-" + THREAD_COUNTER.getAndIncrement());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final List<Entry> timeline = new ArrayList<>();
+    private CompletableFuture<Void> allTasks;
+    private boolean interactive;
+    private boolean reported;
+
+    private StartupOrchestrator() {
+    }
+
+    public static StartupOrchestrator getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== REGISTER & RUN ====================
+
+    /**
+     * Đăng ký một bước khởi tạo (gọi trước {@link #start()})
+     *
+     * @param name Tên bước (hiển thị trong timeline)
+     * @param work Công việc
+     * @param dependsOn Các bước phải xong trước (đã đăng ký trước đó)
+     */
+    public synchronized StartupOrchestrator task(String name, Runnable work, String... dependsOn) {
+        if (allTasks != null) {
+            throw new IllegalStateException("StartupOrchestrator đã chạy - không thêm được bước " + name);
+        }
+        List<Task> dependencies = new ArrayList<>();
+        for (String dependency : dependsOn) {
+            Task task = tasks.get(dependency);
+            if (task == null) {
+                throw new IllegalArgumentException("Bước " + name + " phụ thuộc bước chưa đăng ký: " + dependency);
+            }
+            dependencies.add(task);
+        }
+        tasks.put(name, new Task(name, work, dependencies));
+        return this;
+    }
+
+    /**
+     * Chạy mọi bước đã đăng ký (không chặn)
+     */
+    public synchronized void start() {
+        if (allTasks != null) {
+            return;
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Task task : tasks.values()) {
+            CompletableFuture<?>[] before = task.dependencies.stream()
+                    .map(dependency -> dependency.future)
+                    .toArray(CompletableFuture<?>[]::new);
+            // Phụ thuộc lỗi vẫn cho bước sau chạy (handle thay vì thenRun)
+            task.future = CompletableFuture.allOf(before)
+                    .handle((ignored, error) -> null)
+                    .thenRunAsync(() -> run(task.name, task.work), executor);
+            futures.add(task.future);
+        }
+        allTasks = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        allTasks.whenComplete((ignored, error) -> reportIfReady());
+    }
+
+    /**
+     * Future của một bước đã đăng ký - dùng khi màn hình cần chờ bước đó
+     */
+    public synchronized CompletableFuture<Void> await(String name) {
+        Task task = tasks.get(name);
+        return task != null && task.future != null ? task.future : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Future hoàn thành khi mọi bước đã đăng ký xong (kể cả bước lỗi)
+     */
+    public synchronized CompletableFuture<Void> whenReady() {
+        return allTasks != null ? allTasks : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Tỉ lệ bước đã xong (0..1) - dùng cho thanh tiến trình splash
+     */
+    public synchronized double progress() {
+        if (tasks.isEmpty()) {
+            return 1.0;
+        }
+        long done = tasks.values().stream()
+                .filter(task -> task.future != null && task.future.isDone())
+                .count();
+        return (double) done / tasks.size();
+    }
+
+    /**
+     * Chạy một bước nền phát sinh sau khi khởi động (được ghi vào timeline)
+     *
+     * @param name Tên bước
+     * @param work Công việc
+     * @param dependsOn Các bước đã đăng ký phải xong trước (lỗi vẫn chạy tiếp)
+     */
+    public <T> CompletableFuture<T> supply(String name, Supplier<T> work, String... dependsOn) {
+        CompletableFuture<?>[] before = new CompletableFuture<?>[dependsOn.length];
+        for (int i = 0; i < dependsOn.length; i++) {
+            before[i] = await(dependsOn[i]);
+        }
+        return CompletableFuture.allOf(before).handle((ignored, error) -> null).thenApplyAsync(ignored -> {
+            long start = System.currentTimeMillis();
+            boolean ok = false;
+            try {
+                T result = work.get();
+                ok = true;
+                return result;
+            } finally {
+                record(name, start, System.currentTimeMillis(), ok);
+            }
+        }, executor);
+    }
+
+    // ==================== FX THREAD PHASES ====================
+
+    /**
+     * Đo một bước chạy tại chỗ (thường trên FX thread) và trả kết quả:
+     * root = startup.timed("login-view", () -&gt; FXMLLoader.load(...));
+     * Exception của bước được ném lại nguyên kiểu.
+     */
+    public <T, E extends Exception> T timed(String name, MetricsRegistry.TimedCall<T, E> work) throws E {
+        long start = System.currentTimeMillis();
+        boolean ok = false;
+        try {
+            T result = work.call();
+            ok = true;
+            return result;
+        } finally {
+            record(name, start, System.currentTimeMillis(), ok);
+        }
+    }
+
+    /**
+     * Đánh dấu màn hình đã hiển thị và dùng được
+     *
+     * @param screen Tên màn hình (login, main...)
+     */
+    public void markInteractive(String screen) {
+        long now = System.currentTimeMillis();
+        record("interactive:" + screen, now, now, true);
+        synchronized (this) {
+            if (!interactive) {
+                interactive = true;
+                long sinceJvmStart = now - jvmStartMillis;
+                METRICS.gauge("startup.coldStartToInteractiveMs", () -> sinceJvmStart);
+            }
+        }
+        reportIfReady();
+    }
+
+    // ==================== TIMELINE ====================
+
+    /**
+     * Timeline dạng bảng: mốc bắt đầu / kết thúc tính từ lúc JVM khởi động
+     */
+    public synchronized String timelineText() {
+        StringBuilder out = new StringBuilder("Startup timeline (ms từ lúc JVM khởi động)\n");
+        out.append(String.format("  %-28s %8s %8s %8s  %s%n", "bước", "bắt đầu", "kết thúc", "thời gian", "thread"));
+        timeline.stream()
+                .sorted((a, b) -> Long.compare(a.start, b.start))
+                .forEach(entry -> out.append(String.format("  %-28s %8d %8d %8d  %s%s%n",
+                        entry.name, entry.start - jvmStartMillis, entry.end - jvmStartMillis,
+                        entry.end - entry.start, entry.thread, entry.ok ? "" : "  (LỖI)")));
+        return out.toString();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void run(String name, Runnable work) {
+        long start = System.currentTimeMillis();
+        boolean ok = false;
+        try {
+            work.run();
+            ok = true;
+        } catch (RuntimeException e) {
+            LOG.error("StartupOrchestrator[" + name + "] ERROR: " + e.getMessage(), e);
+        } finally {
+            record(name, start, System.currentTimeMillis(), ok);
+        }
+    }
+
+    private void record(String name, long start, long end, boolean ok) {
+        if (!name.startsWith("interactive:")) {
+            METRICS.timer("startup." + name).recordNanos((end - start) * 1_000_000L);
+        }
+        synchronized (this) {
+            timeline.add(new Entry(name, Thread.currentThread().getName(), start, end, ok));
+        }
+    }
+
+    private void reportIfReady() {
+        String text;
+        synchronized (this) {
+            boolean tasksDone = allTasks == null || allTasks.isDone();
+            if (reported || !interactive || !tasksDone) {
+                return;
+            }
+            reported = true;
+            text = timelineText();
+        }
+        LOG.info(text);
+    }
+
+    private static final class Task {
+
+        final String name;
+        final Runnable work;
+        final List<Task> dependencies;
+        CompletableFuture<Void> future;
+
+        Task(String name, Runnable work, List<Task> dependencies) {
+            this.name = name;
+            this.work = work;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private static final class Entry {
+
+        final String name;
+        final String thread;
+        final long start;
+        final long end;
+        final boolean ok;
+
+        Entry(String name, String thread, long start, long end, boolean ok) {
+            this.name = name;
+            this.thread = thread;
+            this.start = start;
+            this.end = end;
+            this.ok = ok;
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package com.dat.notebook.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TextDiff - Diff Myers trên danh sách token (dòng hoặc từ).
+ *
+ * - Token được đổi sang số nguyên (intern) nên so sánh chỉ là so sánh int
+ * - Phần đầu/cuối chung được cắt trước khi chạy thuật toán
+ * - CLASSIC: Myers O(ND) lưu vết từng bước D để truy ngược, bộ nhớ O(D^2)
+ * - LINEAR_SPACE: chia để trị theo "middle snake" (Myers 1986, mục 4b),
+ *   bộ nhớ O(N + M), dùng stack tường minh thay cho đệ quy
+ * - AUTO: CLASSIC cho input nhỏ, LINEAR_SPACE khi vượt CLASSIC_MAX_TOKENS
+ * Quá timeout, vùng còn lại được coi là thay thế toàn bộ (kết quả vẫn đúng,
+ * chỉ kém tối ưu) và {@link Result#timedOut} = true.
+ *
+ * Kết quả là các hunk (như unified diff) với context token ở hai đầu.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class TextDiff {
+
+    /** Tổng số token (sau khi cắt đầu/cuối chung) tối đa cho chế độ CLASSIC trong AUTO */
+    public static final int CLASSIC_MAX_TOKENS = 2000;
+
+    public static final long DEFAULT_TIMEOUT_MS = 2000;
+
+    public enum Mode { AUTO, CLASSIC, LINEAR_SPACE }
+
+    public enum Op { EQUAL, INSERT, DELETE }
+
+    // ==================== RESULT ====================
+
+    /**
+     * Một đoạn liên tiếp cùng loại thao tác
+     */
+    public static final class Edit {
+        public final Op op;
+        public final String text;
+
+        Edit(Op op, String text) {
+            this.op = op;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return (op == Op.INSERT ? "+" : op == Op.DELETE ? "-" : " ") + text;
+        }
+    }
+
+    /**
+     * Một vùng thay đổi; vị trí tính theo token (0-based)
+     */
+    public static final class Hunk {
+        public final int oldStart;
+        public final int oldLength;
+        public final int newStart;
+        public final int newLength;
+        public final List<Edit> edits;
+
+        Hunk(int oldStart, int oldLength, int newStart, int newLength, List<Edit> edits) {
+            this.oldStart = oldStart;
+            this.oldLength = oldLength;
+            this.newStart = newStart;
+            this.newLength = newLength;
+            this.edits = Collections.unmodifiableList(edits);
+        }
+
+        @Override
+        public String toString() {
+            return "@@ -" + (oldStart + 1) + "," + oldLength + " +" + (newStart + 1) + "," + newLength + " @@";
+        }
+    }
+
+    /**
+     * Kết quả diff
+     */
+    public static final class Result {
+        public final List<Hunk> hunks;
+        public final int insertedTokens;
+        public final int deletedTokens;
+        public final boolean linearSpace;
+        public final boolean timedOut;
+        public final long elapsedNanos;
+
+        Result(List<Hunk> hunks, int insertedTokens, int deletedTokens,
+               boolean linearSpace, boolean timedOut, long elapsedNanos) {
+            this.hunks = Collections.unmodifiableList(hunks);
+            this.insertedTokens = insertedTokens;
+            this.deletedTokens = deletedTokens;
+            this.linearSpace = linearSpace;
+            this.timedOut = timedOut;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public boolean isIdentical() {
+            return hunks.isEmpty();
+        }
+    }
+
+    private TextDiff() {
+        // Utility class
+    }
+
+    // ==================== PUBLIC API ====================
+
+    /**
+     * Diff với chế độ AUTO và timeout mặc định
+     *
+     * @param oldTokens Token bản cũ
+     * @param newTokens Token bản mới
+     * @param context Số token không đổi giữ lại quanh mỗi thay đổi
+     */
+    public static Result diff(List<String> oldTokens, List<String> newTokens, int context) {
+        return diff(oldTokens, newTokens, context, Mode.AUTO, DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * Diff hai danh sách token
+     *
+     * @param oldTokens Token bản cũ
+     * @param newTokens Token bản mới
+     * @param context Số token không đổi giữ lại quanh mỗi thay đổi
+     * @param mode Chế độ thuật toán
+     * @param timeoutMillis Thời gian tối đa (ms), <= 0 nếu không giới hạn
+     */
+    public static Result diff(List<String> oldTokens, List<String> newTokens, int context,
+                              Mode mode, long timeoutMillis) {
+        long start = System.nanoTime();
+        long deadline = timeoutMillis > 0 ? start + timeoutMillis * 1_000_000L : Long.MAX_VALUE;
+
+        Map<String, Integer> ids = new HashMap<>();
+        int[] a = intern(oldTokens, ids);
+        int[] b = intern(newTokens, ids);
+
+        int prefix = 0;
+        while (prefix < a.length && prefix < b.length && a[prefix] == b[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < a.length - prefix && suffix < b.length - prefix
+                && a[a.length - 1 - suffix] == b[b.length - 1 - suffix]) {
+            suffix++;
+        }
+
+        Marker marker = new Marker(a, b, deadline);
+        int aHi = a.length - suffix;
+        int bHi = b.length - suffix;
+        boolean linear = mode == Mode.LINEAR_SPACE
+                || (mode == Mode.AUTO && (aHi - prefix) + (bHi - prefix) > CLASSIC_MAX_TOKENS);
+        if (linear) {
+            marker.linearSpace(prefix, aHi, prefix, bHi);
+        } else {
+            marker.classic(prefix, aHi, prefix, bHi);
+        }
+
+        return buildResult(oldTokens, newTokens, marker, Math.max(context, 0), linear,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Tách văn bản thành các dòng, giữ ký tự xuống dòng ở cuối mỗi dòng
+     */
+    public static List<String> splitLines(String text) {
+        List<String> lines = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return lines;
+        }
+        int start = 0;
+        int nl;
+        while ((nl = text.indexOf('\n', start)) >= 0) {
+            lines.add(text.substring(start, nl + 1));
+            start = nl + 1;
+        }
+        if (start < text.length()) {
+            lines.add(text.substring(start));
+        }
+        return lines;
+    }
+
+    // ==================== ALGORITHM ====================
+
+    /**
+     * Đánh dấu token bị xóa (a) / được thêm (b)
+     */
+    private static final class Marker {
+        final int[] a;
+        final int[] b;
+        final boolean[] deleted;
+        final boolean[] inserted;
+        final long deadline;
+        boolean timedOut;
+
+        Marker(int[] a, int[] b, long deadline) {
+            this.a = a;
+            this.b = b;
+            this.deleted = new boolean[a.length];
+            this.inserted = new boolean[b.length];
+            this.deadline = deadline;
+        }
+
+        void replaceAll(int aLo, int aHi, int bLo, int bHi) {
+            Arrays.fill(deleted, aLo, aHi, true);
+            Arrays.fill(inserted, bLo, bHi, true);
+        }
+
+        /**
+         * Myers cổ điển: lưu V của từng bước D rồi truy ngược
+         */
+        void classic(int aLo, int aHi, int bLo, int bHi) {
+            int n = aHi - aLo;
+            int m = bHi - bLo;
+            if (n == 0 || m == 0) {
+                replaceAll(aLo, aHi, bLo, bHi);
+                return;
+            }
+
+            int max = n + m;
+            int offset = max + 1;
+            int[] v = new int[2 * max + 3];
+            List<int[]> trace = new ArrayList<>();
+
+            int found = -1;
+            for (int d = 0; d <= max && found < 0; d++) {
+                if ((d & 63) == 0 && System.nanoTime() > deadline) {
+                    timedOut = true;
+                    replaceAll(aLo, aHi, bLo, bHi);
+                    return;
+                }
+                trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+                for (int k = -d; k <= d; k += 2) {
+                    int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                            ? v[offset + k + 1] : v[offset + k - 1] + 1;
+                    int y = x - k;
+                    while (x < n && y < m && a[aLo + x] == b[bLo + y]) {
+                        x++;
+                        y++;
+                    }
+                    v[offset + k] = x;
+                    if (x >= n && y >= m) {
+                        found = d;
+                        break;
+                    }
+                }
+            }
+
+            // Truy ngược từ (n, m) về (0, 0)
+            int x = n;
+            int y = m;
+            for (int d = found; d > 0; d--) {
+                int[] prev = trace.get(d);   // V trước bước d, chỉ số k + d
+                int k = x - y;
+                boolean down = k == -d || (k != d && prev[k - 1 + d] < prev[k + 1 + d]);
+                int prevK = down ? k + 1 : k - 1;
+                int prevX = prev[prevK + d];
+                int prevY = prevX - prevK;
+                if (down) {
+                    inserted[bLo + prevY] = true;
+                } else {
+                    deleted[aLo + prevX] = true;
+                }
+                x = prevX;
+                y = prevY;
+            }
+        }
+
+        /**
+         * Myers không gian tuyến tính: tìm middle snake, chia đôi vùng
+         */
+        void linearSpace(int aLo, int aHi, int bLo, int bHi) {
+            Deque<int[]> pending = new ArrayDeque<>();
+            pending.push(new int[] {aLo, aHi, bLo, bHi});
+
+            while (!pending.isEmpty()) {
+                int[] r = pending.pop();
+                int x0 = r[0], x1 = r[1], y0 = r[2], y1 = r[3];
+
+                while (x0 < x1 && y0 < y1 && a[x0] == b[y0]) {
+                    x0++;
+                    y0++;
+                }
+                while (x0 < x1 && y0 < y1 && a[x1 - 1] == b[y1 - 1]) {
+                    x1--;
+                    y1--;
+                }
+                if (x0 == x1 || y0 == y1) {
+                    replaceAll(x0, x1, y0, y1);
+                    continue;
+                }
+
+                int[] split = timedOut ? null : bisect(x0, x1, y0, y1);
+                if (split == null
+                        || (split[0] == x0 && split[1] == y0)
+                        || (split[0] == x1 && split[1] == y1)) {
+                    replaceAll(x0, x1, y0, y1);
+                    continue;
+                }
+                pending.push(new int[] {split[0], x1, split[1], y1});
+                pending.push(new int[] {x0, split[0], y0, split[1]});
+            }
+        }
+
+        /**
+         * Tìm điểm chia (middle snake) bằng cách chạy song song hai chiều
+         *
+         * @return {x, y} tuyệt đối, hoặc null nếu hết giờ / không có phần chung
+         */
+        private int[] bisect(int aLo, int aHi, int bLo, int bHi) {
+            int n = aHi - aLo;
+            int m = bHi - bLo;
+            int maxD = (n + m + 1) / 2;
+            int vOffset = maxD;
+            int vLength = 2 * maxD + 2;
+            int[] v1 = new int[vLength];
+            int[] v2 = new int[vLength];
+            Arrays.fill(v1, -1);
+            Arrays.fill(v2, -1);
+            v1[vOffset + 1] = 0;
+            v2[vOffset + 1] = 0;
+
+            int delta = n - m;
+            boolean front = (delta & 1) != 0;
+            int k1start = 0, k1end = 0, k2start = 0, k2end = 0;
+
+            for (int d = 0; d < maxD; d++) {
+                if (System.nanoTime() > deadline) {
+                    timedOut = true;
+                    return null;
+                }
+
+                // Chiều xuôi
+                for (int k1 = -d + k1start; k1 <= d - k1end; k1 += 2) {
+                    int k1Offset = vOffset + k1;
+                    int x1 = (k1 == -d || (k1 != d && v1[k1Offset - 1] < v1[k1Offset + 1]))
+                            ? v1[k1Offset + 1] : v1[k1Offset - 1] + 1;
+                    int y1 = x1 - k1;
+                    while (x1 < n && y1 < m && a[aLo + x1] == b[bLo + y1]) {
+                        x1++;
+                        y1++;
+                    }
+                    v1[k1Offset] = x1;
+                    if (x1 > n) {
+                        k1end += 2;
+                    } else if (y1 > m) {
+                        k1start += 2;
+                    } else if (front) {
+                        int k2Offset = vOffset + delta - k1;
+                        if (k2Offset >= 0 && k2Offset < vLength && v2[k2Offset] != -1
+                                && x1 >= n - v2[k2Offset]) {
+                            return new int[] {aLo + x1, bLo + y1};
+                        }
+                    }
+                }
+
+                // Chiều ngược
+                for (int k2 = -d + k2start; k2 <= d - k2end; k2 += 2) {
+                    int k2Offset = vOffset + k2;
+                    int x2 = (k2 == -d || (k2 != d && v2[k2Offset - 1] < v2[k2Offset + 1]))
+                            ? v2[k2Offset + 1] : v2[k2Offset - 1] + 1;
+                    int y2 = x2 - k2;
+                    while (x2 < n && y2 < m && a[aHi - 1 - x2] == b[bHi - 1 - y2]) {
+                        x2++;
+                        y2++;
+                    }
+                    v2[k2Offset] = x2;
+                    if (x2 > n) {
+                        k2end += 2;
+                    } else if (y2 > m) {
+                        k2start += 2;
+                    } else if (!front) {
+                        int k1Offset = vOffset + delta - k2;
+                        if (k1Offset >= 0 && k1Offset < vLength && v1[k1Offset] != -1) {
+                            int x1 = v1[k1Offset];
+                            int y1 = vOffset + x1 - k1Offset;
+                            if (x1 >= n - x2) {
+                                return new int[] {aLo + x1, bLo + y1};
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    // ==================== HUNKS ====================
+
+    private static Result buildResult(List<String> oldTokens, List<String> newTokens, Marker marker,
+                                      int context, boolean linear, long elapsedNanos) {
+        boolean[] deleted = marker.deleted;
+        boolean[] inserted = marker.inserted;
+        int n = deleted.length;
+        int m = inserted.length;
+
+        // Các đoạn thay đổi [i0, i1) x [j0, j1) theo thứ tự
+        List<int[]> changes = new ArrayList<>();
+        int insertedCount = 0;
+        int deletedCount = 0;
+        int i = 0;
+        int j = 0;
+        while (i < n || j < m) {
+            if ((i < n && deleted[i]) || (j < m && inserted[j])) {
+                int i0 = i;
+                int j0 = j;
+                while (i < n && deleted[i]) {
+                    i++;
+                }
+                while (j < m && inserted[j]) {
+                    j++;
+                }
+                deletedCount += i - i0;
+                insertedCount += j - j0;
+                changes.add(new int[] {i0, i, j0, j});
+            } else {
+                i++;
+                j++;
+            }
+        }
+
+        List<Hunk> hunks = new ArrayList<>();
+        int c = 0;
+        while (c < changes.size()) {
+            // Gộp các thay đổi cách nhau không quá 2 * context token
+            int last = c;
+            while (last + 1 < changes.size() && changes.get(last + 1)[0] - changes.get(last)[1] <= 2 * context) {
+                last++;
+            }
+            int[] first = changes.get(c);
+            int[] end = changes.get(last);
+            int lead = Math.min(context, first[0]);
+            int trail = Math.min(context, n - end[1]);
+            int oldStart = first[0] - lead;
+            int newStart = first[2] - lead;
+            int oldEnd = end[1] + trail;
+            int newEnd = end[3] + trail;
+
+            List<Edit> edits = new ArrayList<>();
+            int oi = oldStart;
+            for (int k = c; k <= last; k++) {
+                int[] ch = changes.get(k);
+                addEdit(edits, Op.EQUAL, oldTokens, oi, ch[0]);
+                addEdit(edits, Op.DELETE, oldTokens, ch[0], ch[1]);
+                addEdit(edits, Op.INSERT, newTokens, ch[2], ch[3]);
+                oi = ch[1];
+            }
+            addEdit(edits, Op.EQUAL, oldTokens, oi, oldEnd);
+
+            hunks.add(new Hunk(oldStart, oldEnd - oldStart, newStart, newEnd - newStart, edits));
+            c = last + 1;
+        }
+
+        return new Result(hunks, insertedCount, deletedCount, linear, marker.timedOut, elapsedNanos);
+    }
+
+    private static void addEdit(List<Edit> edits, Op op, List<String> tokens, int from, int to) {
+        if (to > from) {
+            StringBuilder sb = new StringBuilder();
+            for (int k = from; k < to; k++) {
+                sb.append(tokens.get(k));
+            }
+            edits.add(new Edit(op, sb.toString()));
+        }
+    }
+
+    private static int[] intern(List<String> tokens, Map<String, Integer> ids) {
+        int[] result = new int[tokens.size()];
+        for (int k = 0; k < result.length; k++) {
+            Integer id = ids.get(tokens.get(k));
+            if (id == null) {
+                id = ids.size();
+                ids.put(tokens.get(k), id);
+            }
+            result[k] = id;
+        }
+        return result;
+    }
+}
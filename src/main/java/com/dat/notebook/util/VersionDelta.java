@@ -0,0 +1,178 @@
+package com.dat.notebook.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * VersionDelta - Mã hóa nội dung một version dưới dạng delta so với version gốc.
+ *
+ * Thuật toán (kiểu copy/insert như git/xdelta):
+ * - Chia nội dung gốc thành các block BLOCK_SIZE ký tự, lập bảng hash -> offset
+ * - Quét nội dung mới, tìm block trùng trong gốc rồi mở rộng về hai phía
+ * - Phần trùng ghi thành COPY(offset, length), phần khác ghi thành INSERT(text)
+ *
+ * Định dạng: 1 byte FORMAT_V1 + payload nén Deflate gồm
+ * [độ dài gốc][độ dài đích][hashCode đích] + danh sách lệnh + OP_END.
+ * Ký tự được ghi dạng UTF-16 (writeChars) nên không bao giờ cắt đôi
+ * cặp surrogate; Deflate bù lại phần kích thước.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class VersionDelta {
+
+    public static final byte FORMAT_V1 = 1;
+
+    private static final int BLOCK_SIZE = 16;
+    private static final byte OP_END = 0;
+    private static final byte OP_COPY = 1;
+    private static final byte OP_INSERT = 2;
+
+    private VersionDelta() {
+        // Utility class
+    }
+
+    // ==================== ENCODE ====================
+
+    /**
+     * Tạo delta biến base thành target
+     *
+     * @param base Nội dung gốc (keyframe)
+     * @param target Nội dung mới
+     * @return Delta đã nén
+     */
+    public static byte[] encode(String base, String target) {
+        Map<Long, Integer> index = indexBlocks(base);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(FORMAT_V1);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeInt(base.length());
+            out.writeInt(target.length());
+            out.writeInt(target.hashCode());
+
+            int literalStart = 0;
+            int i = 0;
+            while (i + BLOCK_SIZE <= target.length()) {
+                Integer candidate = index.get(blockHash(target, i));
+                if (candidate == null || !target.regionMatches(i, base, candidate, BLOCK_SIZE)) {
+                    i++;
+                    continue;
+                }
+
+                // Mở rộng đoạn trùng về phía trước và phía sau
+                int baseStart = candidate;
+                int targetStart = i;
+                while (baseStart > 0 && targetStart > literalStart
+                        && base.charAt(baseStart - 1) == target.charAt(targetStart - 1)) {
+                    baseStart--;
+                    targetStart--;
+                }
+                int baseEnd = candidate + BLOCK_SIZE;
+                int targetEnd = i + BLOCK_SIZE;
+                while (baseEnd < base.length() && targetEnd < target.length()
+                        && base.charAt(baseEnd) == target.charAt(targetEnd)) {
+                    baseEnd++;
+                    targetEnd++;
+                }
+
+                writeInsert(out, target, literalStart, targetStart);
+                out.writeByte(OP_COPY);
+                out.writeInt(baseStart);
+                out.writeInt(baseEnd - baseStart);
+
+                i = targetEnd;
+                literalStart = targetEnd;
+            }
+            writeInsert(out, target, literalStart, target.length());
+            out.writeByte(OP_END);
+        } catch (IOException e) {
+            // ByteArrayOutputStream không ném IOException
+            throw new IllegalStateException("Không tạo được delta", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // ==================== DECODE ====================
+
+    /**
+     * Áp dụng delta lên nội dung gốc
+     *
+     * @param base Nội dung gốc đã dùng khi encode
+     * @param delta Delta từ {@link #encode(String, String)}
+     * @return Nội dung đích
+     * @throws IllegalStateException nếu delta hỏng hoặc không khớp với base
+     */
+    public static String apply(String base, byte[] delta) {
+        if (delta == null || delta.length == 0 || delta[0] != FORMAT_V1) {
+            throw new IllegalStateException("Định dạng delta không hỗ trợ");
+        }
+
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(delta, 1, delta.length - 1)))) {
+            int baseLength = in.readInt();
+            int targetLength = in.readInt();
+            int targetHash = in.readInt();
+            if (base == null || base.length() != baseLength) {
+                throw new IllegalStateException("Delta không khớp với nội dung gốc");
+            }
+
+            StringBuilder sb = new StringBuilder(targetLength);
+            byte op;
+            while ((op = in.readByte()) != OP_END) {
+                int a = in.readInt();
+                if (op == OP_COPY) {
+                    int length = in.readInt();
+                    sb.append(base, a, a + length);
+                } else if (op == OP_INSERT) {
+                    for (int k = 0; k < a; k++) {
+                        sb.append(in.readChar());
+                    }
+                } else {
+                    throw new IllegalStateException("Lệnh delta không hợp lệ: " + op);
+                }
+            }
+
+            String target = sb.toString();
+            if (target.length() != targetLength || target.hashCode() != targetHash) {
+                throw new IllegalStateException("Delta bị hỏng (checksum không khớp)");
+            }
+            return target;
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException("Delta bị hỏng: " + e.getMessage(), e);
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private static Map<Long, Integer> indexBlocks(String base) {
+        Map<Long, Integer> index = new HashMap<>();
+        for (int offset = 0; offset + BLOCK_SIZE <= base.length(); offset += BLOCK_SIZE) {
+            index.putIfAbsent(blockHash(base, offset), offset);
+        }
+        return index;
+    }
+
+    private static long blockHash(String s, int offset) {
+        long h = 1125899906842597L;
+        for (int k = offset; k < offset + BLOCK_SIZE; k++) {
+            h = 31 * h + s.charAt(k);
+        }
+        return h;
+    }
+
+    private static void writeInsert(DataOutputStream out, String target, int from, int to) throws IOException {
+        if (to > from) {
+            out.writeByte(OP_INSERT);
+            out.writeInt(to - from);
+            out.writeChars(target.substring(from, to));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.config.DatabaseConfig;
+import com.dat.notebook.config.MigrationRunner;
+import com.dat.notebook.model.NoteVersion;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * VersionNumberingStress - Kiểm tra cấp số version khi nhiều lần lưu chạy đồng thời.
+ *
+ * Tool tạo user "bench_versions" và vài ghi chú tạm, rồi cho N thread cùng tạo
+ * version trên các ghi chú đó (mọi thread tranh nhau cùng một ghi chú nếu
+ * chỉ có 1 ghi chú). Cứ mỗi {@value #PROC_EVERY} lần, thread gọi
+ * sp_CreateNoteVersion thay cho {@link NoteVersionDAO#createVersion} để kiểm
+ * tra hai đường ghi dùng chung bộ đếm Notes.LastVersionNumber.
+ *
+ * Sau khi chạy, kiểm tra với từng ghi chú:
+ * - không có VersionNumber trùng
+ * - số version liên tục 1..N và N = Notes.LastVersionNumber
+ * - số version trong DB = số lần tạo thành công
+ * rồi xóa ghi chú tạm.
+ *
+ * Chạy:
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass="com.dat.notebook.util.VersionNumberingStress" \
+ *     -Dexec.args="16 200 1" -Ddb.port=1433 -Ddb.username=sa -Ddb.password=...
+ * </pre>
+ * Tham số: [số thread] [số version mỗi thread] [số ghi chú]
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class VersionNumberingStress {
+
+    private static final String BENCH_USER = "bench_versions";
+    private static final int PROC_EVERY = 8;
+
+    // ==================== SQL ====================
+
+    private static final String SQL_ENSURE_USER =
+        "IF NOT EXISTS (SELECT 1 FROM [User] WHERE username = ?) " +
+        "INSERT INTO [User] (username, password_hash, full_name) VALUES (?, 'bench', N'Version Stress'); " +
+        "SELECT user_id FROM [User] WHERE username = ?";
+
+    private static final String SQL_CREATE_NOTE =
+        "INSERT INTO Notes (UserID, Title, Content, Status) VALUES (?, ?, N'', 'REGULAR')";
+
+    private static final String SQL_CHECK =
+        "SELECT COUNT(*) AS Total, COUNT(DISTINCT v.VersionNumber) AS DistinctNumbers, " +
+        "       MIN(v.VersionNumber) AS MinNumber, MAX(v.VersionNumber) AS MaxNumber, " +
+        "       (SELECT LastVersionNumber FROM Notes WHERE NoteID = ?) AS Counter " +
+        "FROM NoteVersions v WHERE v.NoteID = ?";
+
+    private static final String SQL_DELETE_NOTE = "DELETE FROM Notes WHERE NoteID = ?";
+
+    // ==================== MAIN ====================
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int noteCount = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        System.out.println("\n========================================");
+        System.out.println("🔢 VERSION NUMBERING STRESS - " + threads + " thread x " + perThread
+            + " version, " + noteCount + " ghi chú");
+        System.out.println("========================================\n");
+
+        MigrationRunner.migrate();
+
+        int userId;
+        int[] noteIds = new int[noteCount];
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            userId = ensureUser(conn);
+            for (int i = 0; i < noteCount; i++) {
+                noteIds[i] = createNote(conn, userId, "Stress " + System.currentTimeMillis() + " #" + i);
+            }
+        }
+
+        int[] created = new int[noteCount];
+        AtomicInteger failures = new AtomicInteger();
+        List<long[]> latencies = new ArrayList<>();
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<int[]>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            long[] samples = new long[perThread];
+            latencies.add(samples);
+            results.add(pool.submit(() -> {
+                int[] ok = new int[noteCount];
+                NoteVersionDAO dao = new NoteVersionDAO();
+                startGate.await();
+                for (int i = 0; i < perThread; i++) {
+                    int slot = (thread + i) % noteCount;
+                    String html = "<p>thread " + thread + " - lần " + i + "</p>";
+                    long start = System.nanoTime();
+                    boolean success = i % PROC_EVERY == PROC_EVERY - 1
+                        ? createViaProcedure(noteIds[slot], userId, html)
+                        : dao.createVersion(newVersion(noteIds[slot], userId, html));
+                    samples[i] = System.nanoTime() - start;
+                    if (success) {
+                        ok[slot]++;
+                    } else {
+                        failures.incrementAndGet();
+                    }
+                }
+                return ok;
+            }));
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        for (Future<int[]> result : results) {
+            int[] ok = result.get();
+            for (int i = 0; i < noteCount; i++) {
+                created[i] += ok[i];
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        int total = Arrays.stream(created).sum();
+        System.out.printf("Tạo %d version trong %.1f s (%.0f version/s), lỗi: %d%n",
+            total, elapsed / 1e9, total / (elapsed / 1e9), failures.get());
+        System.out.printf("Độ trễ: median %.1f ms, p95 %.1f ms, max %.1f ms%n%n",
+            all[all.length / 2] / 1e6, all[(int) Math.ceil(all.length * 0.95) - 1] / 1e6,
+            all[all.length - 1] / 1e6);
+
+        boolean passed = failures.get() == 0;
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            for (int i = 0; i < noteCount; i++) {
+                passed &= check(conn, noteIds[i], created[i]);
+            }
+            for (int noteId : noteIds) {
+                try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_NOTE)) {
+                    ps.setInt(1, noteId);
+                    ps.executeUpdate();
+                }
+            }
+        }
+
+        System.out.println(passed ? "\n✓ PASS - không có số version trùng hoặc nhảy số"
+                                  : "\n✗ FAIL");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private static NoteVersion newVersion(int noteId, int userId, String html) {
+        NoteVersion version = new NoteVersion();
+        version.setNoteId(noteId);
+        version.setTitle("Stress");
+        version.setHtmlContent(html);
+        version.setCreatedBy(userId);
+        version.setChangeDescription("stress");
+        return version;
+    }
+
+    private static boolean createViaProcedure(int noteId, int userId, String html) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             CallableStatement cs = conn.prepareCall("{CALL sp_CreateNoteVersion(?, ?, ?, ?, ?)}")) {
+            cs.setInt(1, noteId);
+            cs.setString(2, "Stress");
+            cs.setString(3, html);
+            cs.setInt(4, userId);
+            cs.setString(5, "stress (procedure)");
+            cs.execute();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("sp_CreateNoteVersion ERROR: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean check(Connection conn, int noteId, int created) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_CHECK)) {
+            ps.setInt(1, noteId);
+            ps.setInt(2, noteId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                int total = rs.getInt("Total");
+                int distinct = rs.getInt("DistinctNumbers");
+                int min = rs.getInt("MinNumber");
+                int max = rs.getInt("MaxNumber");
+                int counter = rs.getInt("Counter");
+                boolean ok = total == created && distinct == total
+                          && (total == 0 || (min == 1 && max == total)) && counter == max;
+                System.out.printf("%s note %d: %d version (tạo thành công %d), %d số khác nhau, "
+                    + "khoảng %d..%d, LastVersionNumber=%d%n",
+                    ok ? "✓" : "✗", noteId, total, created, distinct, min, max, counter);
+                return ok;
+            }
+        }
+    }
+
+    private static int ensureUser(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_ENSURE_USER)) {
+            ps.setString(1, BENCH_USER);
+            ps.setString(2, BENCH_USER);
+            ps.setString(3, BENCH_USER);
+            boolean hasResult = ps.execute();
+            while (!hasResult && ps.getUpdateCount() != -1) {
+                hasResult = ps.getMoreResults();
+            }
+            try (ResultSet rs = ps.getResultSet()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static int createNote(Connection conn, int userId, String title) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_CREATE_NOTE, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, userId);
+            ps.setString(2, title);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.config.DatabaseConfig;
+import com.dat.notebook.util.VersionRetentionPolicy.VersionStamp;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VersionRetentionJob - Áp {@link VersionRetentionPolicy} lên toàn bộ NoteVersions.
+ *
+ * Một lượt quét (sweep) duyệt ghi chú theo NoteID tăng dần (keyset), mỗi bước
+ * NOTES_PER_STEP ghi chú rồi nghỉ PAUSE_SECONDS để không chiếm DB. Version hết
+ * hạn được xóa theo lô DELETE_BATCH, mỗi lô một transaction
+ * ({@link NoteVersionDAO#pruneVersions(int, Set)}).
+ *
+ * Cuối lượt quét:
+ * - sp_CollectVersionBlobs giải phóng blob không còn version nào tham chiếu
+ * - sp_CleanupOldSnapshots xóa auto-save snapshot cũ hơn 7 ngày
+ * - In báo cáo số version đã xóa và số byte đã giải phóng
+ * Lượt tiếp theo chạy sau SWEEP_INTERVAL_HOURS giờ.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class VersionRetentionJob {
+
+    private static final AppLogger LOG = AppLogger.getLogger(VersionRetentionJob.class);
+
+    private static final String JOB_NAME = "version-retention";
+    private static final int NOTES_PER_STEP = 50;
+    private static final int DELETE_BATCH = 200;
+    private static final long PAUSE_SECONDS = 2;
+    private static final long SWEEP_INTERVAL_HOURS = 6;
+
+    // ==================== SQL ====================
+
+    private static final String SQL_NEXT_NOTES =
+        "SELECT TOP (?) NoteID FROM NoteVersions WHERE NoteID > ? " +
+        "GROUP BY NoteID HAVING COUNT(*) > 1 ORDER BY NoteID";
+
+    private static final String SQL_NOTE_STAMPS =
+        "SELECT VersionID, VersionNumber, CreatedAt FROM NoteVersions WHERE NoteID = ?";
+
+    private static final String SQL_CLEANUP_SNAPSHOTS = "{CALL sp_CleanupOldSnapshots}";
+
+    // ==================== REPORT ====================
+
+    /**
+     * Kết quả một lượt quét
+     */
+    public static final class RetentionReport {
+        public int notesScanned;
+        public int versionsDeleted;
+        public long legacyBytesReclaimed;
+        public long blobsFreed;
+        public long blobBytesReclaimed;
+        public int snapshotsDeleted;
+        public long elapsedMs;
+
+        public long getBytesReclaimed() {
+            return legacyBytesReclaimed + blobBytesReclaimed;
+        }
+
+        @Override
+        public String toString() {
+            return notesScanned + " ghi chú, xóa " + versionsDeleted + " version, " + blobsFreed
+                + " blob, " + snapshotsDeleted + " snapshot; giải phóng "
+                + (getBytesReclaimed() / 1024) + " KB (" + elapsedMs + " ms)";
+        }
+    }
+
+    /**
+     * Trạng thái của lượt quét đang chạy
+     */
+    private static final class Sweep {
+        final VersionRetentionPolicy policy = VersionRetentionPolicy.load();
+        final LocalDateTime now = LocalDateTime.now();
+        final long startedAt = System.currentTimeMillis();
+        final RetentionReport report = new RetentionReport();
+        int lastNoteId = 0;
+    }
+
+    private static volatile RetentionReport lastReport;
+
+    private VersionRetentionJob() {
+        // Utility class
+    }
+
+    // ==================== SCHEDULING ====================
+
+    /**
+     * Bắt đầu quét nền sau một khoảng trễ, lặp lại mỗi SWEEP_INTERVAL_HOURS
+     *
+     * @param initialDelayMinutes Độ trễ trước lượt đầu (phút)
+     */
+    public static void start(long initialDelayMinutes) {
+        BackgroundJobs.schedule(JOB_NAME, () -> step(new Sweep()), initialDelayMinutes, TimeUnit.MINUTES);
+    }
+
+    private static void step(Sweep sweep) {
+        if (sweepStep(sweep)) {
+            BackgroundJobs.schedule(JOB_NAME, () -> step(sweep), PAUSE_SECONDS, TimeUnit.SECONDS);
+            return;
+        }
+        finish(sweep);
+        BackgroundJobs.schedule(JOB_NAME, () -> step(new Sweep()), SWEEP_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Chạy trọn một lượt quét ngay trên thread hiện tại (không nghỉ giữa các bước)
+     *
+     * @return Báo cáo lượt quét
+     */
+    public static RetentionReport runOnce() {
+        Sweep sweep = new Sweep();
+        while (sweepStep(sweep)) {
+            // Tiếp tục tới khi hết ghi chú
+        }
+        return finish(sweep);
+    }
+
+    /**
+     * Báo cáo của lượt quét gần nhất (null nếu chưa chạy)
+     */
+    public static RetentionReport getLastReport() {
+        return lastReport;
+    }
+
+    // ==================== CORE ====================
+
+    /**
+     * Xử lý NOTES_PER_STEP ghi chú kế tiếp
+     *
+     * @return true nếu còn ghi chú cần xử lý
+     */
+    private static boolean sweepStep(Sweep sweep) {
+        NoteVersionDAO dao = new NoteVersionDAO();
+        List<Integer> noteIds = new ArrayList<>();
+        List<Set<Integer>> expiredPerNote = new ArrayList<>();
+
+        // Đọc xong và trả connection trước khi xóa (pruneVersions tự mở transaction)
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement next = conn.prepareStatement(SQL_NEXT_NOTES);
+             PreparedStatement stamps = conn.prepareStatement(SQL_NOTE_STAMPS)) {
+            next.setInt(1, NOTES_PER_STEP);
+            next.setInt(2, sweep.lastNoteId);
+            try (ResultSet rs = next.executeQuery()) {
+                while (rs.next()) {
+                    noteIds.add(rs.getInt("NoteID"));
+                }
+            }
+
+            for (int noteId : noteIds) {
+                stamps.setInt(1, noteId);
+                List<VersionStamp> versions = new ArrayList<>();
+                try (ResultSet rs = stamps.executeQuery()) {
+                    while (rs.next()) {
+                        versions.add(new VersionStamp(rs.getInt("VersionID"), rs.getInt("VersionNumber"),
+                                rs.getTimestamp("CreatedAt").toLocalDateTime()));
+                    }
+                }
+                expiredPerNote.add(sweep.policy.selectExpired(versions, sweep.now));
+            }
+        } catch (SQLException e) {
+            LOG.error("VersionRetentionJob ERROR: " + e.getMessage());
+            return false;
+        }
+
+        for (int i = 0; i < noteIds.size(); i++) {
+            int noteId = noteIds.get(i);
+            Iterator<Integer> it = expiredPerNote.get(i).iterator();
+            while (it.hasNext()) {
+                Set<Integer> batch = new HashSet<>();
+                while (it.hasNext() && batch.size() < DELETE_BATCH) {
+                    batch.add(it.next());
+                }
+                long[] result = dao.pruneVersions(noteId, batch);
+                sweep.report.versionsDeleted += (int) result[0];
+                sweep.report.legacyBytesReclaimed += result[1];
+            }
+            sweep.lastNoteId = noteId;
+        }
+        sweep.report.notesScanned += noteIds.size();
+        return noteIds.size() == NOTES_PER_STEP;
+    }
+
+    private static RetentionReport finish(Sweep sweep) {
+        RetentionReport report = sweep.report;
+
+        long[] freed = new NoteVersionDAO().collectGarbage();
+        report.blobsFreed = freed[0];
+        report.blobBytesReclaimed = freed[1];
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             CallableStatement cs = conn.prepareCall(SQL_CLEANUP_SNAPSHOTS)) {
+            report.snapshotsDeleted = Math.max(cs.executeUpdate(), 0);
+        } catch (SQLException e) {
+            LOG.error("VersionRetentionJob: Không dọn được auto-save snapshots - " + e.getMessage());
+        }
+
+        report.elapsedMs = System.currentTimeMillis() - sweep.startedAt;
+        lastReport = report;
+        LOG.info("VersionRetentionJob [" + sweep.policy + "]: " + report);
+        return report;
+    }
+}
@@ -0,0 +1,170 @@
+package com.dat.notebook.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * VersionRetentionPolicy - Chính sách giữ lại version theo bậc thời gian.
+ *
+ * Với mỗi ghi chú (tính từ thời điểm chạy):
+ * - Trong keepAllHours giờ gần nhất: giữ TẤT CẢ version
+ * - Đến hourlyDays ngày: giữ version mới nhất của mỗi giờ
+ * - Đến dailyDays ngày: giữ version mới nhất của mỗi ngày
+ * - Cũ hơn: giữ version mới nhất của mỗi tuần
+ * - Sau đó chỉ giữ tối đa maxPerNote version mới nhất còn lại
+ * Version mới nhất của ghi chú luôn được giữ.
+ *
+ * Cấu hình trong db.properties (System property -D... ghi đè):
+ * <pre>
+ * versions.retention.keepAllHours=24
+ * versions.retention.hourlyDays=7
+ * versions.retention.dailyDays=30
+ * versions.retention.maxPerNote=200
+ * </pre>
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public final class VersionRetentionPolicy {
+
+    private static final AppLogger LOG = AppLogger.getLogger(VersionRetentionPolicy.class);
+
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final Duration DAY = Duration.ofDays(1);
+    private static final Duration WEEK = Duration.ofDays(7);
+
+    private final Duration keepAll;
+    private final Duration hourlyUntil;
+    private final Duration dailyUntil;
+    private final int maxPerNote;
+
+    /**
+     * Mốc của một version - đủ để áp chính sách
+     */
+    public static final class VersionStamp {
+        public final int versionId;
+        public final int versionNumber;
+        public final LocalDateTime createdAt;
+
+        public VersionStamp(int versionId, int versionNumber, LocalDateTime createdAt) {
+            this.versionId = versionId;
+            this.versionNumber = versionNumber;
+            this.createdAt = createdAt;
+        }
+    }
+
+    public VersionRetentionPolicy(int keepAllHours, int hourlyDays, int dailyDays, int maxPerNote) {
+        if (keepAllHours < 0 || hourlyDays < 0 || dailyDays < 0 || maxPerNote < 1) {
+            throw new IllegalArgumentException("Cấu hình retention không hợp lệ");
+        }
+        this.keepAll = Duration.ofHours(keepAllHours);
+        this.hourlyUntil = Duration.ofDays(hourlyDays);
+        this.dailyUntil = Duration.ofDays(dailyDays);
+        this.maxPerNote = maxPerNote;
+    }
+
+    /**
+     * Đọc chính sách từ db.properties / System properties
+     */
+    public static VersionRetentionPolicy load() {
+        Properties props = new Properties();
+        try (InputStream input = VersionRetentionPolicy.class.getClassLoader().getResourceAsStream("db.properties")) {
+            if (input != null) {
+                props.load(input);
+            }
+        } catch (IOException e) {
+            LOG.error("VersionRetentionPolicy: Dùng cấu hình mặc định - " + e.getMessage());
+        }
+        try {
+            return new VersionRetentionPolicy(
+                setting(props, "versions.retention.keepAllHours", 24),
+                setting(props, "versions.retention.hourlyDays", 7),
+                setting(props, "versions.retention.dailyDays", 30),
+                setting(props, "versions.retention.maxPerNote", 200));
+        } catch (IllegalArgumentException e) {
+            LOG.error("VersionRetentionPolicy: " + e.getMessage() + " - dùng cấu hình mặc định");
+            return new VersionRetentionPolicy(24, 7, 30, 200);
+        }
+    }
+
+    private static int setting(Properties props, String key, int defaultValue) {
+        String value = System.getProperty(key, props.getProperty(key));
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn("VersionRetentionPolicy: Giá trị không hợp lệ cho " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    // ==================== SELECTION ====================
+
+    /**
+     * Chọn các version cần xóa của một ghi chú
+     *
+     * @param versions Tất cả version của ghi chú (thứ tự bất kỳ)
+     * @param now Thời điểm áp chính sách
+     * @return VersionID cần xóa
+     */
+    public Set<Integer> selectExpired(List<VersionStamp> versions, LocalDateTime now) {
+        List<VersionStamp> newestFirst = new ArrayList<>(versions);
+        newestFirst.sort(Comparator.comparingInt((VersionStamp v) -> v.versionNumber).reversed());
+
+        Set<Integer> expired = new HashSet<>();
+        Set<String> seenBuckets = new HashSet<>();
+        int kept = 0;
+
+        for (int i = 0; i < newestFirst.size(); i++) {
+            VersionStamp v = newestFirst.get(i);
+            String bucket = bucketOf(v.createdAt, now);
+            // add() luôn được gọi để version mới nhất cũng chiếm bucket của nó
+            boolean firstInBucket = bucket == null || seenBuckets.add(bucket);
+            boolean keep = i == 0 || firstInBucket;
+            if (keep && kept < maxPerNote) {
+                kept++;
+            } else {
+                expired.add(v.versionId);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Khóa bucket của version; version cùng bucket chỉ giữ bản mới nhất.
+     *
+     * @return null nếu version nằm trong keepAll (luôn được giữ)
+     */
+    private String bucketOf(LocalDateTime createdAt, LocalDateTime now) {
+        Duration age = Duration.between(createdAt, now);
+        if (age.compareTo(keepAll) <= 0) {
+            return null;
+        }
+        Duration width = age.compareTo(hourlyUntil) <= 0 ? HOUR
+                       : age.compareTo(dailyUntil) <= 0 ? DAY
+                       : WEEK;
+        long epochSeconds = createdAt.atZone(ZoneId.systemDefault()).toEpochSecond();
+        return width.getSeconds() + ":" + Math.floorDiv(epochSeconds, width.getSeconds());
+    }
+
+    public int getMaxPerNote() {
+        return maxPerNote;
+    }
+
+    @Override
+    public String toString() {
+        return "keepAll=" + keepAll.toHours() + "h, hourly=" + hourlyUntil.toDays() + "d, daily="
+            + dailyUntil.toDays() + "d, maxPerNote=" + maxPerNote;
+    }
+}
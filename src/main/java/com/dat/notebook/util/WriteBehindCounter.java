@@ -0,0 +1,158 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WriteBehindCounter - Bộ đếm ghi trễ (write-behind) cho các counter tần suất cao
+ *
+ * Thay vì mỗi lần tăng counter (ví dụ ViewCount khi mở note) là một câu UPDATE
+ * trên một connection mới, các lần tăng được cộng dồn trong bộ nhớ
+ * (ConcurrentHashMap + LongAdder theo ID) và được ghi xuống DB định kỳ
+ * bằng MỘT batch UPDATE duy nhất.
+ *
+ * SQL truyền vào phải có dạng 2 tham số: (delta, id), ví dụ:
+ * "UPDATE Notes SET ViewCount = ViewCount + ? WHERE NoteID = ?"
+ *
+ * Gọi {@link #flushAll()} khi đóng ứng dụng để không mất số liệu.
+ *
+ * @author SmartNotebook Team
+ * @version 1.0
+ */
+public class WriteBehindCounter {
+
+    private static final AppLogger LOG = AppLogger.getLogger(WriteBehindCounter.class);
+
+    // ==================== REGISTRY ====================
+
+    /** Tất cả counter đã tạo - dùng cho flushAll() khi shutdown */
+    private static final List<WriteBehindCounter> REGISTRY = new CopyOnWriteArrayList<>();
+
+    // ==================== FIELDS ====================
+
+    private final String name;
+    private final String updateSql;
+    private final Map<Integer, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Tạo counter mới và lên lịch flush định kỳ
+     *
+     * @param name Tên counter (dùng cho log)
+     * @param updateSql Câu UPDATE với 2 tham số (delta, id)
+     * @param flushIntervalSeconds Chu kỳ flush (giây)
+     */
+    public WriteBehindCounter(String name, String updateSql, long flushIntervalSeconds) {
+        this.name = name;
+        this.updateSql = updateSql;
+        REGISTRY.add(this);
+        BackgroundJobs.scheduleWithFixedDelay("flush-" + name, this::flush,
+                flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // ==================== PUBLIC API ====================
+
+    /**
+     * Tăng counter của một ID lên 1 (không chạm DB)
+     *
+     * @param id ID đối tượng (ví dụ NoteID)
+     */
+    public void increment(int id) {
+        add(id, 1);
+    }
+
+    /**
+     * Số lượng tăng đang chờ ghi của một ID
+     *
+     * @param id ID đối tượng
+     * @return delta chưa flush
+     */
+    public long getPending(int id) {
+        LongAdder adder = pending.get(id);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Ghi toàn bộ delta đang chờ xuống DB bằng một batch UPDATE
+     * (trong một transaction: lỗi giữa chừng thì rollback và trả lại toàn bộ delta)
+     *
+     * @return Số dòng (ID) đã flush
+     */
+    public synchronized int flush() {
+        // Remove-and-swap: gỡ adder khỏi map rồi mới đọc - lần tăng sau dùng
+        // adder mới, map không giữ ID đã hết tăng. Lần tăng trễ trên adder đã
+        // gỡ được add() chuyển sang adder mới (xem add)
+        Map<Integer, Long> batch = new HashMap<>();
+        for (Integer id : pending.keySet()) {
+            LongAdder adder = pending.remove(id);
+            long delta = adder != null ? adder.sumThenReset() : 0;
+            if (delta > 0) {
+                batch.put(id, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+                for (Map.Entry<Integer, Long> entry : batch.entrySet()) {
+                    ps.setLong(1, entry.getValue());
+                    ps.setInt(2, entry.getKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+                return batch.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            LOG.error("WriteBehindCounter[" + name + "] flush ERROR: " + e.getMessage());
+            // Không dòng nào được ghi (đã rollback) - trả lại delta để lần flush sau thử lại
+            for (Map.Entry<Integer, Long> entry : batch.entrySet()) {
+                add(entry.getKey(), entry.getValue());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Cộng delta vào adder hiện tại của ID. computeIfAbsent chỉ khóa bin khi
+     * tạo adder mới; lần tăng thường chỉ là LongAdder.add (striped).
+     * Nếu flush() đã gỡ adder trong lúc cộng, phần flush chưa lấy
+     * (sumThenReset - mỗi đơn vị chỉ một bên lấy được) được chuyển sang adder mới.
+     */
+    private void add(int id, long delta) {
+        while (delta > 0) {
+            LongAdder adder = pending.computeIfAbsent(id, key -> new LongAdder());
+            adder.add(delta);
+            if (pending.get(id) == adder) {
+                return;
+            }
+            delta = adder.sumThenReset();
+        }
+    }
+
+    // ==================== SHUTDOWN ====================
+
+    /**
+     * Flush tất cả counter đã đăng ký (gọi khi đóng ứng dụng)
+     */
+    public static void flushAll() {
+        for (WriteBehindCounter counter : REGISTRY) {
+            counter.flush();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+-- V002 - Sample accounts, categories and notes
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+
+-- SAMPLE DATA
+
+-- Users (demo: abc123, admin: admin123, dat09: 221761)
+IF NOT EXISTS (SELECT * FROM [User] WHERE username = 'demo')
+    INSERT INTO [User] (username, password_hash, email, full_name)
+    VALUES ('demo', 'e99a18c428cb38d5f260853678922e03', 'demo@smartnotebook.com', 'Demo User');
+
+IF NOT EXISTS (SELECT * FROM [User] WHERE username = 'admin')
+    INSERT INTO [User] (username, password_hash, email, full_name)
+    VALUES ('admin', '0192023a7bbd73250516f069df18b500', 'admin@smartnotebook.com', 'Administrator');
+
+IF NOT EXISTS (SELECT * FROM [User] WHERE username = 'dat09')
+    INSERT INTO [User] (username, password_hash, email, full_name)
+    VALUES ('dat09', '7e4cbfdfef9bfb85aca0e3afdf2f7158', 'dat09@smartnotebook.com', 'Dat 09');
+GO
+
+-- Categories for demo user
+DECLARE @DemoID INT = (SELECT user_id FROM [User] WHERE username = 'demo');
+IF @DemoID IS NOT NULL AND NOT EXISTS (SELECT * FROM Categories WHERE UserID = @DemoID)
+BEGIN
+    INSERT INTO Categories (UserID, Name, Color, Icon, SortOrder) VALUES
+    (@DemoID, 'Personal', '#60a5fa', '📝', 1),
+    (@DemoID, 'Work', '#f59e0b', '💼', 2),
+    (@DemoID, 'Ideas', '#a78bfa', '💡', 3),
+    (@DemoID, 'To-do', '#34d399', '✅', 4);
+END
+GO
+
+-- Categories for dat09 user
+DECLARE @Dat09ID INT = (SELECT user_id FROM [User] WHERE username = 'dat09');
+IF @Dat09ID IS NOT NULL AND NOT EXISTS (SELECT * FROM Categories WHERE UserID = @Dat09ID)
+BEGIN
+    INSERT INTO Categories (UserID, Name, Color, Icon, SortOrder) VALUES
+    (@Dat09ID, N'Học tập', '#3b82f6', '📚', 1),
+    (@Dat09ID, N'Công việc', '#ef4444', '💻', 2),
+    (@Dat09ID, N'Dự án', '#8b5cf6', '🚀', 3),
+    (@Dat09ID, N'Cá nhân', '#10b981', '🏠', 4),
+    (@Dat09ID, N'Ý tưởng', '#f59e0b', '💡', 5);
+END
+GO
+
+PRINT '✓ Sample data created';
+GO
+
+-- Sample Notes for demo user
+DECLARE @DemoID2 INT = (SELECT user_id FROM [User] WHERE username = 'demo');
+DECLARE @WorkCat INT = (SELECT CategoryID FROM Categories WHERE UserID = @DemoID2 AND Name = 'Work');
+DECLARE @IdeasCat INT = (SELECT CategoryID FROM Categories WHERE UserID = @DemoID2 AND Name = 'Ideas');
+
+IF @DemoID2 IS NOT NULL AND NOT EXISTS (SELECT * FROM Notes WHERE UserID = @DemoID2)
+BEGIN
+    INSERT INTO Notes (UserID, CategoryID, Title, Content, Summary, Status, IsFavorite, Color) VALUES
+    (@DemoID2, @WorkCat, 'Project Sprint Planning', 
+     'Sprint goals: Complete login module, Implement CRUD operations, Add search functionality. Tasks: Backend API - 3 days, Frontend UI - 2 days, Testing - 2 days.',
+     'Sprint planning with milestones and deadlines',
+     'URGENT', 1, '#fef3c7'),
+    
+    (@DemoID2, @IdeasCat, 'AI Feature Ideas',
+     'AI features: Auto-tagging, Smart search, Sentiment analysis, Voice notes, Cloud sync.',
+     'Ideas for AI enhancements',
+     'IDEAS', 1, '#ede9fe'),
+    
+    (@DemoID2, @WorkCat, 'Meeting Notes',
+     'Q4 roadmap discussion. Key points: UI redesign, Performance optimization, Mobile app development.',
+     'Q4 planning meeting summary',
+     'REGULAR', 0, '#dbeafe');
+END
+GO
+
+-- Sample Notes for dat09 user
+DECLARE @Dat09ID2 INT = (SELECT user_id FROM [User] WHERE username = 'dat09');
+DECLARE @HocTapCat INT = (SELECT CategoryID FROM Categories WHERE UserID = @Dat09ID2 AND Name = N'Học tập');
+DECLARE @DuAnCat INT = (SELECT CategoryID FROM Categories WHERE UserID = @Dat09ID2 AND Name = N'Dự án');
+
+IF @Dat09ID2 IS NOT NULL AND NOT EXISTS (SELECT * FROM Notes WHERE UserID = @Dat09ID2)
+BEGIN
+    INSERT INTO Notes (UserID, CategoryID, Title, Content, Summary, Status, IsFavorite, Color) VALUES
+    (@Dat09ID2, @HocTapCat, N'Ôn tập Java OOP',
+     N'OOP: Encapsulation, Inheritance, Polymorphism, Abstraction. Collections: ArrayList, HashMap. Multi-threading: Thread, Runnable, Synchronized.',
+     N'Java OOP concepts review',
+     'URGENT', 1, '#dbeafe'),
+    
+    (@Dat09ID2, @DuAnCat, N'SmartNotebook Ideas',
+     N'Features: Dark mode, Rich text editor, Cloud sync, Export to PDF, Collaboration, AI summarization.',
+     N'Enhancement ideas for SmartNotebook',
+     'IDEAS', 1, '#ede9fe'),
+    
+    (@Dat09ID2, @HocTapCat, N'SQL Server Notes',
+     N'DDL: CREATE, ALTER, DROP. DML: SELECT, INSERT, UPDATE, DELETE. Functions: GETDATE(), COALESCE(), LEN(). Joins: INNER, LEFT, RIGHT.',
+     N'SQL Server quick reference',
+     'REGULAR', 1, '#e0e7ff');
+END
+GO
+
+PRINT '✓ Sample notes created';
+GO
@@ -0,0 +1,128 @@
+-- V003 - Materialized per-user statistics (NoteStatistics + trigger)
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+
+-- MATERIALIZED STATISTICS
+-- NoteStatistics giữ số liệu thống kê theo user, được trigger trên Notes
+-- cập nhật tăng dần (delta) ở mỗi lần ghi => đọc thống kê chỉ là 1 lookup theo PK.
+-- sp_ReconcileNoteStatistics tính lại từ Notes để sửa sai lệch (chạy định kỳ từ Java).
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'NoteStatistics')
+BEGIN
+    CREATE TABLE NoteStatistics (
+        UserID INT NOT NULL PRIMARY KEY,
+        TotalNotes INT NOT NULL DEFAULT 0,
+        RegularCount INT NOT NULL DEFAULT 0,
+        UrgentCount INT NOT NULL DEFAULT 0,
+        IdeasCount INT NOT NULL DEFAULT 0,
+        CompletedCount INT NOT NULL DEFAULT 0,
+        FavoriteCount INT NOT NULL DEFAULT 0,
+        ArchivedCount INT NOT NULL DEFAULT 0,
+        TotalWords BIGINT NOT NULL DEFAULT 0,
+        UpdatedAt DATETIME NOT NULL DEFAULT GETDATE(),
+        CONSTRAINT FK_NoteStatistics_User FOREIGN KEY (UserID) REFERENCES [User](user_id) ON DELETE CASCADE
+    );
+    PRINT '✓ Created table: NoteStatistics';
+END
+GO
+
+IF OBJECT_ID('trg_Notes_Statistics', 'TR') IS NOT NULL DROP TRIGGER trg_Notes_Statistics;
+IF OBJECT_ID('sp_ReconcileNoteStatistics', 'P') IS NOT NULL DROP PROCEDURE sp_ReconcileNoteStatistics;
+GO
+
+CREATE TRIGGER trg_Notes_Statistics ON Notes
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    -- Bỏ qua các UPDATE không ảnh hưởng thống kê (vd: ViewCount)
+    IF EXISTS (SELECT 1 FROM inserted) AND EXISTS (SELECT 1 FROM deleted)
+       AND NOT (UPDATE(UserID) OR UPDATE(Status) OR UPDATE(IsFavorite)
+                OR UPDATE(IsArchived) OR UPDATE(Content))
+        RETURN;
+
+    ;WITH Delta AS (
+        SELECT UserID, 1 AS Sign, Status, IsFavorite, IsArchived, Content FROM inserted
+        UNION ALL
+        SELECT UserID, -1 AS Sign, Status, IsFavorite, IsArchived, Content FROM deleted
+    ), Agg AS (
+        SELECT UserID,
+            SUM(CASE WHEN IsArchived = 0 THEN Sign ELSE 0 END) AS TotalNotes,
+            SUM(CASE WHEN IsArchived = 0 AND Status = 'REGULAR' THEN Sign ELSE 0 END) AS RegularCount,
+            SUM(CASE WHEN IsArchived = 0 AND Status = 'URGENT' THEN Sign ELSE 0 END) AS UrgentCount,
+            SUM(CASE WHEN IsArchived = 0 AND Status = 'IDEAS' THEN Sign ELSE 0 END) AS IdeasCount,
+            SUM(CASE WHEN IsArchived = 0 AND Status = 'COMPLETED' THEN Sign ELSE 0 END) AS CompletedCount,
+            SUM(CASE WHEN IsArchived = 0 AND IsFavorite = 1 THEN Sign ELSE 0 END) AS FavoriteCount,
+            SUM(CASE WHEN IsArchived = 1 THEN Sign ELSE 0 END) AS ArchivedCount,
+            SUM(CASE WHEN IsArchived = 0 AND LEN(LTRIM(RTRIM(ISNULL(Content, '')))) > 0
+                     THEN CAST(Sign AS BIGINT) * (LEN(Content) - LEN(REPLACE(Content, ' ', '')) + 1)
+                     ELSE 0 END) AS TotalWords
+        FROM Delta
+        GROUP BY UserID
+    )
+    MERGE NoteStatistics AS t
+    USING Agg AS s ON t.UserID = s.UserID
+    WHEN MATCHED THEN UPDATE SET
+        t.TotalNotes = t.TotalNotes + s.TotalNotes,
+        t.RegularCount = t.RegularCount + s.RegularCount,
+        t.UrgentCount = t.UrgentCount + s.UrgentCount,
+        t.IdeasCount = t.IdeasCount + s.IdeasCount,
+        t.CompletedCount = t.CompletedCount + s.CompletedCount,
+        t.FavoriteCount = t.FavoriteCount + s.FavoriteCount,
+        t.ArchivedCount = t.ArchivedCount + s.ArchivedCount,
+        t.TotalWords = t.TotalWords + s.TotalWords,
+        t.UpdatedAt = GETDATE()
+    WHEN NOT MATCHED THEN
+        INSERT (UserID, TotalNotes, RegularCount, UrgentCount, IdeasCount,
+                CompletedCount, FavoriteCount, ArchivedCount, TotalWords)
+        VALUES (s.UserID, s.TotalNotes, s.RegularCount, s.UrgentCount, s.IdeasCount,
+                s.CompletedCount, s.FavoriteCount, s.ArchivedCount, s.TotalWords);
+END
+GO
+
+CREATE PROCEDURE sp_ReconcileNoteStatistics
+AS
+BEGIN
+    SET NOCOUNT ON;
+    ;WITH Actual AS (
+        SELECT u.user_id AS UserID,
+            ISNULL(SUM(CASE WHEN n.IsArchived = 0 THEN 1 ELSE 0 END), 0) AS TotalNotes,
+            ISNULL(SUM(CASE WHEN n.IsArchived = 0 AND n.Status = 'REGULAR' THEN 1 ELSE 0 END), 0) AS RegularCount,
+            ISNULL(SUM(CASE WHEN n.IsArchived = 0 AND n.Status = 'URGENT' THEN 1 ELSE 0 END), 0) AS UrgentCount,
+            ISNULL(SUM(CASE WHEN n.IsArchived = 0 AND n.Status = 'IDEAS' THEN 1 ELSE 0 END), 0) AS IdeasCount,
+            ISNULL(SUM(CASE WHEN n.IsArchived = 0 AND n.Status = 'COMPLETED' THEN 1 ELSE 0 END), 0) AS CompletedCount,
+            ISNULL(SUM(CASE WHEN n.IsArchived = 0 AND n.IsFavorite = 1 THEN 1 ELSE 0 END), 0) AS FavoriteCount,
+            ISNULL(SUM(CASE WHEN n.IsArchived = 1 THEN 1 ELSE 0 END), 0) AS ArchivedCount,
+            ISNULL(SUM(CASE WHEN n.IsArchived = 0 AND LEN(LTRIM(RTRIM(ISNULL(n.Content, '')))) > 0
+                     THEN CAST(LEN(n.Content) - LEN(REPLACE(n.Content, ' ', '')) + 1 AS BIGINT)
+                     ELSE 0 END), 0) AS TotalWords
+        FROM [User] u
+        LEFT JOIN Notes n ON n.UserID = u.user_id
+        GROUP BY u.user_id
+    )
+    MERGE NoteStatistics AS t
+    USING Actual AS s ON t.UserID = s.UserID
+    WHEN MATCHED AND (t.TotalNotes <> s.TotalNotes OR t.RegularCount <> s.RegularCount
+                      OR t.UrgentCount <> s.UrgentCount OR t.IdeasCount <> s.IdeasCount
+                      OR t.CompletedCount <> s.CompletedCount OR t.FavoriteCount <> s.FavoriteCount
+                      OR t.ArchivedCount <> s.ArchivedCount OR t.TotalWords <> s.TotalWords) THEN
+        UPDATE SET t.TotalNotes = s.TotalNotes, t.RegularCount = s.RegularCount,
+                   t.UrgentCount = s.UrgentCount, t.IdeasCount = s.IdeasCount,
+                   t.CompletedCount = s.CompletedCount, t.FavoriteCount = s.FavoriteCount,
+                   t.ArchivedCount = s.ArchivedCount, t.TotalWords = s.TotalWords,
+                   t.UpdatedAt = GETDATE()
+    WHEN NOT MATCHED THEN
+        INSERT (UserID, TotalNotes, RegularCount, UrgentCount, IdeasCount,
+                CompletedCount, FavoriteCount, ArchivedCount, TotalWords)
+        VALUES (s.UserID, s.TotalNotes, s.RegularCount, s.UrgentCount, s.IdeasCount,
+                s.CompletedCount, s.FavoriteCount, s.ArchivedCount, s.TotalWords);
+    SELECT @@ROWCOUNT AS CorrectedRows;
+END
+GO
+
+-- Khởi tạo số liệu ban đầu từ dữ liệu hiện có
+EXEC sp_ReconcileNoteStatistics;
+GO
+
+PRINT '✓ Created materialized statistics (NoteStatistics + trigger)';
+GO
@@ -0,0 +1,80 @@
+-- V004 - Covering indexes for NoteRepository / dao.NoteDAO list queries
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+--
+-- Mọi truy vấn danh sách đều có dạng:
+--   WHERE UserID = ? AND IsArchived = ? [AND Status = ? | CategoryID = ? | IsFavorite = 1]
+--   ORDER BY UpdatedAt DESC
+-- => key (UserID, [filter], IsArchived, UpdatedAt DESC) cho seek + thứ tự sẵn (không Sort),
+--    INCLUDE các cột hiển thị trong danh sách (không key lookup cho các cột này).
+-- Content/HtmlContent (NVARCHAR(MAX)) KHÔNG được include để index không phình to.
+
+-- Danh sách chính + thùng rác: WHERE UserID = ? AND IsArchived = 0|1 ORDER BY UpdatedAt DESC
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_User_Archived_Updated' AND object_id = OBJECT_ID('Notes'))
+    CREATE NONCLUSTERED INDEX IX_Notes_User_Archived_Updated
+        ON Notes (UserID, IsArchived, UpdatedAt DESC)
+        INCLUDE (CategoryID, Title, Summary, Status, IsFavorite, Color, ViewCount, CreatedAt);
+GO
+
+-- Lọc theo status: WHERE UserID = ? AND Status = ? AND IsArchived = 0
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_User_Status_Updated' AND object_id = OBJECT_ID('Notes'))
+    CREATE NONCLUSTERED INDEX IX_Notes_User_Status_Updated
+        ON Notes (UserID, Status, IsArchived, UpdatedAt DESC)
+        INCLUDE (CategoryID, Title, Summary, IsFavorite, Color, ViewCount, CreatedAt);
+GO
+
+-- Lọc theo danh mục: WHERE UserID = ? AND CategoryID = ? AND IsArchived = 0
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_User_Category_Updated' AND object_id = OBJECT_ID('Notes'))
+    CREATE NONCLUSTERED INDEX IX_Notes_User_Category_Updated
+        ON Notes (UserID, CategoryID, IsArchived, UpdatedAt DESC)
+        INCLUDE (Title, Summary, Status, IsFavorite, Color, ViewCount, CreatedAt);
+GO
+
+-- Yêu thích: filtered index chỉ chứa note IsFavorite = 1
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_User_Favorite_Updated' AND object_id = OBJECT_ID('Notes'))
+    CREATE NONCLUSTERED INDEX IX_Notes_User_Favorite_Updated
+        ON Notes (UserID, IsArchived, UpdatedAt DESC)
+        INCLUDE (CategoryID, Title, Summary, Status, Color, ViewCount, CreatedAt)
+        WHERE IsFavorite = 1;
+GO
+
+-- Các index đơn cột cũ: hoặc là tiền tố của index mới (UserID, UserID+IsArchived),
+-- hoặc có độ chọn lọc thấp (Status, IsFavorite, IsArchived) => chỉ tốn chi phí ghi
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_UserID_IsArchived' AND object_id = OBJECT_ID('Notes'))
+    DROP INDEX IX_Notes_UserID_IsArchived ON Notes;
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_UserID' AND object_id = OBJECT_ID('Notes'))
+    DROP INDEX IX_Notes_UserID ON Notes;
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_Status' AND object_id = OBJECT_ID('Notes'))
+    DROP INDEX IX_Notes_Status ON Notes;
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_IsFavorite' AND object_id = OBJECT_ID('Notes'))
+    DROP INDEX IX_Notes_IsFavorite ON Notes;
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_IsArchived' AND object_id = OBJECT_ID('Notes'))
+    DROP INDEX IX_Notes_IsArchived ON Notes;
+GO
+
+-- Lịch sử version: WHERE NoteID = ? ORDER BY VersionNumber DESC (sp_GetNoteVersionHistory, MAX+1)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_NoteVersions_Note_Version' AND object_id = OBJECT_ID('NoteVersions'))
+    CREATE NONCLUSTERED INDEX IX_NoteVersions_Note_Version
+        ON NoteVersions (NoteID, VersionNumber DESC)
+        INCLUDE (Title, CreatedAt, CreatedBy, ChangeDescription);
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_NoteVersions_NoteID' AND object_id = OBJECT_ID('NoteVersions'))
+    DROP INDEX IX_NoteVersions_NoteID ON NoteVersions;
+GO
+
+-- Tags: tìm theo tên (findOrCreate) và theo user sắp xếp theo tên
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Tags_User_Name' AND object_id = OBJECT_ID('Tags'))
+    CREATE NONCLUSTERED INDEX IX_Tags_User_Name ON Tags (UserID, Name) INCLUDE (Color, CreatedAt);
+GO
+
+-- NoteTags: PK (NoteID, TagID) không hỗ trợ tra ngược theo TagID (đếm usage, cascade delete)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_NoteTags_TagID' AND object_id = OBJECT_ID('NoteTags'))
+    CREATE NONCLUSTERED INDEX IX_NoteTags_TagID ON NoteTags (TagID);
+GO
+
+-- Categories: danh sách theo user sắp xếp SortOrder
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Categories_User_Sort' AND object_id = OBJECT_ID('Categories'))
+    CREATE NONCLUSTERED INDEX IX_Categories_User_Sort ON Categories (UserID, SortOrder) INCLUDE (Name, Color, Icon);
+GO
+
+PRINT '✓ Created covering indexes';
+GO
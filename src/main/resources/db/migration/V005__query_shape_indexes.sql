@@ -0,0 +1,26 @@
+-- V005 - Remaining indexes found by QueryPlanAuditor (SHOWPLAN over every SQL_* constant)
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+
+-- FK Notes.CategoryID: xóa Category phải kiểm tra Notes theo CategoryID;
+-- các index V004 đều bắt đầu bằng UserID nên không seek được
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_CategoryID' AND object_id = OBJECT_ID('Notes'))
+    CREATE NONCLUSTERED INDEX IX_Notes_CategoryID ON Notes (CategoryID) WHERE CategoryID IS NOT NULL;
+GO
+
+-- UserRepository.SQL_FIND_BY_EMAIL
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_User_Email' AND object_id = OBJECT_ID('[User]'))
+    CREATE NONCLUSTERED INDEX IX_User_Email ON [User] (email) WHERE email IS NOT NULL;
+GO
+
+-- AutoSaveSnapshots: snapshot mới nhất theo note + dọn dẹp theo SavedAt
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_AutoSave_Note_SavedAt' AND object_id = OBJECT_ID('AutoSaveSnapshots'))
+    CREATE NONCLUSTERED INDEX IX_AutoSave_Note_SavedAt ON AutoSaveSnapshots (NoteID, SavedAt DESC) INCLUDE (UserID, Title);
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_AutoSave_NoteID' AND object_id = OBJECT_ID('AutoSaveSnapshots'))
+    DROP INDEX IX_AutoSave_NoteID ON AutoSaveSnapshots;
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_AutoSave_SavedAt' AND object_id = OBJECT_ID('AutoSaveSnapshots'))
+    CREATE NONCLUSTERED INDEX IX_AutoSave_SavedAt ON AutoSaveSnapshots (SavedAt);
+GO
+
+PRINT '✓ Created query-shape indexes';
+GO
@@ -0,0 +1,72 @@
+-- V006 - Optional full-text search on Notes (Title, Content, Summary)
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+-- migration: no-transaction
+--
+-- CREATE FULLTEXT CATALOG / INDEX không chạy được trong transaction.
+-- Nếu instance không cài Full-Text Search, migration chỉ bỏ qua: NoteRepository
+-- tự phát hiện (sys.fulltext_indexes) và fallback về LIKE.
+-- Word breaker: Vietnamese (LCID 1066) nếu instance hỗ trợ, ngược lại Neutral (0).
+
+-- KEY INDEX của full-text phải là unique index một cột có tên cố định
+-- (PK của Notes có tên tự sinh PK__Notes__xxxx)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'UX_Notes_NoteID' AND object_id = OBJECT_ID('Notes'))
+    CREATE UNIQUE NONCLUSTERED INDEX UX_Notes_NoteID ON Notes (NoteID);
+GO
+
+IF FULLTEXTSERVICEPROPERTY('IsFullTextInstalled') = 1
+BEGIN
+    IF NOT EXISTS (SELECT * FROM sys.fulltext_catalogs WHERE name = 'ftNotes')
+        EXEC('CREATE FULLTEXT CATALOG ftNotes');
+
+    IF NOT EXISTS (SELECT * FROM sys.fulltext_indexes WHERE object_id = OBJECT_ID('Notes'))
+    BEGIN
+        DECLARE @lcid NVARCHAR(10) =
+            CASE WHEN EXISTS (SELECT 1 FROM sys.fulltext_languages WHERE lcid = 1066) THEN '1066' ELSE '0' END;
+        EXEC('CREATE FULLTEXT INDEX ON Notes (Title LANGUAGE ' + @lcid + ', Content LANGUAGE ' + @lcid +
+             ', Summary LANGUAGE ' + @lcid + ') KEY INDEX UX_Notes_NoteID ON ftNotes ' +
+             'WITH CHANGE_TRACKING AUTO, STOPLIST = OFF');
+        PRINT '✓ Created full-text index on Notes (LCID ' + @lcid + ')';
+    END
+END
+ELSE
+    PRINT '⚠ Full-Text Search chưa được cài - tìm kiếm dùng LIKE';
+GO
+
+-- sp_SearchNotes: dùng CONTAINSTABLE + RANK khi có full-text index, ngược lại LIKE
+IF OBJECT_ID('sp_SearchNotes', 'P') IS NOT NULL DROP PROCEDURE sp_SearchNotes;
+GO
+
+IF EXISTS (SELECT * FROM sys.fulltext_indexes WHERE object_id = OBJECT_ID('Notes'))
+    EXEC('
+CREATE PROCEDURE sp_SearchNotes @UserID INT, @Keyword NVARCHAR(100)
+AS
+BEGIN
+    SET NOCOUNT ON;
+    DECLARE @Query NVARCHAR(4000) = N''"'' + REPLACE(@Keyword, N''"'', N'''') + N''*"'';
+    SELECT n.NoteID, n.UserID, n.CategoryID, n.Title, n.Content, n.HtmlContent,
+           n.Summary, n.Status, n.IsFavorite, n.IsArchived, n.Color,
+           n.ViewCount, n.CreatedAt, n.UpdatedAt, c.Name AS CategoryName
+    FROM CONTAINSTABLE(Notes, (Title, Content, Summary), @Query) ft
+    INNER JOIN Notes n ON n.NoteID = ft.[KEY]
+    LEFT JOIN Categories c ON n.CategoryID = c.CategoryID
+    WHERE n.UserID = @UserID AND n.IsArchived = 0
+    ORDER BY ft.RANK DESC, n.UpdatedAt DESC;
+END');
+ELSE
+    EXEC('
+CREATE PROCEDURE sp_SearchNotes @UserID INT, @Keyword NVARCHAR(100)
+AS
+BEGIN
+    SET NOCOUNT ON;
+    SELECT n.NoteID, n.UserID, n.CategoryID, n.Title, n.Content, n.HtmlContent,
+           n.Summary, n.Status, n.IsFavorite, n.IsArchived, n.Color,
+           n.ViewCount, n.CreatedAt, n.UpdatedAt, c.Name AS CategoryName
+    FROM Notes n
+    LEFT JOIN Categories c ON n.CategoryID = c.CategoryID
+    WHERE n.UserID = @UserID AND n.IsArchived = 0
+      AND (n.Title LIKE ''%'' + @Keyword + ''%'' OR n.Content LIKE ''%'' + @Keyword + ''%''
+           OR n.HtmlContent LIKE ''%'' + @Keyword + ''%'')
+    ORDER BY n.UpdatedAt DESC;
+END');
+GO
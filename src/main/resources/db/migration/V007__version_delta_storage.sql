@@ -0,0 +1,69 @@
+-- V007 - Delta-compressed storage cho NoteVersions
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+--
+-- StorageKind = 0 (FULL)  : keyframe - HtmlContent/PlainTextContent lưu đầy đủ
+-- StorageKind = 1 (DELTA) : HtmlContent/PlainTextContent = NULL, DeltaContent là
+--                           delta (util.VersionDelta) so với keyframe BaseVersionID
+-- Mỗi delta luôn dựa trên một keyframe => dựng lại nội dung chỉ cần 1 keyframe + 1 delta.
+-- ContentLength = độ dài HtmlContent; NULL nghĩa là dòng cũ chưa được
+-- NoteVersionDAO.convertLegacyVersions() chuyển sang định dạng mới.
+
+IF COL_LENGTH('NoteVersions', 'StorageKind') IS NULL
+    ALTER TABLE NoteVersions ADD
+        StorageKind TINYINT NOT NULL CONSTRAINT DF_NoteVersions_StorageKind DEFAULT 0,
+        BaseVersionID INT NULL,
+        DeltaContent VARBINARY(MAX) NULL,
+        ContentLength INT NULL;
+GO
+
+-- Tìm version mới nhất + keyframe của nó không cần key lookup
+CREATE NONCLUSTERED INDEX IX_NoteVersions_Note_Version
+    ON NoteVersions (NoteID, VersionNumber DESC)
+    INCLUDE (Title, CreatedAt, CreatedBy, ChangeDescription, StorageKind, BaseVersionID, ContentLength)
+    WITH (DROP_EXISTING = ON);
+GO
+
+-- Đếm/tìm các delta phụ thuộc một keyframe (trước khi xóa keyframe)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_NoteVersions_Base' AND object_id = OBJECT_ID('NoteVersions'))
+    CREATE NONCLUSTERED INDEX IX_NoteVersions_Base
+        ON NoteVersions (BaseVersionID, VersionNumber)
+        WHERE BaseVersionID IS NOT NULL;
+GO
+
+-- Lịch sử: độ dài lấy từ ContentLength (dòng delta không có HtmlContent)
+ALTER PROCEDURE sp_GetNoteVersionHistory @NoteID INT, @MaxVersions INT = 50
+AS
+BEGIN
+    SET NOCOUNT ON;
+    SELECT TOP (@MaxVersions) v.VersionID, v.NoteID, v.Title, v.VersionNumber,
+           v.CreatedAt, v.CreatedBy, v.ChangeDescription, u.username AS CreatedByUsername,
+           ISNULL(v.ContentLength, LEN(v.HtmlContent)) AS ContentLength
+    FROM NoteVersions v
+    LEFT JOIN [User] u ON v.CreatedBy = u.user_id
+    WHERE v.NoteID = @NoteID
+    ORDER BY v.VersionNumber DESC;
+END
+GO
+
+-- Rollback chỉ làm được trong SQL với keyframe; delta phải qua NoteVersionDAO
+ALTER PROCEDURE sp_RollbackToVersion @NoteID INT, @VersionID INT, @UserID INT
+AS
+BEGIN
+    SET NOCOUNT ON;
+    BEGIN TRANSACTION;
+    
+    DECLARE @Title NVARCHAR(200), @HtmlContent NVARCHAR(MAX), @StorageKind TINYINT;
+    SELECT @Title = Title, @HtmlContent = HtmlContent, @StorageKind = StorageKind
+    FROM NoteVersions WHERE VersionID = @VersionID AND NoteID = @NoteID;
+    
+    IF @Title IS NULL BEGIN ROLLBACK; RAISERROR('Version không tồn tại', 16, 1); RETURN; END
+    IF @StorageKind <> 0 BEGIN ROLLBACK; RAISERROR('Version lưu dạng delta - dùng NoteVersionDAO.rollbackToVersion', 16, 1); RETURN; END
+    
+    UPDATE Notes SET Title = @Title, HtmlContent = @HtmlContent, Content = @Title, UpdatedAt = GETDATE()
+    WHERE NoteID = @NoteID AND UserID = @UserID;
+    
+    EXEC sp_CreateNoteVersion @NoteID, @Title, @HtmlContent, @UserID, 'Rolled back to earlier version';
+    COMMIT;
+END
+GO
@@ -0,0 +1,135 @@
+-- V008 - Content-addressed storage cho nội dung version (dedupe)
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+--
+-- VersionBlobs: mỗi nội dung HTML khác nhau được lưu đúng MỘT lần, khóa bởi
+-- ContentHash = SHA-256 của HTML (UTF-16LE, giống HASHBYTES trên NVARCHAR).
+-- Blob là keyframe (StorageKind = 0, Body) hoặc delta (StorageKind = 1,
+-- DeltaContent so với keyframe BaseBlobID) như V007.
+-- NoteVersions.BlobID trỏ tới blob; rollback / lưu không đổi nội dung chỉ
+-- thêm một tham chiếu.
+--
+-- RefCount = số NoteVersions tham chiếu + số blob delta dùng blob này làm gốc.
+-- Trigger trg_NoteVersions_BlobRefs giữ phần NoteVersions (kể cả khi xóa
+-- cascade theo Notes); NoteVersionDAO tăng phần delta khi tạo blob.
+-- sp_CollectVersionBlobs xóa blob RefCount = 0 (và giảm RefCount của gốc).
+-- Dòng NoteVersions cũ (BlobID IS NULL) được NoteVersionDAO.convertLegacyVersions()
+-- chuyển dần sang blob.
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'VersionBlobs')
+BEGIN
+    CREATE TABLE VersionBlobs (
+        BlobID INT IDENTITY(1,1) PRIMARY KEY,
+        ContentHash BINARY(32) NOT NULL,
+        StorageKind TINYINT NOT NULL DEFAULT 0,
+        BaseBlobID INT NULL,
+        Body NVARCHAR(MAX) NULL,
+        DeltaContent VARBINARY(MAX) NULL,
+        ContentLength INT NOT NULL,
+        RefCount INT NOT NULL DEFAULT 0,
+        CreatedAt DATETIME NOT NULL DEFAULT GETDATE(),
+        CONSTRAINT UQ_VersionBlobs_Hash UNIQUE (ContentHash),
+        CONSTRAINT FK_VersionBlobs_Base FOREIGN KEY (BaseBlobID) REFERENCES VersionBlobs(BlobID)
+    );
+    
+    -- Đếm delta phụ thuộc một keyframe
+    CREATE INDEX IX_VersionBlobs_Base ON VersionBlobs (BaseBlobID) WHERE BaseBlobID IS NOT NULL;
+    -- Ứng viên GC
+    CREATE INDEX IX_VersionBlobs_Unreferenced ON VersionBlobs (BlobID) INCLUDE (BaseBlobID) WHERE RefCount = 0;
+    PRINT '✓ Created table: VersionBlobs';
+END
+GO
+
+IF COL_LENGTH('NoteVersions', 'BlobID') IS NULL
+    ALTER TABLE NoteVersions ADD BlobID INT NULL
+        CONSTRAINT FK_NoteVersions_VersionBlobs REFERENCES VersionBlobs(BlobID);
+GO
+
+CREATE NONCLUSTERED INDEX IX_NoteVersions_Note_Version
+    ON NoteVersions (NoteID, VersionNumber DESC)
+    INCLUDE (Title, CreatedAt, CreatedBy, ChangeDescription, StorageKind, BaseVersionID, ContentLength, BlobID)
+    WITH (DROP_EXISTING = ON);
+GO
+
+IF OBJECT_ID('trg_NoteVersions_BlobRefs', 'TR') IS NOT NULL DROP TRIGGER trg_NoteVersions_BlobRefs;
+IF OBJECT_ID('sp_CollectVersionBlobs', 'P') IS NOT NULL DROP PROCEDURE sp_CollectVersionBlobs;
+GO
+
+CREATE TRIGGER trg_NoteVersions_BlobRefs ON NoteVersions
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    IF EXISTS (SELECT 1 FROM inserted) AND NOT UPDATE(BlobID)
+        RETURN;
+
+    UPDATE b SET RefCount = b.RefCount + r.Delta
+    FROM VersionBlobs b
+    INNER JOIN (
+        SELECT BlobID, SUM(Sign) AS Delta
+        FROM (SELECT BlobID, 1 AS Sign FROM inserted WHERE BlobID IS NOT NULL
+              UNION ALL
+              SELECT BlobID, -1 AS Sign FROM deleted WHERE BlobID IS NOT NULL) x
+        GROUP BY BlobID
+    ) r ON r.BlobID = b.BlobID
+    WHERE r.Delta <> 0;
+END
+GO
+
+CREATE PROCEDURE sp_CollectVersionBlobs @BatchSize INT = 500
+AS
+BEGIN
+    SET NOCOUNT ON;
+    DECLARE @Freed TABLE (BaseBlobID INT NULL, Bytes BIGINT NOT NULL);
+    DECLARE @FreedBlobs INT = 0, @FreedBytes BIGINT = 0, @Rows INT = 1;
+
+    WHILE @Rows > 0
+    BEGIN
+        DELETE FROM @Freed;
+
+        DELETE TOP (@BatchSize) FROM VersionBlobs
+        OUTPUT deleted.BaseBlobID,
+               ISNULL(DATALENGTH(deleted.Body), 0) + ISNULL(DATALENGTH(deleted.DeltaContent), 0)
+        INTO @Freed
+        WHERE RefCount = 0;
+        SET @Rows = @@ROWCOUNT;
+
+        -- Delta bị xóa trả lại tham chiếu tới keyframe gốc (có thể về 0 => vòng sau)
+        UPDATE b SET RefCount = b.RefCount - f.Cnt
+        FROM VersionBlobs b
+        INNER JOIN (SELECT BaseBlobID, COUNT(*) AS Cnt FROM @Freed
+                    WHERE BaseBlobID IS NOT NULL GROUP BY BaseBlobID) f
+            ON f.BaseBlobID = b.BlobID;
+
+        SELECT @FreedBlobs = @FreedBlobs + @Rows, @FreedBytes = @FreedBytes + ISNULL(SUM(Bytes), 0) FROM @Freed;
+    END
+
+    SELECT @FreedBlobs AS FreedBlobs, @FreedBytes AS FreedBytes;
+END
+GO
+
+-- Rollback trong SQL: lấy nội dung từ cột cũ hoặc từ blob keyframe
+ALTER PROCEDURE sp_RollbackToVersion @NoteID INT, @VersionID INT, @UserID INT
+AS
+BEGIN
+    SET NOCOUNT ON;
+    BEGIN TRANSACTION;
+    
+    DECLARE @Title NVARCHAR(200), @HtmlContent NVARCHAR(MAX), @StorageKind TINYINT;
+    SELECT @Title = v.Title,
+           @HtmlContent = COALESCE(b.Body, v.HtmlContent),
+           @StorageKind = COALESCE(b.StorageKind, v.StorageKind)
+    FROM NoteVersions v
+    LEFT JOIN VersionBlobs b ON b.BlobID = v.BlobID
+    WHERE v.VersionID = @VersionID AND v.NoteID = @NoteID;
+    
+    IF @Title IS NULL BEGIN ROLLBACK; RAISERROR('Version không tồn tại', 16, 1); RETURN; END
+    IF @StorageKind <> 0 BEGIN ROLLBACK; RAISERROR('Version lưu dạng delta - dùng NoteVersionDAO.rollbackToVersion', 16, 1); RETURN; END
+    
+    UPDATE Notes SET Title = @Title, HtmlContent = @HtmlContent, Content = @Title, UpdatedAt = GETDATE()
+    WHERE NoteID = @NoteID AND UserID = @UserID;
+    
+    EXEC sp_CreateNoteVersion @NoteID, @Title, @HtmlContent, @UserID, 'Rolled back to earlier version';
+    COMMIT;
+END
+GO
@@ -0,0 +1,84 @@
+-- V009 - Lưu nén nội dung HTML lớn (util.ContentCodec)
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+--
+-- Nội dung > ContentCodec.INLINE_THRESHOLD ký tự được ghi vào cột VARBINARY
+-- (header + Deflate), cột NVARCHAR tương ứng = NULL. Khi đọc, cột inline
+-- khác NULL luôn được ưu tiên.
+-- - Notes.HtmlContentCompressed   : thay cho Notes.HtmlContent
+-- - VersionBlobs.BodyCompressed    : thay cho VersionBlobs.Body (keyframe)
+-- Notes.Content (plain text) KHÔNG nén: full-text index, LIKE search và
+-- trigger thống kê số từ cần đọc được nó trong SQL.
+-- Dòng cũ được ContentCompressionJob nén dần ở nền.
+-- Lưu ý: vw_NotesWithVersions / sp_SearchNotes thấy HtmlContent = NULL với ghi chú đã nén.
+
+IF COL_LENGTH('Notes', 'HtmlContentCompressed') IS NULL
+    ALTER TABLE Notes ADD HtmlContentCompressed VARBINARY(MAX) NULL;
+GO
+
+IF COL_LENGTH('VersionBlobs', 'BodyCompressed') IS NULL
+    ALTER TABLE VersionBlobs ADD BodyCompressed VARBINARY(MAX) NULL;
+GO
+
+-- GC tính cả dung lượng bản nén
+ALTER PROCEDURE sp_CollectVersionBlobs @BatchSize INT = 500
+AS
+BEGIN
+    SET NOCOUNT ON;
+    DECLARE @Freed TABLE (BaseBlobID INT NULL, Bytes BIGINT NOT NULL);
+    DECLARE @FreedBlobs INT = 0, @FreedBytes BIGINT = 0, @Rows INT = 1;
+
+    WHILE @Rows > 0
+    BEGIN
+        DELETE FROM @Freed;
+
+        DELETE TOP (@BatchSize) FROM VersionBlobs
+        OUTPUT deleted.BaseBlobID,
+               ISNULL(DATALENGTH(deleted.Body), 0) + ISNULL(DATALENGTH(deleted.BodyCompressed), 0)
+                 + ISNULL(DATALENGTH(deleted.DeltaContent), 0)
+        INTO @Freed
+        WHERE RefCount = 0;
+        SET @Rows = @@ROWCOUNT;
+
+        UPDATE b SET RefCount = b.RefCount - f.Cnt
+        FROM VersionBlobs b
+        INNER JOIN (SELECT BaseBlobID, COUNT(*) AS Cnt FROM @Freed
+                    WHERE BaseBlobID IS NOT NULL GROUP BY BaseBlobID) f
+            ON f.BaseBlobID = b.BlobID;
+
+        SELECT @FreedBlobs = @FreedBlobs + @Rows, @FreedBytes = @FreedBytes + ISNULL(SUM(Bytes), 0) FROM @Freed;
+    END
+
+    SELECT @FreedBlobs AS FreedBlobs, @FreedBytes AS FreedBytes;
+END
+GO
+
+-- Rollback trong SQL không giải nén được => chỉ cho phép với keyframe inline
+ALTER PROCEDURE sp_RollbackToVersion @NoteID INT, @VersionID INT, @UserID INT
+AS
+BEGIN
+    SET NOCOUNT ON;
+    BEGIN TRANSACTION;
+    
+    DECLARE @Title NVARCHAR(200), @HtmlContent NVARCHAR(MAX), @StorageKind TINYINT, @Compressed BIT;
+    SELECT @Title = v.Title,
+           @HtmlContent = COALESCE(b.Body, v.HtmlContent),
+           @StorageKind = COALESCE(b.StorageKind, v.StorageKind),
+           @Compressed = CASE WHEN b.Body IS NULL AND b.BodyCompressed IS NOT NULL THEN 1 ELSE 0 END
+    FROM NoteVersions v
+    LEFT JOIN VersionBlobs b ON b.BlobID = v.BlobID
+    WHERE v.VersionID = @VersionID AND v.NoteID = @NoteID;
+    
+    IF @Title IS NULL BEGIN ROLLBACK; RAISERROR('Version không tồn tại', 16, 1); RETURN; END
+    IF @StorageKind <> 0 OR @Compressed = 1
+    BEGIN
+        ROLLBACK; RAISERROR('Version lưu dạng delta/nén - dùng NoteVersionDAO.rollbackToVersion', 16, 1); RETURN;
+    END
+    
+    UPDATE Notes SET Title = @Title, HtmlContent = @HtmlContent, Content = @Title, UpdatedAt = GETDATE()
+    WHERE NoteID = @NoteID AND UserID = @UserID;
+    
+    EXEC sp_CreateNoteVersion @NoteID, @Title, @HtmlContent, @UserID, 'Rolled back to earlier version';
+    COMMIT;
+END
+GO
@@ -0,0 +1,63 @@
+-- V010 - Số version cấp phát theo bộ đếm trên Notes
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+--
+-- Trước đây số version = MAX(VersionNumber) + 1 đọc trong một câu riêng
+-- (sp_CreateNoteVersion không khóa gì; NoteVersionDAO khóa range bằng
+-- UPDLOCK, HOLDLOCK - dễ deadlock khi ghi chú chưa có version nào).
+-- Giờ Notes.LastVersionNumber được tăng bằng một câu UPDATE nguyên tử:
+-- - hai lần lưu đồng thời luôn nhận hai số khác nhau
+-- - khóa X trên dòng Notes tuần tự hóa các lần tạo version của cùng ghi chú
+--   tới hết transaction (chọn keyframe / bỏ qua bản trùng vẫn nhất quán)
+-- Index IX_NoteVersions_Note_Version thành UNIQUE để DB chặn số trùng.
+
+IF COL_LENGTH('Notes', 'LastVersionNumber') IS NULL
+    ALTER TABLE Notes ADD LastVersionNumber INT NOT NULL
+        CONSTRAINT DF_Notes_LastVersionNumber DEFAULT 0;
+GO
+
+-- Số trùng có sẵn (do race cũ): đánh số lại theo thứ tự tạo trong các ghi chú bị ảnh hưởng
+;WITH Renumbered AS (
+    SELECT VersionNumber,
+           ROW_NUMBER() OVER (PARTITION BY NoteID ORDER BY VersionNumber, VersionID) AS NewNumber
+    FROM NoteVersions
+    WHERE NoteID IN (SELECT NoteID FROM NoteVersions GROUP BY NoteID, VersionNumber HAVING COUNT(*) > 1)
+)
+UPDATE Renumbered SET VersionNumber = NewNumber;
+GO
+
+UPDATE n SET LastVersionNumber = v.MaxVersion
+FROM Notes n
+INNER JOIN (SELECT NoteID, MAX(VersionNumber) AS MaxVersion FROM NoteVersions GROUP BY NoteID) v
+    ON v.NoteID = n.NoteID
+WHERE n.LastVersionNumber < v.MaxVersion;
+GO
+
+CREATE UNIQUE NONCLUSTERED INDEX IX_NoteVersions_Note_Version
+    ON NoteVersions (NoteID, VersionNumber DESC)
+    INCLUDE (Title, CreatedAt, CreatedBy, ChangeDescription, StorageKind, BaseVersionID, ContentLength, BlobID)
+    WITH (DROP_EXISTING = ON);
+GO
+
+ALTER PROCEDURE sp_CreateNoteVersion
+    @NoteID INT, @Title NVARCHAR(200), @HtmlContent NVARCHAR(MAX),
+    @UserID INT, @ChangeDescription NVARCHAR(500) = NULL
+AS
+BEGIN
+    SET NOCOUNT ON;
+    DECLARE @NextVersion INT;
+    UPDATE Notes SET @NextVersion = LastVersionNumber = LastVersionNumber + 1 WHERE NoteID = @NoteID;
+    IF @NextVersion IS NULL BEGIN RAISERROR('Ghi chú không tồn tại', 16, 1); RETURN; END
+    
+    DECLARE @PlainText NVARCHAR(MAX) = @HtmlContent;
+    SET @PlainText = REPLACE(@PlainText, '<p>', '');
+    SET @PlainText = REPLACE(@PlainText, '</p>', CHAR(10));
+    SET @PlainText = REPLACE(@PlainText, '<br>', CHAR(10));
+    
+    INSERT INTO NoteVersions (NoteID, Title, HtmlContent, PlainTextContent, VersionNumber, CreatedBy, ChangeDescription)
+    VALUES (@NoteID, @Title, @HtmlContent, @PlainText, @NextVersion, @UserID, @ChangeDescription);
+    
+    DELETE FROM AutoSaveSnapshots WHERE NoteID = @NoteID AND UserID = @UserID;
+    SELECT SCOPE_IDENTITY() AS NewVersionID, @NextVersion AS VersionNumber;
+END
+GO
@@ -0,0 +1,13 @@
+-- V011 - Index cho đồng bộ kho cục bộ (NoteSyncEngine)
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+--
+-- Pull tăng dần đọc "ghi chú của user có UpdatedAt >= watermark" trên mọi
+-- ghi chú (kể cả đã lưu trữ). IX_Notes_User_Archived_Updated có IsArchived
+-- đứng giữa nên không seek thẳng theo (UserID, UpdatedAt).
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_User_Updated' AND object_id = OBJECT_ID('Notes'))
+    CREATE NONCLUSTERED INDEX IX_Notes_User_Updated ON Notes (UserID, UpdatedAt);
+GO
+
+PRINT '✓ Created sync watermark index';
+GO
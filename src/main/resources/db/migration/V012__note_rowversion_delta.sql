@@ -0,0 +1,92 @@
+-- V012 - ROWVERSION + tombstone cho tải danh sách ghi chú tăng dần (delta)
+-- Được MigrationRunner áp dụng một lần lúc khởi động (ghi vào bảng schema_version).
+-- KHÔNG sửa file này sau khi đã phát hành - tạo migration mới với số version lớn hơn.
+--
+-- Client giữ một token (BIGINT) = rowversion lớn nhất đã thấy và chỉ đọc:
+-- - Notes có RowVer trong (token, MIN_ACTIVE_ROWVERSION()) - gồm cả ghi chú
+--   vừa vào thùng rác (IsArchived = 1) để client gỡ khỏi danh sách
+-- - NoteTombstones trong cùng khoảng - ghi chú bị xóa hẳn
+-- rowversion dùng chung một bộ đếm cho cả database nên hai bảng so sánh được.
+-- Cận trên MIN_ACTIVE_ROWVERSION() loại các dòng của transaction chưa commit
+-- (có rowversion nhỏ hơn nhưng commit sau) để không bị bỏ sót.
+-- Mọi UPDATE trên Notes đều đổi RowVer (kể cả ViewCount, LastVersionNumber):
+-- client nhận lại dòng đó thêm một lần - vô hại.
+
+IF NOT EXISTS (SELECT * FROM sys.columns WHERE object_id = OBJECT_ID('Notes') AND name = 'RowVer')
+BEGIN
+    ALTER TABLE Notes ADD RowVer ROWVERSION;
+    PRINT '✓ Added column Notes.RowVer';
+END
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_Notes_User_RowVer' AND object_id = OBJECT_ID('Notes'))
+    CREATE NONCLUSTERED INDEX IX_Notes_User_RowVer ON Notes (UserID, RowVer);
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'NoteTombstones')
+BEGIN
+    CREATE TABLE NoteTombstones (
+        NoteID INT NOT NULL PRIMARY KEY,
+        UserID INT NOT NULL,
+        DeletedAt DATETIME NOT NULL DEFAULT GETDATE(),
+        RowVer ROWVERSION
+    );
+    CREATE INDEX IX_NoteTombstones_User_RowVer ON NoteTombstones (UserID, RowVer);
+    CREATE INDEX IX_NoteTombstones_DeletedAt ON NoteTombstones (DeletedAt);
+    PRINT '✓ Created table: NoteTombstones';
+END
+GO
+
+-- Token nhỏ hơn PurgedUpTo: tombstone cần thiết có thể đã bị dọn => client tải lại toàn bộ
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'NoteTombstoneHorizon')
+BEGIN
+    CREATE TABLE NoteTombstoneHorizon (
+        Id TINYINT NOT NULL PRIMARY KEY CHECK (Id = 1),
+        PurgedUpTo BIGINT NOT NULL
+    );
+    INSERT INTO NoteTombstoneHorizon (Id, PurgedUpTo) VALUES (1, 0);
+    PRINT '✓ Created table: NoteTombstoneHorizon';
+END
+GO
+
+IF OBJECT_ID('trg_Notes_Tombstone', 'TR') IS NOT NULL DROP TRIGGER trg_Notes_Tombstone;
+IF OBJECT_ID('sp_PurgeNoteTombstones', 'P') IS NOT NULL DROP PROCEDURE sp_PurgeNoteTombstones;
+GO
+
+CREATE TRIGGER trg_Notes_Tombstone ON Notes
+AFTER DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    INSERT INTO NoteTombstones (NoteID, UserID)
+    SELECT d.NoteID, d.UserID
+    FROM deleted d
+    WHERE NOT EXISTS (SELECT 1 FROM NoteTombstones t WHERE t.NoteID = d.NoteID);
+END
+GO
+
+-- Dọn tombstone cũ hơn @RetentionDays ngày và nâng PurgedUpTo tương ứng
+CREATE PROCEDURE sp_PurgeNoteTombstones
+    @RetentionDays INT = 30
+AS
+BEGIN
+    SET NOCOUNT ON;
+    DECLARE @purged TABLE (RowVer BINARY(8));
+
+    BEGIN TRANSACTION;
+    DELETE FROM NoteTombstones
+    OUTPUT deleted.RowVer INTO @purged
+    WHERE DeletedAt < DATEADD(DAY, -@RetentionDays, GETDATE());
+
+    UPDATE NoteTombstoneHorizon
+    SET PurgedUpTo = (SELECT MAX(CAST(RowVer AS BIGINT)) FROM @purged)
+    WHERE Id = 1 AND EXISTS (SELECT 1 FROM @purged)
+      AND PurgedUpTo < (SELECT MAX(CAST(RowVer AS BIGINT)) FROM @purged);
+    COMMIT TRANSACTION;
+
+    SELECT COUNT(*) AS PurgedRows FROM @purged;
+END
+GO
+
+PRINT '✓ Created note rowversion delta support';
+GO
@@ -0,0 +1,86 @@
+package com.dat.notebook.config;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * TestMigrationRunner - Kiểm tra nhanh việc tách script migration theo "GO"
+ *
+ * Cùng package với MigrationRunner vì splitBatches / loadMigrations chỉ
+ * dùng nội bộ (package-private).
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestMigrationRunner {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== TEST MIGRATION RUNNER ===\n");
+
+        System.out.println("--- TEST 1: TÁCH BATCH THEO GO ---");
+        expectBatches("không có GO: một batch",
+                "CREATE TABLE A (ID INT)",
+                "CREATE TABLE A (ID INT)");
+        expectBatches("GO / go / khoảng trắng quanh GO đều tách",
+                "SELECT 1\nGO\nSELECT 2\n  go  \nSELECT 3\n\tGo",
+                "SELECT 1", "SELECT 2", "SELECT 3");
+        expectBatches("GO trong tên / chuỗi không tách",
+                "SELECT 'GO' AS Word\nEXEC GOTO_PROC\nSELECT 1 -- GO",
+                "SELECT 'GO' AS Word\nEXEC GOTO_PROC\nSELECT 1 -- GO");
+        expectBatches("GO liên tiếp / đầu / cuối: bỏ batch rỗng",
+                "GO\n\nSELECT 1\nGO\nGO\nSELECT 2\nGO\n",
+                "SELECT 1", "SELECT 2");
+        System.out.println();
+
+        System.out.println("--- TEST 2: BATCH CHỈ CÓ COMMENT ---");
+        expectBatches("batch chỉ có comment bị bỏ",
+                "-- V999: mô tả\n-- ghi chú\nGO\nSELECT 1\nGO\n   -- comment thụt lề\n\nGO",
+                "SELECT 1");
+        expectBatches("comment đi kèm code được giữ nguyên",
+                "-- Tạo bảng\nCREATE TABLE B (ID INT)\nGO",
+                "-- Tạo bảng\nCREATE TABLE B (ID INT)");
+        expectBatches("script chỉ có comment: không batch nào",
+                "-- chỉ comment\nGO\n-- nữa");
+        expectBatches("CRLF (file soạn trên Windows)",
+                "SELECT 1\r\nGO\r\nSELECT 2\r\n",
+                "SELECT 1", "SELECT 2");
+        System.out.println();
+
+        System.out.println("--- TEST 3: SCRIPT THẬT ---");
+        List<MigrationRunner.Migration> migrations = MigrationRunner.loadMigrations();
+        check(!migrations.isEmpty(), "migrations.index có " + migrations.size() + " migration");
+        for (MigrationRunner.Migration migration : migrations) {
+            List<String> batches = MigrationRunner.splitBatches(migration.sql);
+            boolean ok = !batches.isEmpty();
+            for (String batch : batches) {
+                ok &= !batch.trim().isEmpty() && !batch.trim().equalsIgnoreCase("GO");
+            }
+            check(ok, migration.script + ": " + batches.size() + " batch");
+        }
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static void expectBatches(String label, String sql, String... expected) {
+        List<String> batches = MigrationRunner.splitBatches(sql);
+        check(batches.equals(List.of(expected)), label + " (" + batches.size() + " batch)");
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.dat.notebook.test;
+
+import com.dat.notebook.util.AutosaveJournal;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * TestAutosaveJournal - Kiểm tra nhanh khôi phục journal autosave sau crash
+ *
+ * - Snapshot chưa áp dụng được khôi phục (bản mới nhất mỗi ghi chú, kèm mốc UpdatedAt)
+ * - Checkpoint (markApplied) làm snapshot không bị phát lại
+ * - Record ghi dở (cắt cụt) / sai CRC bị loại cùng mọi thứ sau nó, record trước vẫn còn
+ * - Record định dạng cũ (không có mốc UpdatedAt) vẫn đọc được
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestAutosaveJournal {
+
+    /** Trùng định dạng record của AutosaveJournal */
+    private static final int MAGIC = 0x534E4A52;
+    private static final int MAGIC_APPLIED = 0x534E4A41;
+    private static final int RECORD_HEADER = 12;
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_789);
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== TEST AUTOSAVE JOURNAL ===\n");
+
+        System.out.println("--- TEST 1: KHÔI PHỤC SAU CRASH ---");
+        Path dir = Files.createTempDirectory("journal-test");
+        try (AutosaveJournal journal = new AutosaveJournal(dir)) {
+            journal.append(1, 7, "Bản 1", "<p>một</p>", BASE);
+            journal.append(2, 7, "Ghi chú 2", null, null);
+            journal.append(1, 7, "Bản 2", "<p>hai 😀</p>", BASE);
+        }
+        Map<Integer, AutosaveJournal.Entry> recovered = recover(dir);
+        AutosaveJournal.Entry first = recovered.get(1);
+        check(recovered.size() == 2, "khôi phục 2 ghi chú (" + recovered.size() + ")");
+        check(first != null && "Bản 2".equals(first.title) && "<p>hai 😀</p>".equals(first.htmlContent),
+                "ghi chú 1: bản mới nhất");
+        check(first != null && BASE.equals(first.baseUpdatedAt), "mốc UpdatedAt giữ nguyên tới nano giây");
+        AutosaveJournal.Entry second = recovered.get(2);
+        check(second != null && second.htmlContent == null && second.baseUpdatedAt == null,
+                "HTML null / không có mốc: đọc lại null");
+        System.out.println();
+
+        System.out.println("--- TEST 2: CHECKPOINT KHÔNG PHÁT LẠI ---");
+        dir = Files.createTempDirectory("journal-test");
+        try (AutosaveJournal journal = new AutosaveJournal(dir)) {
+            long seq = journal.append(1, 7, "Đã lưu", "<p>a</p>", BASE);
+            journal.append(2, 7, "Chưa lưu", "<p>b</p>", BASE);
+            journal.markApplied(1, seq);
+        }
+        recovered = recover(dir);
+        check(recovered.keySet().equals(Set.of(2)), "chỉ ghi chú chưa áp dụng được khôi phục " + recovered.keySet());
+        try (AutosaveJournal journal = new AutosaveJournal(dir)) {
+            long seq = journal.append(2, 7, "Lưu lần 2", "<p>c</p>", BASE);
+            journal.markApplied(2, seq);
+        }
+        recovered = recover(dir);
+        check(recovered.isEmpty(), "áp dụng hết: không còn gì để khôi phục");
+        check(countSegments(dir) <= 1, "segment đã áp dụng hết bị xóa (" + countSegments(dir) + " còn lại)");
+        System.out.println();
+
+        System.out.println("--- TEST 3: RECORD SAI CRC ---");
+        dir = Files.createTempDirectory("journal-test");
+        try (AutosaveJournal journal = new AutosaveJournal(dir)) {
+            journal.append(1, 7, "Nguyên vẹn", "<p>ok</p>", BASE);
+            journal.append(3, 7, "Bị hỏng", "<p>hỏng</p>", BASE);
+        }
+        Path segment = oldestSegment(dir);
+        List<Integer> starts = recordStarts(segment);
+        corruptByte(segment, starts.get(starts.size() - 1) + RECORD_HEADER + 5);
+        recovered = recover(dir);
+        check(recovered.keySet().equals(Set.of(1)), "record sai CRC bị bỏ, record trước còn " + recovered.keySet());
+        System.out.println();
+
+        System.out.println("--- TEST 4: RECORD GHI DỞ (CẮT CỤT) ---");
+        dir = Files.createTempDirectory("journal-test");
+        try (AutosaveJournal journal = new AutosaveJournal(dir)) {
+            journal.append(1, 7, "Nguyên vẹn", "<p>ok</p>", BASE);
+            journal.append(3, 7, "Ghi dở", "<p>dở dang</p>", BASE);
+            journal.append(4, 7, "Sau record hỏng", "<p>mất</p>", BASE);
+        }
+        segment = oldestSegment(dir);
+        starts = recordStarts(segment);
+        truncate(segment, starts.get(1) + RECORD_HEADER + 3);
+        recovered = recover(dir);
+        check(recovered.keySet().equals(Set.of(1)),
+                "record cắt cụt và mọi thứ sau nó bị bỏ " + recovered.keySet());
+        System.out.println();
+
+        System.out.println("--- TEST 5: RECORD ĐỊNH DẠNG CŨ ---");
+        dir = Files.createTempDirectory("journal-test");
+        writeLegacySegment(dir.resolve("segment-000000000001.jnl"), 5, "Bản cũ");
+        recovered = recover(dir);
+        AutosaveJournal.Entry legacy = recovered.get(5);
+        check(legacy != null && "Bản cũ".equals(legacy.title) && legacy.baseUpdatedAt == null,
+                "record không có mốc UpdatedAt: khôi phục với mốc null");
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Mở lại journal như khi khởi động lại ứng dụng
+     */
+    private static Map<Integer, AutosaveJournal.Entry> recover(Path dir) throws IOException {
+        Map<Integer, AutosaveJournal.Entry> byNote = new HashMap<>();
+        try (AutosaveJournal journal = new AutosaveJournal(dir)) {
+            for (AutosaveJournal.Entry entry : journal.recover()) {
+                byNote.put(entry.noteId, entry);
+            }
+        }
+        return byNote;
+    }
+
+    private static int countSegments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return (int) files.count();
+        }
+    }
+
+    /**
+     * Segment cũ nhất (segment chứa dữ liệu; các lần mở sau tạo segment mới rỗng)
+     */
+    private static Path oldestSegment(Path dir) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "segment-*.jnl")) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(Comparator.naturalOrder());
+        return paths.get(0);
+    }
+
+    private static List<Integer> recordStarts(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<Integer> starts = new ArrayList<>();
+        while (buffer.remaining() >= RECORD_HEADER) {
+            int start = buffer.position();
+            int magic = buffer.getInt();
+            if (magic != MAGIC && magic != MAGIC_APPLIED) {
+                break;
+            }
+            int length = buffer.getInt();
+            starts.add(start);
+            buffer.position(start + RECORD_HEADER + length);
+        }
+        return starts;
+    }
+
+    private static void corruptByte(Path file, long position) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(position);
+            int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+        }
+    }
+
+    private static void truncate(Path file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(length);
+        }
+    }
+
+    /**
+     * Segment một record snapshot theo định dạng trước khi có mốc UpdatedAt
+     * (body kết thúc ngay sau HTML, ở đây HTML = null)
+     */
+    private static void writeLegacySegment(Path path, int noteId, String title) throws IOException {
+        byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(8 + 4 + 4 + 8 + 4 + titleBytes.length + 4);
+        body.putLong(1).putInt(noteId).putInt(7).putLong(System.currentTimeMillis());
+        body.putInt(titleBytes.length).put(titleBytes).putInt(-1);
+        CRC32C crc = new CRC32C();
+        crc.update(body.array());
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + body.capacity());
+        record.putInt(MAGIC).putInt(body.capacity()).putInt((int) crc.getValue()).put(body.array());
+        Files.write(path, record.array());
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+}
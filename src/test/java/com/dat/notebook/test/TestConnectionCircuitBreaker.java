@@ -0,0 +1,117 @@
+package com.dat.notebook.test;
+
+import com.dat.notebook.util.ConnectionCircuitBreaker;
+import com.dat.notebook.util.ConnectionCircuitBreaker.State;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TestConnectionCircuitBreaker - Kiểm tra nhanh các lần đổi trạng thái của circuit breaker
+ *
+ * - CLOSED giữ nguyên tới đủ failureThreshold lần thất bại liên tiếp; thành công đặt lại bộ đếm
+ * - OPEN: allowRequest() = false, prober nền chuyển sang HALF_OPEN rồi thử kết nối
+ * - Probe thất bại: về OPEN, backoff gấp đôi (kẹp ở maxBackoff)
+ * - Probe thành công: CLOSED, backoff và lỗi cuối được đặt lại
+ * - Listener lỗi không chặn listener khác
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI (probe giả). Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestConnectionCircuitBreaker {
+
+    private static final long INITIAL_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 250;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== TEST CONNECTION CIRCUIT BREAKER ===\n");
+
+        AtomicBoolean serverUp = new AtomicBoolean(false);
+        AtomicInteger probes = new AtomicInteger();
+        ConnectionCircuitBreaker breaker = new ConnectionCircuitBreaker(3, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS, () -> {
+            probes.incrementAndGet();
+            if (!serverUp.get()) {
+                throw new SQLException("probe: server chưa lên");
+            }
+        });
+        BlockingQueue<State> transitions = new LinkedBlockingQueue<>();
+        breaker.addListener(state -> {
+            throw new IllegalStateException("listener lỗi");
+        });
+        breaker.addListener(transitions::add);
+
+        System.out.println("--- TEST 1: CLOSED ĐẾM THẤT BẠI LIÊN TIẾP ---");
+        check(breaker.getState() == State.CLOSED && breaker.allowRequest(), "khởi đầu CLOSED");
+        breaker.recordFailure(new SQLException("lỗi 1"));
+        breaker.recordFailure(new SQLException("lỗi 2"));
+        breaker.recordSuccess();
+        breaker.recordFailure(new SQLException("lỗi 3"));
+        breaker.recordFailure(new SQLException("lỗi 4"));
+        check(breaker.getState() == State.CLOSED && transitions.isEmpty(),
+                "thành công đặt lại bộ đếm: 2 + 2 lần thất bại chưa mở mạch");
+        System.out.println();
+
+        System.out.println("--- TEST 2: MỞ MẠCH ---");
+        breaker.recordFailure(new SQLException("lỗi 5"));
+        check(next(transitions) == State.OPEN, "lần thất bại thứ 3 liên tiếp: OPEN (listener lỗi bị bỏ qua)");
+        check(!breaker.allowRequest() && "lỗi 5".equals(breaker.getLastError()),
+                "OPEN: allowRequest() = false, giữ lỗi cuối");
+        breaker.recordFailure(new SQLException("lỗi 6"));
+        check(transitions.isEmpty(), "thất bại thêm khi đang OPEN không phát lại OPEN");
+        System.out.println();
+
+        System.out.println("--- TEST 3: PROBE THẤT BẠI - BACKOFF GẤP ĐÔI ---");
+        check(next(transitions) == State.HALF_OPEN, "prober nền: HALF_OPEN");
+        check(next(transitions) == State.OPEN, "probe thất bại: về OPEN");
+        check(breaker.getBackoffMs() == 2 * INITIAL_BACKOFF_MS, "backoff " + breaker.getBackoffMs() + " ms");
+        check("probe: server chưa lên".equals(breaker.getLastError()), "lỗi cuối là lỗi của probe");
+        check(next(transitions) == State.HALF_OPEN && next(transitions) == State.OPEN,
+                "lần probe thứ 2 thất bại");
+        check(breaker.getBackoffMs() == MAX_BACKOFF_MS, "backoff kẹp ở " + MAX_BACKOFF_MS + " ms");
+        System.out.println();
+
+        System.out.println("--- TEST 4: PROBE THÀNH CÔNG - ĐÓNG MẠCH ---");
+        serverUp.set(true);
+        List<State> closing = List.of(next(transitions), next(transitions));
+        check(closing.equals(List.of(State.HALF_OPEN, State.CLOSED)), "HALF_OPEN -> CLOSED " + closing);
+        check(breaker.allowRequest() && breaker.getLastError() == null
+                && breaker.getBackoffMs() == INITIAL_BACKOFF_MS, "CLOSED: đặt lại backoff và lỗi cuối");
+        int probesWhenClosed = probes.get();
+        Thread.sleep(2 * MAX_BACKOFF_MS);
+        check(probes.get() == probesWhenClosed && transitions.isEmpty(), "đã CLOSED: prober dừng");
+        breaker.recordSuccess();
+        check(transitions.isEmpty(), "thành công khi đang CLOSED không phát lại CLOSED");
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Trạng thái kế tiếp listener nhận được (null nếu quá 5 giây không có)
+     */
+    private static State next(BlockingQueue<State> transitions) throws InterruptedException {
+        return transitions.poll(5, TimeUnit.SECONDS);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.dat.notebook.test;
+
+import com.dat.notebook.util.ContentCodec;
+
+import java.util.Arrays;
+
+/**
+ * TestContentCodec - Kiểm tra nhanh nén nội dung HTML lớn
+ *
+ * - Ngưỡng INLINE_THRESHOLD (4000 ký tự): chỉ nội dung DÀI HƠN mới nén
+ * - compress / decompress quanh ngưỡng, với tiếng Việt và emoji
+ * - Dữ liệu hỏng / cắt cụt bị từ chối
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestContentCodec {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST CONTENT CODEC ===\n");
+        int threshold = ContentCodec.INLINE_THRESHOLD;
+
+        System.out.println("--- TEST 1: NGƯỠNG NÉN ---");
+        check(!ContentCodec.shouldCompress(null), "null không nén");
+        check(!ContentCodec.shouldCompress(""), "chuỗi rỗng không nén");
+        check(!ContentCodec.shouldCompress(text(threshold - 1)), (threshold - 1) + " ký tự: không nén");
+        check(!ContentCodec.shouldCompress(text(threshold)), threshold + " ký tự: không nén");
+        check(ContentCodec.shouldCompress(text(threshold + 1)), (threshold + 1) + " ký tự: nén");
+        System.out.println();
+
+        System.out.println("--- TEST 2: ROUND-TRIP ---");
+        for (int length : new int[] {0, 1, threshold - 1, threshold, threshold + 1, threshold * 10}) {
+            String content = text(length);
+            byte[] compressed = ContentCodec.compress(content);
+            check(content.equals(ContentCodec.decompress(compressed)),
+                    length + " ký tự -> " + compressed.length + " bytes -> giống bản gốc");
+        }
+        // Emoji ở đúng ranh giới ngưỡng: độ dài tính theo char UTF-16
+        String emoji = text(threshold - 1) + "😀";
+        check(ContentCodec.shouldCompress(emoji), "emoji vắt qua ngưỡng: nén (" + emoji.length() + " char)");
+        check(emoji.equals(ContentCodec.decompress(ContentCodec.compress(emoji))), "emoji vắt qua ngưỡng: round-trip");
+        System.out.println();
+
+        System.out.println("--- TEST 3: READ (INLINE / NÉN) ---");
+        String large = text(threshold + 1);
+        byte[] compressed = ContentCodec.compress(large);
+        check("inline".equals(ContentCodec.read("inline", compressed)), "inline được ưu tiên");
+        check(large.equals(ContentCodec.read(null, compressed)), "không có inline: giải nén");
+        check(ContentCodec.read(null, null) == null, "cả hai null: null");
+        System.out.println();
+
+        System.out.println("--- TEST 4: DỮ LIỆU HỎNG ---");
+        expectFailure("dữ liệu rỗng", new byte[0]);
+        expectFailure("sai magic byte", withByte(compressed, 0, (byte) 'X'));
+        expectFailure("sai định dạng", withByte(compressed, 1, (byte) 9));
+        expectFailure("bị cắt cụt", Arrays.copyOf(compressed, compressed.length / 2));
+        expectFailure("sai độ dài trong header", withByte(compressed, 5, (byte) (compressed[5] + 1)));
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Nội dung HTML tiếng Việt (ký tự nhiều byte UTF-8) đúng length ký tự
+     */
+    private static String text(int length) {
+        String unit = "<p>Ghi chú tiếng Việt: đường, phố, hồ Gươm</p>";
+        StringBuilder sb = new StringBuilder(length + unit.length());
+        while (sb.length() < length) {
+            sb.append(unit);
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+
+    private static byte[] withByte(byte[] data, int index, byte value) {
+        byte[] copy = data.clone();
+        copy[index] = value;
+        return copy;
+    }
+
+    private static void expectFailure(String label, byte[] data) {
+        try {
+            ContentCodec.decompress(data);
+            check(false, label + ": phải ném IllegalStateException");
+        } catch (IllegalStateException e) {
+            check(true, label + ": từ chối (" + e.getMessage() + ")");
+        }
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.dat.notebook.test;
+
+import com.dat.notebook.model.Note;
+import com.dat.notebook.model.NoteEvent;
+import com.dat.notebook.util.DomainEventBus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * TestDomainEventBus - Kiểm tra nhanh hộp thư gộp sự kiện của DomainEventBus
+ *
+ * - Sự kiện cùng khóa gộp còn chờ giao bị thay bằng sự kiện mới nhất, giữ thứ tự thay đổi cuối
+ * - Chỉ một lượt giao được xếp trên executor tại một thời điểm
+ * - Hộp thư đầy: bỏ sự kiện đang chờ, thay bằng một ResyncRequired
+ * - Handler lỗi / executor từ chối không làm kẹt subscriber; hủy đăng ký bỏ sự kiện còn chờ
+ *
+ * Executor thủ công (hàng đợi Runnable) thay cho Platform::runLater.
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestDomainEventBus {
+
+    private static final int USER_ID = 7;
+    /** Trùng DomainEventBus.MAILBOX_CAPACITY */
+    private static final int MAILBOX_CAPACITY = 256;
+
+    private static final DomainEventBus BUS = DomainEventBus.getInstance();
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST DOMAIN EVENT BUS ===\n");
+
+        System.out.println("--- TEST 1: GỘP THEO KHÓA ---");
+        ManualExecutor executor = new ManualExecutor();
+        List<List<NoteEvent>> batches = new ArrayList<>();
+        DomainEventBus.Subscription subscription = BUS.subscribe("test", executor, batches::add);
+        for (int i = 0; i < 50; i++) {
+            BUS.publish(saved(1, "Lần lưu " + i));
+        }
+        BUS.publish(new NoteEvent.TagsChanged(USER_ID, 1));
+        BUS.publish(saved(2, "Ghi chú 2"));
+        BUS.publish(new NoteEvent.NoteDeleted(USER_ID, 1));
+        check(executor.tasks.size() == 1, "53 sự kiện: chỉ một lượt giao được xếp (" + executor.tasks.size() + ")");
+        executor.runAll();
+        check(batches.size() == 1 && describe(batches.get(0)).equals(
+                List.of("TagsChanged:1", "NoteSaved:2", "NoteDeleted:1")),
+                "một lô, mỗi khóa một sự kiện, theo thứ tự thay đổi cuối " + describe(batches.get(0)));
+        check(subscription.getCoalescedCount() == 50 && subscription.getDeliveredCount() == 3,
+                "50 sự kiện bị gộp, 3 được giao");
+        BUS.publish(saved(1, "Sau khi giao"));
+        check(executor.tasks.size() == 1, "sau khi giao xong: lượt giao mới được xếp");
+        executor.runAll();
+        NoteEvent last = batches.get(1).get(0);
+        check(last instanceof NoteEvent.NoteSaved
+                && "Sau khi giao".equals(((NoteEvent.NoteSaved) last).getNote().getTitle()),
+                "lô sau nhận bản lưu mới nhất");
+        System.out.println();
+
+        System.out.println("--- TEST 2: HỘP THƯ ĐẦY -> RESYNC ---");
+        batches.clear();
+        for (int noteId = 1; noteId <= MAILBOX_CAPACITY; noteId++) {
+            BUS.publish(saved(noteId, "Ghi chú " + noteId));
+        }
+        check(subscription.getOverflowCount() == 0, MAILBOX_CAPACITY + " khóa: chưa tràn");
+        BUS.publish(saved(MAILBOX_CAPACITY + 1, "Tràn"));
+        BUS.publish(new NoteEvent.ResyncRequired(USER_ID));
+        executor.runAll();
+        check(subscription.getOverflowCount() == 1, "khóa thứ " + (MAILBOX_CAPACITY + 1) + ": tràn một lần");
+        check(batches.size() == 1 && describe(batches.get(0)).equals(
+                List.of("NoteSaved:" + (MAILBOX_CAPACITY + 1), "ResyncRequired:0")),
+                "sự kiện đang chờ bị thay bằng một ResyncRequired " + describe(batches.get(0)));
+        System.out.println();
+
+        System.out.println("--- TEST 3: HANDLER LỖI / EXECUTOR TỪ CHỐI ---");
+        ManualExecutor failingExecutor = new ManualExecutor();
+        List<NoteEvent> received = new ArrayList<>();
+        DomainEventBus.Subscription failing = BUS.subscribe("test-failing", failingExecutor, batch -> {
+            received.addAll(batch);
+            throw new IllegalStateException("handler lỗi");
+        });
+        BUS.publish(saved(1, "Một"));
+        failingExecutor.runAll();
+        BUS.publish(saved(2, "Hai"));
+        failingExecutor.runAll();
+        check(received.size() == 2, "handler ném lỗi vẫn nhận lô tiếp theo");
+        failingExecutor.rejecting = true;
+        BUS.publish(saved(3, "Ba"));
+        failingExecutor.rejecting = false;
+        BUS.publish(saved(4, "Bốn"));
+        failingExecutor.runAll();
+        check(received.size() == 4, "executor từ chối một lần: sự kiện giữ lại, giao ở lượt sau");
+        BUS.unsubscribe(failing);
+        System.out.println();
+
+        System.out.println("--- TEST 4: HỦY ĐĂNG KÝ ---");
+        batches.clear();
+        int subscribers = BUS.getSubscriberCount();
+        BUS.publish(saved(1, "Chưa kịp giao"));
+        BUS.unsubscribe(subscription);
+        executor.runAll();
+        BUS.publish(saved(2, "Sau khi hủy"));
+        check(batches.isEmpty() && executor.tasks.isEmpty(), "hủy đăng ký: sự kiện còn chờ không được giao");
+        check(BUS.getSubscriberCount() == subscribers - 1, "số subscriber giảm 1");
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static NoteEvent saved(int noteId, String title) {
+        Note note = new Note();
+        note.setId(noteId);
+        note.setUserId(USER_ID);
+        note.setTitle(title);
+        return new NoteEvent.NoteSaved(note);
+    }
+
+    private static List<String> describe(List<NoteEvent> batch) {
+        List<String> names = new ArrayList<>();
+        for (NoteEvent event : batch) {
+            names.add(event.getClass().getSimpleName() + ":" + event.getNoteId());
+        }
+        return names;
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+
+    /**
+     * Executor chỉ xếp hàng; test tự chạy các lượt giao
+     */
+    private static final class ManualExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        boolean rejecting;
+
+        @Override
+        public void execute(Runnable task) {
+            if (rejecting) {
+                throw new RejectedExecutionException("executor đã dừng");
+            }
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
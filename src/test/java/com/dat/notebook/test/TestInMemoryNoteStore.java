@@ -0,0 +1,180 @@
+package com.dat.notebook.test;
+
+import com.dat.notebook.model.Note;
+import com.dat.notebook.util.InMemoryNoteStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * TestInMemoryNoteStore - Kiểm tra nhanh kho ghi chú offline trong bộ nhớ
+ *
+ * - Thêm / sửa / xóa, id tăng dần, thứ tự UpdatedAt DESC giống truy vấn DB
+ * - Index phụ (danh mục / trạng thái / yêu thích) theo kịp mọi lần sửa
+ * - Copy-on-read / copy-on-write: sửa object của caller không làm hỏng kho
+ * - restore / reserveIds không cấp lại id đã dùng
+ * - Ghi đồng thời từ nhiều thread: id không trùng, index khớp dữ liệu
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestInMemoryNoteStore {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== TEST IN-MEMORY NOTE STORE ===\n");
+
+        System.out.println("--- TEST 1: THÊM / SỬA / XÓA ---");
+        InMemoryNoteStore store = new InMemoryNoteStore();
+        Note first = newNote("Một", 1, Note.STATUS_REGULAR);
+        first.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 8, 0));
+        Note second = newNote("Hai", 2, Note.STATUS_REGULAR);
+        second.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 8, 0));
+        store.insertNote(first);
+        store.insertNote(second);
+        check(first.getId() == 1 && second.getId() == 2, "id cấp tăng dần và gán lên object của caller");
+        check(ids(store.getAllNotes()).equals(List.of(2, 1)), "getAllNotes: mới cập nhật trước");
+        first.setTitle("Một (sửa)");
+        check(store.updateNote(first), "updateNote ghi chú đã có");
+        check("Một (sửa)".equals(store.getNoteById(1).getTitle()), "đọc lại bản đã sửa");
+        check(ids(store.getAllNotes()).equals(List.of(1, 2)), "ghi chú vừa sửa lên đầu");
+        check(!store.updateNote(newNote("Không có", 0, null)), "updateNote id không tồn tại: false");
+        check(store.deleteNote(2) && !store.deleteNote(2) && store.getNoteById(2) == null,
+                "deleteNote: xóa được một lần, lần sau false");
+        check(store.size() == 1, "size = 1");
+        System.out.println();
+
+        System.out.println("--- TEST 2: INDEX PHỤ ---");
+        store = new InMemoryNoteStore();
+        Note note = newNote("Lọc", 3, Note.STATUS_REGULAR);
+        store.insertNote(note);
+        store.insertNote(newNote("Không danh mục", 0, null));
+        check(ids(store.getNotesByCategory(3)).equals(List.of(1)), "lọc theo danh mục 3");
+        check(ids(store.getNotesByCategory(0)).equals(List.of(2)), "danh mục null / 0 gom về 0");
+        check(store.getByStatus(Note.STATUS_REGULAR).size() == 2, "trạng thái mặc định là REGULAR");
+        note.setCategoryId(4);
+        note.setStatus(Note.STATUS_URGENT);
+        note.setFavorite(true);
+        store.updateNote(note);
+        check(store.getNotesByCategory(3).isEmpty() && ids(store.getNotesByCategory(4)).equals(List.of(1)),
+                "đổi danh mục: rời index cũ, vào index mới");
+        check(ids(store.getByStatus(Note.STATUS_URGENT)).equals(List.of(1))
+                && ids(store.getByStatus(Note.STATUS_REGULAR)).equals(List.of(2)), "đổi trạng thái");
+        check(ids(store.getFavorites()).equals(List.of(1)), "đánh dấu yêu thích");
+        store.deleteNote(1);
+        check(store.getNotesByCategory(4).isEmpty() && store.getFavorites().isEmpty()
+                && store.getByStatus(Note.STATUS_URGENT).isEmpty(), "xóa: rời mọi index");
+        check(store.getByStatus(null).isEmpty(), "getByStatus(null): rỗng");
+        check(ids(store.searchNotes("DANH MỤC")).equals(List.of(2)), "searchNotes không phân biệt hoa thường");
+        System.out.println();
+
+        System.out.println("--- TEST 3: COPY-ON-READ / COPY-ON-WRITE ---");
+        store = new InMemoryNoteStore();
+        note = newNote("Gốc", 5, Note.STATUS_REGULAR);
+        store.insertNote(note);
+        note.setTitle("Caller sửa sau khi insert");
+        note.setCategoryId(6);
+        check("Gốc".equals(store.getNoteById(1).getTitle()), "sửa object đã insert không đổi kho");
+        Note read = store.getNoteById(1);
+        read.setTitle("Caller sửa bản đọc");
+        read.setFavorite(true);
+        check("Gốc".equals(store.getNoteById(1).getTitle()) && store.getFavorites().isEmpty(),
+                "sửa bản đọc không đổi kho / index");
+        store.getAllNotes().get(0).setCategoryId(9);
+        check(ids(store.getNotesByCategory(5)).equals(List.of(1)), "sửa phần tử danh sách trả về không đổi index");
+        System.out.println();
+
+        System.out.println("--- TEST 4: RESTORE / RESERVE ID ---");
+        store = new InMemoryNoteStore();
+        Note restored = newNote("Khôi phục", 0, null);
+        restored.setId(10);
+        LocalDateTime updatedAt = LocalDateTime.of(2023, 5, 5, 5, 5);
+        restored.setUpdatedAt(updatedAt);
+        store.restore(restored);
+        check(updatedAt.equals(store.getNoteById(10).getUpdatedAt()), "restore giữ nguyên UpdatedAt");
+        check(store.getNextId() == 11, "restore id 10: id tiếp theo 11");
+        store.reserveIds(20);
+        store.reserveIds(15);
+        check(store.allocateId() == 21, "reserveIds(20) rồi reserveIds(15): cấp 21");
+        Note fresh = newNote("Mới", 0, null);
+        store.insertNote(fresh);
+        check(fresh.getId() == 22, "insert sau allocateId nhận 22");
+        System.out.println();
+
+        System.out.println("--- TEST 5: GHI ĐỒNG THỜI ---");
+        InMemoryNoteStore shared = new InMemoryNoteStore();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    Note own = newNote("T" + thread + "-" + i, thread % 4 + 1, Note.STATUS_REGULAR);
+                    shared.insertNote(own);
+                    own.setCategoryId(thread % 4 + 5);
+                    own.setFavorite(i % 2 == 0);
+                    shared.updateNote(own);
+                    if (i % 5 == 0) {
+                        shared.deleteNote(own.getId());
+                    }
+                }
+            });
+            threads.add(writer);
+            writer.start();
+        }
+        for (Thread writer : threads) {
+            writer.join();
+        }
+        List<Note> all = shared.getAllNotes();
+        check(new HashSet<>(ids(all)).size() == all.size() && all.size() == 8 * 400,
+                "8 thread: " + all.size() + " ghi chú, id không trùng");
+        int byCategory = 0;
+        for (int categoryId = 1; categoryId <= 8; categoryId++) {
+            byCategory += shared.getNotesByCategory(categoryId).size();
+        }
+        check(byCategory == all.size() && shared.getNotesByCategory(1).isEmpty(),
+                "index danh mục khớp dữ liệu (không còn id ở danh mục cũ)");
+        int expectedFavorites = 0;
+        for (Note each : all) {
+            expectedFavorites += each.isFavorite() ? 1 : 0;
+        }
+        check(shared.getFavorites().size() == expectedFavorites, "index yêu thích khớp dữ liệu");
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static Note newNote(String title, int categoryId, String status) {
+        Note note = new Note();
+        note.setTitle(title);
+        note.setContent("Nội dung " + title);
+        note.setCategoryId(categoryId);
+        note.setStatus(status);
+        return note;
+    }
+
+    private static List<Integer> ids(List<Note> notes) {
+        List<Integer> ids = new ArrayList<>();
+        for (Note note : notes) {
+            ids.add(note.getId());
+        }
+        return ids;
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+}
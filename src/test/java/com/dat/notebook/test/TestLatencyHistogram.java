@@ -0,0 +1,105 @@
+package com.dat.notebook.test;
+
+import com.dat.notebook.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TestLatencyHistogram - Kiểm tra nhanh histogram độ trễ của MetricsRegistry
+ *
+ * - Giá trị nhỏ (< 64µs) chính xác tuyệt đối, lớn hơn sai số tương đối ~3%
+ * - Percentile / mean / max, kẹp giá trị âm và quá lớn
+ * - Ghi đồng thời từ nhiều thread không mất mẫu
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestLatencyHistogram {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== TEST LATENCY HISTOGRAM ===\n");
+
+        System.out.println("--- TEST 1: RỖNG ---");
+        LatencyHistogram.Snapshot empty = new LatencyHistogram().snapshot();
+        check(empty.getCount() == 0 && empty.getP50Micros() == 0 && empty.getP99Micros() == 0
+                && empty.getMeanMicros() == 0 && empty.getMaxMicros() == 0, "snapshot rỗng toàn 0");
+        System.out.println();
+
+        System.out.println("--- TEST 2: GIÁ TRỊ NHỎ CHÍNH XÁC ---");
+        LatencyHistogram small = new LatencyHistogram();
+        for (int micros = 1; micros <= 60; micros++) {
+            small.recordMicros(micros);
+        }
+        LatencyHistogram.Snapshot s = small.snapshot();
+        check(s.getCount() == 60, "count = 60");
+        check(s.getP50Micros() == 30, "p50 của 1..60 = 30 (" + s.getP50Micros() + ")");
+        check(s.getP90Micros() == 54, "p90 của 1..60 = 54 (" + s.getP90Micros() + ")");
+        check(s.getP99Micros() == 60, "p99 của 1..60 = 60 (" + s.getP99Micros() + ")");
+        check(s.getMaxMicros() == 60 && s.getMeanMicros() == 30, "max = 60, mean = 30");
+        System.out.println();
+
+        System.out.println("--- TEST 3: SAI SỐ TƯƠNG ĐỐI ---");
+        double worst = 0;
+        for (long value = 64; value < 10_000_000_000L; value = value * 3 / 2 + 7) {
+            LatencyHistogram one = new LatencyHistogram();
+            one.recordMicros(value);
+            one.recordMicros(value * 2);
+            // p50 là mẫu nhỏ hơn; max kẹp giá trị đại diện của ô cao nhất
+            long p50 = one.snapshot().getP50Micros();
+            worst = Math.max(worst, Math.abs(p50 - value) / (double) value);
+        }
+        check(worst <= 0.035, String.format("sai số lớn nhất %.2f%% (≤ 3.5%%)", worst * 100));
+        LatencyHistogram nanos = new LatencyHistogram();
+        nanos.recordNanos(1_999);
+        check(nanos.snapshot().getMaxMicros() == 1, "recordNanos đổi sang µs (1999 ns -> 1 µs)");
+        System.out.println();
+
+        System.out.println("--- TEST 4: KẸP GIÁ TRỊ ---");
+        LatencyHistogram clamped = new LatencyHistogram();
+        clamped.recordMicros(-5);
+        check(clamped.snapshot().getMaxMicros() == 0 && clamped.snapshot().getP50Micros() == 0,
+                "giá trị âm kẹp về 0");
+        clamped.recordMicros(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot big = clamped.snapshot();
+        check(big.getMaxMicros() == (1L << 40) - 1, "giá trị quá lớn kẹp về 2^40 - 1 µs");
+        check(big.getP99Micros() <= big.getMaxMicros(), "percentile không vượt max");
+        System.out.println();
+
+        System.out.println("--- TEST 5: GHI ĐỒNG THỜI ---");
+        LatencyHistogram shared = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    shared.recordMicros(i % 1000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        check(shared.getCount() == 800_000 && shared.snapshot().getCount() == 800_000,
+                "8 thread x 100000 lần ghi = 800000 mẫu");
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.dat.notebook.test;
+
+import com.dat.notebook.util.VersionDelta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * TestVersionDelta - Kiểm tra nhanh delta giữa các version (keyframe + delta)
+ *
+ * - encode rồi apply phải ra đúng nội dung đích (rỗng, emoji, HTML lớn, ngẫu nhiên)
+ * - apply lên sai bản gốc bị từ chối
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestVersionDelta {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST VERSION DELTA ===\n");
+
+        System.out.println("--- TEST 1: ROUND-TRIP ---");
+        String base = "Dòng 1\nDòng 2\nDòng 3\nDòng 4\nDòng 5\n";
+        checkDelta("giống hệt", base, base);
+        checkDelta("gốc rỗng", "", base);
+        checkDelta("đích rỗng", base, "");
+        checkDelta("ngắn hơn một block", "abc", "abd");
+        checkDelta("emoji (cặp surrogate)", "Ghi chú 😀 " + base, "Ghi chú 😀😀 " + base + " 🎉");
+        checkDelta("HTML lớn", html(500), html(500).replace("đoạn 250", "đoạn hai trăm năm mươi"));
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            String older = randomLines(random, 200);
+            checkDelta("ngẫu nhiên #" + round, older, mutateLines(random, older));
+        }
+        System.out.println();
+
+        System.out.println("--- TEST 2: SAI BẢN GỐC ---");
+        try {
+            VersionDelta.apply(base + "x", VersionDelta.encode(base, base + "!"));
+            check(false, "apply với gốc khác phải ném IllegalStateException");
+        } catch (IllegalStateException e) {
+            check(true, "apply với gốc khác ném IllegalStateException");
+        }
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static void checkDelta(String label, String older, String newer) {
+        byte[] delta = VersionDelta.encode(older, newer);
+        check(newer.equals(VersionDelta.apply(older, delta)),
+                "VersionDelta: " + label + " (" + delta.length + " bytes)");
+    }
+
+    private static String randomLines(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("dòng ").append(random.nextInt(count / 2 + 1)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Xóa / thêm / sửa ngẫu nhiên khoảng 10% số dòng
+     */
+    private static String mutateLines(Random random, String text) {
+        List<String> lines = new ArrayList<>(Arrays.asList(text.split("(?<=\n)")));
+        int edits = Math.max(1, lines.size() / 10);
+        for (int i = 0; i < edits; i++) {
+            int at = random.nextInt(lines.size());
+            switch (random.nextInt(3)) {
+                case 0:
+                    lines.remove(at);
+                    break;
+                case 1:
+                    lines.add(at, "mới " + random.nextInt(1000) + "\n");
+                    break;
+                default:
+                    lines.set(at, "sửa " + random.nextInt(1000) + "\n");
+                    break;
+            }
+        }
+        return String.join("", lines);
+    }
+
+    private static String html(int paragraphs) {
+        StringBuilder sb = new StringBuilder("<html><body>");
+        for (int i = 0; i < paragraphs; i++) {
+            sb.append("<p>Nội dung đoạn ").append(i).append(" của ghi chú</p>");
+        }
+        return sb.append("</body></html>").toString();
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.dat.notebook.test;
+
+import com.dat.notebook.util.TextDiff;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * TestVersionDiff - Kiểm tra nhanh diff của version history
+ *
+ * - TextDiff: dựng lại bản mới từ bản cũ + các hunk (CLASSIC và LINEAR_SPACE)
+ * - Ngẫu nhiên và nội dung vượt CLASSIC_MAX_TOKENS
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestVersionDiff {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST VERSION DIFF ===\n");
+
+        System.out.println("--- TEST 1: TEXTDIFF ROUND-TRIP ---");
+        String base = "Dòng 1\nDòng 2\nDòng 3\nDòng 4\nDòng 5\n";
+        checkTextDiff("giống hệt", base, base);
+        checkTextDiff("bản cũ rỗng", "", base);
+        checkTextDiff("bản mới rỗng", base, "");
+        checkTextDiff("sửa một dòng", base, base.replace("Dòng 3\n", "Dòng ba\n"));
+        checkTextDiff("thêm đầu + xóa cuối", base, "Dòng 0\n" + base.replace("Dòng 5\n", ""));
+        checkTextDiff("dòng cuối không có \\n", base, base + "Dòng 6");
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            String older = randomLines(random, 60);
+            checkTextDiff("ngẫu nhiên #" + round, older, mutateLines(random, older));
+        }
+        String large = randomLines(random, 1500);
+        checkTextDiff("vượt CLASSIC_MAX_TOKENS", large, mutateLines(random, large));
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== CHECKS ====================
+
+    private static void checkTextDiff(String label, String older, String newer) {
+        for (TextDiff.Mode mode : new TextDiff.Mode[] {TextDiff.Mode.CLASSIC, TextDiff.Mode.LINEAR_SPACE}) {
+            List<String> oldLines = TextDiff.splitLines(older);
+            List<String> newLines = TextDiff.splitLines(newer);
+            TextDiff.Result result = TextDiff.diff(oldLines, newLines, 2, mode, 0);
+            boolean ok = newer.equals(applyHunks(oldLines, newLines, result))
+                    && result.isIdentical() == older.equals(newer);
+            check(ok, "TextDiff " + mode + ": " + label);
+        }
+    }
+
+    /**
+     * Dựng lại bản mới từ bản cũ và các hunk; null nếu hunk không khớp bản cũ
+     * hoặc vị trí newStart / newLength sai
+     */
+    private static String applyHunks(List<String> oldLines, List<String> newLines, TextDiff.Result result) {
+        StringBuilder out = new StringBuilder();
+        int position = 0;
+        for (TextDiff.Hunk hunk : result.hunks) {
+            if (hunk.oldStart < position) {
+                return null;
+            }
+            out.append(join(oldLines, position, hunk.oldStart));
+
+            StringBuilder before = new StringBuilder();
+            StringBuilder after = new StringBuilder();
+            for (TextDiff.Edit edit : hunk.edits) {
+                if (edit.op != TextDiff.Op.INSERT) {
+                    before.append(edit.text);
+                }
+                if (edit.op != TextDiff.Op.DELETE) {
+                    after.append(edit.text);
+                }
+            }
+            if (!before.toString().equals(join(oldLines, hunk.oldStart, hunk.oldStart + hunk.oldLength))
+                    || !after.toString().equals(join(newLines, hunk.newStart, hunk.newStart + hunk.newLength))) {
+                return null;
+            }
+            out.append(after);
+            position = hunk.oldStart + hunk.oldLength;
+        }
+        out.append(join(oldLines, position, oldLines.size()));
+        return out.toString();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static String join(List<String> lines, int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            sb.append(lines.get(i));
+        }
+        return sb.toString();
+    }
+
+    private static String randomLines(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("dòng ").append(random.nextInt(count / 2 + 1)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Xóa / thêm / sửa ngẫu nhiên khoảng 10% số dòng
+     */
+    private static String mutateLines(Random random, String text) {
+        List<String> lines = new ArrayList<>(TextDiff.splitLines(text));
+        int edits = Math.max(1, lines.size() / 10);
+        for (int i = 0; i < edits; i++) {
+            int at = lines.isEmpty() ? 0 : random.nextInt(lines.size());
+            switch (random.nextInt(3)) {
+                case 0:
+                    if (!lines.isEmpty()) {
+                        lines.remove(at);
+                    }
+                    break;
+                case 1:
+                    lines.add(at, "mới " + random.nextInt(1000) + "\n");
+                    break;
+                default:
+                    if (!lines.isEmpty()) {
+                        lines.set(at, "sửa " + random.nextInt(1000) + "\n");
+                    }
+                    break;
+            }
+        }
+        return String.join("", lines);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.dat.notebook.test;
+
+import com.dat.notebook.util.VersionRetentionPolicy;
+import com.dat.notebook.util.VersionRetentionPolicy.VersionStamp;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TestVersionRetention - Kiểm tra nhanh ranh giới các bậc giữ version
+ *
+ * Chính sách 24h / 7 ngày / 30 ngày: giữ hết trong 24h, rồi mỗi giờ một
+ * bản, mỗi ngày một bản, mỗi tuần một bản. Bucket căn theo epoch nên mốc
+ * thời gian được dựng từ epoch giây (tránh phụ thuộc múi giờ máy chạy).
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestVersionRetention {
+
+    private static final long HOUR = 3600;
+    private static final long DAY = 24 * HOUR;
+    private static final long WEEK = 7 * DAY;
+
+    /** "Bây giờ": giữa tuần, giữa ngày, phút 30 - không trùng ranh giới bucket nào */
+    private static final long NOW = 2900 * WEEK + 3 * DAY + 12 * HOUR + 30 * 60;
+
+    private static final VersionRetentionPolicy POLICY = new VersionRetentionPolicy(24, 7, 30, 200);
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST VERSION RETENTION ===");
+        System.out.println("Policy: " + POLICY + "\n");
+
+        System.out.println("--- TEST 1: GIỮ TẤT CẢ (24H) ---");
+        expectExpired("cùng giờ, tuổi đúng 24h và 24h - 1 phút: giữ cả hai",
+                POLICY, 0, NOW - DAY, NOW - DAY + 60);
+        expectExpired("cùng giờ, tuổi 24h + 1s và 24h + 2s: xóa bản cũ",
+                POLICY, 1, NOW - DAY - 2, NOW - DAY - 1);
+        System.out.println();
+
+        System.out.println("--- TEST 2: MỖI GIỜ MỘT BẢN (ĐẾN 7 NGÀY) ---");
+        long hour = floor(NOW - 2 * DAY, HOUR);
+        expectExpired("cùng giờ (10 và 50 phút): xóa bản cũ",
+                POLICY, 1, hour + 10 * 60, hour + 50 * 60);
+        expectExpired("hai giờ liền kề (59 phút và giờ sau 1 phút): giữ cả hai",
+                POLICY, 0, hour + 59 * 60, hour + HOUR + 60);
+        long lastHourly = floor(NOW - 7 * DAY, HOUR) + HOUR;
+        expectExpired("hai giờ khác nhau, tuổi vừa dưới 7 ngày: giữ cả hai",
+                POLICY, 0, lastHourly + 60, lastHourly + HOUR + 60);
+        System.out.println();
+
+        System.out.println("--- TEST 3: MỖI NGÀY MỘT BẢN (ĐẾN 30 NGÀY) ---");
+        long day = floor(NOW - 10 * DAY, DAY);
+        expectExpired("cùng ngày, khác giờ (tuổi 10 ngày): xóa bản cũ",
+                POLICY, 1, day + 2 * HOUR, day + 20 * HOUR);
+        expectExpired("hai ngày liền kề: giữ cả hai",
+                POLICY, 0, day + 23 * HOUR, day + DAY + HOUR);
+        long lastDaily = floor(NOW - 30 * DAY, DAY) + DAY;
+        expectExpired("hai ngày khác nhau, tuổi vừa dưới 30 ngày: giữ cả hai",
+                POLICY, 0, lastDaily + HOUR, lastDaily + DAY + HOUR);
+        System.out.println();
+
+        System.out.println("--- TEST 4: MỖI TUẦN MỘT BẢN (CŨ HƠN 30 NGÀY) ---");
+        long week = floor(NOW - 60 * DAY, WEEK);
+        expectExpired("cùng tuần, cách 3 ngày (tuổi ~60 ngày): xóa bản cũ",
+                POLICY, 1, week + DAY, week + 4 * DAY);
+        expectExpired("hai tuần liền kề: giữ cả hai",
+                POLICY, 0, week + 6 * DAY, week + WEEK + DAY);
+        System.out.println();
+
+        System.out.println("--- TEST 5: BẢN MỚI NHẤT VÀ maxPerNote ---");
+        expectExpired("chỉ một version, cũ 1 năm: vẫn giữ",
+                POLICY, 0, NOW - 365 * DAY);
+        long old = floor(NOW - 60 * DAY, WEEK) + DAY;
+        expectExpired("bản mới nhất cùng tuần với bản cũ hơn: giữ bản mới nhất",
+                POLICY, 1, old, old + HOUR);
+        VersionRetentionPolicy capped = new VersionRetentionPolicy(24, 7, 30, 3);
+        Set<Integer> expired = capped.selectExpired(
+                stamps(NOW - 5 * HOUR, NOW - 4 * HOUR, NOW - 3 * HOUR, NOW - 2 * HOUR, NOW - HOUR),
+                at(NOW));
+        check(expired.equals(Set.of(1, 2)), "maxPerNote=3, 5 bản trong 24h: xóa 2 bản cũ nhất " + expired);
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * @param epochSeconds Thời điểm tạo các version, cũ trước (VersionID = thứ tự, bắt đầu từ 1)
+     */
+    private static void expectExpired(String label, VersionRetentionPolicy policy, int expectedCount,
+                                      long... epochSeconds) {
+        Set<Integer> expired = policy.selectExpired(stamps(epochSeconds), at(NOW));
+        boolean ok = expired.size() == expectedCount;
+        // Bản bị xóa luôn là bản cũ hơn trong bucket (VersionID nhỏ hơn)
+        for (int id = epochSeconds.length - expectedCount + 1; ok && id <= epochSeconds.length; id++) {
+            ok = !expired.contains(id);
+        }
+        check(ok, label + " " + expired);
+    }
+
+    private static List<VersionStamp> stamps(long... epochSeconds) {
+        List<VersionStamp> stamps = new ArrayList<>();
+        for (int i = 0; i < epochSeconds.length; i++) {
+            stamps.add(new VersionStamp(i + 1, i + 1, at(epochSeconds[i])));
+        }
+        return stamps;
+    }
+
+    private static LocalDateTime at(long epochSeconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds), ZoneId.systemDefault());
+    }
+
+    private static long floor(long epochSeconds, long width) {
+        return Math.floorDiv(epochSeconds, width) * width;
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.dat.notebook.test;
+
+import com.dat.notebook.util.WriteBehindCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TestWriteBehindCounter - Kiểm tra nhanh bộ đếm ghi trễ (ViewCount)
+ *
+ * - Tăng đồng thời từ nhiều thread không mất lần tăng nào
+ * - Flush lỗi (không có DB / bảng không tồn tại) rollback và trả lại
+ *   đúng delta; flush chạy song song với increment không đếm trùng / sót
+ *
+ * Chạy main() - không cần DB (có DB thì flush vào bảng không tồn tại nên
+ * vẫn đi nhánh rollback). Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestWriteBehindCounter {
+
+    /** Bảng không tồn tại: flush luôn lỗi và phải trả lại delta */
+    private static final String SQL_MISSING_TABLE =
+        "UPDATE WriteBehindCounterTest_Missing SET Hits = Hits + ? WHERE ID = ?";
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== TEST WRITE-BEHIND COUNTER ===\n");
+        // Chu kỳ flush định kỳ rất dài - test tự gọi flush()
+        WriteBehindCounter counter = new WriteBehindCounter("test", SQL_MISSING_TABLE, 3600);
+
+        System.out.println("--- TEST 1: TĂNG ĐỒNG THỜI ---");
+        runThreads(8, () -> {
+            for (int i = 0; i < 50_000; i++) {
+                counter.increment(i % 4 + 1);
+            }
+        });
+        long total = 0;
+        for (int id = 1; id <= 4; id++) {
+            total += counter.getPending(id);
+        }
+        check(total == 400_000 && counter.getPending(1) == 100_000,
+                "8 thread x 50000 lần tăng trên 4 ID = " + total);
+        check(counter.getPending(99) == 0, "ID chưa tăng: pending = 0");
+        System.out.println();
+
+        System.out.println("--- TEST 2: FLUSH LỖI TRẢ LẠI DELTA ---");
+        int flushed = counter.flush();
+        total = 0;
+        for (int id = 1; id <= 4; id++) {
+            total += counter.getPending(id);
+        }
+        check(flushed == 0, "flush lỗi trả về 0 dòng");
+        check(total == 400_000, "delta được trả lại đủ sau rollback (" + total + ")");
+        System.out.println();
+
+        System.out.println("--- TEST 3: FLUSH SONG SONG VỚI INCREMENT ---");
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (running.get()) {
+                counter.flush();
+            }
+        });
+        flusher.start();
+        runThreads(4, () -> {
+            for (int i = 0; i < 25_000; i++) {
+                counter.increment(7);
+            }
+        });
+        running.set(false);
+        flusher.join();
+        check(counter.getPending(7) == 100_000,
+                "100000 lần tăng trong lúc flush/rollback liên tục: pending = " + counter.getPending(7));
+        System.out.println();
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static void runThreads(int count, Runnable work) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < count; t++) {
+            Thread thread = new Thread(work);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+}
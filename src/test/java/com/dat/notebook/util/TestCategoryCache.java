@@ -0,0 +1,158 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.model.Category;
+import com.dat.notebook.model.Note;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TestCategoryCache - Kiểm tra nhanh cache danh mục theo user của CategoryDAO
+ *
+ * - Lần đọc đầu truy vấn DB, các lần sau lấy từ cache
+ * - invalidate / invalidateAll buộc lần đọc sau truy vấn lại
+ * - Kết quả tải về trong lúc cache bị invalidate (generation đã đổi) không được cache
+ * - Không đọc được DB: không cache, resolveCategories để trống danh mục
+ *
+ * Cùng package với CategoryDAO vì queryCategories chỉ dùng nội bộ
+ * (package-private) - test thay DB bằng danh sách giả.
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestCategoryCache {
+
+    private static final int USER_ID = 7;
+    private static final int OTHER_USER_ID = 8;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST CATEGORY CACHE ===\n");
+        CategoryDAO.invalidateAll();
+
+        System.out.println("--- TEST 1: CACHE HIT ---");
+        FakeCategoryDAO dao = new FakeCategoryDAO();
+        dao.rows = List.of(category(1, "Công việc"), category(2, "Cá nhân"));
+        List<Category> first = dao.getCategoriesByUser(USER_ID);
+        dao.getCategoriesByUser(USER_ID);
+        Note note = new Note();
+        note.setCategoryId(2);
+        dao.resolveCategories(USER_ID, List.of(note));
+        check(dao.queries == 1, "3 lần đọc, 1 lần truy vấn DB (" + dao.queries + ")");
+        check(first.size() == 2 && note.getCategory() != null && "Cá nhân".equals(note.getCategory().getName()),
+                "resolveCategories dùng danh mục trong cache");
+        first.get(0).setName("Caller sửa");
+        check("Công việc".equals(dao.getCategoriesByUser(USER_ID).get(0).getName()),
+                "sửa bản trả về không đổi cache");
+        System.out.println();
+
+        System.out.println("--- TEST 2: INVALIDATE ---");
+        dao.rows = List.of(category(1, "Công việc (đổi tên)"));
+        dao.getCategoriesByUser(OTHER_USER_ID);
+        int before = dao.queries;
+        CategoryDAO.invalidate(USER_ID);
+        check("Công việc (đổi tên)".equals(dao.getCategoriesByUser(USER_ID).get(0).getName())
+                && dao.queries == before + 1, "invalidate(user): lần đọc sau truy vấn lại");
+        dao.getCategoriesByUser(OTHER_USER_ID);
+        check(dao.queries == before + 1, "cache của user khác giữ nguyên");
+        CategoryDAO.invalidateAll();
+        dao.getCategoriesByUser(USER_ID);
+        dao.getCategoriesByUser(OTHER_USER_ID);
+        check(dao.queries == before + 3, "invalidateAll: mọi user truy vấn lại");
+        System.out.println();
+
+        System.out.println("--- TEST 3: INVALIDATE TRONG LÚC ĐANG TẢI ---");
+        CategoryDAO.invalidateAll();
+        dao.rows = List.of(category(1, "Bản cũ"));
+        // Ghi (vd. đổi tên) commit và invalidate sau khi SELECT đã đọc bản cũ
+        dao.duringQuery = () -> CategoryDAO.invalidate(USER_ID);
+        List<Category> stale = dao.getCategoriesByUser(USER_ID);
+        dao.duringQuery = null;
+        dao.rows = List.of(category(1, "Bản mới"));
+        before = dao.queries;
+        List<Category> fresh = dao.getCategoriesByUser(USER_ID);
+        check("Bản cũ".equals(stale.get(0).getName()), "lần đọc đang chạy vẫn trả kết quả của nó");
+        check(dao.queries == before + 1 && "Bản mới".equals(fresh.get(0).getName()),
+                "kết quả tải trước invalidate không vào cache: lần sau đọc bản mới");
+        dao.duringQuery = () -> CategoryDAO.invalidate(OTHER_USER_ID);
+        CategoryDAO.invalidate(USER_ID);
+        dao.getCategoriesByUser(USER_ID);
+        dao.duringQuery = null;
+        before = dao.queries;
+        dao.getCategoriesByUser(USER_ID);
+        check(dao.queries == before + 1, "invalidate user khác cũng đổi generation: không cache (an toàn)");
+        System.out.println();
+
+        System.out.println("--- TEST 4: KHÔNG ĐỌC ĐƯỢC DB ---");
+        CategoryDAO.invalidateAll();
+        dao.rows = null;
+        Note unresolved = new Note();
+        unresolved.setCategoryId(1);
+        dao.resolveCategories(USER_ID, List.of(unresolved));
+        check(unresolved.getCategory() == null && dao.resolveCategoryName(USER_ID, 1) == null,
+                "không có kết nối: để trống danh mục (không dùng danh mục mẫu)");
+        dao.failure = new SQLException("mất kết nối", "08S01");
+        check(dao.resolveCategoryName(USER_ID, 1) == null, "SQLException: để trống danh mục");
+        dao.failure = null;
+        dao.rows = List.of(category(1, "Đã kết nối lại"));
+        before = dao.queries;
+        check("Đã kết nối lại".equals(dao.resolveCategoryName(USER_ID, 1)) && dao.queries == before + 1,
+                "lỗi không bị cache: kết nối lại thì đọc được");
+        System.out.println();
+
+        CategoryDAO.invalidateAll();
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static Category category(int id, String name) {
+        Category category = new Category(id, name, "#4CAF50");
+        category.setUserId(USER_ID);
+        return category;
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+
+    /**
+     * CategoryDAO đọc danh sách giả thay cho bảng Categories
+     */
+    private static final class FakeCategoryDAO extends CategoryDAO {
+        List<Category> rows;
+        SQLException failure;
+        Runnable duringQuery;
+        int queries;
+
+        @Override
+        List<Category> queryCategories(int userId) throws SQLException {
+            queries++;
+            if (failure != null) {
+                throw failure;
+            }
+            if (duringQuery != null) {
+                duringQuery.run();
+            }
+            if (rows == null) {
+                return null;
+            }
+            List<Category> result = new ArrayList<>();
+            for (Category row : rows) {
+                result.add(row.copy());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.dat.notebook.util;
+
+import com.dat.notebook.model.Note;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * TestNoteSyncEngine - Kiểm tra nhanh đồng bộ kho cục bộ với server (push / pull)
+ *
+ * - Ghi chú tạo offline (id âm) được đổi sang NoteID thật sau push
+ * - Server chỉ đổi cột phụ: thay đổi cục bộ vẫn thắng
+ * - Hai phía cùng sửa: bản server thắng, bản cục bộ thành "(bản xung đột)", không mất dữ liệu
+ * - Lỗi của một ghi chú chỉ rollback tới savepoint của nó, các ghi chú khác vẫn commit
+ * - Deadlock (1205) / transaction doomed: cả batch bị hủy, không completion nào áp dụng
+ *
+ * Cùng package với NoteSyncEngine vì syncOnce và constructor của
+ * NoteSyncRemote.Row / Changes chỉ dùng nội bộ (package-private).
+ * Server giả lập trong bộ nhớ, Connection giả bằng Proxy.
+ *
+ * Chạy main() - KHÔNG CẦN DB / UI. Thoát với mã 1 nếu có kiểm tra lỗi.
+ *
+ * @author SmartNotebook Team
+ */
+public class TestNoteSyncEngine {
+
+    private static final int USER_ID = 7;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws IOException, SQLException {
+        System.out.println("=== TEST NOTE SYNC ENGINE ===\n");
+
+        System.out.println("--- TEST 1: ĐỔI ID TẠM SAU PUSH ---");
+        FakeRemote remote = new FakeRemote();
+        FakeConnection fake = new FakeConnection();
+        try (NoteSyncEngine engine = newEngine(remote)) {
+            Note note = newNote("Ghi chú offline");
+            engine.insertNote(note);
+            int tempId = note.getId();
+            check(tempId < 0, "ghi chú tạo offline mang id tạm âm (" + tempId + ")");
+            engine.syncOnce(fake.connection, USER_ID);
+            Note synced = engine.getNoteById(tempId);
+            check(synced != null && synced.getId() == 500 && remote.server.containsKey(500),
+                    "id tạm " + tempId + " -> NoteID " + (synced != null ? synced.getId() : null));
+            check(engine.getPendingCount() == 0 && engine.getAllNotes().size() == 1,
+                    "outbox rỗng, chỉ còn một bản cục bộ");
+            check(fake.commits == 1 && fake.savepointRollbacks == 0, "batch commit một lần");
+            System.out.println();
+
+            System.out.println("--- TEST 2: SERVER CHỈ ĐỔI CỘT PHỤ ---");
+            Note local = engine.getNoteById(500);
+            local.setTitle("Sửa cục bộ");
+            engine.updateNote(local);
+            remote.bumpViewCount(500);
+            engine.syncOnce(fake.connection, USER_ID);
+            engine.syncOnce(fake.connection, USER_ID);
+            check("Sửa cục bộ".equals(remote.titleOf(500)), "bản sửa cục bộ lên server: " + remote.titleOf(500));
+            check(engine.getPendingCount() == 0 && engine.getAllNotes().size() == 1,
+                    "không sinh bản xung đột");
+            System.out.println();
+
+            System.out.println("--- TEST 3: HAI PHÍA CÙNG SỬA ---");
+            local = engine.getNoteById(500);
+            local.setTitle("Bản cục bộ");
+            engine.updateNote(local);
+            remote.editTitle(500, "Bản server");
+            engine.syncOnce(fake.connection, USER_ID);
+            engine.syncOnce(fake.connection, USER_ID);
+            Set<String> localTitles = titles(engine.getAllNotes());
+            check("Bản server".equals(remote.titleOf(500)), "bản server thắng ở NoteID 500");
+            check(localTitles.equals(Set.of("Bản server", "Bản cục bộ (bản xung đột)")),
+                    "giữ cả hai bản cục bộ " + localTitles);
+            check(remote.titles().equals(localTitles) && engine.getPendingCount() == 0,
+                    "bản xung đột đã lên server " + remote.titles());
+        }
+        System.out.println();
+
+        System.out.println("--- TEST 4: LỖI MỘT GHI CHÚ - ROLLBACK TỚI SAVEPOINT ---");
+        remote = new FakeRemote();
+        fake = new FakeConnection();
+        try (NoteSyncEngine engine = newEngine(remote)) {
+            engine.insertNote(newNote("Hợp lệ 1"));
+            Note bad = newNote("Sai dữ liệu");
+            engine.insertNote(bad);
+            engine.insertNote(newNote("Hợp lệ 2"));
+            remote.failTitle = "Sai dữ liệu";
+            remote.failure = new SQLException("CHECK constraint", "23000", 547);
+            engine.syncOnce(fake.connection, USER_ID);
+            check(remote.titles().equals(Set.of("Hợp lệ 1", "Hợp lệ 2")), "các ghi chú khác vẫn commit "
+                    + remote.titles());
+            check(fake.savepointRollbacks == 1 && fake.rollbacks == 0 && fake.commits == 1,
+                    "rollback tới savepoint, batch vẫn commit");
+            check(engine.getPendingCount() == 1 && engine.getNoteById(bad.getId()) != null,
+                    "ghi chú lỗi còn chờ trong outbox, giữ id tạm");
+        }
+        System.out.println();
+
+        System.out.println("--- TEST 5: DEADLOCK 1205 HỦY CẢ BATCH ---");
+        checkBatchAborted(new SQLException("deadlock victim", "40001", 1205), 1, "deadlock 1205");
+
+        System.out.println("--- TEST 6: TRANSACTION DOOMED (XACT_STATE = -1) ---");
+        checkBatchAborted(new SQLException("arithmetic overflow", "22003", 8115), -1, "XACT_STATE = -1");
+
+        System.out.println(failures == 0 ? "=== ALL TESTS PASSED ===" : "=== " + failures + " TEST(S) FAILED ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Ghi chú thứ hai trong batch lỗi: syncOnce phải ném lỗi, rollback cả
+     * transaction và không áp dụng completion của ghi chú thứ nhất
+     */
+    private static void checkBatchAborted(SQLException error, int transactionState, String label)
+            throws IOException {
+        FakeRemote remote = new FakeRemote();
+        FakeConnection fake = new FakeConnection();
+        try (NoteSyncEngine engine = newEngine(remote)) {
+            Note first = newNote("Đứng trước");
+            engine.insertNote(first);
+            engine.insertNote(newNote("Gây lỗi"));
+            remote.failTitle = "Gây lỗi";
+            remote.failure = error;
+            remote.transactionState = transactionState;
+            try {
+                engine.syncOnce(fake.connection, USER_ID);
+                check(false, label + ": syncOnce phải ném SQLException");
+            } catch (SQLException e) {
+                check(e == error, label + ": syncOnce ném lại lỗi gốc");
+            }
+            check(fake.rollbacks == 1 && fake.commits == 0 && fake.savepointRollbacks == 0,
+                    label + ": rollback toàn bộ transaction, không commit");
+            check(engine.getPendingCount() == 2 && engine.getNoteById(first.getId()) != null
+                    && engine.getNoteById(first.getId()).getId() < 0,
+                    label + ": không completion nào áp dụng (2 chờ, id tạm giữ nguyên)");
+        }
+        System.out.println();
+    }
+
+    private static NoteSyncEngine newEngine(NoteSyncRemote remote) throws IOException {
+        Path dir = Files.createTempDirectory("sync-test");
+        return new NoteSyncEngine(new LocalNoteBackend(dir), remote, dir, 50, () -> USER_ID);
+    }
+
+    private static Note newNote(String title) {
+        Note note = new Note();
+        note.setUserId(USER_ID);
+        note.setTitle(title);
+        note.setContent(title);
+        return note;
+    }
+
+    private static Set<String> titles(List<Note> notes) {
+        Set<String> titles = new HashSet<>();
+        for (Note note : notes) {
+            titles.add(note.getTitle());
+        }
+        return titles;
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) {
+            System.out.println("✓ " + message);
+        } else {
+            failures++;
+            System.out.println("✗ " + message);
+        }
+    }
+
+    // ==================== FAKES ====================
+
+    /**
+     * Bảng Notes trong bộ nhớ: rowversion tăng sau mọi thay đổi, NoteID cấp từ 500
+     */
+    private static final class FakeRemote extends NoteSyncRemote {
+        final Map<Integer, Row> server = new TreeMap<>();
+        long rowVersion = 100;
+        int nextId = 500;
+        String failTitle;
+        SQLException failure;
+        int transactionState = 1;
+
+        @Override
+        public Changes findChangedSince(Connection conn, int userId, long token) {
+            List<Row> rows = new ArrayList<>();
+            for (Row row : server.values()) {
+                if (row.version > token) {
+                    rows.add(new Row(row.note.copy(), row.version));
+                }
+            }
+            return new Changes(rows, rowVersion);
+        }
+
+        @Override
+        public Row findForSync(Connection conn, int noteId, int userId) {
+            Row row = server.get(noteId);
+            return row != null ? new Row(row.note.copy(), row.version) : null;
+        }
+
+        @Override
+        public Set<Integer> findIds(Connection conn, int userId) {
+            return new HashSet<>(server.keySet());
+        }
+
+        @Override
+        public long insertForSync(Connection conn, Note note) throws SQLException {
+            failIfMarked(note);
+            note.setId(nextId++);
+            server.put(note.getId(), new Row(note.copy(), ++rowVersion));
+            return rowVersion;
+        }
+
+        @Override
+        public long updateIfUnchanged(Connection conn, Note note, long expectedVersion) throws SQLException {
+            failIfMarked(note);
+            Row row = server.get(note.getId());
+            if (row == null || row.version != expectedVersion) {
+                return 0;
+            }
+            server.put(note.getId(), new Row(note.copy(), ++rowVersion));
+            return rowVersion;
+        }
+
+        @Override
+        public boolean deleteIfUnchanged(Connection conn, int noteId, int userId, long expectedVersion) {
+            Row row = server.get(noteId);
+            if (row == null || row.version != expectedVersion) {
+                return false;
+            }
+            server.remove(noteId);
+            return true;
+        }
+
+        @Override
+        public int transactionState(Connection conn) {
+            return transactionState;
+        }
+
+        void bumpViewCount(int noteId) {
+            Note note = server.get(noteId).note.copy();
+            note.setViewCount(note.getViewCount() + 1);
+            server.put(noteId, new Row(note, ++rowVersion));
+        }
+
+        void editTitle(int noteId, String title) {
+            Note note = server.get(noteId).note.copy();
+            note.setTitle(title);
+            server.put(noteId, new Row(note, ++rowVersion));
+        }
+
+        String titleOf(int noteId) {
+            Row row = server.get(noteId);
+            return row != null ? row.note.getTitle() : null;
+        }
+
+        Set<String> titles() {
+            Set<String> titles = new HashSet<>();
+            for (Row row : server.values()) {
+                titles.add(row.note.getTitle());
+            }
+            return titles;
+        }
+
+        private void failIfMarked(Note note) throws SQLException {
+            if (failure != null && note.getTitle().equals(failTitle)) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Connection giả: chỉ đếm commit / rollback / rollback tới savepoint
+     */
+    private static final class FakeConnection {
+        int commits;
+        int rollbacks;
+        int savepointRollbacks;
+        final Connection connection;
+
+        FakeConnection() {
+            ClassLoader loader = TestNoteSyncEngine.class.getClassLoader();
+            connection = (Connection) Proxy.newProxyInstance(loader, new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setSavepoint":
+                            return Proxy.newProxyInstance(loader, new Class<?>[] {Savepoint.class},
+                                (sp, spMethod, spArgs) -> spMethod.getReturnType() == int.class ? 0 : null);
+                        case "commit":
+                            commits++;
+                            return null;
+                        case "rollback":
+                            if (args != null && args.length == 1) {
+                                savepointRollbacks++;
+                            } else {
+                                rollbacks++;
+                            }
+                            return null;
+                        default:
+                            return method.getReturnType() == boolean.class ? false : null;
+                    }
+                });
+        }
+    }
+}